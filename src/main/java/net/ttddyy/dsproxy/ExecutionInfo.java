@@ -25,6 +25,7 @@ public class ExecutionInfo {
     private int batchSize;
     private Statement statement;
     private ResultSet generatedKeys;
+    private volatile boolean cancelled;  // set by a watchdog thread
     private Map<String, Object> customValues = new HashMap<String, Object>();
 
     public ExecutionInfo() {
@@ -191,6 +192,21 @@ public class ExecutionInfo {
         this.generatedKeys = generatedKeys;
     }
 
+    /**
+     * @return {@code true} when the statement was cancelled by {@link net.ttddyy.dsproxy.listener.QueryWatchdogListener}
+     * @since 1.6
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @since 1.6
+     */
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
     /**
      * Store key/value pair.
      *
@@ -211,4 +227,13 @@ public class ExecutionInfo {
         return type.cast(this.customValues.get(key));
     }
 
+    /**
+     * Remove all stored key/value pairs.
+     *
+     * @since 1.6
+     */
+    public void clearCustomValues() {
+        this.customValues.clear();
+    }
+
 }
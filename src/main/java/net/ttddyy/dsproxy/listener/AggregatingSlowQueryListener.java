@@ -0,0 +1,345 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.explain.ExplainPlanCollector;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slow query listener that aggregates slow queries by their fingerprint instead of reporting each execution.
+ *
+ * For each fingerprint(see {@link QueryUtils#getFingerprint(String)}), it keeps the number of slow executions,
+ * total and max elapsed time, and the query and parameters of the slowest execution as a sample.
+ * Number of fingerprints to keep is bounded by {@link #setMaxFingerprints(int)}. When the limit is reached, the
+ * fingerprint with the smallest total time is evicted.
+ *
+ * The ranked list is available via {@link #getTopSlowQueries(int)}. When report interval is set by
+ * {@link #setReportInterval(long, TimeUnit)}, {@link #onReport(List, long)} callback is periodically called with
+ * the top slow queries.
+ *
+ * When {@link ExplainPlanCollector} is set, execution plan of each fingerprint is captured on a separate connection
+ * and available via {@link SlowQueryStats#getExplainPlan()}.
+ *
+ * Statistics are recorded when slow queries have finished, so that actual elapsed time is aggregated.
+ * The unit of time is determined by the {@link net.ttddyy.dsproxy.proxy.Stopwatch} configured on the proxy.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class AggregatingSlowQueryListener extends SlowQueryListener {
+
+    /**
+     * Aggregated statistics of slow queries that have the same fingerprint.
+     */
+    public static class SlowQueryStats {
+        private String fingerprint;
+        private long count;
+        private long totalTime;
+        private long maxTime;
+        private List<QueryInfo> sampleQueryInfoList;
+        private String explainPlan;
+
+        public SlowQueryStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        protected synchronized void record(long elapsedTime, List<QueryInfo> queryInfoList) {
+            this.count++;
+            this.totalTime += elapsedTime;
+            if (this.sampleQueryInfoList == null || elapsedTime > this.maxTime) {
+                this.maxTime = elapsedTime;
+                this.sampleQueryInfoList = queryInfoList;
+            }
+        }
+
+        protected synchronized SlowQueryStats copy() {
+            SlowQueryStats copy = new SlowQueryStats(this.fingerprint);
+            copy.count = this.count;
+            copy.totalTime = this.totalTime;
+            copy.maxTime = this.maxTime;
+            copy.sampleQueryInfoList = this.sampleQueryInfoList;
+            copy.explainPlan = this.explainPlan;
+            return copy;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getTotalTime() {
+            return totalTime;
+        }
+
+        public synchronized long getMaxTime() {
+            return maxTime;
+        }
+
+        /**
+         * Queries and parameters of the slowest execution.
+         *
+         * @return sample query info list
+         */
+        public synchronized List<QueryInfo> getSampleQueryInfoList() {
+            return sampleQueryInfoList;
+        }
+
+        /**
+         * Execution plan captured by {@link ExplainPlanCollector}.
+         *
+         * @return execution plan. {@code null} when it is not available
+         */
+        public synchronized String getExplainPlan() {
+            return explainPlan;
+        }
+    }
+
+    protected static final Comparator<SlowQueryStats> BY_TOTAL_TIME_DESC = new Comparator<SlowQueryStats>() {
+        @Override
+        public int compare(SlowQueryStats left, SlowQueryStats right) {
+            long l = left.getTotalTime();
+            long r = right.getTotalTime();
+            return (l < r) ? 1 : ((l == r) ? 0 : -1);
+        }
+    };
+
+    protected int maxFingerprints = 1000;
+    protected int topN = 10;
+    protected long reportIntervalInNanos;  // 0 means no periodic report
+    protected boolean resetOnReport = true;
+    protected ExplainPlanCollector explainPlanCollector;
+    protected volatile ConcurrentMap<String, SlowQueryStats> statsByFingerprint = new ConcurrentHashMap<String, SlowQueryStats>();
+
+    private volatile boolean reporterStarted;
+
+    public AggregatingSlowQueryListener() {
+    }
+
+    public AggregatingSlowQueryListener(long threshold, TimeUnit thresholdTimeUnit) {
+        this.threshold = threshold;
+        this.thresholdTimeUnit = thresholdTimeUnit;
+    }
+
+    @Override
+    protected void afterSlowQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, long startTimeInMills) {
+        if (this.reportIntervalInNanos > 0 && !this.reporterStarted) {
+            startReporter();
+        }
+
+        String fingerprint = getFingerprint(execInfo, queryInfoList);
+        SlowQueryStats stats = getOrCreateStats(this.statsByFingerprint, fingerprint);
+        stats.record(execInfo.getElapsedTime(), queryInfoList);
+
+        if (this.explainPlanCollector != null && queryInfoList.size() == 1) {
+            QueryInfo queryInfo = queryInfoList.get(0);
+            List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+            List<ParameterSetOperation> parameters = parametersList.isEmpty() ?
+                    Collections.<ParameterSetOperation>emptyList() : parametersList.get(0);
+            this.explainPlanCollector.request(fingerprint, queryInfo.getQuery(), parameters);
+        }
+    }
+
+    /**
+     * Calculate a fingerprint for the execution.
+     *
+     * For batch statement execution, fingerprints of each query are joined with {@code ";"}.
+     *
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @return fingerprint
+     */
+    protected String getFingerprint(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        return QueryUtils.getFingerprintForExecution(queryInfoList);
+    }
+
+    private SlowQueryStats getOrCreateStats(ConcurrentMap<String, SlowQueryStats> map, String fingerprint) {
+        SlowQueryStats stats = map.get(fingerprint);
+        if (stats != null) {
+            return stats;
+        }
+        synchronized (map) {
+            stats = map.get(fingerprint);
+            if (stats == null) {
+                if (map.size() >= this.maxFingerprints) {
+                    evictSmallest(map);
+                }
+                stats = new SlowQueryStats(fingerprint);
+                map.put(fingerprint, stats);
+            }
+        }
+        return stats;
+    }
+
+    private void evictSmallest(ConcurrentMap<String, SlowQueryStats> map) {
+        String smallestKey = null;
+        long smallestTime = Long.MAX_VALUE;
+        for (Map.Entry<String, SlowQueryStats> entry : map.entrySet()) {
+            long totalTime = entry.getValue().getTotalTime();
+            if (totalTime < smallestTime) {
+                smallestTime = totalTime;
+                smallestKey = entry.getKey();
+            }
+        }
+        if (smallestKey != null) {
+            map.remove(smallestKey);
+        }
+    }
+
+    protected synchronized void startReporter() {
+        if (this.reporterStarted) {
+            return;
+        }
+        Runnable reporter = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    report();
+                } catch (RuntimeException ex) {
+                    // keep reporting. an exception here would cancel the periodic task.
+                }
+            }
+        };
+        this.executor.scheduleWithFixedDelay(reporter, this.reportIntervalInNanos, this.reportIntervalInNanos, TimeUnit.NANOSECONDS);
+        this.reporterStarted = true;
+    }
+
+    /**
+     * Rank the current statistics and call {@link #onReport(List, long)}.
+     *
+     * When reset on report is enabled, statistics are cleared for the next interval.
+     */
+    protected void report() {
+        ConcurrentMap<String, SlowQueryStats> map = this.statsByFingerprint;
+        if (map.isEmpty()) {
+            return;
+        }
+        if (this.resetOnReport) {
+            this.statsByFingerprint = new ConcurrentHashMap<String, SlowQueryStats>();
+        }
+        onReport(rank(map, this.topN), getTotalTime(map));
+    }
+
+    /**
+     * Callback to periodically report top slow queries.
+     *
+     * @param topSlowQueries slow queries ranked by total time in descending order
+     * @param totalTime      total time of all slow queries in the interval
+     */
+    protected void onReport(List<SlowQueryStats> topSlowQueries, long totalTime) {
+    }
+
+    /**
+     * Get slow queries ranked by total time in descending order.
+     *
+     * @param n max number of slow queries to return
+     * @return snapshot of top slow queries
+     */
+    public List<SlowQueryStats> getTopSlowQueries(int n) {
+        return rank(this.statsByFingerprint, n);
+    }
+
+    /**
+     * @return total time of all aggregated slow queries
+     */
+    public long getTotalTime() {
+        return getTotalTime(this.statsByFingerprint);
+    }
+
+    /**
+     * Clear all aggregated statistics.
+     */
+    public void reset() {
+        this.statsByFingerprint = new ConcurrentHashMap<String, SlowQueryStats>();
+    }
+
+    private List<SlowQueryStats> rank(Map<String, SlowQueryStats> map, int n) {
+        List<SlowQueryStats> list = new ArrayList<SlowQueryStats>(map.size());
+        for (SlowQueryStats stats : map.values()) {
+            SlowQueryStats copy = stats.copy();
+            if (this.explainPlanCollector != null) {
+                copy.explainPlan = this.explainPlanCollector.getExplainPlan(copy.fingerprint);
+            }
+            list.add(copy);
+        }
+        Collections.sort(list, BY_TOTAL_TIME_DESC);
+        return list.size() > n ? new ArrayList<SlowQueryStats>(list.subList(0, n)) : list;
+    }
+
+    private long getTotalTime(Map<String, SlowQueryStats> map) {
+        long total = 0;
+        for (SlowQueryStats stats : map.values()) {
+            total += stats.getTotalTime();
+        }
+        return total;
+    }
+
+    /**
+     * @param maxFingerprints max number of fingerprints to keep. default is 1000
+     */
+    public void setMaxFingerprints(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    public int getMaxFingerprints() {
+        return maxFingerprints;
+    }
+
+    /**
+     * @param topN number of slow queries to pass to {@link #onReport(List, long)}. default is 10
+     */
+    public void setTopN(int topN) {
+        this.topN = topN;
+    }
+
+    public int getTopN() {
+        return topN;
+    }
+
+    /**
+     * Set the interval to call {@link #onReport(List, long)}.
+     *
+     * This needs to be set before the first slow query is recorded.
+     *
+     * @param reportInterval interval to report
+     * @param timeUnit       time unit of the interval
+     */
+    public void setReportInterval(long reportInterval, TimeUnit timeUnit) {
+        this.reportIntervalInNanos = timeUnit.toNanos(reportInterval);
+    }
+
+    /**
+     * @param resetOnReport clear statistics after each report when {@code true}(default)
+     */
+    public void setResetOnReport(boolean resetOnReport) {
+        this.resetOnReport = resetOnReport;
+    }
+
+    public boolean isResetOnReport() {
+        return resetOnReport;
+    }
+
+    /**
+     * Set {@link ExplainPlanCollector} to capture execution plans of slow queries.
+     *
+     * @param explainPlanCollector explain plan collector
+     */
+    public void setExplainPlanCollector(ExplainPlanCollector explainPlanCollector) {
+        this.explainPlanCollector = explainPlanCollector;
+    }
+
+    public ExplainPlanCollector getExplainPlanCollector() {
+        return explainPlanCollector;
+    }
+}
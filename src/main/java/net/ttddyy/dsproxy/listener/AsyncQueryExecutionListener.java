@@ -0,0 +1,393 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decorator that dispatches query execution events to the wrapped listener on a dedicated consumer thread.
+ *
+ * On each callback, {@link ExecutionInfo} and {@link QueryInfo} are copied into a preallocated slot of a ring buffer,
+ * and the query thread returns immediately. The consumer thread drains published slots in batches and calls the
+ * wrapped listener. The consumer thread parks while there is no event, and is woken up by the next published event.
+ *
+ * When the buffer is full, the behavior is determined by {@link FullBufferPolicy}.
+ *
+ * Since slots are reused, the wrapped listener must not keep references to {@link ExecutionInfo} and
+ * {@link QueryInfo} passed to the callbacks. Also, custom values stored in {@link ExecutionInfo} are not copied, and are
+ * cleared after each dispatch, and {@code beforeQuery} and {@code afterQuery} of the same query receive different {@link ExecutionInfo} instances.
+ *
+ * JDBC objects are not handed over to the consumer thread, since they are not thread safe and may already be closed
+ * when the event is dispatched. {@link ExecutionInfo#getStatement()} and {@link ExecutionInfo#getGeneratedKeys()}
+ * are {@code null}, and so is {@link ExecutionInfo#getResult()} when the result is a {@link ResultSet}.
+ *
+ * Listeners that correlate {@code beforeQuery} and {@code afterQuery} by {@link ExecutionInfo} identity, such as
+ * {@link SlowQueryListener} and its subclasses, cannot be wrapped. They are rejected by the constructor.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class AsyncQueryExecutionListener implements QueryExecutionListener {
+
+    /**
+     * Behavior when the ring buffer is full.
+     */
+    public enum FullBufferPolicy {
+        /**
+         * Discard the event.
+         */
+        DROP,
+        /**
+         * Wait on the query thread until a slot becomes available.
+         */
+        BLOCK,
+        /**
+         * Once the buffer is more than half full, only accept one out of sample rate events.
+         * Discard the event when the buffer is full.
+         */
+        SAMPLE
+    }
+
+    protected static class Slot {
+        protected volatile long sequence = -1;
+        protected boolean before;
+        protected ExecutionInfo executionInfo = new ExecutionInfo();
+        protected List<QueryInfo> queryInfoList = new ArrayList<QueryInfo>();
+        protected List<QueryInfo> queryInfoPool = new ArrayList<QueryInfo>();
+
+        protected void copyFrom(boolean before, ExecutionInfo source, List<QueryInfo> sourceQueryInfoList) {
+            this.before = before;
+
+            ExecutionInfo target = this.executionInfo;
+            target.setDataSourceName(source.getDataSourceName());
+            target.setConnectionId(source.getConnectionId());
+            target.setMethod(source.getMethod());
+            target.setMethodArgs(source.getMethodArgs());
+            Object result = source.getResult();
+            target.setResult(result instanceof ResultSet ? null : result);
+            target.setElapsedTime(source.getElapsedTime());
+            target.setThrowable(source.getThrowable());
+            target.setStatementType(source.getStatementType());
+            target.setSuccess(source.isSuccess());
+            target.setBatch(source.isBatch());
+            target.setBatchSize(source.getBatchSize());
+            target.setCancelled(source.isCancelled());
+            // statement and result sets stay on the query thread
+
+            this.queryInfoList.clear();
+            int size = sourceQueryInfoList.size();
+            for (int i = 0; i < size; i++) {
+                if (this.queryInfoPool.size() <= i) {
+                    this.queryInfoPool.add(new QueryInfo());
+                }
+                QueryInfo sourceQueryInfo = sourceQueryInfoList.get(i);
+                QueryInfo queryInfo = this.queryInfoPool.get(i);
+                queryInfo.setQuery(sourceQueryInfo.getQuery());
+                queryInfo.setParametersList(sourceQueryInfo.getParametersList());
+                this.queryInfoList.add(queryInfo);
+            }
+        }
+
+        /**
+         * Release references to JDBC objects and parameters once dispatched.
+         */
+        protected void clear() {
+            ExecutionInfo target = this.executionInfo;
+            target.setMethodArgs(null);
+            target.setResult(null);
+            target.setThrowable(null);
+            target.setStatement(null);
+            target.setGeneratedKeys(null);
+            target.clearCustomValues();
+            for (QueryInfo queryInfo : this.queryInfoList) {
+                queryInfo.setQuery(null);
+                queryInfo.setParametersList(null);
+            }
+            this.queryInfoList.clear();
+        }
+    }
+
+    protected QueryExecutionListener delegate;
+    protected Slot[] slots;
+    protected int mask;
+    protected FullBufferPolicy fullBufferPolicy = FullBufferPolicy.DROP;
+    protected int sampleRate = 10;
+    protected int maxBatchSize = 256;
+    protected boolean useDaemonThread = true;
+
+    protected final AtomicLong producerCursor = new AtomicLong();  // next sequence to claim
+    protected volatile long consumerCursor;  // next sequence to consume. only updated by the consumer thread.
+
+    protected final AtomicLong droppedCount = new AtomicLong();
+    protected final AtomicLong sampledOutCount = new AtomicLong();
+    protected final AtomicLong errorCount = new AtomicLong();
+    protected final AtomicLong sampleCounter = new AtomicLong();
+
+    private final Queue<Thread> blockedProducers = new ConcurrentLinkedQueue<Thread>();
+    private volatile Thread consumerThread;
+    private volatile boolean consumerWaiting;
+    private volatile boolean running;
+
+    /**
+     * @param delegate   listener to dispatch events
+     * @param bufferSize size of the ring buffer. rounded up to a power of two.
+     * @throws IllegalArgumentException when the delegate is a {@link SlowQueryListener}
+     */
+    public AsyncQueryExecutionListener(QueryExecutionListener delegate, int bufferSize) {
+        if (delegate instanceof SlowQueryListener) {
+            // it keys running queries by ExecutionInfo identity, which differs between before and after events
+            throw new IllegalArgumentException("SlowQueryListener cannot be dispatched asynchronously: " + delegate);
+        }
+        int size = 1;
+        while (size < bufferSize) {
+            size <<= 1;
+        }
+        this.delegate = delegate;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            this.slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+    }
+
+    public AsyncQueryExecutionListener(QueryExecutionListener delegate) {
+        this(delegate, 1024);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        publish(true, execInfo, queryInfoList);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        publish(false, execInfo, queryInfoList);
+    }
+
+    protected void publish(boolean before, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (this.consumerThread == null) {
+            start();
+        }
+        if (!this.running) {
+            this.droppedCount.incrementAndGet();
+            return;
+        }
+
+        final int size = this.slots.length;
+        long sequence;
+        while (true) {
+            sequence = this.producerCursor.get();
+            long depth = sequence - this.consumerCursor;
+            if (depth >= size) {
+                if (this.fullBufferPolicy == FullBufferPolicy.BLOCK && this.running) {
+                    awaitSlot();
+                    continue;
+                }
+                this.droppedCount.incrementAndGet();
+                return;
+            }
+            if (this.fullBufferPolicy == FullBufferPolicy.SAMPLE && depth >= (size >> 1)
+                    && this.sampleCounter.incrementAndGet() % this.sampleRate != 0) {
+                this.sampledOutCount.incrementAndGet();
+                return;
+            }
+            if (this.producerCursor.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+
+        Slot slot = this.slots[(int) (sequence & this.mask)];
+        slot.copyFrom(before, execInfo, queryInfoList);
+        slot.sequence = sequence;  // publish
+        if (this.consumerWaiting) {
+            LockSupport.unpark(this.consumerThread);
+        }
+    }
+
+    /**
+     * Park the producer until the consumer releases slots.
+     *
+     * The producer registers itself before re-checking the buffer, and the consumer checks registered producers after
+     * releasing slots, so that a release between the check and the park is not missed.
+     */
+    private void awaitSlot() {
+        Thread current = Thread.currentThread();
+        this.blockedProducers.add(current);
+        try {
+            if (this.running && this.producerCursor.get() - this.consumerCursor >= this.slots.length) {
+                LockSupport.park(this);
+            }
+        } finally {
+            this.blockedProducers.remove(current);
+        }
+    }
+
+    private void unparkBlockedProducers() {
+        for (Thread producer : this.blockedProducers) {
+            LockSupport.unpark(producer);
+        }
+    }
+
+    /**
+     * Start the consumer thread.
+     *
+     * It is automatically called at the first event.
+     */
+    public synchronized void start() {
+        if (this.consumerThread != null) {
+            return;
+        }
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                consume();
+            }
+        }, "dsproxy-async-listener");
+        thread.setDaemon(this.useDaemonThread);
+        this.running = true;
+        this.consumerThread = thread;
+        thread.start();
+    }
+
+    protected void consume() {
+        long next = this.consumerCursor;
+        while (this.running || next < this.producerCursor.get()) {
+            int count = 0;
+            while (count < this.maxBatchSize) {
+                Slot slot = this.slots[(int) (next & this.mask)];
+                if (slot.sequence != next) {
+                    break;
+                }
+                dispatch(slot);
+                slot.clear();
+                next++;
+                count++;
+            }
+
+            if (count > 0) {
+                this.consumerCursor = next;  // release consumed slots once per batch
+                if (!this.blockedProducers.isEmpty()) {
+                    unparkBlockedProducers();
+                }
+            } else if (this.running) {
+                // announce before re-checking the slot so that a publish in between unparks this thread
+                this.consumerWaiting = true;
+                if (this.running && this.slots[(int) (next & this.mask)].sequence != next) {
+                    LockSupport.park(this);
+                }
+                this.consumerWaiting = false;
+            } else if (this.slots[(int) (next & this.mask)].sequence != next) {
+                Thread.yield();  // wait for claimed but not yet published slot
+            }
+        }
+    }
+
+    protected void dispatch(Slot slot) {
+        try {
+            if (slot.before) {
+                this.delegate.beforeQuery(slot.executionInfo, slot.queryInfoList);
+            } else {
+                this.delegate.afterQuery(slot.executionInfo, slot.queryInfoList);
+            }
+        } catch (RuntimeException ex) {
+            // keep consuming. an exception here would stop the consumer thread.
+            this.errorCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stop accepting new events, dispatch remaining events and stop the consumer thread.
+     *
+     * @param timeout  max time to wait for remaining events to be dispatched
+     * @param timeUnit time unit of the timeout
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void shutdown(long timeout, TimeUnit timeUnit) throws InterruptedException {
+        Thread thread = this.consumerThread;
+        this.running = false;
+        unparkBlockedProducers();
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(timeUnit.toMillis(timeout));
+        }
+    }
+
+    /**
+     * @return number of events waiting to be dispatched
+     */
+    public long getQueueDepth() {
+        return this.producerCursor.get() - this.consumerCursor;
+    }
+
+    /**
+     * @return number of events discarded because the buffer was full or the listener was shut down
+     */
+    public long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+    /**
+     * @return number of events discarded by {@link FullBufferPolicy#SAMPLE} policy
+     */
+    public long getSampledOutCount() {
+        return this.sampledOutCount.get();
+    }
+
+    /**
+     * @return number of exceptions thrown by the wrapped listener
+     */
+    public long getErrorCount() {
+        return this.errorCount.get();
+    }
+
+    public int getBufferSize() {
+        return this.slots.length;
+    }
+
+    public QueryExecutionListener getDelegate() {
+        return delegate;
+    }
+
+    public void setFullBufferPolicy(FullBufferPolicy fullBufferPolicy) {
+        this.fullBufferPolicy = fullBufferPolicy;
+    }
+
+    public FullBufferPolicy getFullBufferPolicy() {
+        return fullBufferPolicy;
+    }
+
+    /**
+     * @param sampleRate accept one out of this number of events in {@link FullBufferPolicy#SAMPLE}. default is 10
+     */
+    public void setSampleRate(int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate must be positive but was " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * @param maxBatchSize max number of events to dispatch before releasing slots. default is 256
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * This needs to be set before the consumer thread is started.
+     *
+     * @param useDaemonThread use daemon thread or not. (default is true)
+     */
+    public void setUseDaemonThread(boolean useDaemonThread) {
+        this.useDaemonThread = useDaemonThread;
+    }
+
+}
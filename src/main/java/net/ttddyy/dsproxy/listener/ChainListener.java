@@ -9,22 +9,78 @@ import java.util.List;
 /**
  * Execute chain of listeners.
  *
+ * When {@link ListenerIsolation} is set, each listener call is timed and guarded.
+ *
  * @author Tadaya Tsuyukubo
  */
 public class ChainListener implements QueryExecutionListener {
     private List<QueryExecutionListener> listeners = new ArrayList<QueryExecutionListener>();
+    private ListenerIsolation listenerIsolation;
+
+    // key to keep listeners called in beforeQuery
+    private final String invokedListenersKey = ChainListener.class.getName() + ".invoked@" + Integer.toHexString(System.identityHashCode(this));
 
     @Override
     public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
-        for (QueryExecutionListener listener : listeners) {
-            listener.beforeQuery(execInfo, queryInfoList);
+        ListenerIsolation isolation = this.listenerIsolation;
+        if (isolation == null) {
+            for (QueryExecutionListener listener : listeners) {
+                listener.beforeQuery(execInfo, queryInfoList);
+            }
+            return;
         }
+
+        boolean[] invoked = new boolean[this.listeners.size()];
+        for (int i = 0; i < invoked.length; i++) {
+            QueryExecutionListener listener = this.listeners.get(i);
+            ListenerStats stats = isolation.enter(listener);
+            if (stats == null) {
+                continue;  // disabled
+            }
+            invoked[i] = true;
+            long start = System.nanoTime();
+            try {
+                listener.beforeQuery(execInfo, queryInfoList);
+            } catch (RuntimeException e) {
+                isolation.handleError(stats, e);
+            } finally {
+                isolation.exit(stats, start);
+            }
+        }
+        execInfo.addCustomValue(this.invokedListenersKey, invoked);
     }
 
     @Override
     public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
-        for (QueryExecutionListener listener : listeners) {
-            listener.afterQuery(execInfo, queryInfoList);
+        ListenerIsolation isolation = this.listenerIsolation;
+        if (isolation == null) {
+            for (QueryExecutionListener listener : listeners) {
+                listener.afterQuery(execInfo, queryInfoList);
+            }
+            return;
+        }
+
+        boolean[] invoked = execInfo.getCustomValue(this.invokedListenersKey, boolean[].class);
+        for (int i = 0; i < this.listeners.size(); i++) {
+            QueryExecutionListener listener = this.listeners.get(i);
+            ListenerStats stats;
+            if (invoked == null) {
+                stats = isolation.enter(listener);
+            } else {
+                // call listeners called in beforeQuery regardless of current state
+                stats = i < invoked.length && invoked[i] ? isolation.getStats(listener) : null;
+            }
+            if (stats == null) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                listener.afterQuery(execInfo, queryInfoList);
+            } catch (RuntimeException e) {
+                isolation.handleError(stats, e);
+            } finally {
+                isolation.exit(stats, start);
+            }
         }
     }
 
@@ -39,4 +95,16 @@ public class ChainListener implements QueryExecutionListener {
     public void setListeners(List<QueryExecutionListener> listeners) {
         this.listeners = listeners;
     }
+
+    /**
+     * @param listenerIsolation listener isolation. {@code null} to call listeners directly
+     * @since 1.6
+     */
+    public void setListenerIsolation(ListenerIsolation listenerIsolation) {
+        this.listenerIsolation = listenerIsolation;
+    }
+
+    public ListenerIsolation getListenerIsolation() {
+        return listenerIsolation;
+    }
 }
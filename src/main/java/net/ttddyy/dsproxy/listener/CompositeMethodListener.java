@@ -1,29 +1,105 @@
 package net.ttddyy.dsproxy.listener;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Execute chain of {@link MethodExecutionListener}.
  *
+ * Interested in a method when any of the listeners is interested. Listeners not implementing
+ * {@link SelectiveMethodExecutionListener} are interested in all methods.
+ *
+ * When {@link ListenerIsolation} is set, each listener call is timed and guarded.
+ *
  * @author Tadaya Tsuyukubo
  * @since 1.4.3
  */
-public class CompositeMethodListener implements MethodExecutionListener {
+public class CompositeMethodListener implements SelectiveMethodExecutionListener {
     private List<MethodExecutionListener> listeners = new ArrayList<MethodExecutionListener>();
+    private ListenerIsolation listenerIsolation;
+
+    // key to keep listeners called in beforeMethod
+    private final String invokedListenersKey = CompositeMethodListener.class.getName() + ".invoked@" + Integer.toHexString(System.identityHashCode(this));
 
     @Override
     public void beforeMethod(MethodExecutionContext executionContext) {
-        for (MethodExecutionListener listener : this.listeners) {
-            listener.beforeMethod(executionContext);
+        ListenerIsolation isolation = this.listenerIsolation;
+        if (isolation == null) {
+            for (MethodExecutionListener listener : this.listeners) {
+                listener.beforeMethod(executionContext);
+            }
+            return;
         }
+
+        boolean[] invoked = new boolean[this.listeners.size()];
+        for (int i = 0; i < invoked.length; i++) {
+            MethodExecutionListener listener = this.listeners.get(i);
+            ListenerStats stats = isolation.enter(listener);
+            if (stats == null) {
+                continue;  // disabled
+            }
+            invoked[i] = true;
+            long start = System.nanoTime();
+            try {
+                listener.beforeMethod(executionContext);
+            } catch (RuntimeException e) {
+                isolation.handleError(stats, e);
+            } finally {
+                isolation.exit(stats, start);
+            }
+        }
+        executionContext.addCustomValue(this.invokedListenersKey, invoked);
     }
 
     @Override
     public void afterMethod(MethodExecutionContext executionContext) {
+        ListenerIsolation isolation = this.listenerIsolation;
+        if (isolation == null) {
+            for (MethodExecutionListener listener : this.listeners) {
+                listener.afterMethod(executionContext);
+            }
+            return;
+        }
+
+        boolean[] invoked = executionContext.getCustomValue(this.invokedListenersKey, boolean[].class);
+        for (int i = 0; i < this.listeners.size(); i++) {
+            MethodExecutionListener listener = this.listeners.get(i);
+            ListenerStats stats;
+            if (invoked == null) {
+                stats = isolation.enter(listener);
+            } else {
+                // call listeners called in beforeMethod regardless of current state
+                stats = i < invoked.length && invoked[i] ? isolation.getStats(listener) : null;
+            }
+            if (stats == null) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                listener.afterMethod(executionContext);
+            } catch (RuntimeException e) {
+                isolation.handleError(stats, e);
+            } finally {
+                isolation.exit(stats, start);
+            }
+        }
+    }
+
+    /**
+     * @since 1.6
+     */
+    @Override
+    public boolean isInterested(Method method, Object proxyTarget) {
         for (MethodExecutionListener listener : this.listeners) {
-            listener.afterMethod(executionContext);
+            if (!(listener instanceof SelectiveMethodExecutionListener)) {
+                return true;
+            }
+            if (((SelectiveMethodExecutionListener) listener).isInterested(method, proxyTarget)) {
+                return true;
+            }
         }
+        return false;
     }
 
     public boolean addListener(MethodExecutionListener listener) {
@@ -37,4 +113,16 @@ public class CompositeMethodListener implements MethodExecutionListener {
     public void setListeners(List<MethodExecutionListener> listeners) {
         this.listeners = listeners;
     }
+
+    /**
+     * @param listenerIsolation listener isolation. {@code null} to call listeners directly
+     * @since 1.6
+     */
+    public void setListenerIsolation(ListenerIsolation listenerIsolation) {
+        this.listenerIsolation = listenerIsolation;
+    }
+
+    public ListenerIsolation getListenerIsolation() {
+        return listenerIsolation;
+    }
 }
@@ -0,0 +1,92 @@
+package net.ttddyy.dsproxy.listener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in nano seconds.
+ *
+ * Values are counted in power of two buckets, thus percentiles are approximate; reported value is the upper bound
+ * of the bucket, at most twice as large as the actual value.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKET_SIZE = 64;
+
+    // bucket i counts values in [2^(i-1), 2^i)
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_SIZE);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        this.buckets.incrementAndGet(Math.min(BUCKET_SIZE - Long.numberOfLeadingZeros(nanos), BUCKET_SIZE - 1));
+        this.count.incrementAndGet();
+        this.totalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = this.maxNanos.get())) {
+            if (this.maxNanos.compareAndSet(max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount() {
+        return this.count.get();
+    }
+
+    public long getTotalNanos() {
+        return this.totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return this.maxNanos.get();
+    }
+
+    public long getAverageNanos() {
+        long count = this.count.get();
+        return count == 0 ? 0 : this.totalNanos.get() / count;
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100. e.g. 99.9
+     * @return upper bound of the bucket that contains the percentile, but not larger than the max value
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKET_SIZE];
+        long total = 0;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            counts[i] = this.buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                long upperBound = i == 0 ? 0 : (i >= BUCKET_SIZE - 1 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(upperBound, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.count.set(0);
+        this.totalNanos.set(0);
+        this.maxNanos.set(0);
+    }
+
+}
@@ -0,0 +1,157 @@
+package net.ttddyy.dsproxy.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Isolate listeners in {@link ChainListener} and {@link CompositeMethodListener} from each other and from the
+ * application.
+ *
+ * When isolation is set, each listener call is
+ * <ul>
+ * <li>timed, and recorded to the per listener {@link LatencyHistogram}
+ * <li>guarded; {@link RuntimeException} thrown by the listener is reported to {@link ErrorReporter}, at most once
+ * per report interval per listener, and is not propagated to the application
+ * <li>skipped while the listener is disabled. A listener is disabled for the cool down period when its average time
+ * per call within a window of calls exceeds the budget
+ * </ul>
+ *
+ * After-callbacks are called for the listeners whose before-callbacks were called, even if they got disabled in
+ * between, so that listeners always see pairs of callbacks.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ListenerStats
+ * @since 1.6
+ */
+public class ListenerIsolation {
+
+    /**
+     * Receive exceptions thrown by listeners.
+     */
+    public interface ErrorReporter {
+
+        /**
+         * @param listener        listener that threw the exception
+         * @param thrown          exception
+         * @param suppressedCount number of exceptions not reported since the last report
+         */
+        void report(Object listener, RuntimeException thrown, long suppressedCount);
+    }
+
+    protected long budgetInNanos = TimeUnit.MILLISECONDS.toNanos(1);
+    protected int windowSize = 100;
+    protected long cooldownInMillis = TimeUnit.SECONDS.toMillis(30);
+    protected long errorReportIntervalInMillis = TimeUnit.MINUTES.toMillis(1);
+
+    protected ErrorReporter errorReporter = new ErrorReporter() {
+        @Override
+        public void report(Object listener, RuntimeException thrown, long suppressedCount) {
+            // log with java.util.logging by default
+            Logger logger = Logger.getLogger(ListenerIsolation.class.getName());
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "Listener " + listener + " threw an exception (" + suppressedCount + " suppressed)", thrown);
+            }
+        }
+    };
+
+    private final ConcurrentMap<Object, ListenerStats> statsByListener = new ConcurrentHashMap<Object, ListenerStats>();
+
+    /**
+     * Called before invoking a listener.
+     *
+     * @param listener listener to invoke
+     * @return stats of the listener. {@code null} when the listener is disabled
+     */
+    public ListenerStats enter(Object listener) {
+        ListenerStats stats = getStats(listener);
+        return stats.isEnabled(System.nanoTime()) ? stats : null;
+    }
+
+    /**
+     * Called after invoking a listener.
+     *
+     * @param stats      stats returned by {@link #enter(Object)}
+     * @param startNanos {@link System#nanoTime()} before invoking the listener
+     */
+    public void exit(ListenerStats stats, long startNanos) {
+        long now = System.nanoTime();
+        stats.record(now - startNanos, this, now);
+    }
+
+    /**
+     * Called when the listener threw an exception.
+     *
+     * @param stats  stats returned by {@link #enter(Object)}
+     * @param thrown exception
+     */
+    public void handleError(ListenerStats stats, RuntimeException thrown) {
+        long suppressedCount = stats.recordError(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(this.errorReportIntervalInMillis));
+        if (suppressedCount >= 0) {
+            try {
+                this.errorReporter.report(stats.getListener(), thrown, suppressedCount);
+            } catch (RuntimeException e) {
+                // reporter must not break the application either
+            }
+        }
+    }
+
+    public ListenerStats getStats(Object listener) {
+        ListenerStats stats = this.statsByListener.get(listener);
+        if (stats == null) {
+            ListenerStats newStats = new ListenerStats(listener);
+            stats = this.statsByListener.putIfAbsent(listener, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return stats of listeners called so far
+     */
+    public List<ListenerStats> getAllStats() {
+        return new ArrayList<ListenerStats>(this.statsByListener.values());
+    }
+
+    /**
+     * @param budgetInNanos max average time per listener call. (default is 1ms)
+     */
+    public void setBudgetInNanos(long budgetInNanos) {
+        this.budgetInNanos = budgetInNanos;
+    }
+
+    /**
+     * @param windowSize number of calls to average the time per call. (default is 100)
+     */
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * @param cooldownInMillis period to disable a listener that exceeded the budget. (default is 30 seconds)
+     */
+    public void setCooldownInMillis(long cooldownInMillis) {
+        this.cooldownInMillis = cooldownInMillis;
+    }
+
+    /**
+     * @param errorReportIntervalInMillis minimum interval to report exceptions per listener. (default is 1 minute)
+     */
+    public void setErrorReportIntervalInMillis(long errorReportIntervalInMillis) {
+        this.errorReportIntervalInMillis = errorReportIntervalInMillis;
+    }
+
+    /**
+     * @param errorReporter reporter for exceptions thrown by listeners. (default writes to {@code System.err})
+     */
+    public void setErrorReporter(ErrorReporter errorReporter) {
+        this.errorReporter = errorReporter;
+    }
+
+}
@@ -0,0 +1,129 @@
+package net.ttddyy.dsproxy.listener;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per listener statistics and state used by {@link ListenerIsolation}.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class ListenerStats {
+
+    private final Object listener;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong disabledCount = new AtomicLong();
+
+    // overhead budget window
+    private final AtomicLong windowCount = new AtomicLong();
+    private final AtomicLong windowNanos = new AtomicLong();
+    private volatile boolean disabled;
+    private volatile long disabledUntilNanos;
+
+    // error report rate limiting
+    private final AtomicLong suppressedErrorCount = new AtomicLong();
+    private boolean errorReported;
+    private long lastErrorReportNanos;
+
+    public ListenerStats(Object listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param now current {@link System#nanoTime()}
+     * @return {@code true} unless the listener is disabled for cool down
+     */
+    protected boolean isEnabled(long now) {
+        if (this.disabled) {
+            if (now - this.disabledUntilNanos < 0) {
+                this.skippedCount.incrementAndGet();
+                return false;
+            }
+            this.disabled = false;
+        }
+        return true;
+    }
+
+    /**
+     * Record time spent in a listener call, and disable the listener when average time in the window exceeded the
+     * budget.
+     *
+     * @param nanos     elapsed time of the call
+     * @param isolation isolation settings
+     * @param now       current {@link System#nanoTime()}
+     */
+    protected void record(long nanos, ListenerIsolation isolation, long now) {
+        this.histogram.record(nanos);
+        long count = this.windowCount.incrementAndGet();
+        long total = this.windowNanos.addAndGet(nanos);
+        if (count >= isolation.windowSize && this.windowCount.compareAndSet(count, 0)) {
+            this.windowNanos.addAndGet(-total);
+            if (total / count > isolation.budgetInNanos) {
+                this.disabledUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(isolation.cooldownInMillis);
+                this.disabled = true;
+                this.disabledCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @param now           current {@link System#nanoTime()}
+     * @param intervalNanos minimum interval between reports
+     * @return number of errors suppressed since the last report. {@code -1} when this error should not be reported
+     */
+    protected long recordError(long now, long intervalNanos) {
+        this.errorCount.incrementAndGet();
+        synchronized (this) {
+            if (this.errorReported && now - this.lastErrorReportNanos < intervalNanos) {
+                this.suppressedErrorCount.incrementAndGet();
+                return -1;
+            }
+            this.errorReported = true;
+            this.lastErrorReportNanos = now;
+        }
+        return this.suppressedErrorCount.getAndSet(0);
+    }
+
+    public Object getListener() {
+        return listener;
+    }
+
+    /**
+     * @return time spent in the listener per call
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return number of exceptions thrown by the listener
+     */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * @return number of calls skipped while the listener is disabled
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * @return number of times the listener got disabled
+     */
+    public long getDisabledCount() {
+        return disabledCount.get();
+    }
+
+    /**
+     * @return whether the listener is disabled for cool down
+     */
+    public boolean isDisabled() {
+        return this.disabled && System.nanoTime() - this.disabledUntilNanos < 0;
+    }
+
+}
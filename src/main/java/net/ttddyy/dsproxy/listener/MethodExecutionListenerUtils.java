@@ -2,6 +2,7 @@ package net.ttddyy.dsproxy.listener;
 
 import net.ttddyy.dsproxy.ConnectionInfo;
 import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ProxyOverheadMetrics;
 import net.ttddyy.dsproxy.proxy.Stopwatch;
 
 import java.lang.reflect.Method;
@@ -20,6 +21,36 @@ public class MethodExecutionListenerUtils {
                                 Object proxyTarget, ConnectionInfo connectionInfo, Method method,
                                 Object[] args) throws Throwable {
 
+        ProxyOverheadMetrics metrics = proxyConfig.getProxyOverheadMetrics();
+        ProxyOverheadMetrics.Sample sample = metrics != null ? metrics.start() : null;
+        if (sample == null) {
+            return doInvoke(callback, proxyConfig, proxyTarget, connectionInfo, method, args, null);
+        }
+        try {
+            return doInvoke(callback, proxyConfig, proxyTarget, connectionInfo, method, args, sample);
+        } finally {
+            metrics.stop(sample);
+        }
+    }
+
+    private static Object doInvoke(MethodExecutionCallback callback, ProxyConfig proxyConfig,
+                                   Object proxyTarget, ConnectionInfo connectionInfo, Method method,
+                                   Object[] args, ProxyOverheadMetrics.Sample sample) throws Throwable {
+
+        MethodExecutionListener methodExecutionListener = proxyConfig.getMethodListener();
+        if (methodExecutionListener instanceof SelectiveMethodExecutionListener &&
+                !((SelectiveMethodExecutionListener) methodExecutionListener).isInterested(method, proxyTarget)) {
+            if (sample == null) {
+                return callback.execute(proxyTarget, method, args);  // nobody observes this method
+            }
+            long start = System.nanoTime();
+            try {
+                return callback.execute(proxyTarget, method, args);
+            } finally {
+                sample.addCallbackNanos(System.nanoTime() - start);
+            }
+        }
+
         MethodExecutionContext methodContext = MethodExecutionContext.Builder.create()
                 .target(proxyTarget)
                 .method(method)
@@ -28,8 +59,16 @@ public class MethodExecutionListenerUtils {
                 .proxyConfig(proxyConfig)
                 .build();
 
-        MethodExecutionListener methodExecutionListener = proxyConfig.getMethodListener();
-        methodExecutionListener.beforeMethod(methodContext);
+        if (sample != null) {
+            sample.enterListener();
+        }
+        try {
+            methodExecutionListener.beforeMethod(methodContext);
+        } finally {
+            if (sample != null) {
+                sample.exitListener();
+            }
+        }
 
         // method and args may be replaced in MethodExecutionListener
         Method methodToInvoke = methodContext.getMethod();
@@ -38,6 +77,7 @@ public class MethodExecutionListenerUtils {
         final Stopwatch stopwatch = proxyConfig.getStopwatchFactory().create().start();
         Object result = null;
         Throwable thrown = null;
+        long callbackStart = sample != null ? System.nanoTime() : 0;
         try {
             result = callback.execute(proxyTarget, methodToInvoke, methodArgsToInvoke);
         } catch (Throwable throwable) {
@@ -45,12 +85,24 @@ public class MethodExecutionListenerUtils {
             throw throwable;
         } finally {
             final long elapsedTime = stopwatch.getElapsedTime();
+            if (sample != null) {
+                sample.addCallbackNanos(System.nanoTime() - callbackStart);
+            }
 
             methodContext.setElapsedTime(elapsedTime);
             methodContext.setResult(result);
             methodContext.setThrown(thrown);
 
-            methodExecutionListener.afterMethod(methodContext);
+            if (sample != null) {
+                sample.enterListener();
+            }
+            try {
+                methodExecutionListener.afterMethod(methodContext);
+            } finally {
+                if (sample != null) {
+                    sample.exitListener();
+                }
+            }
         }
         return result;
     }
@@ -0,0 +1,279 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Find queries that fetch more rows or columns than the application reads.
+ *
+ * For each fingerprint(see {@link QueryUtils#getFingerprint(String)}), it aggregates the number of result sets, rows
+ * read by the application, result sets closed before {@code next()} returned {@code false}, and how many times each
+ * selected column was read by getters. Columns never read point at {@code SELECT *}, and result sets closed early
+ * point at queries missing a {@code LIMIT}.
+ *
+ * The number of rows the database returned but the application did not read is only known by reading them.
+ * When {@link #setCountUnreadRows(boolean)} is enabled, remaining rows are read from the actual result set when it
+ * is explicitly closed. This fetches the rest of the result from the database, so use it only for diagnosis.
+ *
+ * Register it with {@code ProxyDataSourceBuilder#trackResultSetConsumption(ResultSetConsumptionListener)}.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class OverFetchListener extends ResultSetConsumptionListener {
+
+    private static final Pattern SELECT_ALL = Pattern.compile("^\\s*select\\s+(distinct\\s+)?(\\w+\\.)?\\*", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Aggregated fetch usage of result sets that have the same fingerprint.
+     */
+    public static class FetchUsage {
+        private String fingerprint;
+        private boolean selectAll;
+        private long resultSetCount;
+        private long rowCount;
+        private long abandonedCount;
+        private long unreadRowCount;
+        private long overFetchCount;
+        private String[] columnLabels;
+        private long[] columnReadCounts;
+
+        public FetchUsage(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        protected synchronized void record(ResultSetConsumption consumption) {
+            this.resultSetCount++;
+            this.rowCount += consumption.getRowCount();
+            if (consumption.getUnreadRowCount() > 0) {
+                this.unreadRowCount += consumption.getUnreadRowCount();
+            }
+            boolean abandoned = !consumption.isExhausted() && consumption.getUnreadRowCount() != 0;
+            if (abandoned) {
+                this.abandonedCount++;
+            }
+
+            boolean unusedColumn = false;
+            String[] labels = consumption.getColumnLabels();
+            if (labels != null && labels.length > 0) {
+                if (this.columnLabels == null) {
+                    this.columnLabels = labels;
+                    this.columnReadCounts = new long[labels.length];
+                }
+                if (this.columnLabels.length == labels.length) {
+                    for (int i = 0; i < labels.length; i++) {
+                        if (consumption.isColumnRead(i + 1)) {
+                            this.columnReadCounts[i]++;
+                        } else {
+                            unusedColumn = true;
+                        }
+                    }
+                }
+            }
+            if (abandoned || unusedColumn) {
+                this.overFetchCount++;
+            }
+        }
+
+        protected synchronized FetchUsage copy() {
+            FetchUsage copy = new FetchUsage(this.fingerprint);
+            copy.selectAll = this.selectAll;
+            copy.resultSetCount = this.resultSetCount;
+            copy.rowCount = this.rowCount;
+            copy.abandonedCount = this.abandonedCount;
+            copy.unreadRowCount = this.unreadRowCount;
+            copy.overFetchCount = this.overFetchCount;
+            copy.columnLabels = this.columnLabels;
+            copy.columnReadCounts = this.columnReadCounts == null ? null : this.columnReadCounts.clone();
+            return copy;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * @return {@code true} when the query selects {@code *}
+         */
+        public synchronized boolean isSelectAll() {
+            return selectAll;
+        }
+
+        public synchronized long getResultSetCount() {
+            return resultSetCount;
+        }
+
+        /**
+         * @return total number of rows read by the application
+         */
+        public synchronized long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * @return number of result sets closed before all rows were read
+         */
+        public synchronized long getAbandonedCount() {
+            return abandonedCount;
+        }
+
+        /**
+         * @return total number of rows returned by the database but not read. Only counted when
+         * {@link OverFetchListener#setCountUnreadRows(boolean)} is enabled
+         */
+        public synchronized long getUnreadRowCount() {
+            return unreadRowCount;
+        }
+
+        /**
+         * @return number of result sets that were abandoned or had a column never read
+         */
+        public synchronized long getOverFetchCount() {
+            return overFetchCount;
+        }
+
+        /**
+         * @return labels of the selected columns. Empty when no getter was called
+         */
+        public synchronized List<String> getColumnLabels() {
+            if (this.columnLabels == null) {
+                return Collections.emptyList();
+            }
+            List<String> labels = new ArrayList<String>(this.columnLabels.length);
+            Collections.addAll(labels, this.columnLabels);
+            return labels;
+        }
+
+        /**
+         * @return labels of the columns that no getter has read in any result set
+         */
+        public synchronized List<String> getUnusedColumns() {
+            List<String> unused = new ArrayList<String>();
+            if (this.columnLabels != null) {
+                for (int i = 0; i < this.columnLabels.length; i++) {
+                    if (this.columnReadCounts[i] == 0) {
+                        unused.add(this.columnLabels[i]);
+                    }
+                }
+            }
+            return unused;
+        }
+    }
+
+    protected static final Comparator<FetchUsage> BY_OVER_FETCH_COUNT_DESC = new Comparator<FetchUsage>() {
+        @Override
+        public int compare(FetchUsage left, FetchUsage right) {
+            long l = left.getOverFetchCount();
+            long r = right.getOverFetchCount();
+            return (l < r) ? 1 : ((l == r) ? 0 : -1);
+        }
+    };
+
+    protected int maxFingerprints = 1000;
+    protected boolean countUnreadRows;
+    protected ConcurrentMap<String, FetchUsage> usageByFingerprint = new ConcurrentHashMap<String, FetchUsage>();
+
+    public OverFetchListener() {
+        this.trackColumns = true;
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+        super.beforeMethod(executionContext);
+        Object target = executionContext.getTarget();
+        if (this.countUnreadRows && target instanceof ResultSet && "close".equals(executionContext.getMethod().getName())) {
+            ResultSetConsumption consumption = this.openResultSets.get(target);
+            if (consumption != null && !consumption.isExhausted()) {
+                consumption.setUnreadRowCount(countRemainingRows((ResultSet) target));
+            }
+        }
+    }
+
+    private long countRemainingRows(ResultSet resultSet) {
+        long count = 0;
+        try {
+            while (resultSet.next()) {
+                count++;
+            }
+        } catch (SQLException e) {
+            return -1;
+        }
+        return count;
+    }
+
+    @Override
+    protected void onResultSetClosed(ResultSetConsumption consumption) {
+        String fingerprint = consumption.getFingerprint();
+        FetchUsage usage = this.usageByFingerprint.get(fingerprint);
+        if (usage == null) {
+            if (this.usageByFingerprint.size() >= this.maxFingerprints) {
+                return;
+            }
+            usage = new FetchUsage(fingerprint);
+            usage.selectAll = isSelectAll(consumption.getQueryInfoList());
+            FetchUsage existing = this.usageByFingerprint.putIfAbsent(fingerprint, usage);
+            if (existing != null) {
+                usage = existing;
+            }
+        }
+        usage.record(consumption);
+    }
+
+    private boolean isSelectAll(List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (SELECT_ALL.matcher(queryInfo.getQuery()).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return snapshot of the fetch usages ordered by {@link FetchUsage#getOverFetchCount()}
+     */
+    public List<FetchUsage> getFetchUsages() {
+        List<FetchUsage> usages = new ArrayList<FetchUsage>();
+        for (FetchUsage usage : this.usageByFingerprint.values()) {
+            usages.add(usage.copy());
+        }
+        Collections.sort(usages, BY_OVER_FETCH_COUNT_DESC);
+        return usages;
+    }
+
+    /**
+     * @param fingerprint query fingerprint
+     * @return snapshot of the fetch usage. {@code null} when not recorded
+     */
+    public FetchUsage getFetchUsage(String fingerprint) {
+        FetchUsage usage = this.usageByFingerprint.get(fingerprint);
+        return usage == null ? null : usage.copy();
+    }
+
+    public void reset() {
+        this.usageByFingerprint.clear();
+    }
+
+    /**
+     * @param maxFingerprints number of fingerprints to keep. New fingerprints are ignored when reached. (default is 1000)
+     */
+    public void setMaxFingerprints(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    /**
+     * @param countUnreadRows {@code true} to read remaining rows on close to count them. (default is false)
+     */
+    public void setCountUnreadRows(boolean countUnreadRows) {
+        this.countUnreadRows = countUnreadRows;
+    }
+
+}
@@ -1,7 +1,10 @@
 package net.ttddyy.dsproxy.listener;
 
+import net.ttddyy.dsproxy.QueryInfo;
 import net.ttddyy.dsproxy.QueryType;
 
+import java.util.List;
+
 /**
  * @author Tadaya Tsuyukubo
  */
@@ -52,4 +55,136 @@ public class QueryUtils {
         return type;
     }
 
+    /**
+     * Calculate a fingerprint for an execution.
+     *
+     * For batch statement execution, fingerprints of each query are joined with {@code ";"}.
+     *
+     * @param queryInfoList query info list
+     * @return fingerprint of the execution
+     * @see #getFingerprint(String)
+     * @since 1.6
+     */
+    public static String getFingerprintForExecution(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.size() == 1) {
+            return getFingerprint(queryInfoList.get(0).getQuery());
+        }
+        StringBuilder sb = new StringBuilder();
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (sb.length() > 0) {
+                sb.append(";");
+            }
+            sb.append(getFingerprint(queryInfo.getQuery()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a fingerprint of given query.
+     *
+     * Fingerprint is a normalized form of the query that represents its shape. Queries that only differ by literal
+     * values, comments, whitespaces or keyword cases have the same fingerprint.
+     * <ul>
+     * <li> comments are removed
+     * <li> consecutive whitespaces are collapsed into a single space
+     * <li> string and numeric literals are replaced with {@code ?}
+     * <li> characters outside of quoted identifiers are lower cased
+     * </ul>
+     *
+     * e.g.: {@code SELECT * FROM emp WHERE id = 10 AND name = 'foo'} becomes
+     * {@code select * from emp where id = ? and name = ?}
+     *
+     * @param query a query string
+     * @return fingerprint of the query
+     * @since 1.6
+     */
+    public static String getFingerprint(String query) {
+        if (query == null) {
+            return null;
+        }
+
+        final int length = query.length();
+        final StringBuilder sb = new StringBuilder(length);
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < length) {
+            final char c = query.charAt(i);
+            final char next = i + 1 < length ? query.charAt(i + 1) : 0;
+
+            if (c == '-' && next == '-') {
+                // line comment
+                int end = query.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+                pendingSpace = true;
+                continue;
+            }
+            if (c == '/' && next == '*') {
+                // block comment
+                int end = query.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                pendingSpace = true;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            if (pendingSpace && sb.length() > 0) {
+                sb.append(' ');
+            }
+            pendingSpace = false;
+
+            if (c == '\'') {
+                // string literal. two single quotes represent an escaped quote.
+                i++;
+                while (i < length) {
+                    if (query.charAt(i) == '\'') {
+                        if (i + 1 < length && query.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                sb.append('?');
+            } else if (c == '"' || c == '`') {
+                // quoted identifier. keep as is.
+                int end = query.indexOf(c, i + 1);
+                end = end < 0 ? length : end + 1;
+                sb.append(query, i, end);
+                i = end;
+            } else if (Character.isDigit(c) && !isIdentifierTail(sb)) {
+                // numeric literal
+                i++;
+                while (i < length) {
+                    char n = query.charAt(i);
+                    if (Character.isLetterOrDigit(n) || n == '.') {
+                        i++;
+                    } else if ((n == '+' || n == '-') && (query.charAt(i - 1) == 'e' || query.charAt(i - 1) == 'E')) {
+                        i++;  // exponent sign
+                    } else {
+                        break;
+                    }
+                }
+                sb.append('?');
+            } else {
+                sb.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isIdentifierTail(StringBuilder sb) {
+        if (sb.length() == 0) {
+            return false;
+        }
+        char last = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
 }
@@ -0,0 +1,228 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.Stopwatch;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cancel statements that run longer than a hard limit.
+ *
+ * Limits are resolved in this order: limit for the fingerprint of the query(see {@link QueryUtils#getFingerprint(String)}),
+ * limit for the data source, then the default limit. For a batch, the largest limit among its queries is used.
+ * Queries without a limit are not tracked.
+ *
+ * Running queries are scanned by the sweeper of {@link SlowQueryListener}. When a query exceeds its limit,
+ * {@link Statement#cancel()} is called from the sweeper thread, {@link ExecutionInfo#isCancelled()} is set, and
+ * {@link #onCancel(ExecutionInfo, List, long)} is called. The execution usually fails with a driver specific
+ * {@link SQLException}. The cancel and the end of the execution are serialized per execution, so a statement is never
+ * cancelled after {@link #afterQuery(ExecutionInfo, List)} has been called for it; {@code afterQuery} waits while the
+ * cancel request is in progress.
+ *
+ * The check interval is derived from the smallest limit set before the first query, unless it is set by
+ * {@link #setCheckInterval(long, TimeUnit)}.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see net.ttddyy.dsproxy.proxy.QueryTimeoutPolicy
+ * @since 1.6
+ */
+public class QueryWatchdogListener extends SlowQueryListener {
+
+    private static final int DEFAULT_CHECKS_PER_LIMIT = 10;
+
+    private static final long MIN_CHECK_INTERVAL_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    protected static class WatchedQueryContext extends RunningQueryContext {
+        protected long limitInNanos;
+        protected boolean finished;  // guarded by this context
+
+        public WatchedQueryContext(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList, long nowInMills,
+                                   Stopwatch stopwatch, long limitInNanos) {
+            super(executionInfo, queryInfoList, nowInMills, stopwatch);
+            this.limitInNanos = limitInNanos;
+        }
+    }
+
+    protected long defaultLimitInNanos;  // 0 means no limit
+    protected Map<String, Long> dataSourceLimits = new ConcurrentHashMap<String, Long>();
+    protected Map<String, Long> queryLimits = new ConcurrentHashMap<String, Long>();
+
+    private final AtomicLong cancelCount = new AtomicLong();
+    private final AtomicLong cancelFailureCount = new AtomicLong();
+
+    @Override
+    protected RunningQueryContext createRunningQueryContext(ExecutionInfo execInfo, List<QueryInfo> queryInfoList,
+                                                            long nowInMills, Stopwatch stopwatch) {
+        long limitInNanos = getLimitInNanos(execInfo, queryInfoList);
+        if (limitInNanos <= 0) {
+            return null;
+        }
+        return new WatchedQueryContext(execInfo, queryInfoList, nowInMills, stopwatch, limitInNanos);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RunningQueryContext context = this.runningQueries.get(execInfo);
+        if (context != null) {
+            synchronized (context) {
+                ((WatchedQueryContext) context).finished = true;
+            }
+        }
+        this.runningQueries.remove(execInfo);
+    }
+
+    /**
+     * Resolve the limit for the execution.
+     *
+     * @param execInfo      query execution info
+     * @param queryInfoList query parameter info
+     * @return limit in nanoseconds. {@code 0} for no limit
+     */
+    protected long getLimitInNanos(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!this.queryLimits.isEmpty()) {
+            long limit = 0;
+            for (QueryInfo queryInfo : queryInfoList) {
+                Long queryLimit = this.queryLimits.get(QueryUtils.getFingerprint(queryInfo.getQuery()));
+                if (queryLimit != null) {
+                    limit = Math.max(limit, queryLimit);
+                }
+            }
+            if (limit > 0) {
+                return limit;
+            }
+        }
+        String dataSourceName = execInfo.getDataSourceName();
+        if (dataSourceName != null) {
+            Long dataSourceLimit = this.dataSourceLimits.get(dataSourceName);
+            if (dataSourceLimit != null) {
+                return dataSourceLimit;
+            }
+        }
+        return this.defaultLimitInNanos;
+    }
+
+    /**
+     * Scan running queries and cancel the ones that have exceeded their limit.
+     */
+    @Override
+    protected void checkSlowQueries() {
+        final long now = System.nanoTime();
+
+        for (RunningQueryContext runningContext : this.runningQueries.values()) {
+            WatchedQueryContext context = (WatchedQueryContext) runningContext;
+            if (context.reported || now - context.startTimeInNanos < context.limitInNanos) {
+                continue;
+            }
+            context.reported = true;
+            cancel(context);
+        }
+    }
+
+    private void cancel(WatchedQueryContext context) {
+        ExecutionInfo execInfo = context.executionInfo;
+        Statement statement = execInfo.getStatement();
+        if (statement == null) {
+            return;
+        }
+
+        synchronized (context) {
+            if (context.finished) {
+                return;  // finished meanwhile
+            }
+
+            if (execInfo.getElapsedTime() == 0) {
+                execInfo.setElapsedTime(context.stopwatch.getElapsedTime());
+            }
+
+            // mark before cancel so that the executing thread sees it when the execution fails
+            execInfo.setCancelled(true);
+            try {
+                statement.cancel();
+            } catch (SQLException ex) {
+                execInfo.setCancelled(false);
+                this.cancelFailureCount.incrementAndGet();
+                return;
+            }
+        }
+        this.cancelCount.incrementAndGet();
+
+        try {
+            onCancel(execInfo, context.queryInfoList, context.startTimeInMills);
+        } catch (RuntimeException ex) {
+            // keep sweeping. an exception here would cancel the periodic task.
+        }
+    }
+
+    @Override
+    protected long getCheckIntervalInNanos() {
+        if (this.checkIntervalInNanos > 0) {
+            return this.checkIntervalInNanos;
+        }
+        long smallest = this.defaultLimitInNanos;
+        for (Long limit : this.dataSourceLimits.values()) {
+            smallest = smallest > 0 ? Math.min(smallest, limit) : limit;
+        }
+        for (Long limit : this.queryLimits.values()) {
+            smallest = smallest > 0 ? Math.min(smallest, limit) : limit;
+        }
+        return Math.max(smallest / DEFAULT_CHECKS_PER_LIMIT, MIN_CHECK_INTERVAL_IN_NANOS);
+    }
+
+    /**
+     * Callback when a statement has been cancelled.
+     *
+     * @param execInfo         query execution info
+     * @param queryInfoList    query parameter info
+     * @param startTimeInMills time in mills when the query started
+     */
+    protected void onCancel(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, long startTimeInMills) {
+    }
+
+    /**
+     * @param limit    limit for queries without query or data source limit. {@code 0} for no limit
+     * @param timeUnit time unit
+     */
+    public void setDefaultLimit(long limit, TimeUnit timeUnit) {
+        this.defaultLimitInNanos = timeUnit.toNanos(limit);
+    }
+
+    /**
+     * @param dataSourceName data source name
+     * @param limit          limit for queries on the data source
+     * @param timeUnit       time unit
+     */
+    public void setDataSourceLimit(String dataSourceName, long limit, TimeUnit timeUnit) {
+        this.dataSourceLimits.put(dataSourceName, timeUnit.toNanos(limit));
+    }
+
+    /**
+     * @param query    query or its fingerprint
+     * @param limit    limit for the query
+     * @param timeUnit time unit
+     */
+    public void setQueryLimit(String query, long limit, TimeUnit timeUnit) {
+        this.queryLimits.put(QueryUtils.getFingerprint(query), timeUnit.toNanos(limit));
+    }
+
+    /**
+     * @return number of cancelled statements
+     */
+    public long getCancelCount() {
+        return this.cancelCount.get();
+    }
+
+    /**
+     * @return number of statements the driver failed to cancel
+     */
+    public long getCancelFailureCount() {
+        return this.cancelFailureCount.get();
+    }
+
+}
@@ -0,0 +1,194 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How a {@link java.sql.ResultSet} returned by a query execution was consumed.
+ *
+ * Times are in nano seconds. Time spent in {@code next()} and getters is measured around each call on the result set
+ * proxy; open time is from the end of the query execution until the result set is closed.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ResultSetConsumptionListener
+ * @since 1.6
+ */
+public class ResultSetConsumption {
+
+    private final ExecutionInfo executionInfo;
+    private final List<QueryInfo> queryInfoList;
+    private final long openedAtNanos;
+    protected long callStartNanos;
+    private long rowCount;
+    private long nextTimeNanos;
+    private long getterCount;
+    private long getterTimeNanos;
+    private long timeToFirstRowNanos = -1;
+    private long openTimeNanos;
+    private boolean closedExplicitly;
+    private boolean exhausted;
+    private long unreadRowCount = -1;
+    private String[] columnLabels;  // only when columns are tracked
+    private Map<String, Integer> columnIndexByLabel;
+    private final BitSet readColumns = new BitSet();
+
+    public ResultSetConsumption(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList, long openedAtNanos) {
+        this.executionInfo = executionInfo;
+        this.queryInfoList = queryInfoList;
+        this.openedAtNanos = openedAtNanos;
+    }
+
+    protected void recordNext(long now, boolean hasRow) {
+        this.nextTimeNanos += now - this.callStartNanos;
+        if (hasRow) {
+            if (this.rowCount == 0) {
+                this.timeToFirstRowNanos = now - this.openedAtNanos;
+            }
+            this.rowCount++;
+        } else {
+            this.exhausted = true;
+        }
+    }
+
+    protected void setColumnLabels(String[] columnLabels) {
+        this.columnLabels = columnLabels;
+    }
+
+    /**
+     * @param columnIndexOrLabel 1 based column index or column label given to a getter
+     */
+    protected void recordColumn(Object columnIndexOrLabel) {
+        if (columnIndexOrLabel instanceof Integer) {
+            this.readColumns.set((Integer) columnIndexOrLabel);
+        } else if (columnIndexOrLabel instanceof String && this.columnLabels != null) {
+            if (this.columnIndexByLabel == null) {
+                this.columnIndexByLabel = new HashMap<String, Integer>();
+                for (int i = this.columnLabels.length; i > 0; i--) {  // first column wins
+                    this.columnIndexByLabel.put(this.columnLabels[i - 1].toUpperCase(Locale.ENGLISH), i);
+                }
+            }
+            Integer index = this.columnIndexByLabel.get(((String) columnIndexOrLabel).toUpperCase(Locale.ENGLISH));
+            if (index != null) {
+                this.readColumns.set(index);
+            }
+        }
+    }
+
+    protected void setUnreadRowCount(long unreadRowCount) {
+        this.unreadRowCount = unreadRowCount;
+    }
+
+    protected void recordGetter(long now) {
+        this.getterTimeNanos += now - this.callStartNanos;
+        this.getterCount++;
+    }
+
+    protected void close(long now, boolean explicitly) {
+        this.openTimeNanos = now - this.openedAtNanos;
+        this.closedExplicitly = explicitly;
+    }
+
+    /**
+     * @return execution that returned the result set
+     */
+    public ExecutionInfo getExecutionInfo() {
+        return this.executionInfo;
+    }
+
+    public List<QueryInfo> getQueryInfoList() {
+        return this.queryInfoList;
+    }
+
+    /**
+     * @return fingerprint of the executed queries
+     * @see QueryUtils#getFingerprintForExecution(List)
+     */
+    public String getFingerprint() {
+        return QueryUtils.getFingerprintForExecution(this.queryInfoList);
+    }
+
+    /**
+     * @return number of rows read by {@code next()}
+     */
+    public long getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return cumulative time spent in {@code next()}
+     */
+    public long getNextTimeNanos() {
+        return this.nextTimeNanos;
+    }
+
+    /**
+     * @return number of getter calls
+     */
+    public long getGetterCount() {
+        return this.getterCount;
+    }
+
+    /**
+     * @return cumulative time spent in getters
+     */
+    public long getGetterTimeNanos() {
+        return this.getterTimeNanos;
+    }
+
+    /**
+     * @return time from the end of execution until the first row was read. {@code -1} when no row was read
+     */
+    public long getTimeToFirstRowNanos() {
+        return this.timeToFirstRowNanos;
+    }
+
+    /**
+     * @return time from the end of execution until the result set was closed
+     */
+    public long getOpenTimeNanos() {
+        return this.openTimeNanos;
+    }
+
+    /**
+     * @return {@code false} when the result set was closed by closing its statement or connection
+     */
+    public boolean isClosedExplicitly() {
+        return this.closedExplicitly;
+    }
+
+    /**
+     * @return {@code true} when {@code next()} has returned {@code false}
+     */
+    public boolean isExhausted() {
+        return this.exhausted;
+    }
+
+    /**
+     * @return number of rows left unread when closed. {@code -1} when not counted
+     */
+    public long getUnreadRowCount() {
+        return this.unreadRowCount;
+    }
+
+    /**
+     * @return labels of the selected columns. {@code null} when columns are not tracked
+     */
+    public String[] getColumnLabels() {
+        return this.columnLabels;
+    }
+
+    /**
+     * @param columnIndex 1 based column index
+     * @return {@code true} when any getter has read the column
+     */
+    public boolean isColumnRead(int columnIndex) {
+        return this.readColumns.get(columnIndex);
+    }
+
+}
@@ -0,0 +1,304 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Track how result sets returned by query executions are consumed.
+ *
+ * Rows read, time spent in {@code next()} and getters, time to first row and open duration are collected per
+ * result set. When the result set is closed, {@link #onResultSetClosed(ResultSetConsumption)} is called with the
+ * originating {@link ExecutionInfo}. Result sets closed by closing their statement or connection are reported at
+ * that point.
+ *
+ * This listener needs to be registered as both {@link QueryExecutionListener} and {@link MethodExecutionListener}, and
+ * requires result set proxy. Use {@code ProxyDataSourceBuilder#trackResultSetConsumption(ResultSetConsumptionListener)}.
+ *
+ * Result sets are tracked by identity of the actual {@link ResultSet}, and indexed by their statement and connection so
+ * that closing a statement or connection only visits its own result sets.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ResultSetConsumption
+ * @since 1.6
+ */
+public class ResultSetConsumptionListener implements QueryExecutionListener, SelectiveMethodExecutionListener {
+
+    private static class PendingExecution {
+        private final ExecutionInfo executionInfo;
+        private final List<QueryInfo> queryInfoList;
+
+        private PendingExecution(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+            this.executionInfo = executionInfo;
+            this.queryInfoList = queryInfoList;
+        }
+    }
+
+    private static class ConnectionKey {
+        private final String dataSourceName;
+        private final String connectionId;
+
+        private ConnectionKey(String dataSourceName, String connectionId) {
+            this.dataSourceName = dataSourceName;
+            this.connectionId = connectionId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ConnectionKey)) {
+                return false;
+            }
+            ConnectionKey that = (ConnectionKey) o;
+            return ResultSetConsumptionListener.equals(this.dataSourceName, that.dataSourceName)
+                    && ResultSetConsumptionListener.equals(this.connectionId, that.connectionId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = this.dataSourceName != null ? this.dataSourceName.hashCode() : 0;
+            return 31 * result + (this.connectionId != null ? this.connectionId.hashCode() : 0);
+        }
+    }
+
+    private static class TrackedStatement {
+        private final ConnectionKey connectionKey;
+        private final Set<Object> resultSets = newConcurrentSet();
+
+        private TrackedStatement(ConnectionKey connectionKey) {
+            this.connectionKey = connectionKey;
+        }
+    }
+
+    // key: actual ResultSet
+    protected final ConcurrentMap<Object, ResultSetConsumption> openResultSets = new ConcurrentHashMap<Object, ResultSetConsumption>();
+
+    // key: actual Statement, executed by "execute()" and waiting for "getResultSet()"
+    private final ConcurrentMap<Object, PendingExecution> pendingExecutions = new ConcurrentHashMap<Object, PendingExecution>();
+
+    // key: actual Statement that has open result sets or a pending execution
+    private final ConcurrentMap<Object, TrackedStatement> statements = new ConcurrentHashMap<Object, TrackedStatement>();
+
+    // value: actual Statements of the connection
+    private final ConcurrentMap<ConnectionKey, Set<Object>> connections = new ConcurrentHashMap<ConnectionKey, Set<Object>>();
+
+    protected boolean trackColumns;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Object result = execInfo.getResult();
+        if (result instanceof ResultSet) {
+            register(result, execInfo, queryInfoList);
+        } else if (Boolean.TRUE.equals(result) && "execute".equals(execInfo.getMethod().getName())) {
+            Object statement = execInfo.getStatement();
+            if (statement != null) {
+                this.pendingExecutions.put(statement, new PendingExecution(execInfo, queryInfoList));
+                getTrackedStatement(statement, execInfo);
+            }
+        }
+    }
+
+    private void register(Object resultSet, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Object key = resultSet instanceof ProxyJdbcObject ? ((ProxyJdbcObject) resultSet).getTarget() : resultSet;
+        this.openResultSets.put(key, new ResultSetConsumption(execInfo, queryInfoList, System.nanoTime()));
+        Object statement = execInfo.getStatement();
+        if (statement != null) {
+            getTrackedStatement(statement, execInfo).resultSets.add(key);
+        }
+    }
+
+    private TrackedStatement getTrackedStatement(Object statement, ExecutionInfo execInfo) {
+        TrackedStatement trackedStatement = this.statements.get(statement);
+        if (trackedStatement != null) {
+            return trackedStatement;
+        }
+        ConnectionKey connectionKey = new ConnectionKey(execInfo.getDataSourceName(), execInfo.getConnectionId());
+        trackedStatement = new TrackedStatement(connectionKey);
+        TrackedStatement existing = this.statements.putIfAbsent(statement, trackedStatement);
+        if (existing != null) {
+            return existing;
+        }
+
+        Set<Object> connectionStatements = this.connections.get(connectionKey);
+        if (connectionStatements == null) {
+            Set<Object> created = newConcurrentSet();
+            connectionStatements = this.connections.putIfAbsent(connectionKey, created);
+            if (connectionStatements == null) {
+                connectionStatements = created;
+            }
+        }
+        connectionStatements.add(statement);
+        return trackedStatement;
+    }
+
+    @Override
+    public boolean isInterested(Method method, Object proxyTarget) {
+        String methodName = method.getName();
+        if (proxyTarget instanceof ResultSet) {
+            return "next".equals(methodName) || "close".equals(methodName) || isGetter(method);
+        } else if (proxyTarget instanceof Statement) {
+            return "getResultSet".equals(methodName) || "close".equals(methodName);
+        } else if (proxyTarget instanceof Connection) {
+            return "close".equals(methodName);
+        }
+        return false;
+    }
+
+    private boolean isGetter(Method method) {
+        return method.getName().startsWith("get") && method.getParameterTypes().length > 0;
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+        Object target = executionContext.getTarget();
+        if (target instanceof ResultSet) {
+            ResultSetConsumption consumption = this.openResultSets.get(target);
+            if (consumption != null) {
+                consumption.callStartNanos = System.nanoTime();
+            }
+        }
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        long now = System.nanoTime();
+        Object target = executionContext.getTarget();
+        Method method = executionContext.getMethod();
+        String methodName = method.getName();
+
+        if (target instanceof ResultSet) {
+            if ("close".equals(methodName)) {
+                ResultSetConsumption consumption = this.openResultSets.remove(target);
+                if (consumption != null) {
+                    Object statement = consumption.getExecutionInfo().getStatement();
+                    TrackedStatement trackedStatement = statement != null ? this.statements.get(statement) : null;
+                    if (trackedStatement != null) {
+                        trackedStatement.resultSets.remove(target);
+                    }
+                    consumption.close(now, true);
+                    onResultSetClosed(consumption);
+                }
+                return;
+            }
+            ResultSetConsumption consumption = this.openResultSets.get(target);
+            if (consumption == null) {
+                return;
+            }
+            if ("next".equals(methodName)) {
+                consumption.recordNext(now, Boolean.TRUE.equals(executionContext.getResult()));
+            } else if (isGetter(method)) {
+                consumption.recordGetter(now);
+                if (this.trackColumns) {
+                    if (consumption.getColumnLabels() == null) {
+                        consumption.setColumnLabels(getColumnLabels((ResultSet) target));
+                    }
+                    consumption.recordColumn(executionContext.getMethodArgs()[0]);
+                }
+            }
+        } else if (target instanceof Statement) {
+            if ("getResultSet".equals(methodName)) {
+                PendingExecution pending = this.pendingExecutions.remove(target);
+                if (pending != null && executionContext.getResult() instanceof ResultSet) {
+                    register(executionContext.getResult(), pending.executionInfo, pending.queryInfoList);
+                }
+            } else if ("close".equals(methodName)) {
+                TrackedStatement trackedStatement = this.statements.remove(target);
+                if (trackedStatement != null) {
+                    Set<Object> connectionStatements = this.connections.get(trackedStatement.connectionKey);
+                    if (connectionStatements != null) {
+                        connectionStatements.remove(target);
+                    }
+                    closeImplicitly(target, trackedStatement, now);
+                }
+            }
+        } else if (target instanceof Connection && "close".equals(methodName)) {
+            ConnectionInfo connectionInfo = executionContext.getConnectionInfo();
+            if (connectionInfo != null) {
+                ConnectionKey connectionKey = new ConnectionKey(connectionInfo.getDataSourceName(), connectionInfo.getConnectionId());
+                Set<Object> connectionStatements = this.connections.remove(connectionKey);
+                if (connectionStatements != null) {
+                    for (Object statement : connectionStatements) {
+                        TrackedStatement trackedStatement = this.statements.remove(statement);
+                        if (trackedStatement != null) {
+                            closeImplicitly(statement, trackedStatement, now);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private String[] getColumnLabels(ResultSet resultSet) {
+        try {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            String[] labels = new String[metaData.getColumnCount()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1);
+            }
+            return labels;
+        } catch (SQLException e) {
+            return new String[0];
+        }
+    }
+
+    private void closeImplicitly(Object statement, TrackedStatement trackedStatement, long now) {
+        this.pendingExecutions.remove(statement);
+        for (Object resultSet : trackedStatement.resultSets) {
+            ResultSetConsumption consumption = this.openResultSets.remove(resultSet);
+            if (consumption != null) {
+                consumption.close(now, false);
+                onResultSetClosed(consumption);
+            }
+        }
+    }
+
+    private static Set<Object> newConcurrentSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+    }
+
+    private static boolean equals(String left, String right) {
+        return left == null ? right == null : left.equals(right);
+    }
+
+    /**
+     * Called when a tracked result set is closed.
+     *
+     * @param consumption consumption of the result set
+     */
+    protected void onResultSetClosed(ResultSetConsumption consumption) {
+    }
+
+    /**
+     * @param trackColumns {@code true} to record which columns are read by getters. (default is false)
+     */
+    public void setTrackColumns(boolean trackColumns) {
+        this.trackColumns = trackColumns;
+    }
+
+    /**
+     * @return number of result sets currently tracked
+     */
+    public int getOpenResultSetCount() {
+        return this.openResultSets.size();
+    }
+
+}
@@ -0,0 +1,24 @@
+package net.ttddyy.dsproxy.listener;
+
+import java.lang.reflect.Method;
+
+/**
+ * {@link MethodExecutionListener} that tells which JDBC methods it observes.
+ *
+ * When none of the registered method listeners is interested in an invoked method, the method is called without
+ * creating {@link MethodExecutionContext} and calling listeners.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see MethodExecutionListenerUtils
+ * @since 1.6
+ */
+public interface SelectiveMethodExecutionListener extends MethodExecutionListener {
+
+    /**
+     * @param method      invoked JDBC method
+     * @param proxyTarget proxy target
+     * @return {@code true} when this listener needs to be called for the method
+     */
+    boolean isInterested(Method method, Object proxyTarget);
+
+}
@@ -21,6 +21,12 @@ import java.util.concurrent.TimeUnit;
  * When query takes more than specified threshold, {@link #onSlowQuery(ExecutionInfo, List, long)} callback method
  * is called. The callback is called only once for the target query if it exceeds the threshold time.
  *
+ * Running queries are kept in an in-flight registry and a single sweeper task, scheduled on {@link #getExecutor()},
+ * periodically scans the registry to find queries that have exceeded the threshold. Nothing is scheduled per query,
+ * and completing a query only removes its entry from the registry.
+ * Since detection happens at each sweep, the callback is triggered within the threshold plus the check interval.
+ * (see {@link #setCheckInterval(long, TimeUnit)})
+ *
  * NOTE:
  * {@link ExecutionInfo#elapsedTime} contains the time when callback is triggered which usually is the specified threshold time.
  *
@@ -49,21 +55,29 @@ import java.util.concurrent.TimeUnit;
  */
 public class SlowQueryListener implements QueryExecutionListener {
 
+    /**
+     * When check interval is not specified, the threshold is divided by this value to derive the interval.
+     */
+    private static final int DEFAULT_CHECKS_PER_THRESHOLD = 10;
+
+    private static final long MIN_CHECK_INTERVAL_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
     /**
      * Data holder for currently running query.
-     *
-     * This structure is used to avoid hard reference from scheduled {@link Runnable} to {@link ExecutionInfo} and etc.
      */
     protected static class RunningQueryContext {
         protected ExecutionInfo executionInfo;
         protected List<QueryInfo> queryInfoList;
         protected long startTimeInMills;
+        protected long startTimeInNanos;
         protected Stopwatch stopwatch;
+        protected boolean reported;  // only accessed by the sweeper
 
         public RunningQueryContext(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList, long nowInMills, Stopwatch stopwatch) {
             this.executionInfo = executionInfo;
             this.queryInfoList = queryInfoList;
             this.startTimeInMills = nowInMills;
+            this.startTimeInNanos = System.nanoTime();
             this.stopwatch = stopwatch;
         }
     }
@@ -80,65 +94,136 @@ public class SlowQueryListener implements QueryExecutionListener {
     });
     protected long threshold;
     protected TimeUnit thresholdTimeUnit;
+    protected long checkIntervalInNanos;  // 0 means derived from the threshold
+    /**
+     * @deprecated no longer populated. use {@link #runningQueries}
+     */
+    @Deprecated
     protected Map<String, RunningQueryContext> inExecution = new ConcurrentHashMap<String, RunningQueryContext>();
+    /**
+     * Currently running queries.
+     * {@link ExecutionInfo} uses identity equality, thus each running query has its own entry without computing a key.
+     *
+     * @since 1.6
+     */
+    protected Map<ExecutionInfo, RunningQueryContext> runningQueries = new ConcurrentHashMap<ExecutionInfo, RunningQueryContext>();
     protected StopwatchFactory stopwatchFactory = new SystemStopwatchFactory();
 
+    private volatile boolean sweeperStarted;
+
     @Override
     public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
-
-        final String execInfoKey = getExecutionInfoKey(execInfo);
-
-        // only pass the key to prevent hard reference from Runnable to ExecutionInfo. (Issue-53)
-        Runnable check = new Runnable() {
-            @Override
-            public void run() {
-                // if it's still in map, that means it's still running
-                RunningQueryContext context = SlowQueryListener.this.inExecution.get(execInfoKey);
-
-                if (context != null) {
-                    long elapsedTime = context.stopwatch.getElapsedTime();
-                    // populate elapsed time
-                    if (context.executionInfo.getElapsedTime() == 0) {
-                        context.executionInfo.setElapsedTime(elapsedTime);
-                    }
-
-                    onSlowQuery(context.executionInfo, context.queryInfoList, context.startTimeInMills);
-                }
-            }
-        };
-        this.executor.schedule(check, this.threshold, this.thresholdTimeUnit);
+        if (!this.sweeperStarted) {
+            startSweeper();
+        }
 
         long now = System.currentTimeMillis();
         Stopwatch stopwatch = this.stopwatchFactory.create().start();
-        RunningQueryContext context = new RunningQueryContext(execInfo, queryInfoList, now, stopwatch);
-        this.inExecution.put(execInfoKey, context);
+        RunningQueryContext context = createRunningQueryContext(execInfo, queryInfoList, now, stopwatch);
+        if (context != null) {
+            this.runningQueries.put(execInfo, context);
+        }
+
+    }
 
+    /**
+     * Create a registry entry for the query that is about to run.
+     *
+     * @param execInfo      query execution info
+     * @param queryInfoList query parameter info
+     * @param nowInMills    current time in mills
+     * @param stopwatch     started stopwatch
+     * @return context of the running query. {@code null} not to track the query
+     * @since 1.6
+     */
+    protected RunningQueryContext createRunningQueryContext(ExecutionInfo execInfo, List<QueryInfo> queryInfoList,
+                                                            long nowInMills, Stopwatch stopwatch) {
+        return new RunningQueryContext(execInfo, queryInfoList, nowInMills, stopwatch);
     }
 
     @Override
     public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
-        String executionInfoKey = getExecutionInfoKey(execInfo);
-        this.inExecution.remove(executionInfoKey);
+        RunningQueryContext context = this.runningQueries.remove(execInfo);
+        if (context != null && System.nanoTime() - context.startTimeInNanos >= this.thresholdTimeUnit.toNanos(this.threshold)) {
+            afterSlowQuery(execInfo, queryInfoList, context.startTimeInMills);
+        }
     }
 
-
     /**
      * Calculate a key for given {@link ExecutionInfo}.
      *
-     * <p>This key is passed to the slow query check {@link Runnable} as well as for removal in {@link #afterQuery(ExecutionInfo, List)}.
-     *
-     * <p>Default implementation uses {@link System#identityHashCode(Object)}. This does NOT guarantee 100% of uniqueness; however, since
-     * the current usage of the key is short lived and good enough for this use case.
-     * <p>Subclass can override this method to provide different implementation to uniquely represent {@link ExecutionInfo}.
-     *
      * @param executionInfo execution info
      * @return key
+     * @deprecated running queries are keyed by {@link ExecutionInfo} itself. (see {@link #runningQueries})
      */
+    @Deprecated
     protected String getExecutionInfoKey(ExecutionInfo executionInfo) {
         int exeInfoKey = System.identityHashCode(executionInfo);
         return String.valueOf(exeInfoKey);
     }
 
+    /**
+     * Schedule the sweeper task that periodically checks running queries.
+     *
+     * The sweeper is started lazily at the first query so that threshold and check interval can be set after
+     * construction.
+     *
+     * @since 1.6
+     */
+    protected synchronized void startSweeper() {
+        if (this.sweeperStarted) {
+            return;
+        }
+        long interval = getCheckIntervalInNanos();
+        Runnable sweeper = new Runnable() {
+            @Override
+            public void run() {
+                checkSlowQueries();
+            }
+        };
+        this.executor.scheduleWithFixedDelay(sweeper, interval, interval, TimeUnit.NANOSECONDS);
+        this.sweeperStarted = true;
+    }
+
+    /**
+     * Scan running queries and call {@link #onSlowQuery(ExecutionInfo, List, long)} for the ones that have
+     * exceeded the threshold and are not yet reported.
+     *
+     * @since 1.6
+     */
+    protected void checkSlowQueries() {
+        final long thresholdInNanos = this.thresholdTimeUnit.toNanos(this.threshold);
+        final long now = System.nanoTime();
+
+        for (RunningQueryContext context : this.runningQueries.values()) {
+            if (context.reported || now - context.startTimeInNanos < thresholdInNanos) {
+                continue;
+            }
+            context.reported = true;
+
+            long elapsedTime = context.stopwatch.getElapsedTime();
+            // populate elapsed time
+            if (context.executionInfo.getElapsedTime() == 0) {
+                context.executionInfo.setElapsedTime(elapsedTime);
+            }
+
+            try {
+                onSlowQuery(context.executionInfo, context.queryInfoList, context.startTimeInMills);
+            } catch (RuntimeException ex) {
+                // keep sweeping. an exception here would cancel the periodic task.
+            }
+        }
+    }
+
+    protected long getCheckIntervalInNanos() {
+        if (this.checkIntervalInNanos > 0) {
+            return this.checkIntervalInNanos;
+        }
+        long derived = this.thresholdTimeUnit.toNanos(this.threshold) / DEFAULT_CHECKS_PER_THRESHOLD;
+        return Math.max(derived, MIN_CHECK_INTERVAL_IN_NANOS);
+    }
+
+
     /**
      * Callback when query execution time exceeds the threshold.
      *
@@ -151,6 +236,20 @@ public class SlowQueryListener implements QueryExecutionListener {
     protected void onSlowQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, long startTimeInMills) {
     }
 
+    /**
+     * Callback when a query that has exceeded the threshold time has finished.
+     *
+     * Unlike {@link #onSlowQuery(ExecutionInfo, List, long)}, {@link ExecutionInfo#getElapsedTime()} contains the
+     * actual execution time of the query.
+     *
+     * @param execInfo         query execution info
+     * @param queryInfoList    query parameter info
+     * @param startTimeInMills time in mills when the query started
+     * @since 1.6
+     */
+    protected void afterSlowQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, long startTimeInMills) {
+    }
+
     public void setThreshold(long threshHold) {
         this.threshold = threshHold;
     }
@@ -171,6 +270,21 @@ public class SlowQueryListener implements QueryExecutionListener {
         return thresholdTimeUnit;
     }
 
+    /**
+     * Set the interval to check running queries.
+     *
+     * Smaller interval reports slow queries closer to the threshold at the cost of more frequent scan.
+     * Default is one tenth of the threshold (minimum 1 millisecond).
+     * This needs to be set before the first query is executed.
+     *
+     * @param checkInterval interval to check running queries
+     * @param timeUnit      time unit of the interval
+     * @since 1.6
+     */
+    public void setCheckInterval(long checkInterval, TimeUnit timeUnit) {
+        this.checkIntervalInNanos = timeUnit.toNanos(checkInterval);
+    }
+
     /**
      * When set to {@code true}(default), the executor creates daemon threads to check slow queries.
      *
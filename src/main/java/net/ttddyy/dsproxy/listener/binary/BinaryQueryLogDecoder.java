@@ -0,0 +1,231 @@
+package net.ttddyy.dsproxy.listener.binary;
+
+import net.ttddyy.dsproxy.listener.logging.JsonUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Convert binary query log files to JSON lines or CSV.
+ *
+ * <pre>
+ * java -cp datasource-proxy.jar net.ttddyy.dsproxy.listener.binary.BinaryQueryLogDecoder [--csv] file...
+ * </pre>
+ *
+ * JSON output has one object per execution. CSV output has one row per query in an execution.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class BinaryQueryLogDecoder {
+
+    public enum Format {
+        JSON, CSV
+    }
+
+    private static final String CSV_HEADER = "startTime,dataSource,connection,thread,type,success,batch,elapsedNanos,fingerprint,query,params";
+
+    protected Format format = Format.JSON;
+
+    public BinaryQueryLogDecoder() {
+    }
+
+    public BinaryQueryLogDecoder(Format format) {
+        this.format = format;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Format format = Format.JSON;
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(System.out, BinaryQueryLogFormat.UTF_8));
+        boolean hasFile = false;
+        for (String arg : args) {
+            if ("--csv".equals(arg)) {
+                format = Format.CSV;
+            } else if ("--json".equals(arg)) {
+                format = Format.JSON;
+            } else {
+                if (!hasFile && format == Format.CSV) {
+                    writer.println(CSV_HEADER);
+                }
+                hasFile = true;
+                new BinaryQueryLogDecoder(format).decode(new File(arg), writer);
+            }
+        }
+        if (!hasFile) {
+            System.err.println("Usage: BinaryQueryLogDecoder [--json|--csv] file...");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write decoded records in the file. CSV header is not written.
+     *
+     * @param file   file to decode
+     * @param writer output
+     * @throws IOException when failed to read the file or to write
+     */
+    public void decode(File file, Writer writer) throws IOException {
+        BinaryQueryLogReader reader = new BinaryQueryLogReader(file);
+        try {
+            StringBuilder sb = new StringBuilder(256);
+            BinaryQueryLogRecord record;
+            while ((record = reader.next()) != null) {
+                sb.setLength(0);
+                if (this.format == Format.CSV) {
+                    writeCsv(sb, record);
+                } else {
+                    writeJson(sb, record);
+                    sb.append('\n');
+                }
+                writer.append(sb);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    protected void writeJson(StringBuilder sb, BinaryQueryLogRecord record) {
+        sb.append("{");
+        JsonUtils.appendField(sb, "startTime", record.getStartTimeInMillis());
+        sb.append(", ");
+        JsonUtils.appendField(sb, "dataSource", record.getDataSourceName());
+        sb.append(", ");
+        JsonUtils.appendField(sb, "connection", record.getConnectionId());
+        sb.append(", ");
+        JsonUtils.appendField(sb, "thread", record.getThreadName());
+        sb.append(", ");
+        JsonUtils.appendField(sb, "type", record.getStatementType() == null ? null : record.getStatementType().name());
+        sb.append(", ");
+        JsonUtils.appendName(sb, "success");
+        sb.append(record.isSuccess());
+        sb.append(", ");
+        JsonUtils.appendName(sb, "batch");
+        sb.append(record.isBatch());
+        sb.append(", ");
+        JsonUtils.appendField(sb, "elapsedNanos", record.getElapsedTimeInNanos());
+        sb.append(", ");
+        JsonUtils.appendName(sb, "queries");
+        sb.append("[");
+        List<BinaryQueryLogRecord.Query> queries = record.getQueries();
+        for (int i = 0; i < queries.size(); i++) {
+            BinaryQueryLogRecord.Query query = queries.get(i);
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("{");
+            JsonUtils.appendField(sb, "query", query.getQuery());
+            sb.append(", ");
+            JsonUtils.appendField(sb, "fingerprint", query.getFingerprint());
+            sb.append(", ");
+            JsonUtils.appendName(sb, "params");
+            writeJsonParams(sb, query.getParametersList());
+            sb.append("}");
+        }
+        sb.append("]}");
+    }
+
+    private void writeJsonParams(StringBuilder sb, List<List<BinaryQueryLogRecord.Parameter>> parametersList) {
+        sb.append("[");
+        for (int i = 0; i < parametersList.size(); i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("{");
+            List<BinaryQueryLogRecord.Parameter> parameters = parametersList.get(i);
+            for (int j = 0; j < parameters.size(); j++) {
+                BinaryQueryLogRecord.Parameter parameter = parameters.get(j);
+                if (j > 0) {
+                    sb.append(",");
+                }
+                JsonUtils.appendString(sb, String.valueOf(parameter.getKey()));
+                sb.append(":");
+                JsonUtils.appendString(sb, getDisplayValue(parameter));
+            }
+            sb.append("}");
+        }
+        sb.append("]");
+    }
+
+    protected void writeCsv(StringBuilder sb, BinaryQueryLogRecord record) {
+        for (BinaryQueryLogRecord.Query query : record.getQueries()) {
+            sb.append(record.getStartTimeInMillis());
+            sb.append(',');
+            appendCsv(sb, record.getDataSourceName());
+            sb.append(',');
+            appendCsv(sb, record.getConnectionId());
+            sb.append(',');
+            appendCsv(sb, record.getThreadName());
+            sb.append(',');
+            sb.append(record.getStatementType() == null ? "" : record.getStatementType().name());
+            sb.append(',');
+            sb.append(record.isSuccess());
+            sb.append(',');
+            sb.append(record.isBatch());
+            sb.append(',');
+            sb.append(record.getElapsedTimeInNanos());
+            sb.append(',');
+            appendCsv(sb, query.getFingerprint());
+            sb.append(',');
+            appendCsv(sb, query.getQuery());
+            sb.append(',');
+
+            StringBuilder params = new StringBuilder();
+            for (List<BinaryQueryLogRecord.Parameter> parameters : query.getParametersList()) {
+                params.append("(");
+                for (int i = 0; i < parameters.size(); i++) {
+                    BinaryQueryLogRecord.Parameter parameter = parameters.get(i);
+                    if (i > 0) {
+                        params.append(",");
+                    }
+                    params.append(parameter.getKey());
+                    params.append("=");
+                    params.append(getDisplayValue(parameter));
+                }
+                params.append(")");
+            }
+            appendCsv(sb, params);
+            sb.append('\n');
+        }
+    }
+
+    private void appendCsv(StringBuilder sb, CharSequence value) {
+        if (value == null) {
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    protected String getDisplayValue(BinaryQueryLogRecord.Parameter parameter) {
+        Object value = parameter.getValue();
+        switch (parameter.getType()) {
+            case BinaryQueryLogFormat.TYPE_SET_NULL:
+                return "NULL";
+            case BinaryQueryLogFormat.TYPE_OUT_PARAMETER:
+                return "OUTPUT(" + value + ")";
+            case BinaryQueryLogFormat.TYPE_BYTES:
+                byte[] bytes = (byte[]) value;
+                StringBuilder sb = new StringBuilder(bytes.length * 2 + 2);
+                sb.append("0x");
+                for (byte b : bytes) {
+                    sb.append(Character.forDigit((b >> 4) & 0x0f, 16));
+                    sb.append(Character.forDigit(b & 0x0f, 16));
+                }
+                return sb.toString();
+            default:
+                return value == null ? null : value.toString();
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package net.ttddyy.dsproxy.listener.binary;
+
+import java.nio.charset.Charset;
+
+/**
+ * Constants of the binary query log format.
+ *
+ * A file starts with {@link #MAGIC} and {@link #VERSION}, followed by records. Each record is
+ * {@code int length}(of the rest of the record), {@code byte type} and the payload.
+ * Unused area at the end of a file is filled with zero, which is read as end of file.
+ * Numbers are big endian and strings are {@code int length} followed by UTF-8 bytes.
+ *
+ * Strings that repeat across records(query, fingerprint, datasource name, connection id, thread name and parameter
+ * name) are written once per file as {@link #RECORD_DICTIONARY} and referenced by id afterwards.
+ * Thus, each file can be decoded independently.
+ *
+ * <pre>
+ * DICTIONARY: int id, string value
+ * QUERY:      long startTimeInMillis, long startTimeInNanos, long elapsedTimeInNanos,
+ *             int dataSourceNameId, int connectionId, int threadNameId, long threadId,
+ *             byte statementType, byte flags(success, batch), int batchSize,
+ *             int queryCount, [int queryId, int fingerprintId, int parameterSetCount,
+ *             [int parameterCount, [key, value]]]
+ * key:        byte(0 = index), int index | byte(1 = name), int nameId
+ * value:      byte type, value by type
+ * </pre>
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class BinaryQueryLogFormat {
+
+    public static final int MAGIC = 0x4453504c;  // "DSPL"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 6;
+
+    public static final String FILE_SUFFIX = ".dsplog";
+
+    public static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // record types
+    public static final byte RECORD_DICTIONARY = 1;
+    public static final byte RECORD_QUERY = 2;
+
+    // flags
+    public static final byte FLAG_SUCCESS = 1;
+    public static final byte FLAG_BATCH = 2;
+
+    // parameter key
+    public static final byte KEY_INDEX = 0;
+    public static final byte KEY_NAME = 1;
+
+    // parameter value types
+    public static final byte TYPE_NULL = 0;             // no payload
+    public static final byte TYPE_SET_NULL = 1;         // int sqlType
+    public static final byte TYPE_OUT_PARAMETER = 2;    // int sqlType (-1 if not int)
+    public static final byte TYPE_BOOLEAN = 3;          // byte
+    public static final byte TYPE_BYTE = 4;             // byte
+    public static final byte TYPE_SHORT = 5;            // short
+    public static final byte TYPE_INT = 6;              // int
+    public static final byte TYPE_LONG = 7;             // long
+    public static final byte TYPE_FLOAT = 8;            // float
+    public static final byte TYPE_DOUBLE = 9;           // double
+    public static final byte TYPE_BIG_DECIMAL = 10;     // string
+    public static final byte TYPE_STRING = 11;          // string
+    public static final byte TYPE_BYTES = 12;           // int length, bytes
+    public static final byte TYPE_DATE = 13;            // long millis
+    public static final byte TYPE_TIME = 14;            // long millis
+    public static final byte TYPE_TIMESTAMP = 15;       // long millis, int nanos
+    public static final byte TYPE_OTHER = 16;           // string (class name), string (toString)
+
+}
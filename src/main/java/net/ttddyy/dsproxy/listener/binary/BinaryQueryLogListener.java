@@ -0,0 +1,497 @@
+package net.ttddyy.dsproxy.listener.binary;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.StatementType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.ttddyy.dsproxy.listener.binary.BinaryQueryLogFormat.*;
+
+/**
+ * Write query executions as binary records to rotating memory mapped files.
+ *
+ * Files are created in the given directory as {@code <prefix>-<sequence>.dsplog}. When a file is full, next file
+ * is created, and old files are deleted to keep {@link #setMaxFiles(int)} files.
+ * See {@link BinaryQueryLogFormat} for the format, and {@link BinaryQueryLogReader} and
+ * {@link BinaryQueryLogDecoder} to read the files.
+ *
+ * Unlike elapsed time in {@link ExecutionInfo}, elapsed time is always recorded in nano seconds measured by this
+ * listener.
+ *
+ * Records are written under a lock. Call {@link #close()} to flush the last file.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class BinaryQueryLogListener implements QueryExecutionListener, Closeable {
+
+    private static final String START_TIME_KEY = BinaryQueryLogListener.class.getName() + ".startTime";
+
+    public static final long DEFAULT_MAX_FILE_SIZE = 64 * 1024 * 1024;
+
+    protected File directory;
+    protected String filePrefix;
+    protected long maxFileSize = DEFAULT_MAX_FILE_SIZE;
+    protected int maxFiles = 10;
+    protected int maxBytesLength = 64 * 1024;
+    protected int maxDictionarySize = 100000;
+
+    // guarded by this
+    private final Map<String, Integer> dictionary = new HashMap<String, Integer>();
+    private final Map<String, Integer> fingerprintIdByQuery = new HashMap<String, Integer>();
+    // entries added by the record being written. merged when the record is written to the file
+    private final Map<String, Integer> stagedDictionary = new HashMap<String, Integer>();
+    private final Map<String, Integer> stagedFingerprintIdByQuery = new HashMap<String, Integer>();
+    private ByteBuffer dictionaryBuffer = ByteBuffer.allocate(4 * 1024);
+    private ByteBuffer recordBuffer = ByteBuffer.allocate(4 * 1024);
+    private RandomAccessFile file;
+    private MappedByteBuffer mappedBuffer;
+    private int fileSequence = -1;
+    private long recordCount;
+    private long droppedCount;
+    private long errorCount;
+    private boolean closed;
+
+    /**
+     * @param directory  directory to write files
+     * @param filePrefix prefix of the file names
+     */
+    public BinaryQueryLogListener(File directory, String filePrefix) {
+        this.directory = directory;
+        this.filePrefix = filePrefix;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_TIME_KEY, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long now = System.nanoTime();
+        Long startTime = execInfo.getCustomValue(START_TIME_KEY, Long.class);
+        long startTimeInNanos = startTime == null ? now : startTime;
+        long elapsedTimeInNanos = now - startTimeInNanos;
+        long startTimeInMillis = System.currentTimeMillis() - elapsedTimeInNanos / 1000000;
+        Thread thread = Thread.currentThread();
+
+        write(execInfo, queryInfoList, startTimeInMillis, startTimeInNanos, elapsedTimeInNanos, thread);
+    }
+
+    protected synchronized void write(ExecutionInfo execInfo, List<QueryInfo> queryInfoList,
+                                      long startTimeInMillis, long startTimeInNanos, long elapsedTimeInNanos, Thread thread) {
+        if (this.closed) {
+            this.droppedCount++;
+            return;
+        }
+        try {
+            if (this.mappedBuffer == null) {
+                openNextFile();
+            }
+            // when the record does not fit, retry with a new file since dictionary ids are per file
+            for (int attempt = 0; attempt < 2; attempt++) {
+                if (this.dictionary.size() >= this.maxDictionarySize) {
+                    openNextFile();
+                }
+                this.stagedDictionary.clear();
+                this.stagedFingerprintIdByQuery.clear();
+                this.dictionaryBuffer.clear();
+                this.recordBuffer.clear();
+                writeQueryRecord(execInfo, queryInfoList, startTimeInMillis, startTimeInNanos, elapsedTimeInNanos, thread);
+                this.dictionaryBuffer.flip();
+                this.recordBuffer.flip();
+
+                // +4 for the length of the zero length record that marks the end of file
+                if (this.mappedBuffer.remaining() >= this.dictionaryBuffer.remaining() + this.recordBuffer.remaining() + 4) {
+                    this.mappedBuffer.put(this.dictionaryBuffer);
+                    this.mappedBuffer.put(this.recordBuffer);
+                    this.dictionary.putAll(this.stagedDictionary);
+                    this.fingerprintIdByQuery.putAll(this.stagedFingerprintIdByQuery);
+                    this.recordCount++;
+                    return;
+                }
+                openNextFile();
+            }
+            this.droppedCount++;  // larger than a file
+        } catch (IOException e) {
+            this.errorCount++;
+        } catch (RuntimeException e) {
+            this.errorCount++;
+        } finally {
+            // ids of records not written must not be used by later records
+            this.stagedDictionary.clear();
+            this.stagedFingerprintIdByQuery.clear();
+        }
+    }
+
+    private void writeQueryRecord(ExecutionInfo execInfo, List<QueryInfo> queryInfoList,
+                                  long startTimeInMillis, long startTimeInNanos, long elapsedTimeInNanos, Thread thread) {
+        // resolve dictionary ids first, so that dictionary records precede the query record
+        int dataSourceNameId = getDictionaryId(execInfo.getDataSourceName());
+        int connectionId = getDictionaryId(execInfo.getConnectionId());
+        int threadNameId = getDictionaryId(thread.getName());
+
+        int start = beginRecord(RECORD_QUERY);
+        ensureRecordCapacity(64);
+        ByteBuffer buf = this.recordBuffer;
+        buf.putLong(startTimeInMillis);
+        buf.putLong(startTimeInNanos);
+        buf.putLong(elapsedTimeInNanos);
+        buf.putInt(dataSourceNameId);
+        buf.putInt(connectionId);
+        buf.putInt(threadNameId);
+        buf.putLong(thread.getId());
+        StatementType statementType = execInfo.getStatementType();
+        buf.put(statementType == null ? -1 : (byte) statementType.ordinal());
+        byte flags = 0;
+        if (execInfo.isSuccess()) {
+            flags |= FLAG_SUCCESS;
+        }
+        if (execInfo.isBatch()) {
+            flags |= FLAG_BATCH;
+        }
+        buf.put(flags);
+        buf.putInt(execInfo.getBatchSize());
+        buf.putInt(queryInfoList.size());
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            String query = queryInfo.getQuery();
+            int queryId = getDictionaryId(query);
+            int fingerprintId = getFingerprintId(query);
+            List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+
+            ensureRecordCapacity(12);
+            this.recordBuffer.putInt(queryId);
+            this.recordBuffer.putInt(fingerprintId);
+            this.recordBuffer.putInt(parametersList.size());
+            for (List<ParameterSetOperation> parameters : parametersList) {
+                ensureRecordCapacity(4);
+                this.recordBuffer.putInt(parameters.size());
+                for (ParameterSetOperation parameter : parameters) {
+                    writeParameter(parameter);
+                }
+            }
+        }
+        endRecord(start);
+    }
+
+    private void writeParameter(ParameterSetOperation parameter) {
+        Object[] args = parameter.getArgs();
+        Object key = args[0];
+        if (key instanceof Integer) {
+            ensureRecordCapacity(5);
+            this.recordBuffer.put(KEY_INDEX);
+            this.recordBuffer.putInt((Integer) key);
+        } else {
+            int nameId = getDictionaryId(String.valueOf(key));
+            ensureRecordCapacity(5);
+            this.recordBuffer.put(KEY_NAME);
+            this.recordBuffer.putInt(nameId);
+        }
+
+        Object value = args.length > 1 ? args[1] : null;
+        if (parameter.getMethod() != null && ParameterSetOperation.isSetNullParameterOperation(parameter)) {
+            putTypeAndInt(TYPE_SET_NULL, (Integer) value);
+        } else if (parameter.getMethod() != null && ParameterSetOperation.isRegisterOutParameterOperation(parameter)) {
+            putTypeAndInt(TYPE_OUT_PARAMETER, value instanceof Integer ? (Integer) value : -1);
+        } else {
+            writeValue(value);
+        }
+    }
+
+    private void writeValue(Object value) {
+        ensureRecordCapacity(16);
+        ByteBuffer buf = this.recordBuffer;
+        if (value == null) {
+            buf.put(TYPE_NULL);
+        } else if (value instanceof String) {
+            buf.put(TYPE_STRING);
+            putString((String) value);
+        } else if (value instanceof Integer) {
+            putTypeAndInt(TYPE_INT, (Integer) value);
+        } else if (value instanceof Long) {
+            buf.put(TYPE_LONG);
+            buf.putLong((Long) value);
+        } else if (value instanceof Boolean) {
+            buf.put(TYPE_BOOLEAN);
+            buf.put((Boolean) value ? (byte) 1 : (byte) 0);
+        } else if (value instanceof Byte) {
+            buf.put(TYPE_BYTE);
+            buf.put((Byte) value);
+        } else if (value instanceof Short) {
+            buf.put(TYPE_SHORT);
+            buf.putShort((Short) value);
+        } else if (value instanceof Float) {
+            buf.put(TYPE_FLOAT);
+            buf.putFloat((Float) value);
+        } else if (value instanceof Double) {
+            buf.put(TYPE_DOUBLE);
+            buf.putDouble((Double) value);
+        } else if (value instanceof BigDecimal) {
+            buf.put(TYPE_BIG_DECIMAL);
+            putString(value.toString());
+        } else if (value instanceof Timestamp) {
+            buf.put(TYPE_TIMESTAMP);
+            buf.putLong(((Timestamp) value).getTime());
+            buf.putInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Time) {
+            buf.put(TYPE_TIME);
+            buf.putLong(((Time) value).getTime());
+        } else if (value instanceof java.util.Date) {  // java.sql.Date
+            buf.put(TYPE_DATE);
+            buf.putLong(((java.util.Date) value).getTime());
+        } else if (value instanceof byte[] && ((byte[]) value).length <= this.maxBytesLength) {
+            byte[] bytes = (byte[]) value;
+            buf.put(TYPE_BYTES);
+            buf.putInt(bytes.length);
+            ensureRecordCapacity(bytes.length);
+            this.recordBuffer.put(bytes);
+        } else {
+            // streams, LOBs, large byte arrays and others are not captured
+            buf.put(TYPE_OTHER);
+            putString(value.getClass().getName());
+            String str = value instanceof byte[] ? "byte[" + ((byte[]) value).length + "]" : String.valueOf(value);
+            putString(str);
+        }
+    }
+
+    private void putTypeAndInt(byte type, int value) {
+        ensureRecordCapacity(5);
+        this.recordBuffer.put(type);
+        this.recordBuffer.putInt(value);
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(UTF_8);
+        ensureRecordCapacity(4 + bytes.length);
+        this.recordBuffer.putInt(bytes.length);
+        this.recordBuffer.put(bytes);
+    }
+
+    private int beginRecord(byte type) {
+        ensureRecordCapacity(5);
+        int start = this.recordBuffer.position();
+        this.recordBuffer.putInt(0);  // length placeholder
+        this.recordBuffer.put(type);
+        return start;
+    }
+
+    private void endRecord(int start) {
+        this.recordBuffer.putInt(start, this.recordBuffer.position() - start - 4);
+    }
+
+    private int getFingerprintId(String query) {
+        Integer id = this.fingerprintIdByQuery.get(query);
+        if (id == null) {
+            id = this.stagedFingerprintIdByQuery.get(query);
+        }
+        if (id == null) {
+            id = getDictionaryId(QueryUtils.getFingerprint(query));
+            this.stagedFingerprintIdByQuery.put(query, id);
+        }
+        return id;
+    }
+
+    /**
+     * Get id of the string. When the string first appears in the file, a dictionary record is added, and the id is
+     * staged until the record is written.
+     *
+     * @param value string
+     * @return dictionary id. -1 for {@code null}
+     */
+    private int getDictionaryId(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = this.dictionary.get(value);
+        if (id == null) {
+            id = this.stagedDictionary.get(value);
+        }
+        if (id != null) {
+            return id;
+        }
+        id = this.dictionary.size() + this.stagedDictionary.size();
+        this.stagedDictionary.put(value, id);
+
+        byte[] bytes = value.getBytes(UTF_8);
+        int length = 1 + 4 + 4 + bytes.length;
+        this.dictionaryBuffer = ensureCapacity(this.dictionaryBuffer, 4 + length);
+        this.dictionaryBuffer.putInt(length);
+        this.dictionaryBuffer.put(RECORD_DICTIONARY);
+        this.dictionaryBuffer.putInt(id);
+        this.dictionaryBuffer.putInt(bytes.length);
+        this.dictionaryBuffer.put(bytes);
+        return id;
+    }
+
+    private void ensureRecordCapacity(int size) {
+        this.recordBuffer = ensureCapacity(this.recordBuffer, size);
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int size) {
+        if (buffer.remaining() >= size) {
+            return buffer;
+        }
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < size) {
+            capacity *= 2;
+        }
+        ByteBuffer newBuffer = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        newBuffer.put(buffer);
+        return newBuffer;
+    }
+
+    private void openNextFile() throws IOException {
+        closeFile();
+        this.dictionary.clear();
+        this.fingerprintIdByQuery.clear();
+
+        if (this.fileSequence < 0) {
+            this.fileSequence = findLastSequence();
+        }
+        this.fileSequence++;
+
+        if (!this.directory.exists() && !this.directory.mkdirs()) {
+            throw new IOException("Failed to create directory " + this.directory);
+        }
+        File newFile = getFile(this.fileSequence);
+        RandomAccessFile randomAccessFile = new RandomAccessFile(newFile, "rw");
+        try {
+            randomAccessFile.setLength(this.maxFileSize);
+            this.mappedBuffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, this.maxFileSize);
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+        this.file = randomAccessFile;
+        this.mappedBuffer.putInt(MAGIC);
+        this.mappedBuffer.putShort(VERSION);
+
+        if (this.maxFiles > 0) {
+            File oldFile = getFile(this.fileSequence - this.maxFiles);
+            if (oldFile.exists()) {
+                oldFile.delete();
+            }
+        }
+    }
+
+    private void closeFile() throws IOException {
+        if (this.mappedBuffer != null) {
+            this.mappedBuffer.force();
+            this.mappedBuffer = null;
+        }
+        if (this.file != null) {
+            this.file.close();
+            this.file = null;
+        }
+    }
+
+    private int findLastSequence() {
+        final String prefix = this.filePrefix + "-";
+        String[] names = this.directory.list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix) && name.endsWith(FILE_SUFFIX);
+            }
+        });
+        int last = 0;
+        if (names != null) {
+            for (String name : names) {
+                String sequence = name.substring(prefix.length(), name.length() - FILE_SUFFIX.length());
+                try {
+                    last = Math.max(last, Integer.parseInt(sequence));
+                } catch (NumberFormatException e) {
+                    // not a file written by this listener
+                }
+            }
+        }
+        return last;
+    }
+
+    protected File getFile(int sequence) {
+        return new File(this.directory, String.format("%s-%06d%s", this.filePrefix, sequence, FILE_SUFFIX));
+    }
+
+    /**
+     * Flush and close the current file. Records written after this are dropped.
+     *
+     * @throws IOException when failed to close the file
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.closed = true;
+        closeFile();
+    }
+
+    /**
+     * @return file currently written. {@code null} when no file is open
+     */
+    public synchronized File getCurrentFile() {
+        return this.mappedBuffer == null ? null : getFile(this.fileSequence);
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return number of records not written because the listener is closed or a record is larger than a file
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * @return number of records failed to write
+     */
+    public synchronized long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @param maxFileSize size of each file in bytes. default is 64MB
+     */
+    public void setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * @param maxFiles number of files to keep. 0 keeps all files. default is 10
+     */
+    public void setMaxFiles(int maxFiles) {
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * @param maxBytesLength max length of {@code byte[]} parameter to capture. default is 64KB
+     */
+    public void setMaxBytesLength(int maxBytesLength) {
+        this.maxBytesLength = maxBytesLength;
+    }
+
+    /**
+     * @param maxDictionarySize number of dictionary entries to trigger rotating file. default is 100000
+     */
+    public void setMaxDictionarySize(int maxDictionarySize) {
+        this.maxDictionarySize = maxDictionarySize;
+    }
+
+}
@@ -0,0 +1,224 @@
+package net.ttddyy.dsproxy.listener.binary;
+
+import net.ttddyy.dsproxy.StatementType;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.ttddyy.dsproxy.listener.binary.BinaryQueryLogFormat.*;
+
+/**
+ * Read a file written by {@link BinaryQueryLogListener}.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class BinaryQueryLogReader implements Closeable {
+
+    private final RandomAccessFile file;
+    private final ByteBuffer buffer;
+    private final Map<Integer, String> dictionary = new HashMap<Integer, String>();
+
+    public BinaryQueryLogReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        try {
+            this.buffer = this.file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, this.file.length());
+            if (this.buffer.remaining() < HEADER_SIZE || this.buffer.getInt() != MAGIC) {
+                throw new IOException("Not a binary query log file: " + file);
+            }
+            short version = this.buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported version " + version + ": " + file);
+            }
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read all query records in the given file.
+     *
+     * @param file file to read
+     * @return query records
+     * @throws IOException when failed to read the file
+     */
+    public static List<BinaryQueryLogRecord> readAll(File file) throws IOException {
+        BinaryQueryLogReader reader = new BinaryQueryLogReader(file);
+        try {
+            List<BinaryQueryLogRecord> records = new ArrayList<BinaryQueryLogRecord>();
+            BinaryQueryLogRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+            return records;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @return next query record. {@code null} when reached the end of file.
+     * @throws IOException when the file is corrupted
+     */
+    public BinaryQueryLogRecord next() throws IOException {
+        while (this.buffer.remaining() >= 4) {
+            int length = this.buffer.getInt();
+            if (length <= 0) {
+                return null;  // end of written area
+            }
+            if (length > this.buffer.remaining()) {
+                throw new IOException("Truncated record at " + (this.buffer.position() - 4));
+            }
+            int end = this.buffer.position() + length;
+            byte type = this.buffer.get();
+            if (type == RECORD_DICTIONARY) {
+                int id = this.buffer.getInt();
+                this.dictionary.put(id, getString());
+            } else if (type == RECORD_QUERY) {
+                BinaryQueryLogRecord record = readQueryRecord();
+                this.buffer.position(end);
+                return record;
+            }
+            this.buffer.position(end);  // skip unknown records
+        }
+        return null;
+    }
+
+    private BinaryQueryLogRecord readQueryRecord() throws IOException {
+        ByteBuffer buf = this.buffer;
+        BinaryQueryLogRecord record = new BinaryQueryLogRecord();
+        record.startTimeInMillis = buf.getLong();
+        record.startTimeInNanos = buf.getLong();
+        record.elapsedTimeInNanos = buf.getLong();
+        record.dataSourceName = lookup(buf.getInt());
+        record.connectionId = lookup(buf.getInt());
+        record.threadName = lookup(buf.getInt());
+        record.threadId = buf.getLong();
+        byte statementType = buf.get();
+        record.statementType = statementType < 0 ? null : StatementType.values()[statementType];
+        byte flags = buf.get();
+        record.success = (flags & FLAG_SUCCESS) != 0;
+        record.batch = (flags & FLAG_BATCH) != 0;
+        record.batchSize = buf.getInt();
+
+        int queryCount = buf.getInt();
+        for (int i = 0; i < queryCount; i++) {
+            String query = lookup(buf.getInt());
+            String fingerprint = lookup(buf.getInt());
+            BinaryQueryLogRecord.Query q = BinaryQueryLogRecord.newQuery(query, fingerprint);
+            int parameterSetCount = buf.getInt();
+            for (int j = 0; j < parameterSetCount; j++) {
+                int parameterCount = buf.getInt();
+                List<BinaryQueryLogRecord.Parameter> parameters = new ArrayList<BinaryQueryLogRecord.Parameter>(parameterCount);
+                for (int k = 0; k < parameterCount; k++) {
+                    parameters.add(readParameter());
+                }
+                q.getParametersList().add(parameters);
+            }
+            record.queries.add(q);
+        }
+        return record;
+    }
+
+    private BinaryQueryLogRecord.Parameter readParameter() throws IOException {
+        ByteBuffer buf = this.buffer;
+        byte keyType = buf.get();
+        Object key = keyType == KEY_INDEX ? (Object) buf.getInt() : lookup(buf.getInt());
+
+        byte type = buf.get();
+        Object value;
+        switch (type) {
+            case TYPE_NULL:
+                value = null;
+                break;
+            case TYPE_SET_NULL:
+            case TYPE_OUT_PARAMETER:
+            case TYPE_INT:
+                value = buf.getInt();
+                break;
+            case TYPE_BOOLEAN:
+                value = buf.get() != 0;
+                break;
+            case TYPE_BYTE:
+                value = buf.get();
+                break;
+            case TYPE_SHORT:
+                value = buf.getShort();
+                break;
+            case TYPE_LONG:
+                value = buf.getLong();
+                break;
+            case TYPE_FLOAT:
+                value = buf.getFloat();
+                break;
+            case TYPE_DOUBLE:
+                value = buf.getDouble();
+                break;
+            case TYPE_BIG_DECIMAL:
+                value = new BigDecimal(getString());
+                break;
+            case TYPE_STRING:
+                value = getString();
+                break;
+            case TYPE_BYTES:
+                byte[] bytes = new byte[buf.getInt()];
+                buf.get(bytes);
+                value = bytes;
+                break;
+            case TYPE_DATE:
+                value = new Date(buf.getLong());
+                break;
+            case TYPE_TIME:
+                value = new Time(buf.getLong());
+                break;
+            case TYPE_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(buf.getLong());
+                timestamp.setNanos(buf.getInt());
+                value = timestamp;
+                break;
+            case TYPE_OTHER:
+                getString();  // class name
+                value = getString();
+                break;
+            default:
+                throw new IOException("Unknown parameter type " + type + " at " + (buf.position() - 1));
+        }
+        return BinaryQueryLogRecord.newParameter(key, type, value);
+    }
+
+    private String getString() {
+        byte[] bytes = new byte[this.buffer.getInt()];
+        this.buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private String lookup(int id) throws IOException {
+        if (id < 0) {
+            return null;
+        }
+        String value = this.dictionary.get(id);
+        if (value == null) {
+            throw new IOException("Unknown dictionary id " + id);
+        }
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.file.close();
+    }
+
+}
@@ -0,0 +1,160 @@
+package net.ttddyy.dsproxy.listener.binary;
+
+import net.ttddyy.dsproxy.StatementType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A query execution read from a binary query log file.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see BinaryQueryLogReader
+ * @since 1.6
+ */
+public class BinaryQueryLogRecord {
+
+    /**
+     * Query and its parameters in an execution.
+     */
+    public static class Query {
+        private String query;
+        private String fingerprint;
+        private List<List<Parameter>> parametersList = new ArrayList<List<Parameter>>();
+
+        public String getQuery() {
+            return query;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * @return parameters for each batch. empty for statement.
+         */
+        public List<List<Parameter>> getParametersList() {
+            return parametersList;
+        }
+    }
+
+    /**
+     * A parameter set to a statement.
+     */
+    public static class Parameter {
+        private Object key;
+        private byte type;
+        private Object value;
+
+        /**
+         * @return parameter index as {@link Integer} or name as {@link String}
+         */
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * @return value type defined in {@link BinaryQueryLogFormat}
+         */
+        public byte getType() {
+            return type;
+        }
+
+        /**
+         * For {@link BinaryQueryLogFormat#TYPE_SET_NULL} and {@link BinaryQueryLogFormat#TYPE_OUT_PARAMETER}, sql
+         * type is returned. For {@link BinaryQueryLogFormat#TYPE_OTHER}, string representation of the value is
+         * returned.
+         *
+         * @return parameter value
+         */
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    long startTimeInMillis;
+    long startTimeInNanos;
+    long elapsedTimeInNanos;
+    String dataSourceName;
+    String connectionId;
+    String threadName;
+    long threadId;
+    StatementType statementType;
+    boolean success;
+    boolean batch;
+    int batchSize;
+    List<Query> queries = new ArrayList<Query>();
+
+    static Query newQuery(String query, String fingerprint) {
+        Query q = new Query();
+        q.query = query;
+        q.fingerprint = fingerprint;
+        return q;
+    }
+
+    static Parameter newParameter(Object key, byte type, Object value) {
+        Parameter parameter = new Parameter();
+        parameter.key = key;
+        parameter.type = type;
+        parameter.value = value;
+        return parameter;
+    }
+
+    /**
+     * @return epoch time in milli seconds when the execution started
+     */
+    public long getStartTimeInMillis() {
+        return startTimeInMillis;
+    }
+
+    /**
+     * Value of {@link System#nanoTime()} when the execution started. Only meaningful to compare with other records
+     * captured by the same process.
+     *
+     * @return start time in nano seconds
+     */
+    public long getStartTimeInNanos() {
+        return startTimeInNanos;
+    }
+
+    public long getElapsedTimeInNanos() {
+        return elapsedTimeInNanos;
+    }
+
+    public String getDataSourceName() {
+        return dataSourceName;
+    }
+
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+
+    public StatementType getStatementType() {
+        return statementType;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public boolean isBatch() {
+        return batch;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public List<Query> getQueries() {
+        return queries;
+    }
+
+}
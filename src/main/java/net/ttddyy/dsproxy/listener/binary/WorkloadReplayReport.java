@@ -0,0 +1,160 @@
+package net.ttddyy.dsproxy.listener.binary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Result of {@link WorkloadReplayer}. Latency of the replay is compared with the recording for each fingerprint.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class WorkloadReplayReport {
+
+    /**
+     * Recorded and replayed latency of executions that have the same fingerprint.
+     */
+    public static class FingerprintStats {
+        private final String fingerprint;
+        private long count;
+        private long errorCount;
+        private long recordedTotalNanos;
+        private long recordedMaxNanos;
+        private long replayedTotalNanos;
+        private long replayedMaxNanos;
+
+        public FingerprintStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        protected synchronized void record(long recordedNanos, long replayedNanos, boolean success) {
+            this.count++;
+            if (!success) {
+                this.errorCount++;
+            }
+            this.recordedTotalNanos += recordedNanos;
+            this.recordedMaxNanos = Math.max(this.recordedMaxNanos, recordedNanos);
+            this.replayedTotalNanos += replayedNanos;
+            this.replayedMaxNanos = Math.max(this.replayedMaxNanos, replayedNanos);
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * @return number of executions that failed in the replay
+         */
+        public synchronized long getErrorCount() {
+            return errorCount;
+        }
+
+        public synchronized long getRecordedTotalNanos() {
+            return recordedTotalNanos;
+        }
+
+        public synchronized long getRecordedMaxNanos() {
+            return recordedMaxNanos;
+        }
+
+        public synchronized long getRecordedAverageNanos() {
+            return count == 0 ? 0 : recordedTotalNanos / count;
+        }
+
+        public synchronized long getReplayedTotalNanos() {
+            return replayedTotalNanos;
+        }
+
+        public synchronized long getReplayedMaxNanos() {
+            return replayedMaxNanos;
+        }
+
+        public synchronized long getReplayedAverageNanos() {
+            return count == 0 ? 0 : replayedTotalNanos / count;
+        }
+
+        /**
+         * @return replayed average latency divided by recorded average latency. 0 when recorded latency is 0
+         */
+        public synchronized double getLatencyRatio() {
+            return recordedTotalNanos == 0 ? 0 : (double) replayedTotalNanos / recordedTotalNanos;
+        }
+    }
+
+    private static final Comparator<FingerprintStats> BY_REPLAYED_TOTAL_DESC = new Comparator<FingerprintStats>() {
+        @Override
+        public int compare(FingerprintStats left, FingerprintStats right) {
+            long l = left.getReplayedTotalNanos();
+            long r = right.getReplayedTotalNanos();
+            return (l < r) ? 1 : ((l == r) ? 0 : -1);
+        }
+    };
+
+    private final ConcurrentMap<String, FingerprintStats> statsByFingerprint = new ConcurrentHashMap<String, FingerprintStats>();
+    private volatile long elapsedNanos;
+
+    protected void record(String fingerprint, long recordedNanos, long replayedNanos, boolean success) {
+        FingerprintStats stats = this.statsByFingerprint.get(fingerprint);
+        if (stats == null) {
+            FingerprintStats newStats = new FingerprintStats(fingerprint);
+            stats = this.statsByFingerprint.putIfAbsent(fingerprint, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        stats.record(recordedNanos, replayedNanos, success);
+    }
+
+    protected void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return wall clock time of the replay
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return statistics ordered by replayed total latency in descending order
+     */
+    public List<FingerprintStats> getFingerprintStats() {
+        List<FingerprintStats> list = new ArrayList<FingerprintStats>(this.statsByFingerprint.values());
+        Collections.sort(list, BY_REPLAYED_TOTAL_DESC);
+        return list;
+    }
+
+    /**
+     * @param fingerprint fingerprint
+     * @return statistics of the fingerprint. {@code null} if not replayed
+     */
+    public FingerprintStats getFingerprintStats(String fingerprint) {
+        return this.statsByFingerprint.get(fingerprint);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (FingerprintStats stats : this.statsByFingerprint.values()) {
+            count += stats.getCount();
+        }
+        return count;
+    }
+
+    public long getErrorCount() {
+        long count = 0;
+        for (FingerprintStats stats : this.statsByFingerprint.values()) {
+            count += stats.getErrorCount();
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,419 @@
+package net.ttddyy.dsproxy.listener.binary;
+
+import net.ttddyy.dsproxy.StatementType;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replay a workload captured by {@link BinaryQueryLogListener} against a {@link DataSource}.
+ *
+ * Executions are grouped by the original datasource name and connection id into logical connections. Each execution
+ * is dispatched at the recorded offset from the first execution, divided by the speed up factor, and runs on a
+ * bounded thread pool sized from the recorded peak number of concurrent executions. Executions of the same logical
+ * connection run in the recorded order; when one takes longer than the recording, the next one on the same logical
+ * connection starts as soon as it finishes.
+ * A logical connection takes a connection from the data source when its first execution is due, and closes it after
+ * its last execution.
+ *
+ * Offsets are computed from {@link System#nanoTime()} within a file, and files are aligned with each other by the
+ * recorded wall clock time, since files may come from different processes.
+ *
+ * Result sets are fully read. Commit and rollback are not captured; connections are used in auto commit mode.
+ * Parameters recorded as {@link BinaryQueryLogFormat#TYPE_OTHER}(streams, LOBs, etc.) are bound as their string
+ * representation.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see WorkloadReplayReport
+ * @since 1.6
+ */
+public class WorkloadReplayer {
+
+    private static class ScheduledRecord {
+        private final BinaryQueryLogRecord record;
+        private final long offsetInNanos;
+        private LogicalConnection connection;
+
+        private ScheduledRecord(BinaryQueryLogRecord record, long offsetInNanos) {
+            this.record = record;
+            this.offsetInNanos = offsetInNanos;
+        }
+    }
+
+    /**
+     * Executions of one recorded connection. Runs at most one execution at a time on the pool.
+     */
+    private class LogicalConnection implements Runnable {
+        private final Queue<BinaryQueryLogRecord> pending = new ArrayDeque<BinaryQueryLogRecord>();
+        private final WorkloadReplayReport report;
+        private int remaining;  // executions not yet run
+        private boolean running;  // guarded by this
+        private Connection connection;  // only accessed by the running task
+
+        private LogicalConnection(WorkloadReplayReport report) {
+            this.report = report;
+        }
+
+        private void dispatch(BinaryQueryLogRecord record, ExecutorService executor) {
+            synchronized (this) {
+                this.pending.add(record);
+                if (this.running) {
+                    return;
+                }
+                this.running = true;
+            }
+            executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                BinaryQueryLogRecord record;
+                synchronized (this) {
+                    record = this.pending.poll();
+                    if (record == null) {
+                        this.running = false;
+                        return;
+                    }
+                }
+                replayRecord(record);
+            }
+        }
+
+        private void replayRecord(BinaryQueryLogRecord record) {
+            long start = System.nanoTime();
+            boolean success = true;
+            try {
+                if (this.connection == null) {
+                    this.connection = WorkloadReplayer.this.dataSource.getConnection();
+                }
+                execute(this.connection, record);
+            } catch (SQLException e) {
+                success = false;
+            }
+            long replayedNanos = System.nanoTime() - start;
+            this.report.record(getFingerprint(record), record.getElapsedTimeInNanos(), replayedNanos, success);
+
+            if (--this.remaining == 0 && this.connection != null) {
+                try {
+                    this.connection.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+                this.connection = null;
+            }
+        }
+    }
+
+    protected DataSource dataSource;
+    protected double speedup = 1.0;
+    protected boolean keepTiming = true;
+
+    public WorkloadReplayer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Replay records in the given files.
+     *
+     * @param files files written by {@link BinaryQueryLogListener}
+     * @return replay report
+     * @throws IOException          when failed to read files
+     * @throws InterruptedException when interrupted while waiting for replay threads
+     */
+    public WorkloadReplayReport replay(File... files) throws IOException, InterruptedException {
+        List<List<BinaryQueryLogRecord>> recordsByFile = new ArrayList<List<BinaryQueryLogRecord>>();
+        for (File file : files) {
+            recordsByFile.add(BinaryQueryLogReader.readAll(file));
+        }
+        return replayScheduled(schedule(recordsByFile));
+    }
+
+    /**
+     * @param records records captured by a single process, in the order of recording
+     * @return replay report
+     * @throws InterruptedException when interrupted while waiting for replay threads
+     */
+    public WorkloadReplayReport replay(List<BinaryQueryLogRecord> records) throws InterruptedException {
+        return replayScheduled(schedule(Collections.singletonList(records)));
+    }
+
+    /**
+     * Compute offsets from {@code nanoTime} within each group, and align groups by wall clock time.
+     */
+    private List<ScheduledRecord> schedule(List<List<BinaryQueryLogRecord>> recordGroups) {
+        long baseTimeInMillis = Long.MAX_VALUE;
+        for (List<BinaryQueryLogRecord> records : recordGroups) {
+            for (BinaryQueryLogRecord record : records) {
+                baseTimeInMillis = Math.min(baseTimeInMillis, record.getStartTimeInMillis());
+            }
+        }
+
+        List<ScheduledRecord> scheduled = new ArrayList<ScheduledRecord>();
+        for (List<BinaryQueryLogRecord> records : recordGroups) {
+            BinaryQueryLogRecord first = null;
+            for (BinaryQueryLogRecord record : records) {
+                if (first == null || record.getStartTimeInNanos() < first.getStartTimeInNanos()) {
+                    first = record;
+                }
+            }
+            if (first == null) {
+                continue;
+            }
+            long groupOffsetInNanos = TimeUnit.MILLISECONDS.toNanos(first.getStartTimeInMillis() - baseTimeInMillis);
+            for (BinaryQueryLogRecord record : records) {
+                long offset = groupOffsetInNanos + record.getStartTimeInNanos() - first.getStartTimeInNanos();
+                scheduled.add(new ScheduledRecord(record, offset));
+            }
+        }
+
+        // stable sort keeps the recorded order of executions at the same offset
+        Collections.sort(scheduled, new Comparator<ScheduledRecord>() {
+            @Override
+            public int compare(ScheduledRecord left, ScheduledRecord right) {
+                return left.offsetInNanos < right.offsetInNanos ? -1 : (left.offsetInNanos == right.offsetInNanos ? 0 : 1);
+            }
+        });
+        return scheduled;
+    }
+
+    private WorkloadReplayReport replayScheduled(List<ScheduledRecord> scheduled) throws InterruptedException {
+        final WorkloadReplayReport report = new WorkloadReplayReport();
+        if (scheduled.isEmpty()) {
+            return report;
+        }
+
+        Map<String, LogicalConnection> connections = new HashMap<String, LogicalConnection>();
+        for (ScheduledRecord scheduledRecord : scheduled) {
+            BinaryQueryLogRecord record = scheduledRecord.record;
+            String key = record.getDataSourceName() + ":" + record.getConnectionId();
+            LogicalConnection connection = connections.get(key);
+            if (connection == null) {
+                connection = new LogicalConnection(report);
+                connections.put(key, connection);
+            }
+            connection.remaining++;
+            scheduledRecord.connection = connection;
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(getPeakConcurrency(scheduled), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "dsproxy-replay-" + threadCount.incrementAndGet());
+            }
+        });
+
+        final long replayBaseTime = System.nanoTime();
+        try {
+            for (ScheduledRecord scheduledRecord : scheduled) {
+                if (this.keepTiming) {
+                    waitUntil(replayBaseTime + (long) (scheduledRecord.offsetInNanos / this.speedup));
+                }
+                scheduledRecord.connection.dispatch(scheduledRecord.record, executor);
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // wait for remaining executions
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        report.setElapsedNanos(System.nanoTime() - replayBaseTime);
+        return report;
+    }
+
+    /**
+     * @return max number of executions that overlapped in the recording, at the replay speed
+     */
+    private int getPeakConcurrency(List<ScheduledRecord> scheduled) {
+        int size = scheduled.size();
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        for (int i = 0; i < size; i++) {
+            ScheduledRecord scheduledRecord = scheduled.get(i);
+            starts[i] = (long) (scheduledRecord.offsetInNanos / this.speedup);
+            ends[i] = starts[i] + scheduledRecord.record.getElapsedTimeInNanos();
+        }
+        Arrays.sort(starts);
+        Arrays.sort(ends);
+
+        int peak = 1;
+        int current = 0;
+        int endIndex = 0;
+        for (long start : starts) {
+            while (endIndex < size && ends[endIndex] <= start) {
+                endIndex++;
+                current--;
+            }
+            current++;
+            peak = Math.max(peak, current);
+        }
+        return peak;
+    }
+
+    private void waitUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    protected String getFingerprint(BinaryQueryLogRecord record) {
+        List<BinaryQueryLogRecord.Query> queries = record.getQueries();
+        if (queries.size() == 1) {
+            return queries.get(0).getFingerprint();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (BinaryQueryLogRecord.Query query : queries) {
+            if (sb.length() > 0) {
+                sb.append(";");
+            }
+            sb.append(query.getFingerprint());
+        }
+        return sb.toString();
+    }
+
+    protected void execute(Connection connection, BinaryQueryLogRecord record) throws SQLException {
+        StatementType statementType = record.getStatementType();
+        if (statementType == StatementType.PREPARED || statementType == StatementType.CALLABLE) {
+            executePrepared(connection, record, statementType == StatementType.CALLABLE);
+        } else {
+            executeStatement(connection, record);
+        }
+    }
+
+    private void executeStatement(Connection connection, BinaryQueryLogRecord record) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            if (record.isBatch()) {
+                for (BinaryQueryLogRecord.Query query : record.getQueries()) {
+                    statement.addBatch(query.getQuery());
+                }
+                statement.executeBatch();
+            } else {
+                consume(statement, statement.execute(record.getQueries().get(0).getQuery()));
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private void executePrepared(Connection connection, BinaryQueryLogRecord record, boolean callable) throws SQLException {
+        BinaryQueryLogRecord.Query query = record.getQueries().get(0);
+        PreparedStatement statement = callable ? connection.prepareCall(query.getQuery()) : connection.prepareStatement(query.getQuery());
+        try {
+            List<List<BinaryQueryLogRecord.Parameter>> parametersList = query.getParametersList();
+            if (record.isBatch()) {
+                for (List<BinaryQueryLogRecord.Parameter> parameters : parametersList) {
+                    bind(statement, parameters);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            } else {
+                if (!parametersList.isEmpty()) {
+                    bind(statement, parametersList.get(0));
+                }
+                consume(statement, statement.execute());
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    protected void bind(PreparedStatement statement, List<BinaryQueryLogRecord.Parameter> parameters) throws SQLException {
+        for (BinaryQueryLogRecord.Parameter parameter : parameters) {
+            Object key = parameter.getKey();
+            Object value = parameter.getValue();
+            if (key instanceof String) {
+                bindByName((CallableStatement) statement, (String) key, parameter.getType(), value);
+                continue;
+            }
+            int index = (Integer) key;
+            switch (parameter.getType()) {
+                case BinaryQueryLogFormat.TYPE_SET_NULL:
+                    statement.setNull(index, (Integer) value);
+                    break;
+                case BinaryQueryLogFormat.TYPE_OUT_PARAMETER:
+                    ((CallableStatement) statement).registerOutParameter(index, (Integer) value);
+                    break;
+                default:
+                    statement.setObject(index, value);
+            }
+        }
+    }
+
+    private void bindByName(CallableStatement statement, String name, byte type, Object value) throws SQLException {
+        switch (type) {
+            case BinaryQueryLogFormat.TYPE_SET_NULL:
+                statement.setNull(name, (Integer) value);
+                break;
+            case BinaryQueryLogFormat.TYPE_OUT_PARAMETER:
+                statement.registerOutParameter(name, (Integer) value);
+                break;
+            default:
+                statement.setObject(name, value);
+        }
+    }
+
+    private void consume(Statement statement, boolean hasResultSet) throws SQLException {
+        if (!hasResultSet) {
+            return;
+        }
+        ResultSet resultSet = statement.getResultSet();
+        try {
+            while (resultSet.next()) {
+                // read all rows
+            }
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    /**
+     * @param speedup factor to shorten the intervals between executions. e.g. 2.0 replays twice as fast
+     */
+    public void setSpeedup(double speedup) {
+        if (speedup <= 0) {
+            throw new IllegalArgumentException("speedup must be positive but was " + speedup);
+        }
+        this.speedup = speedup;
+    }
+
+    public double getSpeedup() {
+        return speedup;
+    }
+
+    /**
+     * @param keepTiming when {@code false}, executions are replayed as fast as possible. (default is true)
+     */
+    public void setKeepTiming(boolean keepTiming) {
+        this.keepTiming = keepTiming;
+    }
+
+}
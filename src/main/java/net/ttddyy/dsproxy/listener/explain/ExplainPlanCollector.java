@@ -0,0 +1,226 @@
+package net.ttddyy.dsproxy.listener.explain;
+
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Obtain execution plans of queries on a separate connection.
+ *
+ * Explain queries are performed asynchronously on its own thread, at most once per fingerprint within the
+ * specified window. When the queue of pending explain requests is full, new requests are discarded.
+ *
+ * The given {@link DataSource} should be the actual datasource, not the proxy, so that explain queries do not go
+ * through the listeners.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see net.ttddyy.dsproxy.listener.AggregatingSlowQueryListener#setExplainPlanCollector(ExplainPlanCollector)
+ * @since 1.6
+ */
+public class ExplainPlanCollector {
+
+    protected static class CapturedPlan {
+        protected long capturedAtInNanos;
+        protected volatile String plan;
+
+        public CapturedPlan(long capturedAtInNanos) {
+            this.capturedAtInNanos = capturedAtInNanos;
+        }
+    }
+
+    protected DataSource dataSource;
+    protected ExplainPlanDialect dialect;
+    protected long windowInNanos = TimeUnit.MINUTES.toNanos(10);
+    protected int maxFingerprints = 1000;
+    protected boolean useDaemonThread = true;
+    protected ConcurrentMap<String, CapturedPlan> plans = new ConcurrentHashMap<String, CapturedPlan>();
+
+    protected ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(100), new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = Executors.defaultThreadFactory().newThread(r);
+            thread.setDaemon(ExplainPlanCollector.this.useDaemonThread);
+            return thread;
+        }
+    }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public ExplainPlanCollector(DataSource dataSource, ExplainPlanDialect dialect) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+    }
+
+    /**
+     * Request to capture the execution plan for the fingerprint.
+     *
+     * When the plan for the fingerprint has been requested within the window, this method does nothing.
+     *
+     * @param fingerprint fingerprint of the query
+     * @param query       query to explain
+     * @param parameters  parameters of the query execution. can be empty
+     * @return {@code true} when explain query is scheduled
+     */
+    public boolean request(String fingerprint, final String query, final List<ParameterSetOperation> parameters) {
+        final long now = System.nanoTime();
+        CapturedPlan existing = this.plans.get(fingerprint);
+        if (existing != null && now - existing.capturedAtInNanos < this.windowInNanos) {
+            return false;
+        }
+
+        final CapturedPlan captured = new CapturedPlan(now);
+        if (existing == null) {
+            if (this.plans.size() >= this.maxFingerprints) {
+                evictOldest();
+            }
+            if (this.plans.putIfAbsent(fingerprint, captured) != null) {
+                return false;  // other thread has claimed
+            }
+        } else {
+            captured.plan = existing.plan;  // keep the previous plan until the new one is available
+            if (!this.plans.replace(fingerprint, existing, captured)) {
+                return false;  // other thread has claimed
+            }
+        }
+
+        this.executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    String plan = explain(query, parameters);
+                    if (plan != null) {
+                        captured.plan = plan;
+                    }
+                } catch (SQLException e) {
+                    // failed to explain. retry after the window.
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Perform explain query synchronously.
+     *
+     * @param query      query to explain
+     * @param parameters parameters of the query execution. can be empty
+     * @return execution plan. {@code null} when the query cannot be explained by the dialect
+     * @throws SQLException on database access error
+     */
+    public String explain(String query, List<ParameterSetOperation> parameters) throws SQLException {
+        String explainQuery = this.dialect.getExplainQuery(query);
+        if (explainQuery == null) {
+            return null;
+        }
+
+        Connection connection = this.dataSource.getConnection();
+        try {
+            PreparedStatement ps = connection.prepareStatement(explainQuery);
+            try {
+                if (this.dialect.isBindParameters(parameters)) {
+                    bindParameters(ps, parameters);
+                }
+                ResultSet rs = ps.executeQuery();
+                try {
+                    return this.dialect.readPlan(rs);
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                ps.close();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    protected void bindParameters(PreparedStatement ps, List<ParameterSetOperation> parameters) throws SQLException {
+        for (ParameterSetOperation operation : parameters) {
+            Method method = operation.getMethod();
+            // skip operations that are only available on CallableStatement. (named parameters, registerOutParameter)
+            if (!method.getDeclaringClass().isAssignableFrom(PreparedStatement.class)) {
+                continue;
+            }
+            try {
+                method.invoke(ps, operation.getArgs());
+            } catch (Exception e) {
+                throw new SQLException("Failed to bind parameter for explain query: " + method.getName(), e);
+            }
+        }
+    }
+
+    private void evictOldest() {
+        String oldestKey = null;
+        long oldest = 0;
+        for (Map.Entry<String, CapturedPlan> entry : this.plans.entrySet()) {
+            long capturedAt = entry.getValue().capturedAtInNanos;
+            if (oldestKey == null || capturedAt - oldest < 0) {
+                oldest = capturedAt;
+                oldestKey = entry.getKey();
+            }
+        }
+        if (oldestKey != null) {
+            this.plans.remove(oldestKey);
+        }
+    }
+
+    /**
+     * Returns the latest captured execution plan.
+     *
+     * @param fingerprint fingerprint of the query
+     * @return execution plan. {@code null} when it is not yet available
+     */
+    public String getExplainPlan(String fingerprint) {
+        CapturedPlan captured = this.plans.get(fingerprint);
+        return captured == null ? null : captured.plan;
+    }
+
+    /**
+     * Set the window to perform explain query at most once per fingerprint.
+     *
+     * Default is 10 minutes.
+     *
+     * @param window   window to explain once per fingerprint
+     * @param timeUnit time unit of the window
+     */
+    public void setWindow(long window, TimeUnit timeUnit) {
+        this.windowInNanos = timeUnit.toNanos(window);
+    }
+
+    /**
+     * @param maxFingerprints max number of fingerprints to keep plans. default is 1000
+     */
+    public void setMaxFingerprints(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    /**
+     * @param useDaemonThread use daemon thread or not. (default is true)
+     */
+    public void setUseDaemonThread(boolean useDaemonThread) {
+        this.useDaemonThread = useDaemonThread;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public ExplainPlanDialect getDialect() {
+        return dialect;
+    }
+
+}
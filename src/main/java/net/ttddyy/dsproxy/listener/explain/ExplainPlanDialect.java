@@ -0,0 +1,44 @@
+package net.ttddyy.dsproxy.listener.explain;
+
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Vendor specific strategy to obtain an execution plan of a query.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see SimpleExplainPlanDialect
+ * @see ExplainPlanCollector
+ * @since 1.6
+ */
+public interface ExplainPlanDialect {
+
+    /**
+     * Returns a query that retrieves the execution plan of given query.
+     *
+     * @param query a query to explain
+     * @return explain query. {@code null} when the query cannot be explained
+     */
+    String getExplainQuery(String query);
+
+    /**
+     * Whether to bind parameters of the original execution to the explain query.
+     *
+     * @param parameters parameters of the original execution
+     * @return {@code true} when the database accepts parameters for explain query
+     */
+    boolean isBindParameters(List<ParameterSetOperation> parameters);
+
+    /**
+     * Convert the result of explain query to a string.
+     *
+     * @param resultSet result of explain query
+     * @return execution plan
+     * @throws SQLException on database access error
+     */
+    String readPlan(ResultSet resultSet) throws SQLException;
+
+}
@@ -0,0 +1,78 @@
+package net.ttddyy.dsproxy.listener.explain;
+
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * {@link ExplainPlanDialect} that prepends a keyword such as {@code EXPLAIN} to {@code SELECT} queries.
+ *
+ * The plan is read by concatenating each row of the result, columns separated by {@code " | "}.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class SimpleExplainPlanDialect implements ExplainPlanDialect {
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    /**
+     * HSQLDB does not accept parameters for {@code EXPLAIN PLAN FOR}.
+     */
+    public static final SimpleExplainPlanDialect HSQLDB = new SimpleExplainPlanDialect("EXPLAIN PLAN FOR ", false);
+
+    public static final SimpleExplainPlanDialect H2 = new SimpleExplainPlanDialect("EXPLAIN ", true);
+
+    public static final SimpleExplainPlanDialect MYSQL = new SimpleExplainPlanDialect("EXPLAIN ", true);
+
+    public static final SimpleExplainPlanDialect POSTGRESQL = new SimpleExplainPlanDialect("EXPLAIN ", true);
+
+    private String prefix;
+    private boolean bindParameters;
+
+    public SimpleExplainPlanDialect(String prefix, boolean bindParameters) {
+        this.prefix = prefix;
+        this.bindParameters = bindParameters;
+    }
+
+    /**
+     * Only {@code SELECT} queries are explained, so that data modification is never performed by explain query.
+     */
+    @Override
+    public String getExplainQuery(String query) {
+        if (QueryUtils.getQueryType(query) != QueryType.SELECT) {
+            return null;
+        }
+        return this.prefix + query;
+    }
+
+    @Override
+    public boolean isBindParameters(List<ParameterSetOperation> parameters) {
+        return this.bindParameters;
+    }
+
+    @Override
+    public String readPlan(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        StringBuilder sb = new StringBuilder();
+        while (resultSet.next()) {
+            if (sb.length() > 0) {
+                sb.append(LINE_SEPARATOR);
+            }
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    sb.append(" | ");
+                }
+                sb.append(resultSet.getString(i));
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,37 @@
+package net.ttddyy.dsproxy.listener.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+/**
+ * Fields shared by {@link QueryEvent} and {@link SlowQueryEvent}.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+@IgnoreJRERequirement
+public abstract class AbstractQueryEvent extends Event {
+
+    @Label("Data Source")
+    String dataSource;
+
+    @Label("Connection Id")
+    String connectionId;
+
+    @Label("Fingerprint")
+    String fingerprint;
+
+    @Label("Statement Type")
+    String statementType;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Batch Size")
+    int batchSize;
+
+    @Label("Rows")
+    long rows;
+
+}
@@ -0,0 +1,35 @@
+package net.ttddyy.dsproxy.listener.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+/**
+ * Flight recorder event for a connection obtained from datasource.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see JfrListener
+ * @since 1.6
+ */
+@IgnoreJRERequirement
+@Name("net.ttddyy.dsproxy.ConnectionAcquired")
+@Label("JDBC Connection Acquired")
+@Description("Connection obtained from datasource-proxy")
+@Category({"Java Application", "JDBC"})
+@StackTrace(false)
+public class ConnectionAcquiredEvent extends Event {
+
+    @Label("Data Source")
+    String dataSource;
+
+    @Label("Connection Id")
+    String connectionId;
+
+    @Label("Success")
+    boolean success;
+
+}
@@ -0,0 +1,38 @@
+package net.ttddyy.dsproxy.listener.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+/**
+ * Flight recorder event for a closed connection. Duration is the time spent in {@link java.sql.Connection#close()}.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see JfrListener
+ * @since 1.6
+ */
+@IgnoreJRERequirement
+@Name("net.ttddyy.dsproxy.ConnectionClosed")
+@Label("JDBC Connection Closed")
+@Description("Connection closed through datasource-proxy")
+@Category({"Java Application", "JDBC"})
+@StackTrace(false)
+public class ConnectionClosedEvent extends Event {
+
+    @Label("Data Source")
+    String dataSource;
+
+    @Label("Connection Id")
+    String connectionId;
+
+    @Label("Commit Count")
+    int commitCount;
+
+    @Label("Rollback Count")
+    int rollbackCount;
+
+}
@@ -0,0 +1,180 @@
+package net.ttddyy.dsproxy.listener.jfr;
+
+import jdk.jfr.EventType;
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListenerAdapter;
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+import java.util.List;
+
+/**
+ * Emit JDK Flight Recorder events for query executions and connection lifecycle.
+ *
+ * Following events are emitted:
+ * <ul>
+ * <li>{@link QueryEvent}: each query execution
+ * <li>{@link SlowQueryEvent}: query execution longer than its threshold(default 1 second)
+ * <li>{@link ConnectionAcquiredEvent}: connection obtained from datasource
+ * <li>{@link ConnectionClosedEvent}: connection closed
+ * </ul>
+ *
+ * Events are created only when they are enabled in a running recording; otherwise, the cost is a few checks per
+ * callback. Enable/disable and threshold can be configured per event in recording settings.
+ *
+ * Requires {@code jdk.jfr}(JDK 11+ or OpenJDK 8u262+). Check {@link JfrUtils#isAvailable()} before creating this
+ * listener when the application runs on other JDKs.
+ *
+ * <pre>
+ * ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource);
+ * if (JfrUtils.isAvailable()) {
+ *     builder.listener(new JfrListener());
+ * }
+ * </pre>
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+@IgnoreJRERequirement
+public class JfrListener extends JdbcLifecycleEventListenerAdapter {
+
+    private static final String QUERY_EVENT_KEY = JfrListener.class.getName() + ".queryEvent";
+    private static final String SLOW_QUERY_EVENT_KEY = JfrListener.class.getName() + ".slowQueryEvent";
+    private static final String CONNECTION_CLOSED_EVENT_KEY = JfrListener.class.getName() + ".connectionClosedEvent";
+
+    private final EventType queryEventType = EventType.getEventType(QueryEvent.class);
+    private final EventType slowQueryEventType = EventType.getEventType(SlowQueryEvent.class);
+    private final EventType connectionAcquiredEventType = EventType.getEventType(ConnectionAcquiredEvent.class);
+    private final EventType connectionClosedEventType = EventType.getEventType(ConnectionClosedEvent.class);
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (this.queryEventType.isEnabled()) {
+            QueryEvent event = new QueryEvent();
+            event.begin();
+            execInfo.addCustomValue(QUERY_EVENT_KEY, event);
+        }
+        if (this.slowQueryEventType.isEnabled()) {
+            SlowQueryEvent event = new SlowQueryEvent();
+            event.begin();
+            execInfo.addCustomValue(SLOW_QUERY_EVENT_KEY, event);
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryEvent queryEvent = execInfo.getCustomValue(QUERY_EVENT_KEY, QueryEvent.class);
+        if (queryEvent != null) {
+            queryEvent.end();
+            if (queryEvent.shouldCommit()) {
+                populate(queryEvent, execInfo, queryInfoList);
+                queryEvent.commit();
+            }
+        }
+        SlowQueryEvent slowQueryEvent = execInfo.getCustomValue(SLOW_QUERY_EVENT_KEY, SlowQueryEvent.class);
+        if (slowQueryEvent != null) {
+            slowQueryEvent.end();
+            if (slowQueryEvent.shouldCommit()) {
+                populate(slowQueryEvent, execInfo, queryInfoList);
+                slowQueryEvent.query = getQuery(queryInfoList);
+                slowQueryEvent.commit();
+            }
+        }
+    }
+
+    protected void populate(AbstractQueryEvent event, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        event.dataSource = execInfo.getDataSourceName();
+        event.connectionId = execInfo.getConnectionId();
+        event.fingerprint = QueryUtils.getFingerprintForExecution(queryInfoList);
+        event.statementType = execInfo.getStatementType() == null ? null : execInfo.getStatementType().name();
+        event.success = execInfo.isSuccess();
+        event.batchSize = execInfo.getBatchSize();
+        event.rows = getRows(execInfo.getResult());
+    }
+
+    /**
+     * @param result result of the execution
+     * @return update count, or sum of update counts for batch. {@code -1} for other results such as result set
+     */
+    protected long getRows(Object result) {
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        } else if (result instanceof int[]) {
+            long rows = 0;
+            for (int count : (int[]) result) {
+                rows += Math.max(count, 0);
+            }
+            return rows;
+        } else if (result instanceof long[]) {
+            long rows = 0;
+            for (long count : (long[]) result) {
+                rows += Math.max(count, 0);
+            }
+            return rows;
+        }
+        return -1;
+    }
+
+    protected String getQuery(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.size() == 1) {
+            return queryInfoList.get(0).getQuery();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (sb.length() > 0) {
+                sb.append(";");
+            }
+            sb.append(queryInfo.getQuery());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void afterGetConnectionOnDataSource(MethodExecutionContext executionContext) {
+        if (!this.connectionAcquiredEventType.isEnabled()) {
+            return;
+        }
+        ConnectionAcquiredEvent event = new ConnectionAcquiredEvent();
+        if (event.shouldCommit()) {
+            ConnectionInfo connectionInfo = executionContext.getConnectionInfo();
+            if (connectionInfo != null) {
+                event.dataSource = connectionInfo.getDataSourceName();
+                event.connectionId = connectionInfo.getConnectionId();
+            }
+            event.success = executionContext.getThrown() == null;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void beforeCloseOnConnection(MethodExecutionContext executionContext) {
+        if (this.connectionClosedEventType.isEnabled()) {
+            ConnectionClosedEvent event = new ConnectionClosedEvent();
+            event.begin();
+            executionContext.addCustomValue(CONNECTION_CLOSED_EVENT_KEY, event);
+        }
+    }
+
+    @Override
+    public void afterCloseOnConnection(MethodExecutionContext executionContext) {
+        ConnectionClosedEvent event = executionContext.getCustomValue(CONNECTION_CLOSED_EVENT_KEY, ConnectionClosedEvent.class);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            ConnectionInfo connectionInfo = executionContext.getConnectionInfo();
+            if (connectionInfo != null) {
+                event.dataSource = connectionInfo.getDataSourceName();
+                event.connectionId = connectionInfo.getConnectionId();
+                event.commitCount = connectionInfo.getCommitCount();
+                event.rollbackCount = connectionInfo.getRollbackCount();
+            }
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package net.ttddyy.dsproxy.listener.jfr;
+
+/**
+ * Utility for JDK Flight Recorder support.
+ *
+ * This class does not refer to {@code jdk.jfr} classes, thus it is safe to use on any JDK.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class JfrUtils {
+
+    private static final boolean AVAILABLE = isClassPresent("jdk.jfr.Event");
+
+    private static boolean isClassPresent(String className) {
+        try {
+            Class.forName(className, false, JfrUtils.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return {@code true} when {@code jdk.jfr} is available in the running JDK
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+}
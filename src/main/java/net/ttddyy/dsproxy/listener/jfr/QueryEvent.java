@@ -0,0 +1,24 @@
+package net.ttddyy.dsproxy.listener.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+/**
+ * Flight recorder event for a query execution.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see JfrListener
+ * @since 1.6
+ */
+@IgnoreJRERequirement
+@Name("net.ttddyy.dsproxy.Query")
+@Label("JDBC Query")
+@Description("Query execution through datasource-proxy")
+@Category({"Java Application", "JDBC"})
+@StackTrace(false)
+public class QueryEvent extends AbstractQueryEvent {
+}
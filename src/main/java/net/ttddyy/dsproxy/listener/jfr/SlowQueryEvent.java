@@ -0,0 +1,31 @@
+package net.ttddyy.dsproxy.listener.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import org.codehaus.mojo.animal_sniffer.IgnoreJRERequirement;
+
+/**
+ * Flight recorder event for a query execution that took longer than the threshold(default is 1 second).
+ *
+ * Threshold can be changed in recording settings. Unlike {@link QueryEvent}, query string and stack trace are
+ * recorded.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see JfrListener
+ * @since 1.6
+ */
+@IgnoreJRERequirement
+@Name("net.ttddyy.dsproxy.SlowQuery")
+@Label("JDBC Slow Query")
+@Description("Query execution through datasource-proxy that exceeded the threshold")
+@Category({"Java Application", "JDBC"})
+@Threshold("1 s")
+public class SlowQueryEvent extends AbstractQueryEvent {
+
+    @Label("Query")
+    String query;
+
+}
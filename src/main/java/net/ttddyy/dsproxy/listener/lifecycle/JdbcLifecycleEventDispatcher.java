@@ -0,0 +1,2395 @@
+package net.ttddyy.dsproxy.listener.lifecycle;
+
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Invoke callback methods on {@link JdbcLifecycleEventListener} without reflection.
+ *
+ * Each callback method is identified by an int id; upper bits are the index of the declaring callbacks interface
+ * and lower {@value #INDEX_BITS} bits are the index in {@link #CALLBACK_NAMES}. {@link #dispatch} switches on the
+ * id and directly calls the callback method.
+ *
+ * When a callback method is added to the callbacks interfaces, it needs to be added to both
+ * {@link #CALLBACK_NAMES} and the corresponding switch statement at the same index.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see JdbcLifecycleEventListenerUtils
+ * @since 1.6
+ */
+class JdbcLifecycleEventDispatcher {
+
+    static final int INDEX_BITS = 10;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    /**
+     * Callback method names per callbacks interface.
+     */
+    static final String[][] CALLBACK_NAMES = {
+            // DataSourceMethodCallbacks
+            {
+                    "beforeIsWrapperForOnDataSource",
+                    "beforeUnwrapOnDataSource",
+                    "afterIsWrapperForOnDataSource",
+                    "afterUnwrapOnDataSource",
+                    "beforeGetLoginTimeoutOnDataSource",
+                    "beforeGetLogWriterOnDataSource",
+                    "beforeGetParentLoggerOnDataSource",
+                    "beforeSetLoginTimeoutOnDataSource",
+                    "beforeSetLogWriterOnDataSource",
+                    "afterGetLoginTimeoutOnDataSource",
+                    "afterGetLogWriterOnDataSource",
+                    "afterGetParentLoggerOnDataSource",
+                    "afterSetLoginTimeoutOnDataSource",
+                    "afterSetLogWriterOnDataSource",
+                    "beforeGetConnectionOnDataSource",
+                    "afterGetConnectionOnDataSource"
+            },
+            // ConnectionMethodCallbacks
+            {
+                    "beforeIsWrapperForOnConnection",
+                    "beforeUnwrapOnConnection",
+                    "afterIsWrapperForOnConnection",
+                    "afterUnwrapOnConnection",
+                    "beforeAbortOnConnection",
+                    "beforeClearWarningsOnConnection",
+                    "beforeCloseOnConnection",
+                    "beforeCommitOnConnection",
+                    "beforeCreateArrayOfOnConnection",
+                    "beforeCreateBlobOnConnection",
+                    "beforeCreateClobOnConnection",
+                    "beforeCreateNClobOnConnection",
+                    "beforeCreateSQLXMLOnConnection",
+                    "beforeCreateStatementOnConnection",
+                    "beforeCreateStructOnConnection",
+                    "beforeGetAutoCommitOnConnection",
+                    "beforeGetCatalogOnConnection",
+                    "beforeGetClientInfoOnConnection",
+                    "beforeGetHoldabilityOnConnection",
+                    "beforeGetMetaDataOnConnection",
+                    "beforeGetNetworkTimeoutOnConnection",
+                    "beforeGetSchemaOnConnection",
+                    "beforeGetTransactionIsolationOnConnection",
+                    "beforeGetTypeMapOnConnection",
+                    "beforeGetWarningsOnConnection",
+                    "beforeIsClosedOnConnection",
+                    "beforeIsReadOnlyOnConnection",
+                    "beforeIsValidOnConnection",
+                    "beforeNativeSQLOnConnection",
+                    "beforePrepareCallOnConnection",
+                    "beforePrepareStatementOnConnection",
+                    "beforeReleaseSavepointOnConnection",
+                    "beforeRollbackOnConnection",
+                    "beforeSetAutoCommitOnConnection",
+                    "beforeSetCatalogOnConnection",
+                    "beforeSetClientInfoOnConnection",
+                    "beforeSetHoldabilityOnConnection",
+                    "beforeSetNetworkTimeoutOnConnection",
+                    "beforeSetReadOnlyOnConnection",
+                    "beforeSetSavepointOnConnection",
+                    "beforeSetSchemaOnConnection",
+                    "beforeSetTransactionIsolationOnConnection",
+                    "beforeSetTypeMapOnConnection",
+                    "afterAbortOnConnection",
+                    "afterClearWarningsOnConnection",
+                    "afterCloseOnConnection",
+                    "afterCommitOnConnection",
+                    "afterCreateArrayOfOnConnection",
+                    "afterCreateBlobOnConnection",
+                    "afterCreateClobOnConnection",
+                    "afterCreateNClobOnConnection",
+                    "afterCreateSQLXMLOnConnection",
+                    "afterCreateStatementOnConnection",
+                    "afterCreateStructOnConnection",
+                    "afterGetAutoCommitOnConnection",
+                    "afterGetCatalogOnConnection",
+                    "afterGetClientInfoOnConnection",
+                    "afterGetHoldabilityOnConnection",
+                    "afterGetMetaDataOnConnection",
+                    "afterGetNetworkTimeoutOnConnection",
+                    "afterGetSchemaOnConnection",
+                    "afterGetTransactionIsolationOnConnection",
+                    "afterGetTypeMapOnConnection",
+                    "afterGetWarningsOnConnection",
+                    "afterIsClosedOnConnection",
+                    "afterIsReadOnlyOnConnection",
+                    "afterIsValidOnConnection",
+                    "afterNativeSQLOnConnection",
+                    "afterPrepareCallOnConnection",
+                    "afterPrepareStatementOnConnection",
+                    "afterReleaseSavepointOnConnection",
+                    "afterRollbackOnConnection",
+                    "afterSetAutoCommitOnConnection",
+                    "afterSetCatalogOnConnection",
+                    "afterSetClientInfoOnConnection",
+                    "afterSetHoldabilityOnConnection",
+                    "afterSetNetworkTimeoutOnConnection",
+                    "afterSetReadOnlyOnConnection",
+                    "afterSetSavepointOnConnection",
+                    "afterSetSchemaOnConnection",
+                    "afterSetTransactionIsolationOnConnection",
+                    "afterSetTypeMapOnConnection"
+            },
+            // StatementMethodCallbacks
+            {
+                    "beforeIsWrapperForOnStatement",
+                    "beforeUnwrapOnStatement",
+                    "afterIsWrapperForOnStatement",
+                    "afterUnwrapOnStatement",
+                    "beforeAddBatchOnStatement",
+                    "beforeCancelOnStatement",
+                    "beforeClearBatchOnStatement",
+                    "beforeClearWarningsOnStatement",
+                    "beforeCloseOnStatement",
+                    "beforeCloseOnCompletionOnStatement",
+                    "beforeExecuteOnStatement",
+                    "beforeExecuteBatchOnStatement",
+                    "beforeExecuteLargeBatchOnStatement",
+                    "beforeExecuteLargeUpdateOnStatement",
+                    "beforeExecuteQueryOnStatement",
+                    "beforeExecuteUpdateOnStatement",
+                    "beforeGetConnectionOnStatement",
+                    "beforeGetFetchDirectionOnStatement",
+                    "beforeGetFetchSizeOnStatement",
+                    "beforeGetGeneratedKeysOnStatement",
+                    "beforeGetLargeMaxRowsOnStatement",
+                    "beforeGetLargeUpdateCountOnStatement",
+                    "beforeGetMaxFieldSizeOnStatement",
+                    "beforeGetMaxRowsOnStatement",
+                    "beforeGetMoreResultsOnStatement",
+                    "beforeGetQueryTimeoutOnStatement",
+                    "beforeGetResultSetOnStatement",
+                    "beforeGetResultSetConcurrencyOnStatement",
+                    "beforeGetResultSetHoldabilityOnStatement",
+                    "beforeGetResultSetTypeOnStatement",
+                    "beforeGetUpdateCountOnStatement",
+                    "beforeGetWarningsOnStatement",
+                    "beforeIsClosedOnStatement",
+                    "beforeIsCloseOnCompletionOnStatement",
+                    "beforeIsPoolableOnStatement",
+                    "beforeSetCursorNameOnStatement",
+                    "beforeSetEscapeProcessingOnStatement",
+                    "beforeSetFetchDirectionOnStatement",
+                    "beforeSetFetchSizeOnStatement",
+                    "beforeSetLargeMaxRowsOnStatement",
+                    "beforeSetMaxFieldSizeOnStatement",
+                    "beforeSetMaxRowsOnStatement",
+                    "beforeSetPoolableOnStatement",
+                    "beforeSetQueryTimeoutOnStatement",
+                    "afterAddBatchOnStatement",
+                    "afterCancelOnStatement",
+                    "afterClearBatchOnStatement",
+                    "afterClearWarningsOnStatement",
+                    "afterCloseOnStatement",
+                    "afterCloseOnCompletionOnStatement",
+                    "afterExecuteOnStatement",
+                    "afterExecuteBatchOnStatement",
+                    "afterExecuteLargeBatchOnStatement",
+                    "afterExecuteLargeUpdateOnStatement",
+                    "afterExecuteQueryOnStatement",
+                    "afterExecuteUpdateOnStatement",
+                    "afterGetConnectionOnStatement",
+                    "afterGetFetchDirectionOnStatement",
+                    "afterGetFetchSizeOnStatement",
+                    "afterGetGeneratedKeysOnStatement",
+                    "afterGetLargeMaxRowsOnStatement",
+                    "afterGetLargeUpdateCountOnStatement",
+                    "afterGetMaxFieldSizeOnStatement",
+                    "afterGetMaxRowsOnStatement",
+                    "afterGetMoreResultsOnStatement",
+                    "afterGetQueryTimeoutOnStatement",
+                    "afterGetResultSetOnStatement",
+                    "afterGetResultSetConcurrencyOnStatement",
+                    "afterGetResultSetHoldabilityOnStatement",
+                    "afterGetResultSetTypeOnStatement",
+                    "afterGetUpdateCountOnStatement",
+                    "afterGetWarningsOnStatement",
+                    "afterIsClosedOnStatement",
+                    "afterIsCloseOnCompletionOnStatement",
+                    "afterIsPoolableOnStatement",
+                    "afterSetCursorNameOnStatement",
+                    "afterSetEscapeProcessingOnStatement",
+                    "afterSetFetchDirectionOnStatement",
+                    "afterSetFetchSizeOnStatement",
+                    "afterSetLargeMaxRowsOnStatement",
+                    "afterSetMaxFieldSizeOnStatement",
+                    "afterSetMaxRowsOnStatement",
+                    "afterSetPoolableOnStatement",
+                    "afterSetQueryTimeoutOnStatement"
+            },
+            // PreparedStatementMethodCallbacks
+            {
+                    "beforeIsWrapperForOnPreparedStatement",
+                    "beforeUnwrapOnPreparedStatement",
+                    "afterIsWrapperForOnPreparedStatement",
+                    "afterUnwrapOnPreparedStatement",
+                    "beforeAddBatchOnPreparedStatement",
+                    "beforeClearParametersOnPreparedStatement",
+                    "beforeExecuteOnPreparedStatement",
+                    "beforeExecuteLargeUpdateOnPreparedStatement",
+                    "beforeExecuteQueryOnPreparedStatement",
+                    "beforeExecuteUpdateOnPreparedStatement",
+                    "beforeGetMetaDataOnPreparedStatement",
+                    "beforeGetParameterMetaDataOnPreparedStatement",
+                    "beforeSetArrayOnPreparedStatement",
+                    "beforeSetAsciiStreamOnPreparedStatement",
+                    "beforeSetBigDecimalOnPreparedStatement",
+                    "beforeSetBinaryStreamOnPreparedStatement",
+                    "beforeSetBlobOnPreparedStatement",
+                    "beforeSetBooleanOnPreparedStatement",
+                    "beforeSetByteOnPreparedStatement",
+                    "beforeSetBytesOnPreparedStatement",
+                    "beforeSetCharacterStreamOnPreparedStatement",
+                    "beforeSetClobOnPreparedStatement",
+                    "beforeSetDateOnPreparedStatement",
+                    "beforeSetDoubleOnPreparedStatement",
+                    "beforeSetFloatOnPreparedStatement",
+                    "beforeSetIntOnPreparedStatement",
+                    "beforeSetLongOnPreparedStatement",
+                    "beforeSetNCharacterStreamOnPreparedStatement",
+                    "beforeSetNClobOnPreparedStatement",
+                    "beforeSetNStringOnPreparedStatement",
+                    "beforeSetNullOnPreparedStatement",
+                    "beforeSetObjectOnPreparedStatement",
+                    "beforeSetRefOnPreparedStatement",
+                    "beforeSetRowIdOnPreparedStatement",
+                    "beforeSetShortOnPreparedStatement",
+                    "beforeSetSQLXMLOnPreparedStatement",
+                    "beforeSetStringOnPreparedStatement",
+                    "beforeSetTimeOnPreparedStatement",
+                    "beforeSetTimestampOnPreparedStatement",
+                    "beforeSetUnicodeStreamOnPreparedStatement",
+                    "beforeSetURLOnPreparedStatement",
+                    "afterAddBatchOnPreparedStatement",
+                    "afterClearParametersOnPreparedStatement",
+                    "afterExecuteOnPreparedStatement",
+                    "afterExecuteLargeUpdateOnPreparedStatement",
+                    "afterExecuteQueryOnPreparedStatement",
+                    "afterExecuteUpdateOnPreparedStatement",
+                    "afterGetMetaDataOnPreparedStatement",
+                    "afterGetParameterMetaDataOnPreparedStatement",
+                    "afterSetArrayOnPreparedStatement",
+                    "afterSetAsciiStreamOnPreparedStatement",
+                    "afterSetBigDecimalOnPreparedStatement",
+                    "afterSetBinaryStreamOnPreparedStatement",
+                    "afterSetBlobOnPreparedStatement",
+                    "afterSetBooleanOnPreparedStatement",
+                    "afterSetByteOnPreparedStatement",
+                    "afterSetBytesOnPreparedStatement",
+                    "afterSetCharacterStreamOnPreparedStatement",
+                    "afterSetClobOnPreparedStatement",
+                    "afterSetDateOnPreparedStatement",
+                    "afterSetDoubleOnPreparedStatement",
+                    "afterSetFloatOnPreparedStatement",
+                    "afterSetIntOnPreparedStatement",
+                    "afterSetLongOnPreparedStatement",
+                    "afterSetNCharacterStreamOnPreparedStatement",
+                    "afterSetNClobOnPreparedStatement",
+                    "afterSetNStringOnPreparedStatement",
+                    "afterSetNullOnPreparedStatement",
+                    "afterSetObjectOnPreparedStatement",
+                    "afterSetRefOnPreparedStatement",
+                    "afterSetRowIdOnPreparedStatement",
+                    "afterSetShortOnPreparedStatement",
+                    "afterSetSQLXMLOnPreparedStatement",
+                    "afterSetStringOnPreparedStatement",
+                    "afterSetTimeOnPreparedStatement",
+                    "afterSetTimestampOnPreparedStatement",
+                    "afterSetUnicodeStreamOnPreparedStatement",
+                    "afterSetURLOnPreparedStatement"
+            },
+            // CallableStatementMethodCallbacks
+            {
+                    "beforeIsWrapperForOnCallableStatement",
+                    "beforeUnwrapOnCallableStatement",
+                    "afterIsWrapperForOnCallableStatement",
+                    "afterUnwrapOnCallableStatement",
+                    "beforeGetArrayOnCallableStatement",
+                    "beforeGetBigDecimalOnCallableStatement",
+                    "beforeGetBlobOnCallableStatement",
+                    "beforeGetBooleanOnCallableStatement",
+                    "beforeGetByteOnCallableStatement",
+                    "beforeGetBytesOnCallableStatement",
+                    "beforeGetCharacterStreamOnCallableStatement",
+                    "beforeGetClobOnCallableStatement",
+                    "beforeGetDateOnCallableStatement",
+                    "beforeGetDoubleOnCallableStatement",
+                    "beforeGetFloatOnCallableStatement",
+                    "beforeGetIntOnCallableStatement",
+                    "beforeGetLongOnCallableStatement",
+                    "beforeGetNCharacterStreamOnCallableStatement",
+                    "beforeGetNClobOnCallableStatement",
+                    "beforeGetNStringOnCallableStatement",
+                    "beforeGetObjectOnCallableStatement",
+                    "beforeGetRefOnCallableStatement",
+                    "beforeGetRowIdOnCallableStatement",
+                    "beforeGetShortOnCallableStatement",
+                    "beforeGetSQLXMLOnCallableStatement",
+                    "beforeGetStringOnCallableStatement",
+                    "beforeGetTimeOnCallableStatement",
+                    "beforeGetTimestampOnCallableStatement",
+                    "beforeGetURLOnCallableStatement",
+                    "beforeRegisterOutParameterOnCallableStatement",
+                    "beforeSetAsciiStreamOnCallableStatement",
+                    "beforeSetBigDecimalOnCallableStatement",
+                    "beforeSetBinaryStreamOnCallableStatement",
+                    "beforeSetBlobOnCallableStatement",
+                    "beforeSetBooleanOnCallableStatement",
+                    "beforeSetByteOnCallableStatement",
+                    "beforeSetBytesOnCallableStatement",
+                    "beforeSetCharacterStreamOnCallableStatement",
+                    "beforeSetClobOnCallableStatement",
+                    "beforeSetDateOnCallableStatement",
+                    "beforeSetDoubleOnCallableStatement",
+                    "beforeSetFloatOnCallableStatement",
+                    "beforeSetIntOnCallableStatement",
+                    "beforeSetLongOnCallableStatement",
+                    "beforeSetNCharacterStreamOnCallableStatement",
+                    "beforeSetNClobOnCallableStatement",
+                    "beforeSetNStringOnCallableStatement",
+                    "beforeSetNullOnCallableStatement",
+                    "beforeSetObjectOnCallableStatement",
+                    "beforeSetRowIdOnCallableStatement",
+                    "beforeSetShortOnCallableStatement",
+                    "beforeSetSQLXMLOnCallableStatement",
+                    "beforeSetStringOnCallableStatement",
+                    "beforeSetTimeOnCallableStatement",
+                    "beforeSetTimestampOnCallableStatement",
+                    "beforeSetURLOnCallableStatement",
+                    "beforeWasNullOnCallableStatement",
+                    "afterGetArrayOnCallableStatement",
+                    "afterGetBigDecimalOnCallableStatement",
+                    "afterGetBlobOnCallableStatement",
+                    "afterGetBooleanOnCallableStatement",
+                    "afterGetByteOnCallableStatement",
+                    "afterGetBytesOnCallableStatement",
+                    "afterGetCharacterStreamOnCallableStatement",
+                    "afterGetClobOnCallableStatement",
+                    "afterGetDateOnCallableStatement",
+                    "afterGetDoubleOnCallableStatement",
+                    "afterGetFloatOnCallableStatement",
+                    "afterGetIntOnCallableStatement",
+                    "afterGetLongOnCallableStatement",
+                    "afterGetNCharacterStreamOnCallableStatement",
+                    "afterGetNClobOnCallableStatement",
+                    "afterGetNStringOnCallableStatement",
+                    "afterGetObjectOnCallableStatement",
+                    "afterGetRefOnCallableStatement",
+                    "afterGetRowIdOnCallableStatement",
+                    "afterGetShortOnCallableStatement",
+                    "afterGetSQLXMLOnCallableStatement",
+                    "afterGetStringOnCallableStatement",
+                    "afterGetTimeOnCallableStatement",
+                    "afterGetTimestampOnCallableStatement",
+                    "afterGetURLOnCallableStatement",
+                    "afterRegisterOutParameterOnCallableStatement",
+                    "afterSetAsciiStreamOnCallableStatement",
+                    "afterSetBigDecimalOnCallableStatement",
+                    "afterSetBinaryStreamOnCallableStatement",
+                    "afterSetBlobOnCallableStatement",
+                    "afterSetBooleanOnCallableStatement",
+                    "afterSetByteOnCallableStatement",
+                    "afterSetBytesOnCallableStatement",
+                    "afterSetCharacterStreamOnCallableStatement",
+                    "afterSetClobOnCallableStatement",
+                    "afterSetDateOnCallableStatement",
+                    "afterSetDoubleOnCallableStatement",
+                    "afterSetFloatOnCallableStatement",
+                    "afterSetIntOnCallableStatement",
+                    "afterSetLongOnCallableStatement",
+                    "afterSetNCharacterStreamOnCallableStatement",
+                    "afterSetNClobOnCallableStatement",
+                    "afterSetNStringOnCallableStatement",
+                    "afterSetNullOnCallableStatement",
+                    "afterSetObjectOnCallableStatement",
+                    "afterSetRowIdOnCallableStatement",
+                    "afterSetShortOnCallableStatement",
+                    "afterSetSQLXMLOnCallableStatement",
+                    "afterSetStringOnCallableStatement",
+                    "afterSetTimeOnCallableStatement",
+                    "afterSetTimestampOnCallableStatement",
+                    "afterSetURLOnCallableStatement",
+                    "afterWasNullOnCallableStatement"
+            },
+            // ResultSetMethodCallbacks
+            {
+                    "beforeIsWrapperForOnResultSet",
+                    "beforeUnwrapOnResultSet",
+                    "afterIsWrapperForOnResultSet",
+                    "afterUnwrapOnResultSet",
+                    "beforeAbsoluteOnResultSet",
+                    "beforeAfterLastOnResultSet",
+                    "beforeBeforeFirstOnResultSet",
+                    "beforeCancelRowUpdatesOnResultSet",
+                    "beforeClearWarningsOnResultSet",
+                    "beforeCloseOnResultSet",
+                    "beforeDeleteRowOnResultSet",
+                    "beforeFindColumnOnResultSet",
+                    "beforeFirstOnResultSet",
+                    "beforeGetArrayOnResultSet",
+                    "beforeGetAsciiStreamOnResultSet",
+                    "beforeGetBigDecimalOnResultSet",
+                    "beforeGetBinaryStreamOnResultSet",
+                    "beforeGetBlobOnResultSet",
+                    "beforeGetBooleanOnResultSet",
+                    "beforeGetByteOnResultSet",
+                    "beforeGetBytesOnResultSet",
+                    "beforeGetCharacterStreamOnResultSet",
+                    "beforeGetClobOnResultSet",
+                    "beforeGetConcurrencyOnResultSet",
+                    "beforeGetCursorNameOnResultSet",
+                    "beforeGetDateOnResultSet",
+                    "beforeGetDoubleOnResultSet",
+                    "beforeGetFetchDirectionOnResultSet",
+                    "beforeGetFetchSizeOnResultSet",
+                    "beforeGetFloatOnResultSet",
+                    "beforeGetHoldabilityOnResultSet",
+                    "beforeGetIntOnResultSet",
+                    "beforeGetLongOnResultSet",
+                    "beforeGetMetaDataOnResultSet",
+                    "beforeGetNCharacterStreamOnResultSet",
+                    "beforeGetNClobOnResultSet",
+                    "beforeGetNStringOnResultSet",
+                    "beforeGetObjectOnResultSet",
+                    "beforeGetRefOnResultSet",
+                    "beforeGetRowOnResultSet",
+                    "beforeGetRowIdOnResultSet",
+                    "beforeGetShortOnResultSet",
+                    "beforeGetSQLXMLOnResultSet",
+                    "beforeGetStatementOnResultSet",
+                    "beforeGetStringOnResultSet",
+                    "beforeGetTimeOnResultSet",
+                    "beforeGetTimestampOnResultSet",
+                    "beforeGetTypeOnResultSet",
+                    "beforeGetUnicodeStreamOnResultSet",
+                    "beforeGetURLOnResultSet",
+                    "beforeGetWarningsOnResultSet",
+                    "beforeInsertRowOnResultSet",
+                    "beforeIsAfterLastOnResultSet",
+                    "beforeIsBeforeFirstOnResultSet",
+                    "beforeIsClosedOnResultSet",
+                    "beforeIsFirstOnResultSet",
+                    "beforeIsLastOnResultSet",
+                    "beforeLastOnResultSet",
+                    "beforeMoveToCurrentRowOnResultSet",
+                    "beforeMoveToInsertRowOnResultSet",
+                    "beforeNextOnResultSet",
+                    "beforePreviousOnResultSet",
+                    "beforeRefreshRowOnResultSet",
+                    "beforeRelativeOnResultSet",
+                    "beforeRowDeletedOnResultSet",
+                    "beforeRowInsertedOnResultSet",
+                    "beforeRowUpdatedOnResultSet",
+                    "beforeSetFetchDirectionOnResultSet",
+                    "beforeSetFetchSizeOnResultSet",
+                    "beforeUpdateArrayOnResultSet",
+                    "beforeUpdateAsciiStreamOnResultSet",
+                    "beforeUpdateBigDecimalOnResultSet",
+                    "beforeUpdateBinaryStreamOnResultSet",
+                    "beforeUpdateBlobOnResultSet",
+                    "beforeUpdateBooleanOnResultSet",
+                    "beforeUpdateByteOnResultSet",
+                    "beforeUpdateBytesOnResultSet",
+                    "beforeUpdateCharacterStreamOnResultSet",
+                    "beforeUpdateClobOnResultSet",
+                    "beforeUpdateDateOnResultSet",
+                    "beforeUpdateDoubleOnResultSet",
+                    "beforeUpdateFloatOnResultSet",
+                    "beforeUpdateIntOnResultSet",
+                    "beforeUpdateLongOnResultSet",
+                    "beforeUpdateNCharacterStreamOnResultSet",
+                    "beforeUpdateNClobOnResultSet",
+                    "beforeUpdateNStringOnResultSet",
+                    "beforeUpdateNullOnResultSet",
+                    "beforeUpdateObjectOnResultSet",
+                    "beforeUpdateRefOnResultSet",
+                    "beforeUpdateRowOnResultSet",
+                    "beforeUpdateRowIdOnResultSet",
+                    "beforeUpdateShortOnResultSet",
+                    "beforeUpdateSQLXMLOnResultSet",
+                    "beforeUpdateStringOnResultSet",
+                    "beforeUpdateTimeOnResultSet",
+                    "beforeUpdateTimestampOnResultSet",
+                    "beforeWasNullOnResultSet",
+                    "afterAbsoluteOnResultSet",
+                    "afterAfterLastOnResultSet",
+                    "afterBeforeFirstOnResultSet",
+                    "afterCancelRowUpdatesOnResultSet",
+                    "afterClearWarningsOnResultSet",
+                    "afterCloseOnResultSet",
+                    "afterDeleteRowOnResultSet",
+                    "afterFindColumnOnResultSet",
+                    "afterFirstOnResultSet",
+                    "afterGetArrayOnResultSet",
+                    "afterGetAsciiStreamOnResultSet",
+                    "afterGetBigDecimalOnResultSet",
+                    "afterGetBinaryStreamOnResultSet",
+                    "afterGetBlobOnResultSet",
+                    "afterGetBooleanOnResultSet",
+                    "afterGetByteOnResultSet",
+                    "afterGetBytesOnResultSet",
+                    "afterGetCharacterStreamOnResultSet",
+                    "afterGetClobOnResultSet",
+                    "afterGetConcurrencyOnResultSet",
+                    "afterGetCursorNameOnResultSet",
+                    "afterGetDateOnResultSet",
+                    "afterGetDoubleOnResultSet",
+                    "afterGetFetchDirectionOnResultSet",
+                    "afterGetFetchSizeOnResultSet",
+                    "afterGetFloatOnResultSet",
+                    "afterGetHoldabilityOnResultSet",
+                    "afterGetIntOnResultSet",
+                    "afterGetLongOnResultSet",
+                    "afterGetMetaDataOnResultSet",
+                    "afterGetNCharacterStreamOnResultSet",
+                    "afterGetNClobOnResultSet",
+                    "afterGetNStringOnResultSet",
+                    "afterGetObjectOnResultSet",
+                    "afterGetRefOnResultSet",
+                    "afterGetRowOnResultSet",
+                    "afterGetRowIdOnResultSet",
+                    "afterGetShortOnResultSet",
+                    "afterGetSQLXMLOnResultSet",
+                    "afterGetStatementOnResultSet",
+                    "afterGetStringOnResultSet",
+                    "afterGetTimeOnResultSet",
+                    "afterGetTimestampOnResultSet",
+                    "afterGetTypeOnResultSet",
+                    "afterGetUnicodeStreamOnResultSet",
+                    "afterGetURLOnResultSet",
+                    "afterGetWarningsOnResultSet",
+                    "afterInsertRowOnResultSet",
+                    "afterIsAfterLastOnResultSet",
+                    "afterIsBeforeFirstOnResultSet",
+                    "afterIsClosedOnResultSet",
+                    "afterIsFirstOnResultSet",
+                    "afterIsLastOnResultSet",
+                    "afterLastOnResultSet",
+                    "afterMoveToCurrentRowOnResultSet",
+                    "afterMoveToInsertRowOnResultSet",
+                    "afterNextOnResultSet",
+                    "afterPreviousOnResultSet",
+                    "afterRefreshRowOnResultSet",
+                    "afterRelativeOnResultSet",
+                    "afterRowDeletedOnResultSet",
+                    "afterRowInsertedOnResultSet",
+                    "afterRowUpdatedOnResultSet",
+                    "afterSetFetchDirectionOnResultSet",
+                    "afterSetFetchSizeOnResultSet",
+                    "afterUpdateArrayOnResultSet",
+                    "afterUpdateAsciiStreamOnResultSet",
+                    "afterUpdateBigDecimalOnResultSet",
+                    "afterUpdateBinaryStreamOnResultSet",
+                    "afterUpdateBlobOnResultSet",
+                    "afterUpdateBooleanOnResultSet",
+                    "afterUpdateByteOnResultSet",
+                    "afterUpdateBytesOnResultSet",
+                    "afterUpdateCharacterStreamOnResultSet",
+                    "afterUpdateClobOnResultSet",
+                    "afterUpdateDateOnResultSet",
+                    "afterUpdateDoubleOnResultSet",
+                    "afterUpdateFloatOnResultSet",
+                    "afterUpdateIntOnResultSet",
+                    "afterUpdateLongOnResultSet",
+                    "afterUpdateNCharacterStreamOnResultSet",
+                    "afterUpdateNClobOnResultSet",
+                    "afterUpdateNStringOnResultSet",
+                    "afterUpdateNullOnResultSet",
+                    "afterUpdateObjectOnResultSet",
+                    "afterUpdateRefOnResultSet",
+                    "afterUpdateRowOnResultSet",
+                    "afterUpdateRowIdOnResultSet",
+                    "afterUpdateShortOnResultSet",
+                    "afterUpdateSQLXMLOnResultSet",
+                    "afterUpdateStringOnResultSet",
+                    "afterUpdateTimeOnResultSet",
+                    "afterUpdateTimestampOnResultSet",
+                    "afterWasNullOnResultSet"
+            }
+    };
+
+    private static final Map<String, Integer> callbackIdByName = new HashMap<String, Integer>();
+
+    static {
+        for (int group = 0; group < CALLBACK_NAMES.length; group++) {
+            for (int index = 0; index < CALLBACK_NAMES[group].length; index++) {
+                callbackIdByName.put(CALLBACK_NAMES[group][index], (group << INDEX_BITS) | index);
+            }
+        }
+    }
+
+    /**
+     * @param callbackName callback method name on {@link JdbcLifecycleEventListener}
+     * @return callback id. {@code -1} when not found
+     */
+    static int getCallbackId(String callbackName) {
+        Integer id = callbackIdByName.get(callbackName);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Invoke the callback method identified by the id.
+     *
+     * Switch statements are split per callbacks interface to keep each method small enough to be compiled by JIT.
+     *
+     * @param listener         listener to call
+     * @param callbackId       callback id
+     * @param executionContext method execution context
+     */
+    static void dispatch(JdbcLifecycleEventListener listener, int callbackId, MethodExecutionContext executionContext) {
+        int index = callbackId & INDEX_MASK;
+        switch (callbackId >>> INDEX_BITS) {
+            case 0:
+                dispatchOnDataSource(listener, index, executionContext);
+                break;
+            case 1:
+                dispatchOnConnection(listener, index, executionContext);
+                break;
+            case 2:
+                dispatchOnStatement(listener, index, executionContext);
+                break;
+            case 3:
+                dispatchOnPreparedStatement(listener, index, executionContext);
+                break;
+            case 4:
+                dispatchOnCallableStatement(listener, index, executionContext);
+                break;
+            case 5:
+                dispatchOnResultSet(listener, index, executionContext);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown callback id " + callbackId);
+        }
+    }
+
+    private static void dispatchOnDataSource(JdbcLifecycleEventListener listener, int index, MethodExecutionContext executionContext) {
+        switch (index) {
+            case 0:
+                listener.beforeIsWrapperForOnDataSource(executionContext);
+                break;
+            case 1:
+                listener.beforeUnwrapOnDataSource(executionContext);
+                break;
+            case 2:
+                listener.afterIsWrapperForOnDataSource(executionContext);
+                break;
+            case 3:
+                listener.afterUnwrapOnDataSource(executionContext);
+                break;
+            case 4:
+                listener.beforeGetLoginTimeoutOnDataSource(executionContext);
+                break;
+            case 5:
+                listener.beforeGetLogWriterOnDataSource(executionContext);
+                break;
+            case 6:
+                listener.beforeGetParentLoggerOnDataSource(executionContext);
+                break;
+            case 7:
+                listener.beforeSetLoginTimeoutOnDataSource(executionContext);
+                break;
+            case 8:
+                listener.beforeSetLogWriterOnDataSource(executionContext);
+                break;
+            case 9:
+                listener.afterGetLoginTimeoutOnDataSource(executionContext);
+                break;
+            case 10:
+                listener.afterGetLogWriterOnDataSource(executionContext);
+                break;
+            case 11:
+                listener.afterGetParentLoggerOnDataSource(executionContext);
+                break;
+            case 12:
+                listener.afterSetLoginTimeoutOnDataSource(executionContext);
+                break;
+            case 13:
+                listener.afterSetLogWriterOnDataSource(executionContext);
+                break;
+            case 14:
+                listener.beforeGetConnectionOnDataSource(executionContext);
+                break;
+            case 15:
+                listener.afterGetConnectionOnDataSource(executionContext);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown DataSource callback index " + index);
+        }
+    }
+
+    private static void dispatchOnConnection(JdbcLifecycleEventListener listener, int index, MethodExecutionContext executionContext) {
+        switch (index) {
+            case 0:
+                listener.beforeIsWrapperForOnConnection(executionContext);
+                break;
+            case 1:
+                listener.beforeUnwrapOnConnection(executionContext);
+                break;
+            case 2:
+                listener.afterIsWrapperForOnConnection(executionContext);
+                break;
+            case 3:
+                listener.afterUnwrapOnConnection(executionContext);
+                break;
+            case 4:
+                listener.beforeAbortOnConnection(executionContext);
+                break;
+            case 5:
+                listener.beforeClearWarningsOnConnection(executionContext);
+                break;
+            case 6:
+                listener.beforeCloseOnConnection(executionContext);
+                break;
+            case 7:
+                listener.beforeCommitOnConnection(executionContext);
+                break;
+            case 8:
+                listener.beforeCreateArrayOfOnConnection(executionContext);
+                break;
+            case 9:
+                listener.beforeCreateBlobOnConnection(executionContext);
+                break;
+            case 10:
+                listener.beforeCreateClobOnConnection(executionContext);
+                break;
+            case 11:
+                listener.beforeCreateNClobOnConnection(executionContext);
+                break;
+            case 12:
+                listener.beforeCreateSQLXMLOnConnection(executionContext);
+                break;
+            case 13:
+                listener.beforeCreateStatementOnConnection(executionContext);
+                break;
+            case 14:
+                listener.beforeCreateStructOnConnection(executionContext);
+                break;
+            case 15:
+                listener.beforeGetAutoCommitOnConnection(executionContext);
+                break;
+            case 16:
+                listener.beforeGetCatalogOnConnection(executionContext);
+                break;
+            case 17:
+                listener.beforeGetClientInfoOnConnection(executionContext);
+                break;
+            case 18:
+                listener.beforeGetHoldabilityOnConnection(executionContext);
+                break;
+            case 19:
+                listener.beforeGetMetaDataOnConnection(executionContext);
+                break;
+            case 20:
+                listener.beforeGetNetworkTimeoutOnConnection(executionContext);
+                break;
+            case 21:
+                listener.beforeGetSchemaOnConnection(executionContext);
+                break;
+            case 22:
+                listener.beforeGetTransactionIsolationOnConnection(executionContext);
+                break;
+            case 23:
+                listener.beforeGetTypeMapOnConnection(executionContext);
+                break;
+            case 24:
+                listener.beforeGetWarningsOnConnection(executionContext);
+                break;
+            case 25:
+                listener.beforeIsClosedOnConnection(executionContext);
+                break;
+            case 26:
+                listener.beforeIsReadOnlyOnConnection(executionContext);
+                break;
+            case 27:
+                listener.beforeIsValidOnConnection(executionContext);
+                break;
+            case 28:
+                listener.beforeNativeSQLOnConnection(executionContext);
+                break;
+            case 29:
+                listener.beforePrepareCallOnConnection(executionContext);
+                break;
+            case 30:
+                listener.beforePrepareStatementOnConnection(executionContext);
+                break;
+            case 31:
+                listener.beforeReleaseSavepointOnConnection(executionContext);
+                break;
+            case 32:
+                listener.beforeRollbackOnConnection(executionContext);
+                break;
+            case 33:
+                listener.beforeSetAutoCommitOnConnection(executionContext);
+                break;
+            case 34:
+                listener.beforeSetCatalogOnConnection(executionContext);
+                break;
+            case 35:
+                listener.beforeSetClientInfoOnConnection(executionContext);
+                break;
+            case 36:
+                listener.beforeSetHoldabilityOnConnection(executionContext);
+                break;
+            case 37:
+                listener.beforeSetNetworkTimeoutOnConnection(executionContext);
+                break;
+            case 38:
+                listener.beforeSetReadOnlyOnConnection(executionContext);
+                break;
+            case 39:
+                listener.beforeSetSavepointOnConnection(executionContext);
+                break;
+            case 40:
+                listener.beforeSetSchemaOnConnection(executionContext);
+                break;
+            case 41:
+                listener.beforeSetTransactionIsolationOnConnection(executionContext);
+                break;
+            case 42:
+                listener.beforeSetTypeMapOnConnection(executionContext);
+                break;
+            case 43:
+                listener.afterAbortOnConnection(executionContext);
+                break;
+            case 44:
+                listener.afterClearWarningsOnConnection(executionContext);
+                break;
+            case 45:
+                listener.afterCloseOnConnection(executionContext);
+                break;
+            case 46:
+                listener.afterCommitOnConnection(executionContext);
+                break;
+            case 47:
+                listener.afterCreateArrayOfOnConnection(executionContext);
+                break;
+            case 48:
+                listener.afterCreateBlobOnConnection(executionContext);
+                break;
+            case 49:
+                listener.afterCreateClobOnConnection(executionContext);
+                break;
+            case 50:
+                listener.afterCreateNClobOnConnection(executionContext);
+                break;
+            case 51:
+                listener.afterCreateSQLXMLOnConnection(executionContext);
+                break;
+            case 52:
+                listener.afterCreateStatementOnConnection(executionContext);
+                break;
+            case 53:
+                listener.afterCreateStructOnConnection(executionContext);
+                break;
+            case 54:
+                listener.afterGetAutoCommitOnConnection(executionContext);
+                break;
+            case 55:
+                listener.afterGetCatalogOnConnection(executionContext);
+                break;
+            case 56:
+                listener.afterGetClientInfoOnConnection(executionContext);
+                break;
+            case 57:
+                listener.afterGetHoldabilityOnConnection(executionContext);
+                break;
+            case 58:
+                listener.afterGetMetaDataOnConnection(executionContext);
+                break;
+            case 59:
+                listener.afterGetNetworkTimeoutOnConnection(executionContext);
+                break;
+            case 60:
+                listener.afterGetSchemaOnConnection(executionContext);
+                break;
+            case 61:
+                listener.afterGetTransactionIsolationOnConnection(executionContext);
+                break;
+            case 62:
+                listener.afterGetTypeMapOnConnection(executionContext);
+                break;
+            case 63:
+                listener.afterGetWarningsOnConnection(executionContext);
+                break;
+            case 64:
+                listener.afterIsClosedOnConnection(executionContext);
+                break;
+            case 65:
+                listener.afterIsReadOnlyOnConnection(executionContext);
+                break;
+            case 66:
+                listener.afterIsValidOnConnection(executionContext);
+                break;
+            case 67:
+                listener.afterNativeSQLOnConnection(executionContext);
+                break;
+            case 68:
+                listener.afterPrepareCallOnConnection(executionContext);
+                break;
+            case 69:
+                listener.afterPrepareStatementOnConnection(executionContext);
+                break;
+            case 70:
+                listener.afterReleaseSavepointOnConnection(executionContext);
+                break;
+            case 71:
+                listener.afterRollbackOnConnection(executionContext);
+                break;
+            case 72:
+                listener.afterSetAutoCommitOnConnection(executionContext);
+                break;
+            case 73:
+                listener.afterSetCatalogOnConnection(executionContext);
+                break;
+            case 74:
+                listener.afterSetClientInfoOnConnection(executionContext);
+                break;
+            case 75:
+                listener.afterSetHoldabilityOnConnection(executionContext);
+                break;
+            case 76:
+                listener.afterSetNetworkTimeoutOnConnection(executionContext);
+                break;
+            case 77:
+                listener.afterSetReadOnlyOnConnection(executionContext);
+                break;
+            case 78:
+                listener.afterSetSavepointOnConnection(executionContext);
+                break;
+            case 79:
+                listener.afterSetSchemaOnConnection(executionContext);
+                break;
+            case 80:
+                listener.afterSetTransactionIsolationOnConnection(executionContext);
+                break;
+            case 81:
+                listener.afterSetTypeMapOnConnection(executionContext);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown Connection callback index " + index);
+        }
+    }
+
+    private static void dispatchOnStatement(JdbcLifecycleEventListener listener, int index, MethodExecutionContext executionContext) {
+        switch (index) {
+            case 0:
+                listener.beforeIsWrapperForOnStatement(executionContext);
+                break;
+            case 1:
+                listener.beforeUnwrapOnStatement(executionContext);
+                break;
+            case 2:
+                listener.afterIsWrapperForOnStatement(executionContext);
+                break;
+            case 3:
+                listener.afterUnwrapOnStatement(executionContext);
+                break;
+            case 4:
+                listener.beforeAddBatchOnStatement(executionContext);
+                break;
+            case 5:
+                listener.beforeCancelOnStatement(executionContext);
+                break;
+            case 6:
+                listener.beforeClearBatchOnStatement(executionContext);
+                break;
+            case 7:
+                listener.beforeClearWarningsOnStatement(executionContext);
+                break;
+            case 8:
+                listener.beforeCloseOnStatement(executionContext);
+                break;
+            case 9:
+                listener.beforeCloseOnCompletionOnStatement(executionContext);
+                break;
+            case 10:
+                listener.beforeExecuteOnStatement(executionContext);
+                break;
+            case 11:
+                listener.beforeExecuteBatchOnStatement(executionContext);
+                break;
+            case 12:
+                listener.beforeExecuteLargeBatchOnStatement(executionContext);
+                break;
+            case 13:
+                listener.beforeExecuteLargeUpdateOnStatement(executionContext);
+                break;
+            case 14:
+                listener.beforeExecuteQueryOnStatement(executionContext);
+                break;
+            case 15:
+                listener.beforeExecuteUpdateOnStatement(executionContext);
+                break;
+            case 16:
+                listener.beforeGetConnectionOnStatement(executionContext);
+                break;
+            case 17:
+                listener.beforeGetFetchDirectionOnStatement(executionContext);
+                break;
+            case 18:
+                listener.beforeGetFetchSizeOnStatement(executionContext);
+                break;
+            case 19:
+                listener.beforeGetGeneratedKeysOnStatement(executionContext);
+                break;
+            case 20:
+                listener.beforeGetLargeMaxRowsOnStatement(executionContext);
+                break;
+            case 21:
+                listener.beforeGetLargeUpdateCountOnStatement(executionContext);
+                break;
+            case 22:
+                listener.beforeGetMaxFieldSizeOnStatement(executionContext);
+                break;
+            case 23:
+                listener.beforeGetMaxRowsOnStatement(executionContext);
+                break;
+            case 24:
+                listener.beforeGetMoreResultsOnStatement(executionContext);
+                break;
+            case 25:
+                listener.beforeGetQueryTimeoutOnStatement(executionContext);
+                break;
+            case 26:
+                listener.beforeGetResultSetOnStatement(executionContext);
+                break;
+            case 27:
+                listener.beforeGetResultSetConcurrencyOnStatement(executionContext);
+                break;
+            case 28:
+                listener.beforeGetResultSetHoldabilityOnStatement(executionContext);
+                break;
+            case 29:
+                listener.beforeGetResultSetTypeOnStatement(executionContext);
+                break;
+            case 30:
+                listener.beforeGetUpdateCountOnStatement(executionContext);
+                break;
+            case 31:
+                listener.beforeGetWarningsOnStatement(executionContext);
+                break;
+            case 32:
+                listener.beforeIsClosedOnStatement(executionContext);
+                break;
+            case 33:
+                listener.beforeIsCloseOnCompletionOnStatement(executionContext);
+                break;
+            case 34:
+                listener.beforeIsPoolableOnStatement(executionContext);
+                break;
+            case 35:
+                listener.beforeSetCursorNameOnStatement(executionContext);
+                break;
+            case 36:
+                listener.beforeSetEscapeProcessingOnStatement(executionContext);
+                break;
+            case 37:
+                listener.beforeSetFetchDirectionOnStatement(executionContext);
+                break;
+            case 38:
+                listener.beforeSetFetchSizeOnStatement(executionContext);
+                break;
+            case 39:
+                listener.beforeSetLargeMaxRowsOnStatement(executionContext);
+                break;
+            case 40:
+                listener.beforeSetMaxFieldSizeOnStatement(executionContext);
+                break;
+            case 41:
+                listener.beforeSetMaxRowsOnStatement(executionContext);
+                break;
+            case 42:
+                listener.beforeSetPoolableOnStatement(executionContext);
+                break;
+            case 43:
+                listener.beforeSetQueryTimeoutOnStatement(executionContext);
+                break;
+            case 44:
+                listener.afterAddBatchOnStatement(executionContext);
+                break;
+            case 45:
+                listener.afterCancelOnStatement(executionContext);
+                break;
+            case 46:
+                listener.afterClearBatchOnStatement(executionContext);
+                break;
+            case 47:
+                listener.afterClearWarningsOnStatement(executionContext);
+                break;
+            case 48:
+                listener.afterCloseOnStatement(executionContext);
+                break;
+            case 49:
+                listener.afterCloseOnCompletionOnStatement(executionContext);
+                break;
+            case 50:
+                listener.afterExecuteOnStatement(executionContext);
+                break;
+            case 51:
+                listener.afterExecuteBatchOnStatement(executionContext);
+                break;
+            case 52:
+                listener.afterExecuteLargeBatchOnStatement(executionContext);
+                break;
+            case 53:
+                listener.afterExecuteLargeUpdateOnStatement(executionContext);
+                break;
+            case 54:
+                listener.afterExecuteQueryOnStatement(executionContext);
+                break;
+            case 55:
+                listener.afterExecuteUpdateOnStatement(executionContext);
+                break;
+            case 56:
+                listener.afterGetConnectionOnStatement(executionContext);
+                break;
+            case 57:
+                listener.afterGetFetchDirectionOnStatement(executionContext);
+                break;
+            case 58:
+                listener.afterGetFetchSizeOnStatement(executionContext);
+                break;
+            case 59:
+                listener.afterGetGeneratedKeysOnStatement(executionContext);
+                break;
+            case 60:
+                listener.afterGetLargeMaxRowsOnStatement(executionContext);
+                break;
+            case 61:
+                listener.afterGetLargeUpdateCountOnStatement(executionContext);
+                break;
+            case 62:
+                listener.afterGetMaxFieldSizeOnStatement(executionContext);
+                break;
+            case 63:
+                listener.afterGetMaxRowsOnStatement(executionContext);
+                break;
+            case 64:
+                listener.afterGetMoreResultsOnStatement(executionContext);
+                break;
+            case 65:
+                listener.afterGetQueryTimeoutOnStatement(executionContext);
+                break;
+            case 66:
+                listener.afterGetResultSetOnStatement(executionContext);
+                break;
+            case 67:
+                listener.afterGetResultSetConcurrencyOnStatement(executionContext);
+                break;
+            case 68:
+                listener.afterGetResultSetHoldabilityOnStatement(executionContext);
+                break;
+            case 69:
+                listener.afterGetResultSetTypeOnStatement(executionContext);
+                break;
+            case 70:
+                listener.afterGetUpdateCountOnStatement(executionContext);
+                break;
+            case 71:
+                listener.afterGetWarningsOnStatement(executionContext);
+                break;
+            case 72:
+                listener.afterIsClosedOnStatement(executionContext);
+                break;
+            case 73:
+                listener.afterIsCloseOnCompletionOnStatement(executionContext);
+                break;
+            case 74:
+                listener.afterIsPoolableOnStatement(executionContext);
+                break;
+            case 75:
+                listener.afterSetCursorNameOnStatement(executionContext);
+                break;
+            case 76:
+                listener.afterSetEscapeProcessingOnStatement(executionContext);
+                break;
+            case 77:
+                listener.afterSetFetchDirectionOnStatement(executionContext);
+                break;
+            case 78:
+                listener.afterSetFetchSizeOnStatement(executionContext);
+                break;
+            case 79:
+                listener.afterSetLargeMaxRowsOnStatement(executionContext);
+                break;
+            case 80:
+                listener.afterSetMaxFieldSizeOnStatement(executionContext);
+                break;
+            case 81:
+                listener.afterSetMaxRowsOnStatement(executionContext);
+                break;
+            case 82:
+                listener.afterSetPoolableOnStatement(executionContext);
+                break;
+            case 83:
+                listener.afterSetQueryTimeoutOnStatement(executionContext);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown Statement callback index " + index);
+        }
+    }
+
+    private static void dispatchOnPreparedStatement(JdbcLifecycleEventListener listener, int index, MethodExecutionContext executionContext) {
+        switch (index) {
+            case 0:
+                listener.beforeIsWrapperForOnPreparedStatement(executionContext);
+                break;
+            case 1:
+                listener.beforeUnwrapOnPreparedStatement(executionContext);
+                break;
+            case 2:
+                listener.afterIsWrapperForOnPreparedStatement(executionContext);
+                break;
+            case 3:
+                listener.afterUnwrapOnPreparedStatement(executionContext);
+                break;
+            case 4:
+                listener.beforeAddBatchOnPreparedStatement(executionContext);
+                break;
+            case 5:
+                listener.beforeClearParametersOnPreparedStatement(executionContext);
+                break;
+            case 6:
+                listener.beforeExecuteOnPreparedStatement(executionContext);
+                break;
+            case 7:
+                listener.beforeExecuteLargeUpdateOnPreparedStatement(executionContext);
+                break;
+            case 8:
+                listener.beforeExecuteQueryOnPreparedStatement(executionContext);
+                break;
+            case 9:
+                listener.beforeExecuteUpdateOnPreparedStatement(executionContext);
+                break;
+            case 10:
+                listener.beforeGetMetaDataOnPreparedStatement(executionContext);
+                break;
+            case 11:
+                listener.beforeGetParameterMetaDataOnPreparedStatement(executionContext);
+                break;
+            case 12:
+                listener.beforeSetArrayOnPreparedStatement(executionContext);
+                break;
+            case 13:
+                listener.beforeSetAsciiStreamOnPreparedStatement(executionContext);
+                break;
+            case 14:
+                listener.beforeSetBigDecimalOnPreparedStatement(executionContext);
+                break;
+            case 15:
+                listener.beforeSetBinaryStreamOnPreparedStatement(executionContext);
+                break;
+            case 16:
+                listener.beforeSetBlobOnPreparedStatement(executionContext);
+                break;
+            case 17:
+                listener.beforeSetBooleanOnPreparedStatement(executionContext);
+                break;
+            case 18:
+                listener.beforeSetByteOnPreparedStatement(executionContext);
+                break;
+            case 19:
+                listener.beforeSetBytesOnPreparedStatement(executionContext);
+                break;
+            case 20:
+                listener.beforeSetCharacterStreamOnPreparedStatement(executionContext);
+                break;
+            case 21:
+                listener.beforeSetClobOnPreparedStatement(executionContext);
+                break;
+            case 22:
+                listener.beforeSetDateOnPreparedStatement(executionContext);
+                break;
+            case 23:
+                listener.beforeSetDoubleOnPreparedStatement(executionContext);
+                break;
+            case 24:
+                listener.beforeSetFloatOnPreparedStatement(executionContext);
+                break;
+            case 25:
+                listener.beforeSetIntOnPreparedStatement(executionContext);
+                break;
+            case 26:
+                listener.beforeSetLongOnPreparedStatement(executionContext);
+                break;
+            case 27:
+                listener.beforeSetNCharacterStreamOnPreparedStatement(executionContext);
+                break;
+            case 28:
+                listener.beforeSetNClobOnPreparedStatement(executionContext);
+                break;
+            case 29:
+                listener.beforeSetNStringOnPreparedStatement(executionContext);
+                break;
+            case 30:
+                listener.beforeSetNullOnPreparedStatement(executionContext);
+                break;
+            case 31:
+                listener.beforeSetObjectOnPreparedStatement(executionContext);
+                break;
+            case 32:
+                listener.beforeSetRefOnPreparedStatement(executionContext);
+                break;
+            case 33:
+                listener.beforeSetRowIdOnPreparedStatement(executionContext);
+                break;
+            case 34:
+                listener.beforeSetShortOnPreparedStatement(executionContext);
+                break;
+            case 35:
+                listener.beforeSetSQLXMLOnPreparedStatement(executionContext);
+                break;
+            case 36:
+                listener.beforeSetStringOnPreparedStatement(executionContext);
+                break;
+            case 37:
+                listener.beforeSetTimeOnPreparedStatement(executionContext);
+                break;
+            case 38:
+                listener.beforeSetTimestampOnPreparedStatement(executionContext);
+                break;
+            case 39:
+                listener.beforeSetUnicodeStreamOnPreparedStatement(executionContext);
+                break;
+            case 40:
+                listener.beforeSetURLOnPreparedStatement(executionContext);
+                break;
+            case 41:
+                listener.afterAddBatchOnPreparedStatement(executionContext);
+                break;
+            case 42:
+                listener.afterClearParametersOnPreparedStatement(executionContext);
+                break;
+            case 43:
+                listener.afterExecuteOnPreparedStatement(executionContext);
+                break;
+            case 44:
+                listener.afterExecuteLargeUpdateOnPreparedStatement(executionContext);
+                break;
+            case 45:
+                listener.afterExecuteQueryOnPreparedStatement(executionContext);
+                break;
+            case 46:
+                listener.afterExecuteUpdateOnPreparedStatement(executionContext);
+                break;
+            case 47:
+                listener.afterGetMetaDataOnPreparedStatement(executionContext);
+                break;
+            case 48:
+                listener.afterGetParameterMetaDataOnPreparedStatement(executionContext);
+                break;
+            case 49:
+                listener.afterSetArrayOnPreparedStatement(executionContext);
+                break;
+            case 50:
+                listener.afterSetAsciiStreamOnPreparedStatement(executionContext);
+                break;
+            case 51:
+                listener.afterSetBigDecimalOnPreparedStatement(executionContext);
+                break;
+            case 52:
+                listener.afterSetBinaryStreamOnPreparedStatement(executionContext);
+                break;
+            case 53:
+                listener.afterSetBlobOnPreparedStatement(executionContext);
+                break;
+            case 54:
+                listener.afterSetBooleanOnPreparedStatement(executionContext);
+                break;
+            case 55:
+                listener.afterSetByteOnPreparedStatement(executionContext);
+                break;
+            case 56:
+                listener.afterSetBytesOnPreparedStatement(executionContext);
+                break;
+            case 57:
+                listener.afterSetCharacterStreamOnPreparedStatement(executionContext);
+                break;
+            case 58:
+                listener.afterSetClobOnPreparedStatement(executionContext);
+                break;
+            case 59:
+                listener.afterSetDateOnPreparedStatement(executionContext);
+                break;
+            case 60:
+                listener.afterSetDoubleOnPreparedStatement(executionContext);
+                break;
+            case 61:
+                listener.afterSetFloatOnPreparedStatement(executionContext);
+                break;
+            case 62:
+                listener.afterSetIntOnPreparedStatement(executionContext);
+                break;
+            case 63:
+                listener.afterSetLongOnPreparedStatement(executionContext);
+                break;
+            case 64:
+                listener.afterSetNCharacterStreamOnPreparedStatement(executionContext);
+                break;
+            case 65:
+                listener.afterSetNClobOnPreparedStatement(executionContext);
+                break;
+            case 66:
+                listener.afterSetNStringOnPreparedStatement(executionContext);
+                break;
+            case 67:
+                listener.afterSetNullOnPreparedStatement(executionContext);
+                break;
+            case 68:
+                listener.afterSetObjectOnPreparedStatement(executionContext);
+                break;
+            case 69:
+                listener.afterSetRefOnPreparedStatement(executionContext);
+                break;
+            case 70:
+                listener.afterSetRowIdOnPreparedStatement(executionContext);
+                break;
+            case 71:
+                listener.afterSetShortOnPreparedStatement(executionContext);
+                break;
+            case 72:
+                listener.afterSetSQLXMLOnPreparedStatement(executionContext);
+                break;
+            case 73:
+                listener.afterSetStringOnPreparedStatement(executionContext);
+                break;
+            case 74:
+                listener.afterSetTimeOnPreparedStatement(executionContext);
+                break;
+            case 75:
+                listener.afterSetTimestampOnPreparedStatement(executionContext);
+                break;
+            case 76:
+                listener.afterSetUnicodeStreamOnPreparedStatement(executionContext);
+                break;
+            case 77:
+                listener.afterSetURLOnPreparedStatement(executionContext);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown PreparedStatement callback index " + index);
+        }
+    }
+
+    private static void dispatchOnCallableStatement(JdbcLifecycleEventListener listener, int index, MethodExecutionContext executionContext) {
+        switch (index) {
+            case 0:
+                listener.beforeIsWrapperForOnCallableStatement(executionContext);
+                break;
+            case 1:
+                listener.beforeUnwrapOnCallableStatement(executionContext);
+                break;
+            case 2:
+                listener.afterIsWrapperForOnCallableStatement(executionContext);
+                break;
+            case 3:
+                listener.afterUnwrapOnCallableStatement(executionContext);
+                break;
+            case 4:
+                listener.beforeGetArrayOnCallableStatement(executionContext);
+                break;
+            case 5:
+                listener.beforeGetBigDecimalOnCallableStatement(executionContext);
+                break;
+            case 6:
+                listener.beforeGetBlobOnCallableStatement(executionContext);
+                break;
+            case 7:
+                listener.beforeGetBooleanOnCallableStatement(executionContext);
+                break;
+            case 8:
+                listener.beforeGetByteOnCallableStatement(executionContext);
+                break;
+            case 9:
+                listener.beforeGetBytesOnCallableStatement(executionContext);
+                break;
+            case 10:
+                listener.beforeGetCharacterStreamOnCallableStatement(executionContext);
+                break;
+            case 11:
+                listener.beforeGetClobOnCallableStatement(executionContext);
+                break;
+            case 12:
+                listener.beforeGetDateOnCallableStatement(executionContext);
+                break;
+            case 13:
+                listener.beforeGetDoubleOnCallableStatement(executionContext);
+                break;
+            case 14:
+                listener.beforeGetFloatOnCallableStatement(executionContext);
+                break;
+            case 15:
+                listener.beforeGetIntOnCallableStatement(executionContext);
+                break;
+            case 16:
+                listener.beforeGetLongOnCallableStatement(executionContext);
+                break;
+            case 17:
+                listener.beforeGetNCharacterStreamOnCallableStatement(executionContext);
+                break;
+            case 18:
+                listener.beforeGetNClobOnCallableStatement(executionContext);
+                break;
+            case 19:
+                listener.beforeGetNStringOnCallableStatement(executionContext);
+                break;
+            case 20:
+                listener.beforeGetObjectOnCallableStatement(executionContext);
+                break;
+            case 21:
+                listener.beforeGetRefOnCallableStatement(executionContext);
+                break;
+            case 22:
+                listener.beforeGetRowIdOnCallableStatement(executionContext);
+                break;
+            case 23:
+                listener.beforeGetShortOnCallableStatement(executionContext);
+                break;
+            case 24:
+                listener.beforeGetSQLXMLOnCallableStatement(executionContext);
+                break;
+            case 25:
+                listener.beforeGetStringOnCallableStatement(executionContext);
+                break;
+            case 26:
+                listener.beforeGetTimeOnCallableStatement(executionContext);
+                break;
+            case 27:
+                listener.beforeGetTimestampOnCallableStatement(executionContext);
+                break;
+            case 28:
+                listener.beforeGetURLOnCallableStatement(executionContext);
+                break;
+            case 29:
+                listener.beforeRegisterOutParameterOnCallableStatement(executionContext);
+                break;
+            case 30:
+                listener.beforeSetAsciiStreamOnCallableStatement(executionContext);
+                break;
+            case 31:
+                listener.beforeSetBigDecimalOnCallableStatement(executionContext);
+                break;
+            case 32:
+                listener.beforeSetBinaryStreamOnCallableStatement(executionContext);
+                break;
+            case 33:
+                listener.beforeSetBlobOnCallableStatement(executionContext);
+                break;
+            case 34:
+                listener.beforeSetBooleanOnCallableStatement(executionContext);
+                break;
+            case 35:
+                listener.beforeSetByteOnCallableStatement(executionContext);
+                break;
+            case 36:
+                listener.beforeSetBytesOnCallableStatement(executionContext);
+                break;
+            case 37:
+                listener.beforeSetCharacterStreamOnCallableStatement(executionContext);
+                break;
+            case 38:
+                listener.beforeSetClobOnCallableStatement(executionContext);
+                break;
+            case 39:
+                listener.beforeSetDateOnCallableStatement(executionContext);
+                break;
+            case 40:
+                listener.beforeSetDoubleOnCallableStatement(executionContext);
+                break;
+            case 41:
+                listener.beforeSetFloatOnCallableStatement(executionContext);
+                break;
+            case 42:
+                listener.beforeSetIntOnCallableStatement(executionContext);
+                break;
+            case 43:
+                listener.beforeSetLongOnCallableStatement(executionContext);
+                break;
+            case 44:
+                listener.beforeSetNCharacterStreamOnCallableStatement(executionContext);
+                break;
+            case 45:
+                listener.beforeSetNClobOnCallableStatement(executionContext);
+                break;
+            case 46:
+                listener.beforeSetNStringOnCallableStatement(executionContext);
+                break;
+            case 47:
+                listener.beforeSetNullOnCallableStatement(executionContext);
+                break;
+            case 48:
+                listener.beforeSetObjectOnCallableStatement(executionContext);
+                break;
+            case 49:
+                listener.beforeSetRowIdOnCallableStatement(executionContext);
+                break;
+            case 50:
+                listener.beforeSetShortOnCallableStatement(executionContext);
+                break;
+            case 51:
+                listener.beforeSetSQLXMLOnCallableStatement(executionContext);
+                break;
+            case 52:
+                listener.beforeSetStringOnCallableStatement(executionContext);
+                break;
+            case 53:
+                listener.beforeSetTimeOnCallableStatement(executionContext);
+                break;
+            case 54:
+                listener.beforeSetTimestampOnCallableStatement(executionContext);
+                break;
+            case 55:
+                listener.beforeSetURLOnCallableStatement(executionContext);
+                break;
+            case 56:
+                listener.beforeWasNullOnCallableStatement(executionContext);
+                break;
+            case 57:
+                listener.afterGetArrayOnCallableStatement(executionContext);
+                break;
+            case 58:
+                listener.afterGetBigDecimalOnCallableStatement(executionContext);
+                break;
+            case 59:
+                listener.afterGetBlobOnCallableStatement(executionContext);
+                break;
+            case 60:
+                listener.afterGetBooleanOnCallableStatement(executionContext);
+                break;
+            case 61:
+                listener.afterGetByteOnCallableStatement(executionContext);
+                break;
+            case 62:
+                listener.afterGetBytesOnCallableStatement(executionContext);
+                break;
+            case 63:
+                listener.afterGetCharacterStreamOnCallableStatement(executionContext);
+                break;
+            case 64:
+                listener.afterGetClobOnCallableStatement(executionContext);
+                break;
+            case 65:
+                listener.afterGetDateOnCallableStatement(executionContext);
+                break;
+            case 66:
+                listener.afterGetDoubleOnCallableStatement(executionContext);
+                break;
+            case 67:
+                listener.afterGetFloatOnCallableStatement(executionContext);
+                break;
+            case 68:
+                listener.afterGetIntOnCallableStatement(executionContext);
+                break;
+            case 69:
+                listener.afterGetLongOnCallableStatement(executionContext);
+                break;
+            case 70:
+                listener.afterGetNCharacterStreamOnCallableStatement(executionContext);
+                break;
+            case 71:
+                listener.afterGetNClobOnCallableStatement(executionContext);
+                break;
+            case 72:
+                listener.afterGetNStringOnCallableStatement(executionContext);
+                break;
+            case 73:
+                listener.afterGetObjectOnCallableStatement(executionContext);
+                break;
+            case 74:
+                listener.afterGetRefOnCallableStatement(executionContext);
+                break;
+            case 75:
+                listener.afterGetRowIdOnCallableStatement(executionContext);
+                break;
+            case 76:
+                listener.afterGetShortOnCallableStatement(executionContext);
+                break;
+            case 77:
+                listener.afterGetSQLXMLOnCallableStatement(executionContext);
+                break;
+            case 78:
+                listener.afterGetStringOnCallableStatement(executionContext);
+                break;
+            case 79:
+                listener.afterGetTimeOnCallableStatement(executionContext);
+                break;
+            case 80:
+                listener.afterGetTimestampOnCallableStatement(executionContext);
+                break;
+            case 81:
+                listener.afterGetURLOnCallableStatement(executionContext);
+                break;
+            case 82:
+                listener.afterRegisterOutParameterOnCallableStatement(executionContext);
+                break;
+            case 83:
+                listener.afterSetAsciiStreamOnCallableStatement(executionContext);
+                break;
+            case 84:
+                listener.afterSetBigDecimalOnCallableStatement(executionContext);
+                break;
+            case 85:
+                listener.afterSetBinaryStreamOnCallableStatement(executionContext);
+                break;
+            case 86:
+                listener.afterSetBlobOnCallableStatement(executionContext);
+                break;
+            case 87:
+                listener.afterSetBooleanOnCallableStatement(executionContext);
+                break;
+            case 88:
+                listener.afterSetByteOnCallableStatement(executionContext);
+                break;
+            case 89:
+                listener.afterSetBytesOnCallableStatement(executionContext);
+                break;
+            case 90:
+                listener.afterSetCharacterStreamOnCallableStatement(executionContext);
+                break;
+            case 91:
+                listener.afterSetClobOnCallableStatement(executionContext);
+                break;
+            case 92:
+                listener.afterSetDateOnCallableStatement(executionContext);
+                break;
+            case 93:
+                listener.afterSetDoubleOnCallableStatement(executionContext);
+                break;
+            case 94:
+                listener.afterSetFloatOnCallableStatement(executionContext);
+                break;
+            case 95:
+                listener.afterSetIntOnCallableStatement(executionContext);
+                break;
+            case 96:
+                listener.afterSetLongOnCallableStatement(executionContext);
+                break;
+            case 97:
+                listener.afterSetNCharacterStreamOnCallableStatement(executionContext);
+                break;
+            case 98:
+                listener.afterSetNClobOnCallableStatement(executionContext);
+                break;
+            case 99:
+                listener.afterSetNStringOnCallableStatement(executionContext);
+                break;
+            case 100:
+                listener.afterSetNullOnCallableStatement(executionContext);
+                break;
+            case 101:
+                listener.afterSetObjectOnCallableStatement(executionContext);
+                break;
+            case 102:
+                listener.afterSetRowIdOnCallableStatement(executionContext);
+                break;
+            case 103:
+                listener.afterSetShortOnCallableStatement(executionContext);
+                break;
+            case 104:
+                listener.afterSetSQLXMLOnCallableStatement(executionContext);
+                break;
+            case 105:
+                listener.afterSetStringOnCallableStatement(executionContext);
+                break;
+            case 106:
+                listener.afterSetTimeOnCallableStatement(executionContext);
+                break;
+            case 107:
+                listener.afterSetTimestampOnCallableStatement(executionContext);
+                break;
+            case 108:
+                listener.afterSetURLOnCallableStatement(executionContext);
+                break;
+            case 109:
+                listener.afterWasNullOnCallableStatement(executionContext);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown CallableStatement callback index " + index);
+        }
+    }
+
+    private static void dispatchOnResultSet(JdbcLifecycleEventListener listener, int index, MethodExecutionContext executionContext) {
+        switch (index) {
+            case 0:
+                listener.beforeIsWrapperForOnResultSet(executionContext);
+                break;
+            case 1:
+                listener.beforeUnwrapOnResultSet(executionContext);
+                break;
+            case 2:
+                listener.afterIsWrapperForOnResultSet(executionContext);
+                break;
+            case 3:
+                listener.afterUnwrapOnResultSet(executionContext);
+                break;
+            case 4:
+                listener.beforeAbsoluteOnResultSet(executionContext);
+                break;
+            case 5:
+                listener.beforeAfterLastOnResultSet(executionContext);
+                break;
+            case 6:
+                listener.beforeBeforeFirstOnResultSet(executionContext);
+                break;
+            case 7:
+                listener.beforeCancelRowUpdatesOnResultSet(executionContext);
+                break;
+            case 8:
+                listener.beforeClearWarningsOnResultSet(executionContext);
+                break;
+            case 9:
+                listener.beforeCloseOnResultSet(executionContext);
+                break;
+            case 10:
+                listener.beforeDeleteRowOnResultSet(executionContext);
+                break;
+            case 11:
+                listener.beforeFindColumnOnResultSet(executionContext);
+                break;
+            case 12:
+                listener.beforeFirstOnResultSet(executionContext);
+                break;
+            case 13:
+                listener.beforeGetArrayOnResultSet(executionContext);
+                break;
+            case 14:
+                listener.beforeGetAsciiStreamOnResultSet(executionContext);
+                break;
+            case 15:
+                listener.beforeGetBigDecimalOnResultSet(executionContext);
+                break;
+            case 16:
+                listener.beforeGetBinaryStreamOnResultSet(executionContext);
+                break;
+            case 17:
+                listener.beforeGetBlobOnResultSet(executionContext);
+                break;
+            case 18:
+                listener.beforeGetBooleanOnResultSet(executionContext);
+                break;
+            case 19:
+                listener.beforeGetByteOnResultSet(executionContext);
+                break;
+            case 20:
+                listener.beforeGetBytesOnResultSet(executionContext);
+                break;
+            case 21:
+                listener.beforeGetCharacterStreamOnResultSet(executionContext);
+                break;
+            case 22:
+                listener.beforeGetClobOnResultSet(executionContext);
+                break;
+            case 23:
+                listener.beforeGetConcurrencyOnResultSet(executionContext);
+                break;
+            case 24:
+                listener.beforeGetCursorNameOnResultSet(executionContext);
+                break;
+            case 25:
+                listener.beforeGetDateOnResultSet(executionContext);
+                break;
+            case 26:
+                listener.beforeGetDoubleOnResultSet(executionContext);
+                break;
+            case 27:
+                listener.beforeGetFetchDirectionOnResultSet(executionContext);
+                break;
+            case 28:
+                listener.beforeGetFetchSizeOnResultSet(executionContext);
+                break;
+            case 29:
+                listener.beforeGetFloatOnResultSet(executionContext);
+                break;
+            case 30:
+                listener.beforeGetHoldabilityOnResultSet(executionContext);
+                break;
+            case 31:
+                listener.beforeGetIntOnResultSet(executionContext);
+                break;
+            case 32:
+                listener.beforeGetLongOnResultSet(executionContext);
+                break;
+            case 33:
+                listener.beforeGetMetaDataOnResultSet(executionContext);
+                break;
+            case 34:
+                listener.beforeGetNCharacterStreamOnResultSet(executionContext);
+                break;
+            case 35:
+                listener.beforeGetNClobOnResultSet(executionContext);
+                break;
+            case 36:
+                listener.beforeGetNStringOnResultSet(executionContext);
+                break;
+            case 37:
+                listener.beforeGetObjectOnResultSet(executionContext);
+                break;
+            case 38:
+                listener.beforeGetRefOnResultSet(executionContext);
+                break;
+            case 39:
+                listener.beforeGetRowOnResultSet(executionContext);
+                break;
+            case 40:
+                listener.beforeGetRowIdOnResultSet(executionContext);
+                break;
+            case 41:
+                listener.beforeGetShortOnResultSet(executionContext);
+                break;
+            case 42:
+                listener.beforeGetSQLXMLOnResultSet(executionContext);
+                break;
+            case 43:
+                listener.beforeGetStatementOnResultSet(executionContext);
+                break;
+            case 44:
+                listener.beforeGetStringOnResultSet(executionContext);
+                break;
+            case 45:
+                listener.beforeGetTimeOnResultSet(executionContext);
+                break;
+            case 46:
+                listener.beforeGetTimestampOnResultSet(executionContext);
+                break;
+            case 47:
+                listener.beforeGetTypeOnResultSet(executionContext);
+                break;
+            case 48:
+                listener.beforeGetUnicodeStreamOnResultSet(executionContext);
+                break;
+            case 49:
+                listener.beforeGetURLOnResultSet(executionContext);
+                break;
+            case 50:
+                listener.beforeGetWarningsOnResultSet(executionContext);
+                break;
+            case 51:
+                listener.beforeInsertRowOnResultSet(executionContext);
+                break;
+            case 52:
+                listener.beforeIsAfterLastOnResultSet(executionContext);
+                break;
+            case 53:
+                listener.beforeIsBeforeFirstOnResultSet(executionContext);
+                break;
+            case 54:
+                listener.beforeIsClosedOnResultSet(executionContext);
+                break;
+            case 55:
+                listener.beforeIsFirstOnResultSet(executionContext);
+                break;
+            case 56:
+                listener.beforeIsLastOnResultSet(executionContext);
+                break;
+            case 57:
+                listener.beforeLastOnResultSet(executionContext);
+                break;
+            case 58:
+                listener.beforeMoveToCurrentRowOnResultSet(executionContext);
+                break;
+            case 59:
+                listener.beforeMoveToInsertRowOnResultSet(executionContext);
+                break;
+            case 60:
+                listener.beforeNextOnResultSet(executionContext);
+                break;
+            case 61:
+                listener.beforePreviousOnResultSet(executionContext);
+                break;
+            case 62:
+                listener.beforeRefreshRowOnResultSet(executionContext);
+                break;
+            case 63:
+                listener.beforeRelativeOnResultSet(executionContext);
+                break;
+            case 64:
+                listener.beforeRowDeletedOnResultSet(executionContext);
+                break;
+            case 65:
+                listener.beforeRowInsertedOnResultSet(executionContext);
+                break;
+            case 66:
+                listener.beforeRowUpdatedOnResultSet(executionContext);
+                break;
+            case 67:
+                listener.beforeSetFetchDirectionOnResultSet(executionContext);
+                break;
+            case 68:
+                listener.beforeSetFetchSizeOnResultSet(executionContext);
+                break;
+            case 69:
+                listener.beforeUpdateArrayOnResultSet(executionContext);
+                break;
+            case 70:
+                listener.beforeUpdateAsciiStreamOnResultSet(executionContext);
+                break;
+            case 71:
+                listener.beforeUpdateBigDecimalOnResultSet(executionContext);
+                break;
+            case 72:
+                listener.beforeUpdateBinaryStreamOnResultSet(executionContext);
+                break;
+            case 73:
+                listener.beforeUpdateBlobOnResultSet(executionContext);
+                break;
+            case 74:
+                listener.beforeUpdateBooleanOnResultSet(executionContext);
+                break;
+            case 75:
+                listener.beforeUpdateByteOnResultSet(executionContext);
+                break;
+            case 76:
+                listener.beforeUpdateBytesOnResultSet(executionContext);
+                break;
+            case 77:
+                listener.beforeUpdateCharacterStreamOnResultSet(executionContext);
+                break;
+            case 78:
+                listener.beforeUpdateClobOnResultSet(executionContext);
+                break;
+            case 79:
+                listener.beforeUpdateDateOnResultSet(executionContext);
+                break;
+            case 80:
+                listener.beforeUpdateDoubleOnResultSet(executionContext);
+                break;
+            case 81:
+                listener.beforeUpdateFloatOnResultSet(executionContext);
+                break;
+            case 82:
+                listener.beforeUpdateIntOnResultSet(executionContext);
+                break;
+            case 83:
+                listener.beforeUpdateLongOnResultSet(executionContext);
+                break;
+            case 84:
+                listener.beforeUpdateNCharacterStreamOnResultSet(executionContext);
+                break;
+            case 85:
+                listener.beforeUpdateNClobOnResultSet(executionContext);
+                break;
+            case 86:
+                listener.beforeUpdateNStringOnResultSet(executionContext);
+                break;
+            case 87:
+                listener.beforeUpdateNullOnResultSet(executionContext);
+                break;
+            case 88:
+                listener.beforeUpdateObjectOnResultSet(executionContext);
+                break;
+            case 89:
+                listener.beforeUpdateRefOnResultSet(executionContext);
+                break;
+            case 90:
+                listener.beforeUpdateRowOnResultSet(executionContext);
+                break;
+            case 91:
+                listener.beforeUpdateRowIdOnResultSet(executionContext);
+                break;
+            case 92:
+                listener.beforeUpdateShortOnResultSet(executionContext);
+                break;
+            case 93:
+                listener.beforeUpdateSQLXMLOnResultSet(executionContext);
+                break;
+            case 94:
+                listener.beforeUpdateStringOnResultSet(executionContext);
+                break;
+            case 95:
+                listener.beforeUpdateTimeOnResultSet(executionContext);
+                break;
+            case 96:
+                listener.beforeUpdateTimestampOnResultSet(executionContext);
+                break;
+            case 97:
+                listener.beforeWasNullOnResultSet(executionContext);
+                break;
+            case 98:
+                listener.afterAbsoluteOnResultSet(executionContext);
+                break;
+            case 99:
+                listener.afterAfterLastOnResultSet(executionContext);
+                break;
+            case 100:
+                listener.afterBeforeFirstOnResultSet(executionContext);
+                break;
+            case 101:
+                listener.afterCancelRowUpdatesOnResultSet(executionContext);
+                break;
+            case 102:
+                listener.afterClearWarningsOnResultSet(executionContext);
+                break;
+            case 103:
+                listener.afterCloseOnResultSet(executionContext);
+                break;
+            case 104:
+                listener.afterDeleteRowOnResultSet(executionContext);
+                break;
+            case 105:
+                listener.afterFindColumnOnResultSet(executionContext);
+                break;
+            case 106:
+                listener.afterFirstOnResultSet(executionContext);
+                break;
+            case 107:
+                listener.afterGetArrayOnResultSet(executionContext);
+                break;
+            case 108:
+                listener.afterGetAsciiStreamOnResultSet(executionContext);
+                break;
+            case 109:
+                listener.afterGetBigDecimalOnResultSet(executionContext);
+                break;
+            case 110:
+                listener.afterGetBinaryStreamOnResultSet(executionContext);
+                break;
+            case 111:
+                listener.afterGetBlobOnResultSet(executionContext);
+                break;
+            case 112:
+                listener.afterGetBooleanOnResultSet(executionContext);
+                break;
+            case 113:
+                listener.afterGetByteOnResultSet(executionContext);
+                break;
+            case 114:
+                listener.afterGetBytesOnResultSet(executionContext);
+                break;
+            case 115:
+                listener.afterGetCharacterStreamOnResultSet(executionContext);
+                break;
+            case 116:
+                listener.afterGetClobOnResultSet(executionContext);
+                break;
+            case 117:
+                listener.afterGetConcurrencyOnResultSet(executionContext);
+                break;
+            case 118:
+                listener.afterGetCursorNameOnResultSet(executionContext);
+                break;
+            case 119:
+                listener.afterGetDateOnResultSet(executionContext);
+                break;
+            case 120:
+                listener.afterGetDoubleOnResultSet(executionContext);
+                break;
+            case 121:
+                listener.afterGetFetchDirectionOnResultSet(executionContext);
+                break;
+            case 122:
+                listener.afterGetFetchSizeOnResultSet(executionContext);
+                break;
+            case 123:
+                listener.afterGetFloatOnResultSet(executionContext);
+                break;
+            case 124:
+                listener.afterGetHoldabilityOnResultSet(executionContext);
+                break;
+            case 125:
+                listener.afterGetIntOnResultSet(executionContext);
+                break;
+            case 126:
+                listener.afterGetLongOnResultSet(executionContext);
+                break;
+            case 127:
+                listener.afterGetMetaDataOnResultSet(executionContext);
+                break;
+            case 128:
+                listener.afterGetNCharacterStreamOnResultSet(executionContext);
+                break;
+            case 129:
+                listener.afterGetNClobOnResultSet(executionContext);
+                break;
+            case 130:
+                listener.afterGetNStringOnResultSet(executionContext);
+                break;
+            case 131:
+                listener.afterGetObjectOnResultSet(executionContext);
+                break;
+            case 132:
+                listener.afterGetRefOnResultSet(executionContext);
+                break;
+            case 133:
+                listener.afterGetRowOnResultSet(executionContext);
+                break;
+            case 134:
+                listener.afterGetRowIdOnResultSet(executionContext);
+                break;
+            case 135:
+                listener.afterGetShortOnResultSet(executionContext);
+                break;
+            case 136:
+                listener.afterGetSQLXMLOnResultSet(executionContext);
+                break;
+            case 137:
+                listener.afterGetStatementOnResultSet(executionContext);
+                break;
+            case 138:
+                listener.afterGetStringOnResultSet(executionContext);
+                break;
+            case 139:
+                listener.afterGetTimeOnResultSet(executionContext);
+                break;
+            case 140:
+                listener.afterGetTimestampOnResultSet(executionContext);
+                break;
+            case 141:
+                listener.afterGetTypeOnResultSet(executionContext);
+                break;
+            case 142:
+                listener.afterGetUnicodeStreamOnResultSet(executionContext);
+                break;
+            case 143:
+                listener.afterGetURLOnResultSet(executionContext);
+                break;
+            case 144:
+                listener.afterGetWarningsOnResultSet(executionContext);
+                break;
+            case 145:
+                listener.afterInsertRowOnResultSet(executionContext);
+                break;
+            case 146:
+                listener.afterIsAfterLastOnResultSet(executionContext);
+                break;
+            case 147:
+                listener.afterIsBeforeFirstOnResultSet(executionContext);
+                break;
+            case 148:
+                listener.afterIsClosedOnResultSet(executionContext);
+                break;
+            case 149:
+                listener.afterIsFirstOnResultSet(executionContext);
+                break;
+            case 150:
+                listener.afterIsLastOnResultSet(executionContext);
+                break;
+            case 151:
+                listener.afterLastOnResultSet(executionContext);
+                break;
+            case 152:
+                listener.afterMoveToCurrentRowOnResultSet(executionContext);
+                break;
+            case 153:
+                listener.afterMoveToInsertRowOnResultSet(executionContext);
+                break;
+            case 154:
+                listener.afterNextOnResultSet(executionContext);
+                break;
+            case 155:
+                listener.afterPreviousOnResultSet(executionContext);
+                break;
+            case 156:
+                listener.afterRefreshRowOnResultSet(executionContext);
+                break;
+            case 157:
+                listener.afterRelativeOnResultSet(executionContext);
+                break;
+            case 158:
+                listener.afterRowDeletedOnResultSet(executionContext);
+                break;
+            case 159:
+                listener.afterRowInsertedOnResultSet(executionContext);
+                break;
+            case 160:
+                listener.afterRowUpdatedOnResultSet(executionContext);
+                break;
+            case 161:
+                listener.afterSetFetchDirectionOnResultSet(executionContext);
+                break;
+            case 162:
+                listener.afterSetFetchSizeOnResultSet(executionContext);
+                break;
+            case 163:
+                listener.afterUpdateArrayOnResultSet(executionContext);
+                break;
+            case 164:
+                listener.afterUpdateAsciiStreamOnResultSet(executionContext);
+                break;
+            case 165:
+                listener.afterUpdateBigDecimalOnResultSet(executionContext);
+                break;
+            case 166:
+                listener.afterUpdateBinaryStreamOnResultSet(executionContext);
+                break;
+            case 167:
+                listener.afterUpdateBlobOnResultSet(executionContext);
+                break;
+            case 168:
+                listener.afterUpdateBooleanOnResultSet(executionContext);
+                break;
+            case 169:
+                listener.afterUpdateByteOnResultSet(executionContext);
+                break;
+            case 170:
+                listener.afterUpdateBytesOnResultSet(executionContext);
+                break;
+            case 171:
+                listener.afterUpdateCharacterStreamOnResultSet(executionContext);
+                break;
+            case 172:
+                listener.afterUpdateClobOnResultSet(executionContext);
+                break;
+            case 173:
+                listener.afterUpdateDateOnResultSet(executionContext);
+                break;
+            case 174:
+                listener.afterUpdateDoubleOnResultSet(executionContext);
+                break;
+            case 175:
+                listener.afterUpdateFloatOnResultSet(executionContext);
+                break;
+            case 176:
+                listener.afterUpdateIntOnResultSet(executionContext);
+                break;
+            case 177:
+                listener.afterUpdateLongOnResultSet(executionContext);
+                break;
+            case 178:
+                listener.afterUpdateNCharacterStreamOnResultSet(executionContext);
+                break;
+            case 179:
+                listener.afterUpdateNClobOnResultSet(executionContext);
+                break;
+            case 180:
+                listener.afterUpdateNStringOnResultSet(executionContext);
+                break;
+            case 181:
+                listener.afterUpdateNullOnResultSet(executionContext);
+                break;
+            case 182:
+                listener.afterUpdateObjectOnResultSet(executionContext);
+                break;
+            case 183:
+                listener.afterUpdateRefOnResultSet(executionContext);
+                break;
+            case 184:
+                listener.afterUpdateRowOnResultSet(executionContext);
+                break;
+            case 185:
+                listener.afterUpdateRowIdOnResultSet(executionContext);
+                break;
+            case 186:
+                listener.afterUpdateShortOnResultSet(executionContext);
+                break;
+            case 187:
+                listener.afterUpdateSQLXMLOnResultSet(executionContext);
+                break;
+            case 188:
+                listener.afterUpdateStringOnResultSet(executionContext);
+                break;
+            case 189:
+                listener.afterUpdateTimeOnResultSet(executionContext);
+                break;
+            case 190:
+                listener.afterUpdateTimestampOnResultSet(executionContext);
+                break;
+            case 191:
+                listener.afterWasNullOnResultSet(executionContext);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown ResultSet callback index " + index);
+        }
+    }
+
+}
@@ -1,28 +1,37 @@
 package net.ttddyy.dsproxy.listener.lifecycle;
 
-import net.ttddyy.dsproxy.DataSourceProxyException;
 import net.ttddyy.dsproxy.ExecutionInfo;
 import net.ttddyy.dsproxy.QueryInfo;
 import net.ttddyy.dsproxy.listener.MethodExecutionContext;
 import net.ttddyy.dsproxy.listener.MethodExecutionListener;
 import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.SelectiveMethodExecutionListener;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 
 /**
  * Holder for {@link JdbcLifecycleEventListener} and adapt it to {@link MethodExecutionListener} and {@link QueryExecutionListener}.
  *
+ * Callback methods are resolved to precomputed ids and called directly without reflection.
+ *
+ * When the delegate extends {@link JdbcLifecycleEventListenerAdapter} and does not override
+ * {@link JdbcLifecycleEventListener#beforeMethod(MethodExecutionContext)} or
+ * {@link JdbcLifecycleEventListener#afterMethod(MethodExecutionContext)}, only the JDBC methods whose callbacks
+ * are overridden are observed; other method invocations skip method listeners entirely.
+ *
  * @author Tadaya Tsuyukubo
  * @since 1.5
  */
-public class JdbcLifecycleEventExecutionListener implements MethodExecutionListener, QueryExecutionListener {
+public class JdbcLifecycleEventExecutionListener implements SelectiveMethodExecutionListener, QueryExecutionListener {
 
     private JdbcLifecycleEventListener delegate;
 
+    // indexed by callback id. null when interested in all methods
+    private boolean[] overriddenCallbacks;
+
     public JdbcLifecycleEventExecutionListener(JdbcLifecycleEventListener delegate) {
-        this.delegate = delegate;
+        setDelegate(delegate);
     }
 
     @Override
@@ -47,24 +56,61 @@ public class JdbcLifecycleEventExecutionListener implements MethodExecutionListe
         this.delegate.afterQuery(execInfo, queryInfoList);
     }
 
+    /**
+     * @since 1.6
+     */
+    @Override
+    public boolean isInterested(Method method, Object proxyTarget) {
+        boolean[] overridden = this.overriddenCallbacks;
+        if (overridden == null) {
+            return true;
+        }
+        int[] ids = JdbcLifecycleEventListenerUtils.getCallbackIds(method, proxyTarget);
+        return ids != null && ((ids[0] >= 0 && overridden[ids[0]]) || (ids[1] >= 0 && overridden[ids[1]]));
+    }
+
+    private static boolean[] resolveOverriddenCallbacks(JdbcLifecycleEventListener delegate) {
+        if (!(delegate instanceof JdbcLifecycleEventListenerAdapter)) {
+            return null;  // cannot tell which callbacks are implemented
+        }
+        Class<?> delegateClass = delegate.getClass();
+        if (isOverridden(delegateClass, "beforeMethod") || isOverridden(delegateClass, "afterMethod")) {
+            return null;
+        }
+        String[][] callbackNames = JdbcLifecycleEventDispatcher.CALLBACK_NAMES;
+        boolean[] overridden = new boolean[callbackNames.length << JdbcLifecycleEventDispatcher.INDEX_BITS];
+        for (String[] names : callbackNames) {
+            for (String name : names) {
+                overridden[JdbcLifecycleEventDispatcher.getCallbackId(name)] = isOverridden(delegateClass, name);
+            }
+        }
+        return overridden;
+    }
+
+    private static boolean isOverridden(Class<?> delegateClass, String callbackName) {
+        try {
+            Method method = delegateClass.getMethod(callbackName, MethodExecutionContext.class);
+            return method.getDeclaringClass() != JdbcLifecycleEventListenerAdapter.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
     private void methodCallback(MethodExecutionContext methodContext, boolean isBefore) {
         Method method = methodContext.getMethod();
         Object proxyTarget = methodContext.getTarget();
 
-        // dynamically invoke corresponding callback method on JdbcLifecycleEventListener.
-        Method lifecycleMethod = JdbcLifecycleEventListenerUtils.getListenerMethod(method, proxyTarget, isBefore);
-        try {
-            lifecycleMethod.invoke(this.delegate, methodContext);
-        } catch (InvocationTargetException ex) {
-            throw new DataSourceProxyException(ex.getTargetException());
-        } catch (Exception ex) {
-            throw new DataSourceProxyException(ex);
+        // invoke corresponding callback method on JdbcLifecycleEventListener.
+        // methods without callback, such as ones declared on Object, are skipped.
+        int callbackId = JdbcLifecycleEventListenerUtils.getCallbackId(method, proxyTarget, isBefore);
+        if (callbackId >= 0) {
+            JdbcLifecycleEventDispatcher.dispatch(this.delegate, callbackId, methodContext);
         }
-
     }
 
     public void setDelegate(JdbcLifecycleEventListener delegate) {
         this.delegate = delegate;
+        this.overriddenCallbacks = resolveOverriddenCallbacks(delegate);
     }
 
     public JdbcLifecycleEventListener getDelegate() {
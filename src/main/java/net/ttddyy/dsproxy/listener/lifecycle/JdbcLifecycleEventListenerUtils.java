@@ -30,6 +30,11 @@ public class JdbcLifecycleEventListenerUtils {
     private static final Map<Class<?>, Method> beforeMethodForIsWrapperFor = new HashMap<Class<?>, Method>();
     private static final Map<Class<?>, Method> afterMethodForIsWrapperFor = new HashMap<Class<?>, Method>();
 
+    // callback ids for JdbcLifecycleEventDispatcher. {before, after}
+    private static final Map<Method, int[]> callbackIds = new HashMap<Method, int[]>();
+    private static final Map<Class<?>, int[]> callbackIdsForUnwrap = new HashMap<Class<?>, int[]>();
+    private static final Map<Class<?>, int[]> callbackIdsForIsWrapperFor = new HashMap<Class<?>, int[]>();
+
     static {
         init();
     }
@@ -54,19 +59,24 @@ public class JdbcLifecycleEventListenerUtils {
 
                 Method beforeMethod = lifeCycleMethodByName.get(beforeMethodName);
                 Method afterMethod = lifeCycleMethodByName.get(afterMethodName);
+                int[] ids = new int[]{JdbcLifecycleEventDispatcher.getCallbackId(beforeMethodName),
+                        JdbcLifecycleEventDispatcher.getCallbackId(afterMethodName)};
 
                 // populate method-to-method cache
                 if (isWrapperMethod) {
                     if ("unwrap".equals(method.getName())) {
                         beforeMethodForUnwrap.put(proxiedClass, beforeMethod);
                         afterMethodForUnwrap.put(proxiedClass, afterMethod);
+                        callbackIdsForUnwrap.put(proxiedClass, ids);
                     } else {
                         beforeMethodForIsWrapperFor.put(proxiedClass, beforeMethod);
                         afterMethodForIsWrapperFor.put(proxiedClass, afterMethod);
+                        callbackIdsForIsWrapperFor.put(proxiedClass, ids);
                     }
                 } else {
                     beforeMethods.put(method, beforeMethod);
                     afterMethods.put(method, afterMethod);
+                    callbackIds.put(method, ids);
                 }
             }
         }
@@ -86,22 +96,7 @@ public class JdbcLifecycleEventListenerUtils {
         boolean isWrapperMethod = declaringClass == Wrapper.class;
 
         if (isWrapperMethod) {
-            Class<?> key;
-            if (proxyTarget instanceof DataSource) {
-                key = DataSource.class;
-            } else if (proxyTarget instanceof Connection) {
-                key = Connection.class;
-            } else if (proxyTarget instanceof CallableStatement) {
-                key = CallableStatement.class;
-            } else if (proxyTarget instanceof PreparedStatement) {
-                key = PreparedStatement.class;
-            } else if (proxyTarget instanceof Statement) {
-                key = Statement.class;
-            } else if (proxyTarget instanceof ResultSet) {
-                key = ResultSet.class;
-            } else {
-                throw new DataSourceProxyException("Unknown target type. proxyTarget=" + proxyTarget);
-            }
+            Class<?> key = getWrapperKey(proxyTarget);
 
             if ("unwrap".equals(invokedMethod.getName())) {
                 if (isBefore) {
@@ -126,6 +121,59 @@ public class JdbcLifecycleEventListenerUtils {
 
     }
 
+    /**
+     * Find id of corresponding callback method for {@link JdbcLifecycleEventDispatcher}.
+     *
+     * @param invokedMethod invoked method
+     * @param proxyTarget   proxy target
+     * @param isBefore      before method or not
+     * @return callback id. {@code -1} when the invoked method does not have corresponding callback
+     * @since 1.6
+     */
+    static int getCallbackId(Method invokedMethod, Object proxyTarget, boolean isBefore) {
+        int[] ids = getCallbackIds(invokedMethod, proxyTarget);
+        if (ids == null) {
+            return -1;
+        }
+        return isBefore ? ids[0] : ids[1];
+    }
+
+    /**
+     * @param invokedMethod invoked method
+     * @param proxyTarget   proxy target
+     * @return before and after callback ids. {@code null} when the invoked method does not have callbacks
+     * @since 1.6
+     */
+    static int[] getCallbackIds(Method invokedMethod, Object proxyTarget) {
+        if (invokedMethod.getDeclaringClass() == Wrapper.class) {
+            Class<?> key = getWrapperKey(proxyTarget);
+            if ("unwrap".equals(invokedMethod.getName())) {
+                return callbackIdsForUnwrap.get(key);
+            } else {
+                return callbackIdsForIsWrapperFor.get(key);
+            }
+        }
+        return callbackIds.get(invokedMethod);
+    }
+
+    private static Class<?> getWrapperKey(Object proxyTarget) {
+        if (proxyTarget instanceof DataSource) {
+            return DataSource.class;
+        } else if (proxyTarget instanceof Connection) {
+            return Connection.class;
+        } else if (proxyTarget instanceof CallableStatement) {
+            return CallableStatement.class;
+        } else if (proxyTarget instanceof PreparedStatement) {
+            return PreparedStatement.class;
+        } else if (proxyTarget instanceof Statement) {
+            return Statement.class;
+        } else if (proxyTarget instanceof ResultSet) {
+            return ResultSet.class;
+        } else {
+            throw new DataSourceProxyException("Unknown target type. proxyTarget=" + proxyTarget);
+        }
+    }
+
     public static String getTargetMethodName(Method invokedMethod, Class<?> proxiedClass, boolean isBefore) {
         String methodName = invokedMethod.getName();
 
@@ -1,8 +1,12 @@
 package net.ttddyy.dsproxy.listener.logging;
 
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
 import net.ttddyy.dsproxy.StatementType;
 import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -16,6 +20,10 @@ import java.util.TreeMap;
  */
 public abstract class AbstractQueryLogEntryCreator implements QueryLogEntryCreator {
 
+    /**
+     * @deprecated json is escaped by {@link JsonUtils#appendEscaped(StringBuilder, CharSequence)}
+     */
+    @Deprecated
     protected static final Map<Character, String> JSON_SPECIAL_CHARS = new HashMap<Character, String>();
 
     static {
@@ -31,6 +39,41 @@ public abstract class AbstractQueryLogEntryCreator implements QueryLogEntryCreat
 
     protected ParameterValueConverter setNullParameterValueConverter = new SetNullParameterValueConverter();
     protected ParameterValueConverter registerOutParameterValueConverter = new RegisterOutParameterValueConverter();
+    protected ParameterValueConverter parameterValueConverter;  // null renders toString() of the value
+    protected QueryDictionary queryDictionary;
+
+    /**
+     * {@code true} when a subclass overrides a hook of the map based parameter writing, such as
+     * {@link #getParametersToDisplay(List)}. Parameters are then written through the map based hooks so that the
+     * override keeps taking effect.
+     *
+     * @since 1.6
+     */
+    protected boolean writeParametersAsMap;
+
+    protected AbstractQueryLogEntryCreator() {
+        this.writeParametersAsMap = isOverridden(AbstractQueryLogEntryCreator.class, "getParametersToDisplay", List.class)
+                || isOverridden(AbstractQueryLogEntryCreator.class, "getParameterKeyToDisplay", ParameterSetOperation.class);
+    }
+
+    /**
+     * @param declaringClass class that declares the method
+     * @param methodName     method name
+     * @param parameterTypes parameter types of the method
+     * @return {@code true} when the method is overridden by this class or one of its super classes below declaring class
+     * @since 1.6
+     */
+    protected boolean isOverridden(Class<?> declaringClass, String methodName, Class<?>... parameterTypes) {
+        for (Class<?> clazz = getClass(); clazz != null && clazz != declaringClass; clazz = clazz.getSuperclass()) {
+            try {
+                clazz.getDeclaredMethod(methodName, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // check super class
+            }
+        }
+        return false;
+    }
 
     /**
      * Comparator considering string as integer.
@@ -52,16 +95,56 @@ public abstract class AbstractQueryLogEntryCreator implements QueryLogEntryCreat
                 return 1; // left is greater;
             }
 
-            try {
+            if (isIntString(left) && isIntString(right)) {
                 int leftInt = Integer.parseInt(left);
                 int rightInt = Integer.parseInt(right);
                 return (leftInt < rightInt) ? -1 : ((leftInt == rightInt) ? 0 : 1);
-            } catch (NumberFormatException e) {
-                return left.compareTo(right);  // use String comparison
             }
+            return left.compareTo(right);  // use String comparison
+        }
+
+        private static boolean isIntString(String str) {
+            int length = str.length();
+            int start = length > 0 && str.charAt(0) == '-' ? 1 : 0;
+            int digits = length - start;
+            if (digits == 0 || digits > 9) {
+                return false;  // more digits may overflow int
+            }
+            for (int i = start; i < length; i++) {
+                char c = str.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 
+    /**
+     * Comparator for parameter set operations by parameter index or name.
+     *
+     * Compares int parameter index directly. Other keys are compared by {@link StringAsIntegerComparator}.
+     *
+     * @since 1.6
+     */
+    protected static class ParameterKeyComparator implements Comparator<ParameterSetOperation> {
+        private final StringAsIntegerComparator stringAsIntegerComparator = new StringAsIntegerComparator();
+
+        @Override
+        public int compare(ParameterSetOperation left, ParameterSetOperation right) {
+            Object leftKey = left.getArgs()[0];
+            Object rightKey = right.getArgs()[0];
+            if (leftKey instanceof Integer && rightKey instanceof Integer) {
+                int leftInt = (Integer) leftKey;
+                int rightInt = (Integer) rightKey;
+                return (leftInt < rightInt) ? -1 : ((leftInt == rightInt) ? 0 : 1);
+            }
+            return this.stringAsIntegerComparator.compare(String.valueOf(leftKey), String.valueOf(rightKey));
+        }
+    }
+
+    protected static final Comparator<ParameterSetOperation> PARAMETER_KEY_COMPARATOR = new ParameterKeyComparator();
+
     protected void chompIfEndWith(StringBuilder sb, char c) {
         final int lastCharIndex = sb.length() - 1;
         if (sb.charAt(lastCharIndex) == c) {
@@ -98,6 +181,44 @@ public abstract class AbstractQueryLogEntryCreator implements QueryLogEntryCreat
         return paramMap;
     }
 
+    /**
+     * Returns parameters ordered by index/name.
+     *
+     * Same as {@link #getParametersToDisplay(List)}, when the same index/name is set more than once, the last one
+     * is kept.
+     * Parameters are usually set in order. When given list is already ordered and has no duplicate, it is returned
+     * as is without creating a new list.
+     *
+     * @param params list of ParameterSetOperation
+     * @return ordered list of ParameterSetOperation
+     * @since 1.6
+     */
+    protected List<ParameterSetOperation> getSortedParameters(List<ParameterSetOperation> params) {
+        int size = params.size();
+        for (int i = 1; i < size; i++) {
+            if (PARAMETER_KEY_COMPARATOR.compare(params.get(i - 1), params.get(i)) >= 0) {
+                return sortParameters(params);
+            }
+        }
+        return params;
+    }
+
+    private List<ParameterSetOperation> sortParameters(List<ParameterSetOperation> params) {
+        List<ParameterSetOperation> sorted = new ArrayList<ParameterSetOperation>(params);
+        Collections.sort(sorted, PARAMETER_KEY_COMPARATOR);  // stable sort keeps the order of same keys
+
+        List<ParameterSetOperation> result = new ArrayList<ParameterSetOperation>(sorted.size());
+        int size = sorted.size();
+        for (int i = 0; i < size; i++) {
+            ParameterSetOperation param = sorted.get(i);
+            if (i + 1 < size && PARAMETER_KEY_COMPARATOR.compare(param, sorted.get(i + 1)) == 0) {
+                continue;  // later one overrides
+            }
+            result.add(param);
+        }
+        return result;
+    }
+
     /**
      * @param param parameter set operation
      * @return parameterIndex or parameterName as String
@@ -108,6 +229,51 @@ public abstract class AbstractQueryLogEntryCreator implements QueryLogEntryCreat
         return key instanceof String ? (String) key : key.toString();
     }
 
+    /**
+     * Append parameter index or name without converting index to a string.
+     *
+     * @param sb    StringBuilder to write
+     * @param param parameter set operation
+     * @since 1.6
+     */
+    protected void appendParameterKey(StringBuilder sb, ParameterSetOperation param) {
+        Object key = param.getArgs()[0];  // either int(parameterIndex) or string(parameterName)
+        if (key instanceof Integer) {
+            sb.append(((Integer) key).intValue());
+        } else {
+            sb.append(key);
+        }
+    }
+
+    /**
+     * @param execInfo execution info
+     * @return number of executions suppressed by {@link QueryLogSampler} before this one
+     * @since 1.6
+     */
+    protected long getSuppressedCount(ExecutionInfo execInfo) {
+        Long count = execInfo.getCustomValue(QueryLogSampler.SUPPRESSED_COUNT_KEY, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Register queries to the {@link QueryDictionary}.
+     *
+     * @param queryInfoList query info list
+     * @return {@code true} when query strings need to be written. Always {@code true} without query dictionary
+     * @since 1.6
+     */
+    protected boolean registerQueries(List<QueryInfo> queryInfoList) {
+        if (this.queryDictionary == null) {
+            return true;
+        }
+        boolean writeQueries = false;
+        for (QueryInfo queryInfo : queryInfoList) {
+            // register all queries, even after a new one is found
+            writeQueries |= this.queryDictionary.register(queryInfo.getQuery());
+        }
+        return writeQueries;
+    }
+
     protected String getParameterValueToDisplay(ParameterSetOperation param) {
 
         String value;
@@ -148,6 +314,9 @@ public abstract class AbstractQueryLogEntryCreator implements QueryLogEntryCreat
      * @since 1.4
      */
     public String getDisplayValue(ParameterSetOperation param) {
+        if (this.parameterValueConverter != null) {
+            return this.parameterValueConverter.getValue(param);
+        }
         Object value = param.getArgs()[1];
         return value == null ? null : value.toString();
     }
@@ -168,4 +337,42 @@ public abstract class AbstractQueryLogEntryCreator implements QueryLogEntryCreat
         this.registerOutParameterValueConverter = registerOutParameterValueConverter;
     }
 
+    /**
+     * Converter for parameter values other than setNull and registerOutParameter.
+     *
+     * Default is {@code null}, which displays {@code toString()} of the value.
+     * Use {@link SizeLimitingParameterValueConverter} to cap the size of displayed values.
+     *
+     * @param parameterValueConverter parameter value converter
+     * @since 1.6
+     */
+    public void setParameterValueConverter(ParameterValueConverter parameterValueConverter) {
+        this.parameterValueConverter = parameterValueConverter;
+    }
+
+    /**
+     * @return parameter value converter. {@code null} when not set
+     * @since 1.6
+     */
+    public ParameterValueConverter getParameterValueConverter() {
+        return parameterValueConverter;
+    }
+
+    /**
+     * Write short query ids instead of query strings that have been written before.
+     *
+     * When any of the queries in an execution is new to the dictionary, both query strings and ids are written,
+     * which serves as the dictionary record for the ids.
+     *
+     * @param queryDictionary query dictionary. {@code null} to always write query strings
+     * @since 1.6
+     */
+    public void setQueryDictionary(QueryDictionary queryDictionary) {
+        this.queryDictionary = queryDictionary;
+    }
+
+    public QueryDictionary getQueryDictionary() {
+        return queryDictionary;
+    }
+
 }
@@ -0,0 +1,70 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.util.List;
+
+/**
+ * Base {@link QueryLogSampler} that always logs failed and slow executions.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public abstract class AbstractQueryLogSampler implements QueryLogSampler {
+
+    protected boolean alwaysLogFailure = true;
+    protected long alwaysLogThreshold = -1;  // negative means disabled
+
+    @Override
+    public long sample(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (isAlwaysLog(execInfo)) {
+            return drainSuppressedCount(execInfo, queryInfoList);
+        }
+        return doSample(execInfo, queryInfoList);
+    }
+
+    protected boolean isAlwaysLog(ExecutionInfo execInfo) {
+        if (this.alwaysLogFailure && !execInfo.isSuccess()) {
+            return true;
+        }
+        return this.alwaysLogThreshold >= 0 && execInfo.getElapsedTime() >= this.alwaysLogThreshold;
+    }
+
+    /**
+     * Decide whether to log the execution that is neither failed nor slow.
+     *
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @return {@link #SUPPRESS} or number of suppressed executions
+     */
+    protected abstract long doSample(ExecutionInfo execInfo, List<QueryInfo> queryInfoList);
+
+    /**
+     * Called when the execution is logged regardless of sampling.
+     *
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @return number of suppressed executions, which is reset to zero
+     */
+    protected abstract long drainSuppressedCount(ExecutionInfo execInfo, List<QueryInfo> queryInfoList);
+
+    /**
+     * @param alwaysLogFailure log failed executions regardless of sampling. (default is true)
+     */
+    public void setAlwaysLogFailure(boolean alwaysLogFailure) {
+        this.alwaysLogFailure = alwaysLogFailure;
+    }
+
+    /**
+     * Log executions that took longer than or equal to the threshold regardless of sampling.
+     *
+     * The unit of time is determined by the {@link net.ttddyy.dsproxy.proxy.Stopwatch} configured on the proxy.
+     *
+     * @param alwaysLogThreshold elapsed time threshold. negative value disables it. (default is -1)
+     */
+    public void setAlwaysLogThreshold(long alwaysLogThreshold) {
+        this.alwaysLogThreshold = alwaysLogThreshold;
+    }
+
+}
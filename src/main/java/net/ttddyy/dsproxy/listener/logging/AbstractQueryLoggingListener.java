@@ -12,10 +12,27 @@ import java.util.List;
  */
 public abstract class AbstractQueryLoggingListener implements QueryExecutionListener {
 
+    /**
+     * Thread local buffers larger than this are not kept for reuse.
+     *
+     * @since 1.6
+     */
+    public static final int DEFAULT_MAX_BUFFER_CAPACITY = 16 * 1024;
+
     protected QueryLogEntryCreator queryLogEntryCreator = new DefaultQueryLogEntryCreator();
     protected boolean writeDataSourceName = true;
     protected boolean writeConnectionId = true;
     protected LoggingCondition loggingCondition;
+    protected QueryLogSampler queryLogSampler;
+    protected boolean useThreadLocalBuffer;
+    protected int maxBufferCapacity = DEFAULT_MAX_BUFFER_CAPACITY;
+
+    private final ThreadLocal<StringBuilder> buffer = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(256);
+        }
+    };
 
     @Override
     public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
@@ -25,17 +42,57 @@ public abstract class AbstractQueryLoggingListener implements QueryExecutionList
     public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
         // only perform logging logic when the condition returns true
         if (this.loggingCondition.getAsBoolean()) {
+            if (this.queryLogSampler != null) {
+                long suppressedCount = this.queryLogSampler.sample(execInfo, queryInfoList);
+                if (suppressedCount == QueryLogSampler.SUPPRESS) {
+                    return;
+                }
+                if (suppressedCount > 0) {
+                    execInfo.addCustomValue(QueryLogSampler.SUPPRESSED_COUNT_KEY, suppressedCount);
+                }
+            }
+            if (this.useThreadLocalBuffer && this.queryLogEntryCreator instanceof AppendableQueryLogEntryCreator) {
+                writeLogWithBuffer((AppendableQueryLogEntryCreator) this.queryLogEntryCreator, execInfo, queryInfoList);
+                return;
+            }
             final String entry = getEntry(execInfo, queryInfoList);
             writeLog(entry);
         }
     }
 
+    private void writeLogWithBuffer(AppendableQueryLogEntryCreator entryCreator, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        StringBuilder sb = this.buffer.get();
+        sb.setLength(0);
+        try {
+            entryCreator.appendLogEntry(sb, execInfo, queryInfoList, this.writeDataSourceName, this.writeConnectionId);
+            writeLog(sb);
+        } finally {
+            if (sb.capacity() > this.maxBufferCapacity) {
+                this.buffer.remove();  // do not keep a huge buffer created by a large query
+            }
+        }
+    }
+
     protected String getEntry(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
         return this.queryLogEntryCreator.getLogEntry(execInfo, queryInfoList, this.writeDataSourceName, this.writeConnectionId);
     }
 
     protected abstract void writeLog(String message);
 
+    /**
+     * Write log entry built in the thread local buffer.
+     *
+     * The buffer is reused after this method returns; implementations must not keep a reference to it, nor pass it to
+     * a logging backend that may render messages later(e.g. asynchronous loggers).
+     * Default implementation converts it to {@link String} and calls {@link #writeLog(String)}.
+     *
+     * @param message log entry
+     * @since 1.6
+     */
+    protected void writeLog(StringBuilder message) {
+        writeLog(message.toString());
+    }
+
     /**
      * Specify logger name.
      *
@@ -91,4 +148,46 @@ public abstract class AbstractQueryLoggingListener implements QueryExecutionList
     public void setLoggingCondition(LoggingCondition loggingCondition) {
         this.loggingCondition = loggingCondition;
     }
+
+    /**
+     * Sample executions to log.
+     *
+     * Sampler is consulted only when {@link LoggingCondition} returns true.
+     *
+     * @param queryLogSampler query log sampler. {@code null} to log all executions
+     * @see PercentageQueryLogSampler
+     * @see RateLimitingQueryLogSampler
+     * @see AdaptiveQueryLogSampler
+     * @since 1.6
+     */
+    public void setQueryLogSampler(QueryLogSampler queryLogSampler) {
+        this.queryLogSampler = queryLogSampler;
+    }
+
+    public QueryLogSampler getQueryLogSampler() {
+        return queryLogSampler;
+    }
+
+    /**
+     * Build log entries in a per thread buffer that is reused across queries.
+     *
+     * Only effective when query log entry creator implements {@link AppendableQueryLogEntryCreator}.
+     * Note that {@link AppendableQueryLogEntryCreator#appendLogEntry} is called instead of
+     * {@link QueryLogEntryCreator#getLogEntry}; a subclass that only overrides {@code getLogEntry} needs to be
+     * updated to take effect.
+     *
+     * @param useThreadLocalBuffer use thread local buffer or not. (default is false)
+     * @since 1.6
+     */
+    public void setUseThreadLocalBuffer(boolean useThreadLocalBuffer) {
+        this.useThreadLocalBuffer = useThreadLocalBuffer;
+    }
+
+    /**
+     * @param maxBufferCapacity thread local buffer that has grown larger than this is discarded after use
+     * @since 1.6
+     */
+    public void setMaxBufferCapacity(int maxBufferCapacity) {
+        this.maxBufferCapacity = maxBufferCapacity;
+    }
 }
@@ -0,0 +1,64 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adjust sampling rate to keep the number of logged entries around the target per second.
+ *
+ * Throughput is measured per second, and the rate for the next second is set to
+ * {@code target / throughput} (max 1.0). Thus, the sample rate decreases as the throughput increases.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class AdaptiveQueryLogSampler extends PercentageQueryLogSampler {
+
+    private static final long WINDOW_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    protected long targetEntriesPerSecond;
+    protected final AtomicLong windowStartInNanos = new AtomicLong(System.nanoTime());
+    protected final AtomicLong windowExecutionCount = new AtomicLong();
+
+    /**
+     * @param targetEntriesPerSecond number of entries to log per second
+     */
+    public AdaptiveQueryLogSampler(long targetEntriesPerSecond) {
+        super(1.0);
+        this.targetEntriesPerSecond = targetEntriesPerSecond;
+    }
+
+    @Override
+    protected long doSample(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long now = System.nanoTime();
+        long windowStart = this.windowStartInNanos.get();
+        long elapsed = now - windowStart;
+        if (elapsed >= WINDOW_IN_NANOS && this.windowStartInNanos.compareAndSet(windowStart, now)) {
+            long executions = this.windowExecutionCount.getAndSet(0);
+            adjustRate(executions * WINDOW_IN_NANOS / elapsed);
+        }
+        this.windowExecutionCount.incrementAndGet();
+        return super.doSample(execInfo, queryInfoList);
+    }
+
+    protected void adjustRate(long executionsPerSecond) {
+        if (executionsPerSecond <= this.targetEntriesPerSecond) {
+            this.rate = 1.0;
+        } else {
+            this.rate = (double) this.targetEntriesPerSecond / executionsPerSecond;
+        }
+    }
+
+    public long getTargetEntriesPerSecond() {
+        return targetEntriesPerSecond;
+    }
+
+    public void setTargetEntriesPerSecond(long targetEntriesPerSecond) {
+        this.targetEntriesPerSecond = targetEntriesPerSecond;
+    }
+
+}
@@ -0,0 +1,30 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.util.List;
+
+/**
+ * {@link QueryLogEntryCreator} that writes log entry into a given buffer.
+ *
+ * Callers can reuse the buffer to avoid creating a new {@link String} and {@link StringBuilder} per query.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see AbstractQueryLoggingListener#setUseThreadLocalBuffer(boolean)
+ * @since 1.6
+ */
+public interface AppendableQueryLogEntryCreator extends QueryLogEntryCreator {
+
+    /**
+     * Append log entry to the given buffer.
+     *
+     * @param sb                  buffer to write
+     * @param execInfo            execution info
+     * @param queryInfoList       query info list
+     * @param writeDataSourceName write datasource name or not
+     * @param writeConnectionId   write connection id or not
+     */
+    void appendLogEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean writeDataSourceName, boolean writeConnectionId);
+
+}
@@ -15,12 +15,26 @@ import java.util.SortedMap;
  * @author Tadaya Tsuyukubo
  * @since 1.4
  */
-public class DefaultJsonQueryLogEntryCreator extends AbstractQueryLogEntryCreator {
+public class DefaultJsonQueryLogEntryCreator extends AbstractQueryLogEntryCreator implements AppendableQueryLogEntryCreator {
+
+    public DefaultJsonQueryLogEntryCreator() {
+        this.writeParametersAsMap = this.writeParametersAsMap
+                || isOverridden(DefaultJsonQueryLogEntryCreator.class, "writeParamsForSinglePreparedEntry", StringBuilder.class, SortedMap.class, ExecutionInfo.class, List.class)
+                || isOverridden(DefaultJsonQueryLogEntryCreator.class, "writeParamsForSingleCallableEntry", StringBuilder.class, Map.class, ExecutionInfo.class, List.class);
+    }
 
     @Override
     public String getLogEntry(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean writeDataSourceName, boolean writeConnectionId) {
         StringBuilder sb = new StringBuilder();
+        appendLogEntry(sb, execInfo, queryInfoList, writeDataSourceName, writeConnectionId);
+        return sb.toString();
+    }
 
+    /**
+     * @since 1.6
+     */
+    @Override
+    public void appendLogEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean writeDataSourceName, boolean writeConnectionId) {
         sb.append("{");
         if (writeDataSourceName) {
             writeDataSourceNameEntry(sb, execInfo, queryInfoList);
@@ -49,13 +63,14 @@ public class DefaultJsonQueryLogEntryCreator extends AbstractQueryLogEntryCreato
         // BatchSize
         writeBatchSizeEntry(sb, execInfo, queryInfoList);
 
+        // Suppressed
+        writeSuppressedCountEntry(sb, execInfo, queryInfoList);
+
         // Queries
         writeQueriesEntry(sb, execInfo, queryInfoList);
 
         // Params
         writeParamsEntry(sb, execInfo, queryInfoList);
-
-        return sb.toString();
     }
 
     /**
@@ -70,7 +85,9 @@ public class DefaultJsonQueryLogEntryCreator extends AbstractQueryLogEntryCreato
     protected void writeDataSourceNameEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
         String name = execInfo.getDataSourceName();
         sb.append("\"name\":\"");
-        sb.append(name == null ? "" : escapeSpecialCharacter(name));
+        if (name != null) {
+            writeEscaped(sb, name);
+        }
         sb.append("\", ");
     }
 
@@ -185,20 +202,70 @@ public class DefaultJsonQueryLogEntryCreator extends AbstractQueryLogEntryCreato
         sb.append(", ");
     }
 
+    /**
+     * Write number of executions suppressed by {@link QueryLogSampler} since the previous entry.
+     *
+     * Only written when there are suppressed executions.
+     *
+     * <p>default: "suppressed":10,
+     *
+     * @param sb            StringBuilder to write
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @since 1.6
+     */
+    protected void writeSuppressedCountEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long suppressedCount = getSuppressedCount(execInfo);
+        if (suppressedCount > 0) {
+            sb.append("\"suppressed\":");
+            sb.append(suppressedCount);
+            sb.append(", ");
+        }
+    }
+
     /**
      * Write queries as json.
      *
      * <p>default: "query":["select 1","select 2"],
      *
+     * <p>When {@link QueryDictionary} is set, queries are written only when they are new to the dictionary, and
+     * followed by query ids.
+     *
      * @param sb            StringBuilder to write
      * @param execInfo      execution info
      * @param queryInfoList query info list
      */
     protected void writeQueriesEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
-        sb.append("\"query\":[");
+        if (registerQueries(queryInfoList)) {
+            sb.append("\"query\":[");
+            for (QueryInfo queryInfo : queryInfoList) {
+                sb.append("\"");
+                writeEscaped(sb, queryInfo.getQuery());
+                sb.append("\",");
+            }
+            chompIfEndWith(sb, ',');
+            sb.append("], ");
+        }
+        if (this.queryDictionary != null) {
+            writeQueryIdsEntry(sb, execInfo, queryInfoList);
+        }
+    }
+
+    /**
+     * Write query ids as json when {@link QueryDictionary} is set.
+     *
+     * <p>default: "queryId":["1x2y3z","4a5b6c"],
+     *
+     * @param sb            StringBuilder to write
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @since 1.6
+     */
+    protected void writeQueryIdsEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        sb.append("\"queryId\":[");
         for (QueryInfo queryInfo : queryInfoList) {
             sb.append("\"");
-            sb.append(escapeSpecialCharacter(queryInfo.getQuery()));
+            sb.append(this.queryDictionary.getId(queryInfo.getQuery()));
             sb.append("\",");
         }
         chompIfEndWith(sb, ',');
@@ -221,12 +288,22 @@ public class DefaultJsonQueryLogEntryCreator extends AbstractQueryLogEntryCreato
         for (QueryInfo queryInfo : queryInfoList) {
 
             for (List<ParameterSetOperation> parameters : queryInfo.getParametersList()) {
-                SortedMap<String, String> paramMap = getParametersToDisplay(parameters);
+                if (this.writeParametersAsMap) {
+                    SortedMap<String, String> paramMap = getParametersToDisplay(parameters);
+                    if (isPrepared) {
+                        writeParamsForSinglePreparedEntry(sb, paramMap, execInfo, queryInfoList);
+                    } else {
+                        writeParamsForSingleCallableEntry(sb, paramMap, execInfo, queryInfoList);
+                    }
+                    continue;
+                }
+
+                List<ParameterSetOperation> sortedParams = getSortedParameters(parameters);
                 // parameters per batch
                 if (isPrepared) {
-                    writeParamsForSinglePreparedEntry(sb, paramMap, execInfo, queryInfoList);
+                    writeParamsForSinglePreparedEntry(sb, sortedParams, execInfo, queryInfoList);
                 } else {
-                    writeParamsForSingleCallableEntry(sb, paramMap, execInfo, queryInfoList);
+                    writeParamsForSingleCallableEntry(sb, sortedParams, execInfo, queryInfoList);
                 }
             }
         }
@@ -235,6 +312,66 @@ public class DefaultJsonQueryLogEntryCreator extends AbstractQueryLogEntryCreato
         sb.append("}");
     }
 
+    /**
+     * Write parameters for single execution as json.
+     *
+     * <p>default: ["foo","100"],
+     *
+     * @param sb            StringBuilder to write
+     * @param sortedParams  parameters ordered by index
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @since 1.6
+     */
+    protected void writeParamsForSinglePreparedEntry(StringBuilder sb, List<ParameterSetOperation> sortedParams, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        sb.append("[");
+        for (ParameterSetOperation param : sortedParams) {
+            writeParameterValue(sb, getParameterValueToDisplay(param));
+            sb.append(",");
+        }
+        chompIfEndWith(sb, ',');
+        sb.append("],");
+    }
+
+    /**
+     * Write parameters for single execution.
+     *
+     * <p>default: {"1"="foo","bar"="100"},
+     *
+     * @param sb            StringBuilder to write
+     * @param sortedParams  parameters ordered by index or name
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @since 1.6
+     */
+    protected void writeParamsForSingleCallableEntry(StringBuilder sb, List<ParameterSetOperation> sortedParams, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        sb.append("{");
+        for (ParameterSetOperation param : sortedParams) {
+            Object key = param.getArgs()[0];
+            sb.append("\"");
+            if (key instanceof Integer) {
+                sb.append(((Integer) key).intValue());
+            } else {
+                writeEscaped(sb, String.valueOf(key));
+            }
+            sb.append("\":");
+            writeParameterValue(sb, getParameterValueToDisplay(param));
+            sb.append(",");
+        }
+        chompIfEndWith(sb, ',');
+        sb.append("},");
+    }
+
+    private void writeParameterValue(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+        } else {
+            sb.append("\"");
+            writeEscaped(sb, value);
+            sb.append("\"");
+        }
+    }
+
     /**
      * Write parameters for single execution as json.
      *
@@ -244,7 +381,10 @@ public class DefaultJsonQueryLogEntryCreator extends AbstractQueryLogEntryCreato
      * @param paramMap      sorted parameters map
      * @param execInfo      execution info
      * @param queryInfoList query info list
+     * @deprecated parameters are written by {@link #writeParamsForSinglePreparedEntry(StringBuilder, List, ExecutionInfo, List)}.
+     * This method is still called when overridden.
      */
+    @Deprecated
     protected void writeParamsForSinglePreparedEntry(StringBuilder sb, SortedMap<String, String> paramMap, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
         sb.append("[");
         for (Map.Entry<String, String> paramEntry : paramMap.entrySet()) {
@@ -271,7 +411,10 @@ public class DefaultJsonQueryLogEntryCreator extends AbstractQueryLogEntryCreato
      * @param paramMap      sorted parameters map
      * @param execInfo      execution info
      * @param queryInfoList query info list
+     * @deprecated parameters are written by {@link #writeParamsForSingleCallableEntry(StringBuilder, List, ExecutionInfo, List)}.
+     * This method is still called when overridden.
      */
+    @Deprecated
     protected void writeParamsForSingleCallableEntry(StringBuilder sb, Map<String, String> paramMap, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
         sb.append("{");
         for (Map.Entry<String, String> paramEntry : paramMap.entrySet()) {
@@ -298,12 +441,19 @@ public class DefaultJsonQueryLogEntryCreator extends AbstractQueryLogEntryCreato
             return "null";
         }
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < input.length(); i++) {
-            char c = input.charAt(i);
-            String value = JSON_SPECIAL_CHARS.get(c);
-            sb.append(value != null ? value : c);
-        }
+        writeEscaped(sb, input);
         return sb.toString();
     }
 
+    /**
+     * Write json escaped string directly to the given {@link StringBuilder}.
+     *
+     * @param sb    StringBuilder to write
+     * @param input string to escape
+     * @since 1.6
+     */
+    protected void writeEscaped(StringBuilder sb, String input) {
+        JsonUtils.appendEscaped(sb, input);
+    }
+
 }
@@ -13,16 +13,30 @@ import java.util.SortedMap;
  * @author Tadaya Tsuyukubo
  * @since 1.4
  */
-public class DefaultQueryLogEntryCreator extends AbstractQueryLogEntryCreator {
+public class DefaultQueryLogEntryCreator extends AbstractQueryLogEntryCreator implements AppendableQueryLogEntryCreator {
 
     private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
     private boolean multiline = false;
 
+    public DefaultQueryLogEntryCreator() {
+        this.writeParametersAsMap = this.writeParametersAsMap
+                || isOverridden(DefaultQueryLogEntryCreator.class, "writeParamsForSinglePreparedEntry", StringBuilder.class, SortedMap.class, ExecutionInfo.class, List.class)
+                || isOverridden(DefaultQueryLogEntryCreator.class, "writeParamsForSingleCallableEntry", StringBuilder.class, SortedMap.class, ExecutionInfo.class, List.class);
+    }
+
     @Override
     public String getLogEntry(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean writeDataSourceName, boolean writeConnectionId) {
         final StringBuilder sb = new StringBuilder();
+        appendLogEntry(sb, execInfo, queryInfoList, writeDataSourceName, writeConnectionId);
+        return sb.toString();
+    }
 
+    /**
+     * @since 1.6
+     */
+    @Override
+    public void appendLogEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean writeDataSourceName, boolean writeConnectionId) {
         if (this.multiline) {
             sb.append(LINE_SEPARATOR);
         }
@@ -58,6 +72,9 @@ public class DefaultQueryLogEntryCreator extends AbstractQueryLogEntryCreator {
         // BatchSize
         writeBatchSizeEntry(sb, execInfo, queryInfoList);
 
+        // Suppressed
+        writeSuppressedCountEntry(sb, execInfo, queryInfoList);
+
         if (this.multiline) {
             sb.delete(sb.length() - 2, sb.length());  // delete last ", "
             sb.append(LINE_SEPARATOR);
@@ -73,8 +90,6 @@ public class DefaultQueryLogEntryCreator extends AbstractQueryLogEntryCreator {
 
         // Params
         writeParamsEntry(sb, execInfo, queryInfoList);
-
-        return sb.toString();
     }
 
     /**
@@ -209,21 +224,71 @@ public class DefaultQueryLogEntryCreator extends AbstractQueryLogEntryCreator {
         sb.append(", ");
     }
 
+    /**
+     * Write number of executions suppressed by {@link QueryLogSampler} since the previous entry.
+     *
+     * Only written when there are suppressed executions.
+     *
+     * <p>default: Suppressed:10,
+     *
+     * @param sb            StringBuilder to write
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @since 1.6
+     */
+    protected void writeSuppressedCountEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long suppressedCount = getSuppressedCount(execInfo);
+        if (suppressedCount > 0) {
+            sb.append("Suppressed:");
+            sb.append(suppressedCount);
+            sb.append(", ");
+        }
+    }
+
     /**
      * Write queries.
      *
      * <p>default: Query:["select 1", "select 2"],
      *
+     * <p>When {@link QueryDictionary} is set, queries are written only when they are new to the dictionary, and
+     * followed by query ids.
+     *
      * @param sb            StringBuilder to write
      * @param execInfo      execution info
      * @param queryInfoList query info list
      * @since 1.3.3
      */
     protected void writeQueriesEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
-        sb.append("Query:[");
+        if (registerQueries(queryInfoList)) {
+            sb.append("Query:[");
+            for (QueryInfo queryInfo : queryInfoList) {
+                sb.append("\"");
+                sb.append(formatQuery(queryInfo.getQuery()));
+                sb.append("\",");
+            }
+            chompIfEndWith(sb, ',');
+            sb.append("], ");
+        }
+        if (this.queryDictionary != null) {
+            writeQueryIdsEntry(sb, execInfo, queryInfoList);
+        }
+    }
+
+    /**
+     * Write query ids when {@link QueryDictionary} is set.
+     *
+     * <p>default: QueryId:["1x2y3z", "4a5b6c"],
+     *
+     * @param sb            StringBuilder to write
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @since 1.6
+     */
+    protected void writeQueryIdsEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        sb.append("QueryId:[");
         for (QueryInfo queryInfo : queryInfoList) {
             sb.append("\"");
-            sb.append(formatQuery(queryInfo.getQuery()));
+            sb.append(this.queryDictionary.getId(queryInfo.getQuery()));
             sb.append("\",");
         }
         chompIfEndWith(sb, ',');
@@ -263,15 +328,25 @@ public class DefaultQueryLogEntryCreator extends AbstractQueryLogEntryCreator {
 
         for (QueryInfo queryInfo : queryInfoList) {
             for (List<ParameterSetOperation> parameters : queryInfo.getParametersList()) {
-                SortedMap<String, String> paramMap = getParametersToDisplay(parameters);
+                if (this.writeParametersAsMap) {
+                    SortedMap<String, String> paramMap = getParametersToDisplay(parameters);
+                    if (isPrepared) {
+                        writeParamsForSinglePreparedEntry(sb, paramMap, execInfo, queryInfoList);
+                    } else {
+                        writeParamsForSingleCallableEntry(sb, paramMap, execInfo, queryInfoList);
+                    }
+                    continue;
+                }
+
+                List<ParameterSetOperation> sortedParams = getSortedParameters(parameters);
 
                 // parameters per batch.
                 //   for prepared: (val1,val2,...)
                 //   for callable: (key1=val1,key2=val2,...)
                 if (isPrepared) {
-                    writeParamsForSinglePreparedEntry(sb, paramMap, execInfo, queryInfoList);
+                    writeParamsForSinglePreparedEntry(sb, sortedParams, execInfo, queryInfoList);
                 } else {
-                    writeParamsForSingleCallableEntry(sb, paramMap, execInfo, queryInfoList);
+                    writeParamsForSingleCallableEntry(sb, sortedParams, execInfo, queryInfoList);
                 }
 
             }
@@ -281,6 +356,50 @@ public class DefaultQueryLogEntryCreator extends AbstractQueryLogEntryCreator {
         sb.append("]");
     }
 
+    /**
+     * Write query parameters for PreparedStatement.
+     *
+     * <p>default: Params:[(foo,100),(bar,101)],
+     *
+     * @param sb            StringBuilder to write
+     * @param sortedParams  parameters ordered by index
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @since 1.6
+     */
+    protected void writeParamsForSinglePreparedEntry(StringBuilder sb, List<ParameterSetOperation> sortedParams, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        sb.append("(");
+        for (ParameterSetOperation param : sortedParams) {
+            sb.append(getParameterValueToDisplay(param));
+            sb.append(",");
+        }
+        chompIfEndWith(sb, ',');
+        sb.append("),");
+    }
+
+    /**
+     * Write parameters for single execution.
+     *
+     * <p>default: (1=foo,bar=100),
+     *
+     * @param sb            StringBuilder to write
+     * @param sortedParams  parameters ordered by index or name
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @since 1.6
+     */
+    protected void writeParamsForSingleCallableEntry(StringBuilder sb, List<ParameterSetOperation> sortedParams, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        sb.append("(");
+        for (ParameterSetOperation param : sortedParams) {
+            appendParameterKey(sb, param);
+            sb.append("=");
+            sb.append(getParameterValueToDisplay(param));
+            sb.append(",");
+        }
+        chompIfEndWith(sb, ',');
+        sb.append("),");
+    }
+
     /**
      * Write query parameters for PreparedStatement.
      *
@@ -291,7 +410,10 @@ public class DefaultQueryLogEntryCreator extends AbstractQueryLogEntryCreator {
      * @param execInfo      execution info
      * @param queryInfoList query info list
      * @since 1.4
+     * @deprecated parameters are written by {@link #writeParamsForSinglePreparedEntry(StringBuilder, List, ExecutionInfo, List)}.
+     * This method is still called when overridden.
      */
+    @Deprecated
     protected void writeParamsForSinglePreparedEntry(StringBuilder sb, SortedMap<String, String> paramMap, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
         sb.append("(");
         for (Map.Entry<String, String> paramEntry : paramMap.entrySet()) {
@@ -312,7 +434,10 @@ public class DefaultQueryLogEntryCreator extends AbstractQueryLogEntryCreator {
      * @param execInfo      execution info
      * @param queryInfoList query info list
      * @since 1.4
+     * @deprecated parameters are written by {@link #writeParamsForSingleCallableEntry(StringBuilder, List, ExecutionInfo, List)}.
+     * This method is still called when overridden.
      */
+    @Deprecated
     protected void writeParamsForSingleCallableEntry(StringBuilder sb, SortedMap<String, String> paramMap, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
         sb.append("(");
         for (Map.Entry<String, String> paramEntry : paramMap.entrySet()) {
@@ -0,0 +1,118 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+/**
+ * Utility methods to write JSON directly to {@link StringBuilder}.
+ *
+ * Characters are escaped by looking up a table indexed by ASCII code, and runs of characters that do not need
+ * escaping are copied in bulk.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class JsonUtils {
+
+    private static final String[] ESCAPES = new String[128];
+
+    static {
+        // control characters
+        for (int i = 0; i < 0x20; i++) {
+            ESCAPES[i] = String.format("\\u%04x", i);
+        }
+        ESCAPES['"'] = "\\\"";   // quotation mark
+        ESCAPES['\\'] = "\\\\";  // reverse solidus
+        ESCAPES['/'] = "\\/";    // solidus
+        ESCAPES['\b'] = "\\b";   // backspace
+        ESCAPES['\f'] = "\\f";   // formfeed
+        ESCAPES['\n'] = "\\n";   // newline
+        ESCAPES['\r'] = "\\r";   // carriage return
+        ESCAPES['\t'] = "\\t";   // horizontal tab
+    }
+
+    /**
+     * Append escaped characters without surrounding quotes.
+     *
+     * @param sb    StringBuilder to write
+     * @param input characters to escape. {@code null} is written as {@code null}
+     */
+    public static void appendEscaped(StringBuilder sb, CharSequence input) {
+        if (input == null) {
+            sb.append("null");
+            return;
+        }
+        int length = input.length();
+        int start = 0;  // start of the run that does not need escaping
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (c < 128) {
+                String escape = ESCAPES[c];
+                if (escape != null) {
+                    if (start < i) {
+                        sb.append(input, start, i);
+                    }
+                    sb.append(escape);
+                    start = i + 1;
+                }
+            }
+        }
+        if (start == 0) {
+            sb.append(input);
+        } else if (start < length) {
+            sb.append(input, start, length);
+        }
+    }
+
+    /**
+     * Append a JSON string value. {@code null} is written as {@code null} without quotes.
+     *
+     * @param sb    StringBuilder to write
+     * @param value string value
+     */
+    public static void appendString(StringBuilder sb, CharSequence value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        appendEscaped(sb, value);
+        sb.append('"');
+    }
+
+    /**
+     * Append a field name followed by colon.
+     *
+     * Field name is written as is; it must not contain characters that need escaping.
+     *
+     * @param sb   StringBuilder to write
+     * @param name field name
+     */
+    public static void appendName(StringBuilder sb, String name) {
+        sb.append('"');
+        sb.append(name);
+        sb.append("\":");
+    }
+
+    /**
+     * Append a numeric field.
+     *
+     * @param sb    StringBuilder to write
+     * @param name  field name
+     * @param value numeric value
+     */
+    public static void appendField(StringBuilder sb, String name, long value) {
+        appendName(sb, name);
+        sb.append(value);
+    }
+
+    /**
+     * Append a string field.
+     *
+     * @param sb    StringBuilder to write
+     * @param name  field name
+     * @param value string value
+     */
+    public static void appendField(StringBuilder sb, String name, CharSequence value) {
+        appendName(sb, name);
+        appendString(sb, value);
+    }
+
+}
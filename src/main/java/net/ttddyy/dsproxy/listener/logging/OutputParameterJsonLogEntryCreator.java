@@ -18,9 +18,8 @@ import java.util.List;
 public class OutputParameterJsonLogEntryCreator extends DefaultJsonQueryLogEntryCreator {
 
     @Override
-    public String getLogEntry(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean writeDataSourceName, boolean writeConnectionId) {
-        final StringBuilder sb = new StringBuilder();
-        sb.append(super.getLogEntry(execInfo, queryInfoList, writeDataSourceName, writeConnectionId));
+    public void appendLogEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean writeDataSourceName, boolean writeConnectionId) {
+        super.appendLogEntry(sb, execInfo, queryInfoList, writeDataSourceName, writeConnectionId);
 
         chompIfEndWith(sb, '}');  // hack to remove closing curly bracket from returned json string
 
@@ -41,8 +40,6 @@ public class OutputParameterJsonLogEntryCreator extends DefaultJsonQueryLogEntry
         chompIfEndWith(sb, ',');
         sb.append("]");
         sb.append("}");
-
-        return sb.toString();
     }
 
 
@@ -58,7 +55,7 @@ public class OutputParameterJsonLogEntryCreator extends DefaultJsonQueryLogEntry
             Object value = getOutputValueForDisplay(key, st);
 
             sb.append("\"");
-            sb.append(escapeSpecialCharacter(key.toString()));
+            writeEscaped(sb, key.toString());
             sb.append("\":");
 
             if (value == null) {
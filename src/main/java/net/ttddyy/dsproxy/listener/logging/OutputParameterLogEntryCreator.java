@@ -18,9 +18,8 @@ import java.util.List;
 public class OutputParameterLogEntryCreator extends DefaultQueryLogEntryCreator {
 
     @Override
-    public String getLogEntry(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean writeDataSourceName, boolean writeConnectionId) {
-        final StringBuilder sb = new StringBuilder();
-        sb.append(super.getLogEntry(execInfo, queryInfoList, writeDataSourceName, writeConnectionId));
+    public void appendLogEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean writeDataSourceName, boolean writeConnectionId) {
+        super.appendLogEntry(sb, execInfo, queryInfoList, writeDataSourceName, writeConnectionId);
 
         sb.append(", OutParams:[");
 
@@ -37,7 +36,6 @@ public class OutputParameterLogEntryCreator extends DefaultQueryLogEntryCreator
 
         chompIfEndWith(sb, ',');
         sb.append("]");
-        return sb.toString();
     }
 
 
@@ -0,0 +1,61 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log a fixed ratio of executions.
+ *
+ * Executions are selected evenly; e.g. with 0.25, every fourth execution is logged.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class PercentageQueryLogSampler extends AbstractQueryLogSampler {
+
+    protected volatile double rate;
+    protected final AtomicLong executionCount = new AtomicLong();
+    protected final AtomicLong suppressedCount = new AtomicLong();
+
+    /**
+     * @param rate ratio of executions to log. between 0.0 and 1.0
+     */
+    public PercentageQueryLogSampler(double rate) {
+        setRate(rate);
+    }
+
+    @Override
+    protected long doSample(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        double rate = this.rate;
+        long count = this.executionCount.incrementAndGet();
+        // log when accumulated (count * rate) reaches the next integer
+        if ((long) (count * rate) != (long) ((count - 1) * rate)) {
+            return this.suppressedCount.getAndSet(0);
+        }
+        this.suppressedCount.incrementAndGet();
+        return SUPPRESS;
+    }
+
+    @Override
+    protected long drainSuppressedCount(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        return this.suppressedCount.getAndSet(0);
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * @param rate ratio of executions to log. between 0.0 and 1.0
+     */
+    public void setRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("rate must be between 0.0 and 1.0 but was " + rate);
+        }
+        this.rate = rate;
+    }
+
+}
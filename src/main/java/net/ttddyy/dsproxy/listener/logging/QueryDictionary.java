@@ -0,0 +1,111 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assign short ids to query strings so that log entries can refer to a query by its id.
+ *
+ * Id is computed from the query string(64bit FNV-1a hash in radix 36), thus the same query gets the same id across
+ * restarts and processes. {@link #register(String)} tells whether the full query string needs to be written along
+ * with the id; it returns {@code true} for the first time the query is seen, and again when refresh interval has
+ * elapsed since the query was last written (e.g. to survive log rotation).
+ *
+ * Number of queries to remember is bounded by {@link #setMaxSize(int)}. Once reached, queries not yet seen are
+ * always written in full.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see AbstractQueryLogEntryCreator#setQueryDictionary(QueryDictionary)
+ * @since 1.6
+ */
+public class QueryDictionary {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    protected static class Entry {
+        private final String id;
+        private volatile long writtenAt;
+
+        protected Entry(String id, long writtenAt) {
+            this.id = id;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    protected int maxSize = 10000;
+    protected long refreshIntervalMillis;
+    protected final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * @param query query string
+     * @return id of the query
+     */
+    public String getId(String query) {
+        Entry entry = this.entries.get(query);
+        return entry != null ? entry.id : computeId(query);
+    }
+
+    /**
+     * Record the query is being written.
+     *
+     * @param query query string
+     * @return {@code true} when full query string needs to be written
+     */
+    public boolean register(String query) {
+        long now = currentTimeMillis();
+        Entry entry = this.entries.get(query);
+        if (entry == null) {
+            if (this.entries.size() >= this.maxSize) {
+                return true;
+            }
+            Entry existing = this.entries.putIfAbsent(query, new Entry(computeId(query), now));
+            return existing == null;
+        }
+        if (this.refreshIntervalMillis > 0 && now - entry.writtenAt >= this.refreshIntervalMillis) {
+            synchronized (entry) {
+                if (now - entry.writtenAt >= this.refreshIntervalMillis) {
+                    entry.writtenAt = now;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    protected String computeId(String query) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < query.length(); i++) {
+            hash ^= query.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return Long.toString(hash & Long.MAX_VALUE, 36);
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    public void clear() {
+        this.entries.clear();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @param maxSize max number of queries to remember. (default is 10000)
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param refreshIntervalMillis interval to write the full query string again. 0 to write only once. (default is 0)
+     */
+    public void setRefreshIntervalMillis(long refreshIntervalMillis) {
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+}
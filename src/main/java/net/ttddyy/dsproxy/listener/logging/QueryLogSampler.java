@@ -0,0 +1,40 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.util.List;
+
+/**
+ * Strategy to decide whether to log each query execution.
+ *
+ * Unlike {@link LoggingCondition}, it is evaluated per execution with the executed queries.
+ *
+ * When an entry is logged, number of executions suppressed since the previous logged entry is stored in
+ * {@link ExecutionInfo} with {@link #SUPPRESSED_COUNT_KEY} and written to the log entry.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see AbstractQueryLoggingListener#setQueryLogSampler(QueryLogSampler)
+ * @since 1.6
+ */
+public interface QueryLogSampler {
+
+    /**
+     * Returned by {@link #sample(ExecutionInfo, List)} when the execution should not be logged.
+     */
+    long SUPPRESS = -1;
+
+    /**
+     * Key of {@link ExecutionInfo#getCustomValue(String, Class)} to store number of suppressed executions.
+     */
+    String SUPPRESSED_COUNT_KEY = "dsproxy.suppressedCount";
+
+    /**
+     * @param execInfo      execution info
+     * @param queryInfoList query info list
+     * @return {@link #SUPPRESS} to skip logging, otherwise number of executions suppressed since the previous
+     * logged entry
+     */
+    long sample(ExecutionInfo execInfo, List<QueryInfo> queryInfoList);
+
+}
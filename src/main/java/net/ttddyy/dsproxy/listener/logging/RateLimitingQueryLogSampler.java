@@ -0,0 +1,112 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limit number of logged entries per second for each statement shape.
+ *
+ * Executions are grouped by fingerprint(see {@link QueryUtils#getFingerprintForExecution(List)}), and each
+ * fingerprint has a token bucket that allows the given number of entries per second.
+ * Suppressed count is tracked per fingerprint.
+ *
+ * Number of fingerprints to track is bounded by {@link #setMaxFingerprints(int)}. When the limit is reached, an
+ * arbitrary fingerprint is evicted.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class RateLimitingQueryLogSampler extends AbstractQueryLogSampler {
+
+    protected static class TokenBucket {
+        private final double permitsPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillInNanos;
+        private long suppressedCount;
+
+        protected TokenBucket(long permitsPerSecond, long now) {
+            this.permitsPerNano = (double) permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = permitsPerSecond;
+            this.tokens = permitsPerSecond;
+            this.lastRefillInNanos = now;
+        }
+
+        protected synchronized long tryAcquire(long now) {
+            this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefillInNanos) * this.permitsPerNano);
+            this.lastRefillInNanos = now;
+            if (this.tokens >= 1) {
+                this.tokens -= 1;
+                return drain();
+            }
+            this.suppressedCount++;
+            return SUPPRESS;
+        }
+
+        protected synchronized long drain() {
+            long count = this.suppressedCount;
+            this.suppressedCount = 0;
+            return count;
+        }
+    }
+
+    protected long permitsPerSecond;
+    protected int maxFingerprints = 1000;
+    protected final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<String, TokenBucket>();
+
+    /**
+     * @param permitsPerSecond number of entries to log per second for each fingerprint
+     */
+    public RateLimitingQueryLogSampler(long permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    @Override
+    protected long doSample(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long now = System.nanoTime();
+        return getBucket(queryInfoList, now).tryAcquire(now);
+    }
+
+    @Override
+    protected long drainSuppressedCount(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        TokenBucket bucket = this.buckets.get(QueryUtils.getFingerprintForExecution(queryInfoList));
+        return bucket == null ? 0 : bucket.drain();
+    }
+
+    private TokenBucket getBucket(List<QueryInfo> queryInfoList, long now) {
+        String fingerprint = QueryUtils.getFingerprintForExecution(queryInfoList);
+        TokenBucket bucket = this.buckets.get(fingerprint);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (this.buckets.size() >= this.maxFingerprints) {
+            Iterator<String> iterator = this.buckets.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        bucket = new TokenBucket(this.permitsPerSecond, now);
+        TokenBucket existing = this.buckets.putIfAbsent(fingerprint, bucket);
+        return existing != null ? existing : bucket;
+    }
+
+    /**
+     * @param maxFingerprints max number of fingerprints to track. default is 1000
+     */
+    public void setMaxFingerprints(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    public long getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+}
@@ -0,0 +1,143 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+
+/**
+ * Convert parameter values to display value with limited size.
+ *
+ * <ul>
+ * <li> {@link CharSequence}: truncated to max string length. e.g.: {@code abc...(length=5000)}
+ * <li> {@code byte[]}: length and hex preview of leading bytes. e.g.: {@code byte[1024]:0x0a0b0c...}
+ * <li> {@link InputStream}, {@link Reader}: length only when specified. e.g.: {@code InputStream(length=1024)}
+ * <li> {@link Blob}, {@link Clob}: length only. e.g.: {@code Blob(length=1024)}
+ * <li> {@link SQLXML}: type name only
+ * <li> others: {@code toString()} truncated to max string length
+ * </ul>
+ *
+ * Streams and LOBs are not read.
+ *
+ * @author Tadaya Tsuyukubo
+ * @since 1.6
+ */
+public class SizeLimitingParameterValueConverter implements ParameterValueConverter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static final int DEFAULT_MAX_STRING_LENGTH = 1000;
+    public static final int DEFAULT_MAX_BYTES_PREVIEW = 16;
+
+    protected int maxStringLength = DEFAULT_MAX_STRING_LENGTH;
+    protected int maxBytesPreview = DEFAULT_MAX_BYTES_PREVIEW;
+
+    @Override
+    public String getValue(ParameterSetOperation param) {
+        Object[] args = param.getArgs();
+        Object value = args[1];
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof CharSequence) {
+            return getDisplayValue((CharSequence) value);
+        } else if (value instanceof byte[]) {
+            return getDisplayValue((byte[]) value);
+        } else if (value instanceof InputStream) {
+            return getStreamDisplayValue("InputStream", args);
+        } else if (value instanceof Reader) {
+            return getStreamDisplayValue("Reader", args);
+        } else if (value instanceof Blob) {
+            return getDisplayValue((Blob) value);
+        } else if (value instanceof Clob) {
+            return getDisplayValue((Clob) value);
+        } else if (value instanceof SQLXML) {
+            return "SQLXML";
+        }
+        return getDisplayValue(value.toString());
+    }
+
+    protected String getDisplayValue(CharSequence value) {
+        int length = value.length();
+        if (length <= this.maxStringLength) {
+            return value.toString();
+        }
+        StringBuilder sb = new StringBuilder(this.maxStringLength + 20);
+        sb.append(value, 0, this.maxStringLength);
+        sb.append("...(length=");
+        sb.append(length);
+        sb.append(")");
+        return sb.toString();
+    }
+
+    protected String getDisplayValue(byte[] value) {
+        int previewLength = Math.min(value.length, this.maxBytesPreview);
+        StringBuilder sb = new StringBuilder(previewLength * 2 + 20);
+        sb.append("byte[");
+        sb.append(value.length);
+        sb.append("]");
+        if (previewLength > 0) {
+            sb.append(":0x");
+            for (int i = 0; i < previewLength; i++) {
+                int b = value[i] & 0xff;
+                sb.append(HEX[b >>> 4]);
+                sb.append(HEX[b & 0x0f]);
+            }
+            if (previewLength < value.length) {
+                sb.append("...");
+            }
+        }
+        return sb.toString();
+    }
+
+    protected String getStreamDisplayValue(String typeName, Object[] args) {
+        // setXxxStream(index, stream, length) and setXxxStream(index, stream) are available
+        if (args.length > 2 && args[2] instanceof Number) {
+            return typeName + "(length=" + args[2] + ")";
+        }
+        return typeName;
+    }
+
+    protected String getDisplayValue(Blob value) {
+        try {
+            return "Blob(length=" + value.length() + ")";
+        } catch (SQLException e) {
+            return "Blob";
+        }
+    }
+
+    protected String getDisplayValue(Clob value) {
+        try {
+            return "Clob(length=" + value.length() + ")";
+        } catch (SQLException e) {
+            return "Clob";
+        }
+    }
+
+    /**
+     * @param maxStringLength max number of characters to display. default is 1000
+     */
+    public void setMaxStringLength(int maxStringLength) {
+        this.maxStringLength = maxStringLength;
+    }
+
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    /**
+     * @param maxBytesPreview max number of leading bytes to display in hex. default is 16
+     */
+    public void setMaxBytesPreview(int maxBytesPreview) {
+        this.maxBytesPreview = maxBytesPreview;
+    }
+
+    public int getMaxBytesPreview() {
+        return maxBytesPreview;
+    }
+
+}
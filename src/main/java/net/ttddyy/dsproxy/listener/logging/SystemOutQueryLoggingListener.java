@@ -1,5 +1,7 @@
 package net.ttddyy.dsproxy.listener.logging;
 
+import java.io.PrintStream;
+
 /**
  * Output query logging to System.out.
  *
@@ -21,4 +23,18 @@ public class SystemOutQueryLoggingListener extends AbstractQueryLoggingListener
     protected void writeLog(String message) {
         System.out.println(message);
     }
+
+    /**
+     * Append the buffer to {@code System.out} so that it is encoded by the stream's own charset.
+     *
+     * @since 1.6
+     */
+    @Override
+    protected void writeLog(StringBuilder message) {
+        PrintStream out = System.out;
+        synchronized (out) {  // PrintStream locks on itself. keep the entry in one piece.
+            out.append(message);
+            out.println();
+        }
+    }
 }
@@ -0,0 +1,533 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionListenerUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Repeatable read {@link ResultSet} proxy backed by {@link ColumnarResultSetSnapshot}.
+ *
+ * The result set is read-only and scrollable. Cursor movement, {@code getXxx} methods, {@code wasNull},
+ * {@code findColumn} and {@code getMetaData} are served from the snapshot. Getter values are converted from the
+ * stored value in the same way as common JDBC drivers do. Update methods and getters with a {@link java.util.Calendar}
+ * throw {@link SQLFeatureNotSupportedException}.
+ *
+ * Without an original result set, the logic works as a standalone result set over the snapshot; see
+ * {@link ColumnarResultSetSnapshot#createResultSet(Statement)}. The result set can be unwrapped to its
+ * {@link ColumnarResultSetSnapshot}.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ColumnarResultSetProxyLogicFactory
+ * @since 1.6
+ */
+public class ColumnarResultSetProxyLogic implements ResultSetProxyLogic {
+
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    private static final int NEXT = 1;
+    private static final int PREVIOUS = 2;
+    private static final int FIRST = 3;
+    private static final int LAST = 4;
+    private static final int BEFORE_FIRST = 5;
+    private static final int AFTER_LAST = 6;
+    private static final int ABSOLUTE = 7;
+    private static final int RELATIVE = 8;
+    private static final int IS_BEFORE_FIRST = 9;
+    private static final int IS_AFTER_LAST = 10;
+    private static final int IS_FIRST = 11;
+    private static final int IS_LAST = 12;
+    private static final int GET_ROW = 13;
+    private static final int WAS_NULL = 14;
+    private static final int FIND_COLUMN = 15;
+    private static final int GET_META_DATA = 16;
+    private static final int CLOSE = 17;
+    private static final int IS_CLOSED = 18;
+    private static final int GET_TYPE = 19;
+    private static final int GET_CONCURRENCY = 20;
+    private static final int GET_OBJECT = 21;
+    private static final int GET_STRING = 22;
+    private static final int GET_BOOLEAN = 23;
+    private static final int GET_BYTE = 24;
+    private static final int GET_SHORT = 25;
+    private static final int GET_INT = 26;
+    private static final int GET_LONG = 27;
+    private static final int GET_FLOAT = 28;
+    private static final int GET_DOUBLE = 29;
+    private static final int GET_BIG_DECIMAL = 30;
+    private static final int GET_BYTES = 31;
+    private static final int GET_DATE = 32;
+    private static final int GET_TIME = 33;
+    private static final int GET_TIMESTAMP = 34;
+    private static final int GET_CHARACTER_STREAM = 35;
+    private static final int GET_ASCII_STREAM = 36;
+    private static final int GET_BINARY_STREAM = 37;
+    private static final int GET_CLOB = 38;
+    private static final int GET_BLOB = 39;
+    private static final int GET_WARNINGS = 40;
+    private static final int CLEAR_WARNINGS = 41;
+    private static final int GET_FETCH_SIZE = 42;
+    private static final int SET_FETCH_SIZE = 43;
+    private static final int GET_FETCH_DIRECTION = 44;
+    private static final int SET_FETCH_DIRECTION = 45;
+    private static final int GET_HOLDABILITY = 46;
+    private static final int GET_STATEMENT = 47;
+    private static final int GET_TARGET = 48;
+    private static final int TO_STRING = 49;
+    private static final int HASH_CODE = 50;
+    private static final int EQUALS = 51;
+    private static final int UNWRAP = 52;
+    private static final int IS_WRAPPER_FOR = 53;
+
+    private static final Map<String, Integer> METHOD_IDS = new HashMap<String, Integer>();
+
+    static {
+        METHOD_IDS.put("next", NEXT);
+        METHOD_IDS.put("previous", PREVIOUS);
+        METHOD_IDS.put("first", FIRST);
+        METHOD_IDS.put("last", LAST);
+        METHOD_IDS.put("beforeFirst", BEFORE_FIRST);
+        METHOD_IDS.put("afterLast", AFTER_LAST);
+        METHOD_IDS.put("absolute", ABSOLUTE);
+        METHOD_IDS.put("relative", RELATIVE);
+        METHOD_IDS.put("isBeforeFirst", IS_BEFORE_FIRST);
+        METHOD_IDS.put("isAfterLast", IS_AFTER_LAST);
+        METHOD_IDS.put("isFirst", IS_FIRST);
+        METHOD_IDS.put("isLast", IS_LAST);
+        METHOD_IDS.put("getRow", GET_ROW);
+        METHOD_IDS.put("wasNull", WAS_NULL);
+        METHOD_IDS.put("findColumn", FIND_COLUMN);
+        METHOD_IDS.put("getMetaData", GET_META_DATA);
+        METHOD_IDS.put("close", CLOSE);
+        METHOD_IDS.put("isClosed", IS_CLOSED);
+        METHOD_IDS.put("getType", GET_TYPE);
+        METHOD_IDS.put("getConcurrency", GET_CONCURRENCY);
+        METHOD_IDS.put("getObject", GET_OBJECT);
+        METHOD_IDS.put("getString", GET_STRING);
+        METHOD_IDS.put("getNString", GET_STRING);
+        METHOD_IDS.put("getBoolean", GET_BOOLEAN);
+        METHOD_IDS.put("getByte", GET_BYTE);
+        METHOD_IDS.put("getShort", GET_SHORT);
+        METHOD_IDS.put("getInt", GET_INT);
+        METHOD_IDS.put("getLong", GET_LONG);
+        METHOD_IDS.put("getFloat", GET_FLOAT);
+        METHOD_IDS.put("getDouble", GET_DOUBLE);
+        METHOD_IDS.put("getBigDecimal", GET_BIG_DECIMAL);
+        METHOD_IDS.put("getBytes", GET_BYTES);
+        METHOD_IDS.put("getDate", GET_DATE);
+        METHOD_IDS.put("getTime", GET_TIME);
+        METHOD_IDS.put("getTimestamp", GET_TIMESTAMP);
+        METHOD_IDS.put("getCharacterStream", GET_CHARACTER_STREAM);
+        METHOD_IDS.put("getNCharacterStream", GET_CHARACTER_STREAM);
+        METHOD_IDS.put("getAsciiStream", GET_ASCII_STREAM);
+        METHOD_IDS.put("getBinaryStream", GET_BINARY_STREAM);
+        METHOD_IDS.put("getClob", GET_CLOB);
+        METHOD_IDS.put("getNClob", GET_CLOB);
+        METHOD_IDS.put("getBlob", GET_BLOB);
+        METHOD_IDS.put("getWarnings", GET_WARNINGS);
+        METHOD_IDS.put("clearWarnings", CLEAR_WARNINGS);
+        METHOD_IDS.put("getFetchSize", GET_FETCH_SIZE);
+        METHOD_IDS.put("setFetchSize", SET_FETCH_SIZE);
+        METHOD_IDS.put("getFetchDirection", GET_FETCH_DIRECTION);
+        METHOD_IDS.put("setFetchDirection", SET_FETCH_DIRECTION);
+        METHOD_IDS.put("getHoldability", GET_HOLDABILITY);
+        METHOD_IDS.put("getStatement", GET_STATEMENT);
+        METHOD_IDS.put("getTarget", GET_TARGET);  // from ProxyJdbcObject
+        METHOD_IDS.put("toString", TO_STRING);
+        METHOD_IDS.put("hashCode", HASH_CODE);
+        METHOD_IDS.put("equals", EQUALS);
+        METHOD_IDS.put("unwrap", UNWRAP);
+        METHOD_IDS.put("isWrapperFor", IS_WRAPPER_FOR);
+    }
+
+    private ResultSet resultSet;  // original resultset. null when detached
+    private Statement statement;  // only when detached
+    private ColumnarResultSetSnapshot snapshot;
+    private ConnectionInfo connectionInfo;
+    private ProxyConfig proxyConfig;
+
+    private int row;  // 1 based, 0 is before first, rowCount + 1 is after last
+    private boolean wasNull;
+    private boolean closed;
+    private int fetchSize;
+    private int fetchDirection = ResultSet.FETCH_FORWARD;
+
+    public ColumnarResultSetProxyLogic(ResultSet resultSet, ColumnarResultSetSnapshot snapshot, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        this.resultSet = resultSet;
+        this.snapshot = snapshot;
+        this.connectionInfo = connectionInfo;
+        this.proxyConfig = proxyConfig;
+    }
+
+    /**
+     * Create a logic that is not backed by an original result set.
+     *
+     * @param snapshot  snapshot to read
+     * @param statement statement to return from {@code getStatement()}
+     */
+    public ColumnarResultSetProxyLogic(ColumnarResultSetSnapshot snapshot, Statement statement) {
+        this.snapshot = snapshot;
+        this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Method method, Object[] args) throws Throwable {
+        if (this.resultSet == null) {
+            return performQueryExecutionListener(method, args);  // detached, no listener
+        }
+        return MethodExecutionListenerUtils.invoke(new MethodExecutionListenerUtils.MethodExecutionCallback() {
+            @Override
+            public Object execute(Object proxyTarget, Method method, Object[] args) throws Throwable {
+                return performQueryExecutionListener(method, args);
+            }
+        }, this.proxyConfig, this.resultSet, this.connectionInfo, method, args);
+    }
+
+    private Object performQueryExecutionListener(Method method, Object[] args) throws Throwable {
+        Integer methodId = METHOD_IDS.get(method.getName());
+        if (methodId == null) {
+            throw new SQLFeatureNotSupportedException(format("Method '%s' is not supported by columnar result set", method.getName()));
+        }
+
+        switch (methodId) {
+            case TO_STRING:
+                return "ColumnarResultSet [" + this.resultSet.toString() + "]";
+            case HASH_CODE:
+                return this.resultSet.hashCode();  // returns original resultset hashcode
+            case EQUALS:
+                return this.resultSet.equals(args[0]);  // compare with original resultset
+            case GET_TARGET:
+                return this.resultSet;
+            case CLOSE:
+                this.closed = true;
+                if (this.resultSet != null) {
+                    this.resultSet.close();
+                }
+                return null;
+            case IS_CLOSED:
+                return this.closed;
+            case UNWRAP:
+                if (ColumnarResultSetSnapshot.class.equals(args[0])) {
+                    return this.snapshot;
+                }
+                if (!((Class<?>) args[0]).isInstance(this.resultSet)) {
+                    throw new SQLException(format("Cannot unwrap to %s", ((Class<?>) args[0]).getName()));
+                }
+                return this.resultSet;
+            case IS_WRAPPER_FOR:
+                return ColumnarResultSetSnapshot.class.equals(args[0]) || ((Class<?>) args[0]).isInstance(this.resultSet);
+        }
+
+        if (this.closed) {
+            throw new SQLException("ResultSet is closed");
+        }
+
+        int rowCount = this.snapshot.getRowCount();
+        switch (methodId) {
+            case NEXT:
+                return moveTo(this.row + 1);
+            case PREVIOUS:
+                return moveTo(this.row - 1);
+            case FIRST:
+                return moveTo(1);
+            case LAST:
+                return moveTo(rowCount);
+            case BEFORE_FIRST:
+                this.row = 0;
+                return null;
+            case AFTER_LAST:
+                this.row = rowCount + 1;
+                return null;
+            case ABSOLUTE:
+                int position = (Integer) args[0];
+                return moveTo(position >= 0 ? position : rowCount + 1 + position);
+            case RELATIVE:
+                return moveTo(this.row + (Integer) args[0]);
+            case IS_BEFORE_FIRST:
+                return this.row == 0 && rowCount > 0;
+            case IS_AFTER_LAST:
+                return this.row > rowCount && rowCount > 0;
+            case IS_FIRST:
+                return this.row == 1 && rowCount > 0;
+            case IS_LAST:
+                return this.row == rowCount && rowCount > 0;
+            case GET_ROW:
+                return this.row >= 1 && this.row <= rowCount ? this.row : 0;
+            case WAS_NULL:
+                return this.wasNull;
+            case FIND_COLUMN:
+                return getColumnIndex(args[0]);
+            case GET_META_DATA:
+                return this.snapshot.getMetaData();
+            case GET_TYPE:
+                return ResultSet.TYPE_SCROLL_INSENSITIVE;
+            case GET_CONCURRENCY:
+                return ResultSet.CONCUR_READ_ONLY;
+            case GET_WARNINGS:
+                return null;
+            case CLEAR_WARNINGS:
+                return null;
+            case GET_FETCH_SIZE:
+                return this.fetchSize;
+            case SET_FETCH_SIZE:
+                this.fetchSize = (Integer) args[0];
+                return null;
+            case GET_FETCH_DIRECTION:
+                return this.fetchDirection;
+            case SET_FETCH_DIRECTION:
+                this.fetchDirection = (Integer) args[0];
+                return null;
+            case GET_HOLDABILITY:
+                return ResultSet.HOLD_CURSORS_OVER_COMMIT;
+            case GET_STATEMENT:
+                return this.resultSet != null ? this.resultSet.getStatement() : this.statement;
+        }
+
+        // getters
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        boolean withCalendar = parameterTypes.length == 2 && parameterTypes[1] == java.util.Calendar.class;
+        boolean withMap = parameterTypes.length == 2 && parameterTypes[1] == Map.class;
+        if (withCalendar || withMap) {
+            throw new SQLFeatureNotSupportedException(format("Method '%s' is not supported by columnar result set", method));
+        }
+
+        int columnIndex = getColumnIndex(args[0]);
+        if (this.row < 1 || this.row > rowCount) {
+            throw new SQLException("Cursor is not on a row");
+        }
+
+        ColumnarResultSetSnapshot.Column column = this.snapshot.getColumn(columnIndex);
+        int index = this.row - 1;
+        this.wasNull = column.isNull(index);
+        byte kind = column.getKind();
+
+        switch (methodId) {
+            case GET_LONG:
+                return this.wasNull ? 0L : kind == ColumnarResultSetSnapshot.KIND_LONG ? column.getLong(index) : toNumber(column.get(index)).longValue();
+            case GET_INT:
+                return this.wasNull ? 0 : kind == ColumnarResultSetSnapshot.KIND_LONG ? (int) column.getLong(index) : toNumber(column.get(index)).intValue();
+            case GET_SHORT:
+                return this.wasNull ? (short) 0 : kind == ColumnarResultSetSnapshot.KIND_LONG ? (short) column.getLong(index) : toNumber(column.get(index)).shortValue();
+            case GET_BYTE:
+                return this.wasNull ? (byte) 0 : kind == ColumnarResultSetSnapshot.KIND_LONG ? (byte) column.getLong(index) : toNumber(column.get(index)).byteValue();
+            case GET_DOUBLE:
+                return this.wasNull ? 0d : kind == ColumnarResultSetSnapshot.KIND_DOUBLE ? column.getDouble(index) : toNumber(column.get(index)).doubleValue();
+            case GET_FLOAT:
+                return this.wasNull ? 0f : kind == ColumnarResultSetSnapshot.KIND_DOUBLE ? (float) column.getDouble(index) : toNumber(column.get(index)).floatValue();
+            case GET_BOOLEAN:
+                return !this.wasNull && toBoolean(column, index);
+            case GET_STRING:
+                return this.wasNull ? null : kind == ColumnarResultSetSnapshot.KIND_STRING ? column.getString(index) : toString(column.get(index));
+        }
+
+        Object value = column.get(index);
+        if (value == null) {
+            return null;
+        }
+        switch (methodId) {
+            case GET_OBJECT:
+                if (args.length == 2) {
+                    return toType(value, (Class<?>) args[1]);
+                }
+                return value;
+            case GET_BIG_DECIMAL:
+                BigDecimal decimal = toBigDecimal(value);
+                if (args.length == 2) {
+                    return decimal.setScale((Integer) args[1], RoundingMode.HALF_UP);  // deprecated method with scale
+                }
+                return decimal;
+            case GET_BYTES:
+                return toBytes(value);
+            case GET_DATE:
+                return toDate(value);
+            case GET_TIME:
+                return toTime(value);
+            case GET_TIMESTAMP:
+                return toTimestamp(value);
+            case GET_CHARACTER_STREAM:
+                return new StringReader(toString(value));
+            case GET_ASCII_STREAM:
+                return new ByteArrayInputStream(toString(value).getBytes(US_ASCII));
+            case GET_BINARY_STREAM:
+                return new ByteArrayInputStream(toBytes(value));
+            case GET_CLOB:
+            case GET_BLOB:
+                return toType(value, methodId == GET_CLOB ? Clob.class : Blob.class);
+        }
+        throw new SQLFeatureNotSupportedException(format("Method '%s' is not supported by columnar result set", method));
+    }
+
+    private boolean moveTo(int position) {
+        int rowCount = this.snapshot.getRowCount();
+        this.row = Math.max(0, Math.min(position, rowCount + 1));
+        return this.row >= 1 && this.row <= rowCount;
+    }
+
+    private int getColumnIndex(Object columnIndexOrLabel) throws SQLException {
+        int columnIndex;
+        if (columnIndexOrLabel instanceof Integer) {
+            columnIndex = (Integer) columnIndexOrLabel;
+            if (columnIndex < 1 || columnIndex > this.snapshot.getColumnCount()) {
+                throw new SQLException(format("Invalid column index %d", columnIndex));
+            }
+        } else {
+            columnIndex = this.snapshot.findColumn((String) columnIndexOrLabel);
+            if (columnIndex < 0) {
+                throw new SQLException(format("Unknown column name '%s'", columnIndexOrLabel));
+            }
+        }
+        return columnIndex;
+    }
+
+    private Number toNumber(Object value) throws SQLException {
+        if (value instanceof Number) {
+            return (Number) value;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        } else if (value instanceof String) {
+            try {
+                return new BigDecimal(((String) value).trim());
+            } catch (NumberFormatException e) {
+                throw new SQLException(format("Cannot convert '%s' to number", value), e);
+            }
+        }
+        throw new SQLException(format("Cannot convert %s to number", value.getClass().getName()));
+    }
+
+    private boolean toBoolean(ColumnarResultSetSnapshot.Column column, int index) throws SQLException {
+        byte kind = column.getKind();
+        if (kind == ColumnarResultSetSnapshot.KIND_LONG) {
+            return column.getLong(index) != 0;
+        }
+        Object value = column.get(index);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof String) {
+            String string = ((String) value).trim();
+            return "true".equalsIgnoreCase(string) || "1".equals(string) || "y".equalsIgnoreCase(string) || "yes".equalsIgnoreCase(string);
+        }
+        return toNumber(value).doubleValue() != 0;
+    }
+
+    private String toString(Object value) throws SQLException {
+        if (value instanceof byte[]) {
+            return new String((byte[]) value, US_ASCII);
+        } else if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            return clob.getSubString(1, (int) clob.length());
+        } else if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        return value.toString();
+    }
+
+    private BigDecimal toBigDecimal(Object value) throws SQLException {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        Number number = toNumber(value);
+        return number instanceof BigDecimal ? (BigDecimal) number : BigDecimal.valueOf(number.longValue());
+    }
+
+    private byte[] toBytes(Object value) throws SQLException {
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        } else if (value instanceof Blob) {
+            Blob blob = (Blob) value;
+            return blob.getBytes(1, (int) blob.length());
+        }
+        throw new SQLException(format("Cannot convert %s to bytes", value.getClass().getName()));
+    }
+
+    private Date toDate(Object value) throws SQLException {
+        if (value instanceof Date) {
+            return (Date) value;
+        } else if (value instanceof java.util.Date) {
+            return new Date(((java.util.Date) value).getTime());
+        } else if (value instanceof String) {
+            return Date.valueOf(((String) value).trim());
+        }
+        throw new SQLException(format("Cannot convert %s to Date", value.getClass().getName()));
+    }
+
+    private Time toTime(Object value) throws SQLException {
+        if (value instanceof Time) {
+            return (Time) value;
+        } else if (value instanceof java.util.Date) {
+            return new Time(((java.util.Date) value).getTime());
+        } else if (value instanceof String) {
+            return Time.valueOf(((String) value).trim());
+        }
+        throw new SQLException(format("Cannot convert %s to Time", value.getClass().getName()));
+    }
+
+    private Timestamp toTimestamp(Object value) throws SQLException {
+        if (value instanceof Timestamp) {
+            return (Timestamp) value;
+        } else if (value instanceof java.util.Date) {
+            return new Timestamp(((java.util.Date) value).getTime());
+        } else if (value instanceof String) {
+            return Timestamp.valueOf(((String) value).trim());
+        }
+        throw new SQLException(format("Cannot convert %s to Timestamp", value.getClass().getName()));
+    }
+
+    private Object toType(Object value, Class<?> type) throws SQLException {
+        if (type.isInstance(value)) {
+            return value;
+        } else if (type == String.class) {
+            return toString(value);
+        } else if (type == Long.class) {
+            return toNumber(value).longValue();
+        } else if (type == Integer.class) {
+            return toNumber(value).intValue();
+        } else if (type == Short.class) {
+            return toNumber(value).shortValue();
+        } else if (type == Byte.class) {
+            return toNumber(value).byteValue();
+        } else if (type == Double.class) {
+            return toNumber(value).doubleValue();
+        } else if (type == Float.class) {
+            return toNumber(value).floatValue();
+        } else if (type == BigDecimal.class) {
+            return toBigDecimal(value);
+        } else if (type == Boolean.class) {
+            return value instanceof String ? Boolean.valueOf(((String) value).trim()) : toNumber(value).doubleValue() != 0;
+        } else if (type == byte[].class) {
+            return toBytes(value);
+        } else if (type == Date.class) {
+            return toDate(value);
+        } else if (type == Time.class) {
+            return toTime(value);
+        } else if (type == Timestamp.class) {
+            return toTimestamp(value);
+        }
+        throw new SQLException(format("Cannot convert %s to %s", value.getClass().getName(), type.getName()));
+    }
+
+}
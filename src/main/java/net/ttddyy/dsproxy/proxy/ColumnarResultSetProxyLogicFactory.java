@@ -0,0 +1,39 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.DataSourceProxyException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Factory to create {@link ColumnarResultSetProxyLogic}.
+ *
+ * The whole {@link ResultSet} is read into a {@link ColumnarResultSetSnapshot} when the proxy is created. Compared to
+ * {@link CachedRowSetResultSetProxyLogicFactory}, numeric values are kept in primitive arrays and strings are
+ * deduplicated per column, which takes less memory and is faster to populate and to read.
+ *
+ * The original {@link ResultSet} is closed when the proxy is closed.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ColumnarResultSetProxyLogic
+ * @see ColumnarResultSetSnapshot
+ * @since 1.6
+ */
+public class ColumnarResultSetProxyLogicFactory implements ResultSetProxyLogicFactory {
+
+    @Override
+    public ResultSetProxyLogic create(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        ColumnarResultSetSnapshot snapshot = createSnapshot(resultSet);
+        return new ColumnarResultSetProxyLogic(resultSet, snapshot, connectionInfo, proxyConfig);
+    }
+
+    protected ColumnarResultSetSnapshot createSnapshot(ResultSet resultSet) {
+        try {
+            return new ColumnarResultSetSnapshot(resultSet);
+        } catch (SQLException e) {
+            throw new DataSourceProxyException("Failed to create columnar snapshot of resultset", e);
+        }
+    }
+
+}
@@ -0,0 +1,432 @@
+package net.ttddyy.dsproxy.proxy;
+
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column oriented copy of a {@link ResultSet}.
+ *
+ * Each column is stored in the most compact form its values allow:
+ * <ul>
+ * <li>{@link Long}, {@link Integer}, {@link Short}, {@link Byte} and {@link Boolean} values in a {@code long[]}
+ * <li>{@link Double} and {@link Float} values in a {@code double[]}
+ * <li>{@link String} values as {@code int} codes into a dictionary of distinct strings
+ * <li>anything else in an {@code Object[]}
+ * </ul>
+ * Nulls are kept in a bitmap. When a column mixes value types, it falls back to {@code Object[]}.
+ * {@link Clob} and {@link Blob} values are copied into {@link SerialClob} and {@link SerialBlob}.
+ *
+ * Column labels are looked up case-insensitively; when labels are duplicated, the first column wins.
+ *
+ * The snapshot is not modified after it is created, and can be shared by multiple readers.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ColumnarResultSetProxyLogic
+ * @since 1.6
+ */
+public class ColumnarResultSetSnapshot {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    protected static final byte KIND_EMPTY = 0;  // only nulls so far
+    protected static final byte KIND_LONG = 1;
+    protected static final byte KIND_DOUBLE = 2;
+    protected static final byte KIND_STRING = 3;
+    protected static final byte KIND_OBJECT = 4;
+
+    /**
+     * Values of a column.
+     */
+    protected static class Column {
+        private byte kind = KIND_EMPTY;
+        private Class<?> type;  // boxed type for long/double columns
+        private final BitSet nulls = new BitSet();
+        private long[] longs;
+        private double[] doubles;
+        private int[] codes;
+        private List<String> dictionary;
+        private Map<String, Integer> dictionaryIndex;  // only while building
+        private Object[] objects;
+        private int size;
+
+        protected void add(Object value) {
+            int row = this.size++;
+            if (value == null) {
+                this.nulls.set(row);
+                if (this.kind == KIND_OBJECT) {
+                    ensureObjects(row);
+                }
+                return;
+            }
+            Class<?> valueType = value.getClass();
+            if (this.kind == KIND_EMPTY) {
+                initKind(valueType, row);
+            } else if (this.kind != KIND_OBJECT && (this.kind == KIND_STRING ? valueType != String.class : valueType != this.type)) {
+                toObjectKind(row);
+            }
+
+            switch (this.kind) {
+                case KIND_LONG:
+                    this.longs = grow(this.longs, row);
+                    this.longs[row] = value instanceof Boolean ? ((Boolean) value ? 1 : 0) : ((Number) value).longValue();
+                    break;
+                case KIND_DOUBLE:
+                    this.doubles = grow(this.doubles, row);
+                    this.doubles[row] = ((Number) value).doubleValue();
+                    break;
+                case KIND_STRING:
+                    Integer code = this.dictionaryIndex.get(value);
+                    if (code == null) {
+                        code = this.dictionary.size();
+                        this.dictionary.add((String) value);
+                        this.dictionaryIndex.put((String) value, code);
+                    }
+                    this.codes = grow(this.codes, row);
+                    this.codes[row] = code;
+                    break;
+                default:
+                    ensureObjects(row);
+                    this.objects[row] = value;
+            }
+        }
+
+        private void initKind(Class<?> valueType, int row) {
+            if (valueType == Long.class || valueType == Integer.class || valueType == Short.class
+                    || valueType == Byte.class || valueType == Boolean.class) {
+                this.kind = KIND_LONG;
+                this.type = valueType;
+                this.longs = new long[Math.max(INITIAL_CAPACITY, row + 1)];
+            } else if (valueType == Double.class || valueType == Float.class) {
+                this.kind = KIND_DOUBLE;
+                this.type = valueType;
+                this.doubles = new double[Math.max(INITIAL_CAPACITY, row + 1)];
+            } else if (valueType == String.class) {
+                this.kind = KIND_STRING;
+                this.codes = new int[Math.max(INITIAL_CAPACITY, row + 1)];
+                this.dictionary = new ArrayList<String>();
+                this.dictionaryIndex = new HashMap<String, Integer>();
+            } else {
+                this.kind = KIND_OBJECT;
+            }
+        }
+
+        private void toObjectKind(int row) {
+            Object[] values = new Object[Math.max(INITIAL_CAPACITY, row + 1)];
+            for (int i = 0; i < row; i++) {
+                values[i] = get(i);
+            }
+            this.kind = KIND_OBJECT;
+            this.objects = values;
+            this.longs = null;
+            this.doubles = null;
+            this.codes = null;
+            this.dictionary = null;
+            this.dictionaryIndex = null;
+        }
+
+        private void ensureObjects(int row) {
+            if (this.objects == null) {
+                this.objects = new Object[Math.max(INITIAL_CAPACITY, row + 1)];
+            } else if (row >= this.objects.length) {
+                this.objects = Arrays.copyOf(this.objects, Math.max(this.objects.length * 2, row + 1));
+            }
+        }
+
+        private static long[] grow(long[] array, int row) {
+            return row < array.length ? array : Arrays.copyOf(array, Math.max(array.length * 2, row + 1));
+        }
+
+        private static double[] grow(double[] array, int row) {
+            return row < array.length ? array : Arrays.copyOf(array, Math.max(array.length * 2, row + 1));
+        }
+
+        private static int[] grow(int[] array, int row) {
+            return row < array.length ? array : Arrays.copyOf(array, Math.max(array.length * 2, row + 1));
+        }
+
+        protected void trim() {
+            this.dictionaryIndex = null;
+            if (this.longs != null) {
+                this.longs = Arrays.copyOf(this.longs, this.size);
+            }
+            if (this.doubles != null) {
+                this.doubles = Arrays.copyOf(this.doubles, this.size);
+            }
+            if (this.codes != null) {
+                this.codes = Arrays.copyOf(this.codes, this.size);
+            }
+            if (this.objects != null) {
+                this.objects = Arrays.copyOf(this.objects, this.size);
+            }
+        }
+
+        protected byte getKind() {
+            return this.kind;
+        }
+
+        protected boolean isNull(int row) {
+            return this.nulls.get(row);
+        }
+
+        protected long getLong(int row) {
+            return this.longs[row];
+        }
+
+        protected double getDouble(int row) {
+            return this.doubles[row];
+        }
+
+        protected String getString(int row) {
+            return this.dictionary.get(this.codes[row]);
+        }
+
+        /**
+         * @param row 0 based row index
+         * @return value in the type originally returned by {@link ResultSet#getObject(int)}
+         */
+        protected Object get(int row) {
+            if (this.nulls.get(row)) {
+                return null;
+            }
+            switch (this.kind) {
+                case KIND_LONG:
+                    long value = this.longs[row];
+                    if (this.type == Long.class) {
+                        return value;
+                    } else if (this.type == Integer.class) {
+                        return (int) value;
+                    } else if (this.type == Short.class) {
+                        return (short) value;
+                    } else if (this.type == Byte.class) {
+                        return (byte) value;
+                    }
+                    return value != 0;
+                case KIND_DOUBLE:
+                    return this.type == Float.class ? (Object) (float) this.doubles[row] : (Object) this.doubles[row];
+                case KIND_STRING:
+                    return getString(row);
+                default:
+                    return this.objects[row];
+            }
+        }
+    }
+
+    private final Column[] columns;
+    private final Map<String, Integer> columnIndexByLabel;
+    private final ResultSetMetaData metaData;
+    private int rowCount;
+
+    /**
+     * Read all remaining rows of the given {@link ResultSet}. The given result set is not closed.
+     *
+     * @param resultSet result set to copy
+     * @throws SQLException when failed to read the result set
+     */
+    public ColumnarResultSetSnapshot(ResultSet resultSet) throws SQLException {
+        this(resultSet, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Read at most {@code maxRows} rows of the given {@link ResultSet}. The given result set is not closed, and is
+     * positioned on the last copied row.
+     *
+     * @param resultSet result set to copy
+     * @param maxRows   maximum number of rows to copy
+     * @throws SQLException when failed to read the result set
+     */
+    public ColumnarResultSetSnapshot(ResultSet resultSet, int maxRows) throws SQLException {
+        ResultSetMetaData originalMetaData = resultSet.getMetaData();
+        int columnCount = originalMetaData.getColumnCount();
+        this.metaData = copyMetaData(originalMetaData, columnCount);
+        this.columns = new Column[columnCount];
+        this.columnIndexByLabel = new HashMap<String, Integer>();
+        for (int i = 0; i < columnCount; i++) {
+            this.columns[i] = new Column();
+            String key = originalMetaData.getColumnLabel(i + 1).toUpperCase(Locale.ENGLISH);
+            if (!this.columnIndexByLabel.containsKey(key)) {
+                this.columnIndexByLabel.put(key, i + 1);
+            }
+        }
+
+        while (this.rowCount < maxRows && resultSet.next()) {
+            for (int i = 0; i < columnCount; i++) {
+                Object value = resultSet.getObject(i + 1);
+                if (value instanceof Clob) {
+                    value = new SerialClob((Clob) value);
+                } else if (value instanceof Blob) {
+                    value = new SerialBlob((Blob) value);
+                }
+                this.columns[i].add(value);
+            }
+            this.rowCount++;
+        }
+        for (Column column : this.columns) {
+            column.trim();
+        }
+    }
+
+    private static ResultSetMetaData copyMetaData(ResultSetMetaData source, int columnCount) throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            metaData.setAutoIncrement(i, source.isAutoIncrement(i));
+            metaData.setCaseSensitive(i, source.isCaseSensitive(i));
+            metaData.setCurrency(i, source.isCurrency(i));
+            metaData.setNullable(i, source.isNullable(i));
+            metaData.setSigned(i, source.isSigned(i));
+            metaData.setSearchable(i, source.isSearchable(i));
+            int displaySize = source.getColumnDisplaySize(i);
+            metaData.setColumnDisplaySize(i, Math.max(displaySize, 0));
+            metaData.setColumnLabel(i, source.getColumnLabel(i));
+            metaData.setColumnName(i, source.getColumnName(i));
+            metaData.setSchemaName(i, source.getSchemaName(i));
+            metaData.setPrecision(i, Math.max(source.getPrecision(i), 0));
+            metaData.setScale(i, Math.max(source.getScale(i), 0));
+            metaData.setTableName(i, source.getTableName(i));
+            metaData.setCatalogName(i, source.getCatalogName(i));
+            metaData.setColumnType(i, source.getColumnType(i));
+            metaData.setColumnTypeName(i, source.getColumnTypeName(i));
+        }
+        return metaData;
+    }
+
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    public int getColumnCount() {
+        return this.columns.length;
+    }
+
+    /**
+     * @return copy of the original {@link ResultSetMetaData}
+     */
+    public ResultSetMetaData getMetaData() {
+        return this.metaData;
+    }
+
+    /**
+     * @param columnLabel column label, case-insensitive
+     * @return 1 based column index. {@code -1} when not found
+     */
+    public int findColumn(String columnLabel) {
+        Integer index = this.columnIndexByLabel.get(columnLabel.toUpperCase(Locale.ENGLISH));
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param columnIndex 1 based column index
+     * @return column
+     */
+    protected Column getColumn(int columnIndex) {
+        return this.columns[columnIndex - 1];
+    }
+
+    /**
+     * @param row         1 based row number
+     * @param columnIndex 1 based column index
+     * @return value in the type originally returned by {@link ResultSet#getObject(int)}
+     */
+    public Object getValue(int row, int columnIndex) {
+        return this.columns[columnIndex - 1].get(row - 1);
+    }
+
+    /**
+     * Create a new read-only scrollable {@link ResultSet} that reads this snapshot.
+     *
+     * @param statement statement to return from {@link ResultSet#getStatement()}
+     * @return result set positioned before the first row
+     */
+    public ResultSet createResultSet(Statement statement) {
+        final ColumnarResultSetProxyLogic logic = new ColumnarResultSetProxyLogic(this, statement);
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        String methodName = method.getName();
+                        if ("equals".equals(methodName)) {
+                            return proxy == args[0];
+                        } else if ("hashCode".equals(methodName)) {
+                            return System.identityHashCode(proxy);
+                        } else if ("toString".equals(methodName)) {
+                            return "ColumnarResultSet [rows=" + getRowCount() + "]";
+                        }
+                        return logic.invoke(method, args);
+                    }
+                });
+    }
+
+    /**
+     * Create a new forward-only {@link ResultSet} that reads this snapshot, then the rest of the given result set.
+     *
+     * @param statement statement to return from {@link ResultSet#getStatement()}
+     * @param remaining result set positioned on the row right after the rows of this snapshot
+     * @return result set positioned before the first row. Closing it closes the given result set
+     */
+    public ResultSet createResultSet(Statement statement, final ResultSet remaining) {
+        final ResultSet head = createResultSet(statement);
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                new InvocationHandler() {
+                    private boolean inRemaining;
+
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        String methodName = method.getName();
+                        if ("equals".equals(methodName)) {
+                            return proxy == args[0];
+                        } else if ("hashCode".equals(methodName)) {
+                            return System.identityHashCode(proxy);
+                        } else if ("toString".equals(methodName)) {
+                            return "ColumnarResultSet [rows=" + getRowCount() + "+]";
+                        } else if ("next".equals(methodName)) {
+                            if (this.inRemaining) {
+                                return remaining.next();
+                            }
+                            if (head.next()) {
+                                return true;
+                            }
+                            this.inRemaining = true;
+                            return true;  // already on the next row
+                        } else if ("close".equals(methodName)) {
+                            head.close();
+                            remaining.close();
+                            return null;
+                        } else if ("isClosed".equals(methodName)) {
+                            return remaining.isClosed();
+                        } else if ("getType".equals(methodName)) {
+                            return ResultSet.TYPE_FORWARD_ONLY;
+                        } else if ("isLast".equals(methodName) || "isAfterLast".equals(methodName)) {
+                            if (!this.inRemaining) {
+                                return false;
+                            }
+                        }
+                        // never unwrap to the partial snapshot
+                        boolean unwrap = "unwrap".equals(methodName) || "isWrapperFor".equals(methodName);
+                        try {
+                            return method.invoke(this.inRemaining || unwrap ? remaining : head, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    }
+                });
+    }
+
+}
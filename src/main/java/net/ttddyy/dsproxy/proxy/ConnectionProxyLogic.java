@@ -43,6 +43,7 @@ public class ConnectionProxyLogic {
         final boolean isCloseMethod = "close".equals(method.getName());
         final boolean isCommitMethod = "commit".equals(method.getName());
         final boolean isRollbackMethod = "rollback".equals(method.getName());
+        final boolean isSetAutoCommitMethod = "setAutoCommit".equals(method.getName());
 
         return MethodExecutionListenerUtils.invoke(new MethodExecutionListenerUtils.MethodExecutionCallback() {
             @Override
@@ -58,6 +59,11 @@ public class ConnectionProxyLogic {
                     String connId = connectionInfo.getConnectionId();
                     ConnectionProxyLogic.this.proxyConfig.getConnectionIdManager().addClosedId(connId);
                 }
+
+                QueryResultCache queryResultCache = ConnectionProxyLogic.this.proxyConfig.getQueryResultCache();
+                if (queryResultCache != null && (isCommitMethod || isRollbackMethod || isCloseMethod || isSetAutoCommitMethod)) {
+                    queryResultCache.endTransaction(connectionInfo.getConnectionId());
+                }
                 return result;
             }
         }, this.proxyConfig, this.connection, this.connectionInfo, method, args);
@@ -114,6 +120,11 @@ public class ConnectionProxyLogic {
             throw ex.getTargetException();
         }
 
+        if (retVal instanceof Statement && this.proxyConfig.getQueryTimeoutPolicy() != null) {
+            final String query = ObjectArrayUtils.isFirstArgString(args) ? (String) args[0] : null;
+            this.proxyConfig.getQueryTimeoutPolicy().apply((Statement) retVal, query);
+        }
+
         // when it is a call to createStatement, prepareStatement or prepareCall, returns a proxy.
         // most of the time, spring and hibernate use prepareStatement to execute query as batch
         if ("createStatement".equals(methodName)) {
@@ -0,0 +1,359 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.listener.ResultSetConsumption;
+import net.ttddyy.dsproxy.listener.ResultSetConsumptionListener;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Apply fetch size and max rows to statements before executing queries.
+ *
+ * Rules are matched in this order: rule for the fingerprint of the query(see {@link QueryUtils#getFingerprint(String)}),
+ * rule for a table referenced in {@code FROM} or {@code JOIN} clause(first added wins), then the default rule.
+ * Fetch size is set when it differs from the current one. Max rows is a cap; it is set when the statement has no
+ * limit or a larger one.
+ *
+ * In adaptive mode, fetch size for queries without a fetch size rule is derived from the average number of rows
+ * read from result sets of the same fingerprint. It is only applied to statements that have no fetch size hint.
+ * Row counts are learned by {@link #getRowCountListener()}, which needs to be registered on the proxy.
+ *
+ * Settings changed by the policy are restored to the values set by the application once the execution finishes, so a
+ * rule does not leak into later executions on the same statement(see {@link PreviousSettings}).
+ *
+ * When the policy changes a setting of a statement, {@link #onOverride(String, String, int, int)} is called, and the
+ * number of overrides per fingerprint is available from {@link #getOverrideCounts()}.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ProxyConfig#getFetchPolicy()
+ * @since 1.6
+ */
+public class FetchPolicy {
+
+    public static final String FETCH_SIZE = "fetchSize";
+    public static final String MAX_ROWS = "maxRows";
+
+    /**
+     * Fetch size and max rows to apply. {@code null} means leave as is.
+     */
+    public static class Rule {
+        private final Integer fetchSize;
+        private final Integer maxRows;
+
+        public Rule(Integer fetchSize, Integer maxRows) {
+            this.fetchSize = fetchSize;
+            this.maxRows = maxRows;
+        }
+
+        public Integer getFetchSize() {
+            return fetchSize;
+        }
+
+        public Integer getMaxRows() {
+            return maxRows;
+        }
+    }
+
+    /**
+     * Settings of a statement before the policy changed them.
+     */
+    public static class PreviousSettings {
+        private Integer fetchSize;  // null when not changed
+        private Integer maxRows;  // null when not changed
+
+        /**
+         * Set back the settings changed by the policy.
+         *
+         * @param statement actual statement
+         * @throws SQLException when failed to access the statement
+         */
+        public void restore(Statement statement) throws SQLException {
+            if (this.fetchSize != null) {
+                statement.setFetchSize(this.fetchSize);
+            }
+            if (this.maxRows != null) {
+                statement.setMaxRows(this.maxRows);
+            }
+        }
+
+        public Integer getFetchSize() {
+            return fetchSize;
+        }
+
+        public Integer getMaxRows() {
+            return maxRows;
+        }
+    }
+
+    private static class TableRule {
+        private final Pattern pattern;
+        private final Rule rule;
+
+        private TableRule(String table, Rule rule) {
+            this.pattern = Pattern.compile("\\b(from|join)\\s+(\\w+\\.)?\"?" + Pattern.quote(table) + "\"?(\\s|,|\\)|$)",
+                    Pattern.CASE_INSENSITIVE);
+            this.rule = rule;
+        }
+    }
+
+    // average row count, updated concurrently without lock. small races only skew the average.
+    private static class RowCountAverage {
+        private volatile double average;
+        private volatile long samples;
+
+        private void record(long rowCount, double weight) {
+            long count = this.samples;
+            this.average = count == 0 ? rowCount : this.average + (rowCount - this.average) * weight;
+            this.samples = count + 1;
+        }
+    }
+
+    protected final Map<String, Rule> fingerprintRules = new ConcurrentHashMap<String, Rule>();
+    private final List<TableRule> tableRules = new CopyOnWriteArrayList<TableRule>();
+    protected Rule defaultRule;
+
+    protected boolean adaptive;
+    protected int minFetchSize = 10;
+    protected int maxFetchSize = 1000;
+    protected int minSamples = 3;
+    protected double averageWeight = 0.2;
+    protected int maxFingerprints = 1000;
+
+    private final ConcurrentMap<String, RowCountAverage> rowCounts = new ConcurrentHashMap<String, RowCountAverage>();
+    private final ConcurrentMap<String, AtomicLong> overrideCounts = new ConcurrentHashMap<String, AtomicLong>();
+    private final ResultSetConsumptionListener rowCountListener = new ResultSetConsumptionListener() {
+        @Override
+        protected void onResultSetClosed(ResultSetConsumption consumption) {
+            // rows read from abandoned result set do not tell the size of the result
+            if (consumption.isExhausted() && consumption.getQueryInfoList().size() == 1) {
+                recordRowCount(consumption.getFingerprint(), consumption.getRowCount());
+            }
+        }
+    };
+
+    /**
+     * Apply the policy to the statement.
+     *
+     * @param statement actual statement
+     * @param query     query to execute
+     * @return settings to restore after the execution. {@code null} when nothing has changed
+     * @throws SQLException when failed to access the statement
+     */
+    public PreviousSettings apply(Statement statement, String query) throws SQLException {
+        String fingerprint = QueryUtils.getFingerprint(query);
+        Rule rule = findRule(query, fingerprint);
+
+        Integer fetchSize = rule != null ? rule.fetchSize : null;
+        Integer maxRows = rule != null ? rule.maxRows : null;
+        PreviousSettings previous = null;
+
+        if (fetchSize != null) {
+            int current = statement.getFetchSize();
+            if (current != fetchSize) {
+                statement.setFetchSize(fetchSize);
+                previous = new PreviousSettings();
+                previous.fetchSize = current;
+                recordOverride(fingerprint, FETCH_SIZE, current, fetchSize);
+            }
+        } else if (this.adaptive) {
+            Integer learned = getLearnedFetchSize(fingerprint);
+            if (learned != null && statement.getFetchSize() == 0) {
+                statement.setFetchSize(learned);
+                previous = new PreviousSettings();
+                previous.fetchSize = 0;
+                recordOverride(fingerprint, FETCH_SIZE, 0, learned);
+            }
+        }
+
+        if (maxRows != null) {
+            int current = statement.getMaxRows();
+            if (current == 0 || current > maxRows) {
+                statement.setMaxRows(maxRows);
+                if (previous == null) {
+                    previous = new PreviousSettings();
+                }
+                previous.maxRows = current;
+                recordOverride(fingerprint, MAX_ROWS, current, maxRows);
+            }
+        }
+        return previous;
+    }
+
+    protected Rule findRule(String query, String fingerprint) {
+        Rule rule = this.fingerprintRules.get(fingerprint);
+        if (rule != null) {
+            return rule;
+        }
+        for (TableRule tableRule : this.tableRules) {
+            if (tableRule.pattern.matcher(query).find()) {
+                return tableRule.rule;
+            }
+        }
+        return this.defaultRule;
+    }
+
+    private void recordOverride(String fingerprint, String setting, int oldValue, int newValue) {
+        AtomicLong count = this.overrideCounts.get(fingerprint);
+        if (count == null && this.overrideCounts.size() < this.maxFingerprints) {
+            AtomicLong newCount = new AtomicLong();
+            count = this.overrideCounts.putIfAbsent(fingerprint, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+        if (count != null) {
+            count.incrementAndGet();
+        }
+        onOverride(fingerprint, setting, oldValue, newValue);
+    }
+
+    /**
+     * Called when the policy changed a setting of a statement.
+     *
+     * @param fingerprint fingerprint of the query
+     * @param setting     {@link #FETCH_SIZE} or {@link #MAX_ROWS}
+     * @param oldValue    value set by the application
+     * @param newValue    applied value
+     */
+    protected void onOverride(String fingerprint, String setting, int oldValue, int newValue) {
+    }
+
+    /**
+     * Record number of rows read from a result set.
+     *
+     * @param fingerprint fingerprint of the query
+     * @param rowCount    number of rows
+     */
+    public void recordRowCount(String fingerprint, long rowCount) {
+        RowCountAverage average = this.rowCounts.get(fingerprint);
+        if (average == null) {
+            if (this.rowCounts.size() >= this.maxFingerprints) {
+                return;
+            }
+            RowCountAverage newAverage = new RowCountAverage();
+            average = this.rowCounts.putIfAbsent(fingerprint, newAverage);
+            if (average == null) {
+                average = newAverage;
+            }
+        }
+        average.record(rowCount, this.averageWeight);
+    }
+
+    /**
+     * @param fingerprint fingerprint of the query
+     * @return fetch size derived from the average row count. {@code null} when not enough samples
+     */
+    public Integer getLearnedFetchSize(String fingerprint) {
+        RowCountAverage average = this.rowCounts.get(fingerprint);
+        if (average == null || average.samples < this.minSamples) {
+            return null;
+        }
+        // one more than the average so that a typical result is read in one round trip
+        long fetchSize = (long) Math.ceil(average.average) + 1;
+        return (int) Math.max(this.minFetchSize, Math.min(this.maxFetchSize, fetchSize));
+    }
+
+    /**
+     * @return snapshot of number of overridden settings per fingerprint
+     */
+    public Map<String, Long> getOverrideCounts() {
+        Map<String, Long> counts = new HashMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : this.overrideCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    /**
+     * Listener to learn row counts for adaptive mode.
+     *
+     * @return listener to register with {@code ProxyDataSourceBuilder#trackResultSetConsumption(ResultSetConsumptionListener)}
+     */
+    public ResultSetConsumptionListener getRowCountListener() {
+        return this.rowCountListener;
+    }
+
+    /**
+     * @param query     query or its fingerprint
+     * @param fetchSize fetch size. {@code null} to leave as is
+     * @param maxRows   max rows. {@code null} to leave as is
+     * @return this
+     */
+    public FetchPolicy addQueryRule(String query, Integer fetchSize, Integer maxRows) {
+        this.fingerprintRules.put(QueryUtils.getFingerprint(query), new Rule(fetchSize, maxRows));
+        return this;
+    }
+
+    /**
+     * @param table     table name, case-insensitive
+     * @param fetchSize fetch size. {@code null} to leave as is
+     * @param maxRows   max rows. {@code null} to leave as is
+     * @return this
+     */
+    public FetchPolicy addTableRule(String table, Integer fetchSize, Integer maxRows) {
+        this.tableRules.add(new TableRule(table, new Rule(fetchSize, maxRows)));
+        return this;
+    }
+
+    /**
+     * @param fetchSize fetch size for queries without other rules. {@code null} to leave as is
+     * @param maxRows   max rows for queries without other rules. {@code null} to leave as is
+     * @return this
+     */
+    public FetchPolicy setDefaultRule(Integer fetchSize, Integer maxRows) {
+        this.defaultRule = new Rule(fetchSize, maxRows);
+        return this;
+    }
+
+    public boolean isAdaptive() {
+        return this.adaptive;
+    }
+
+    /**
+     * @param adaptive {@code true} to derive fetch size from learned row counts. (default is false)
+     * @return this
+     */
+    public FetchPolicy setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        return this;
+    }
+
+    /**
+     * @param minFetchSize lower bound of learned fetch size. (default is 10)
+     * @param maxFetchSize upper bound of learned fetch size. (default is 1000)
+     * @return this
+     */
+    public FetchPolicy setFetchSizeRange(int minFetchSize, int maxFetchSize) {
+        this.minFetchSize = minFetchSize;
+        this.maxFetchSize = maxFetchSize;
+        return this;
+    }
+
+    /**
+     * @param minSamples number of result sets to read before applying learned fetch size. (default is 3)
+     * @return this
+     */
+    public FetchPolicy setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+        return this;
+    }
+
+    /**
+     * @param maxFingerprints number of fingerprints to keep row counts and override counts for. (default is 1000)
+     * @return this
+     */
+    public FetchPolicy setMaxFingerprints(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+        return this;
+    }
+
+}
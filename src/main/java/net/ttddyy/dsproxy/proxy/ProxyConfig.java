@@ -4,6 +4,7 @@ import net.ttddyy.dsproxy.ConnectionIdManager;
 import net.ttddyy.dsproxy.ExecutionInfo;
 import net.ttddyy.dsproxy.listener.ChainListener;
 import net.ttddyy.dsproxy.listener.CompositeMethodListener;
+import net.ttddyy.dsproxy.listener.ListenerIsolation;
 import net.ttddyy.dsproxy.listener.MethodExecutionListener;
 import net.ttddyy.dsproxy.listener.QueryExecutionListener;
 import net.ttddyy.dsproxy.transform.ParameterTransformer;
@@ -40,6 +41,12 @@ public class ProxyConfig {
         private CompositeMethodListener methodListener = new CompositeMethodListener();  // empty default
         private GeneratedKeysConfig generatedKeysConfig = new GeneratedKeysConfig();
         private StopwatchFactory stopwatchFactory = new SystemStopwatchFactory();
+        private ListenerIsolation listenerIsolation;
+        private ProxyOverheadMetrics proxyOverheadMetrics;
+        private FetchPolicy fetchPolicy;
+        private QueryResultCache queryResultCache;
+        private QueryCoalescer queryCoalescer;
+        private QueryTimeoutPolicy queryTimeoutPolicy;
 
         public static Builder create() {
             return new Builder();
@@ -56,6 +63,12 @@ public class ProxyConfig {
                     .connectionIdManager(proxyConfig.connectionIdManager)
                     .methodListener(proxyConfig.methodListener)
                     .stopwatchFactory(proxyConfig.stopwatchFactory)
+                    .listenerIsolation(proxyConfig.queryListener.getListenerIsolation())
+                    .proxyOverheadMetrics(proxyConfig.proxyOverheadMetrics)
+                    .fetchPolicy(proxyConfig.fetchPolicy)
+                    .queryResultCache(proxyConfig.queryResultCache)
+                    .queryCoalescer(proxyConfig.queryCoalescer)
+                    .queryTimeoutPolicy(proxyConfig.queryTimeoutPolicy)
                     .generatedKeysProxyLogicFactory(proxyConfig.generatedKeysConfig.proxyLogicFactory)
                     .autoRetrieveGeneratedKeys(proxyConfig.generatedKeysConfig.autoRetrieve)
                     .retrieveGeneratedKeysForBatchStatement(proxyConfig.generatedKeysConfig.retrieveForBatchStatement)
@@ -75,6 +88,13 @@ public class ProxyConfig {
             proxyConfig.connectionIdManager = this.connectionIdManager;
             proxyConfig.methodListener = this.methodListener;
             proxyConfig.stopwatchFactory = this.stopwatchFactory;
+            proxyConfig.proxyOverheadMetrics = this.proxyOverheadMetrics;
+            proxyConfig.fetchPolicy = this.fetchPolicy;
+            proxyConfig.queryResultCache = this.queryResultCache;
+            proxyConfig.queryCoalescer = this.queryCoalescer;
+            proxyConfig.queryTimeoutPolicy = this.queryTimeoutPolicy;
+            this.queryListener.setListenerIsolation(this.listenerIsolation);
+            this.methodListener.setListenerIsolation(this.listenerIsolation);
 
             // generated keys
             proxyConfig.generatedKeysConfig.proxyLogicFactory = this.generatedKeysConfig.proxyLogicFactory;
@@ -167,6 +187,66 @@ public class ProxyConfig {
             this.stopwatchFactory = stopwatchFactory;
             return this;
         }
+
+        /**
+         * @param listenerIsolation isolation for query and method listeners. {@code null} to disable
+         * @return builder
+         * @since 1.6
+         */
+        public Builder listenerIsolation(ListenerIsolation listenerIsolation) {
+            this.listenerIsolation = listenerIsolation;
+            return this;
+        }
+
+        /**
+         * @param proxyOverheadMetrics metrics to record latency added by the proxy. {@code null} to disable
+         * @return builder
+         * @since 1.6
+         */
+        public Builder proxyOverheadMetrics(ProxyOverheadMetrics proxyOverheadMetrics) {
+            this.proxyOverheadMetrics = proxyOverheadMetrics;
+            return this;
+        }
+
+        /**
+         * @param fetchPolicy policy to apply fetch size and max rows before query execution. {@code null} to disable
+         * @return builder
+         * @since 1.6
+         */
+        public Builder fetchPolicy(FetchPolicy fetchPolicy) {
+            this.fetchPolicy = fetchPolicy;
+            return this;
+        }
+
+        /**
+         * @param queryResultCache cache of query results. {@code null} to disable
+         * @return builder
+         * @since 1.6
+         */
+        public Builder queryResultCache(QueryResultCache queryResultCache) {
+            this.queryResultCache = queryResultCache;
+            return this;
+        }
+
+        /**
+         * @param queryCoalescer coalescer of identical query executions. {@code null} to disable
+         * @return builder
+         * @since 1.6
+         */
+        public Builder queryCoalescer(QueryCoalescer queryCoalescer) {
+            this.queryCoalescer = queryCoalescer;
+            return this;
+        }
+
+        /**
+         * @param queryTimeoutPolicy policy to set query timeout on created statements. {@code null} to disable
+         * @return builder
+         * @since 1.6
+         */
+        public Builder queryTimeoutPolicy(QueryTimeoutPolicy queryTimeoutPolicy) {
+            this.queryTimeoutPolicy = queryTimeoutPolicy;
+            return this;
+        }
     }
 
     private String dataSourceName;
@@ -179,6 +259,11 @@ public class ProxyConfig {
     private CompositeMethodListener methodListener;
     private GeneratedKeysConfig generatedKeysConfig = new GeneratedKeysConfig();
     private StopwatchFactory stopwatchFactory;
+    private ProxyOverheadMetrics proxyOverheadMetrics;
+    private FetchPolicy fetchPolicy;
+    private QueryResultCache queryResultCache;
+    private QueryCoalescer queryCoalescer;
+    private QueryTimeoutPolicy queryTimeoutPolicy;
 
     public String getDataSourceName() {
         return dataSourceName;
@@ -303,4 +388,44 @@ public class ProxyConfig {
     public StopwatchFactory getStopwatchFactory() {
         return this.stopwatchFactory;
     }
+
+    /**
+     * @return metrics of latency added by the proxy. {@code null} when not measured
+     * @since 1.6
+     */
+    public ProxyOverheadMetrics getProxyOverheadMetrics() {
+        return this.proxyOverheadMetrics;
+    }
+
+    /**
+     * @return policy for fetch size and max rows. {@code null} when not applied
+     * @since 1.6
+     */
+    public FetchPolicy getFetchPolicy() {
+        return this.fetchPolicy;
+    }
+
+    /**
+     * @return cache of query results. {@code null} when not cached
+     * @since 1.6
+     */
+    public QueryResultCache getQueryResultCache() {
+        return this.queryResultCache;
+    }
+
+    /**
+     * @return coalescer of identical query executions. {@code null} when not coalesced
+     * @since 1.6
+     */
+    public QueryCoalescer getQueryCoalescer() {
+        return this.queryCoalescer;
+    }
+
+    /**
+     * @return policy to set query timeout on created statements. {@code null} when not set
+     * @since 1.6
+     */
+    public QueryTimeoutPolicy getQueryTimeoutPolicy() {
+        return this.queryTimeoutPolicy;
+    }
 }
@@ -0,0 +1,154 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.listener.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measure the latency added by the proxy itself.
+ *
+ * Time spent for a proxied JDBC method call is split into three parts:
+ * <ul>
+ * <li>driver: time spent in the actual JDBC object
+ * <li>listener: time spent in method and query listeners
+ * <li>proxy overhead: the rest, time spent in the proxy logic
+ * </ul>
+ *
+ * Each part is recorded in a {@link LatencyHistogram}. One instance is meant to be used per data source.
+ * With {@link #setSampleInterval(int)}, only one in every N calls is measured to lower the cost of measurement.
+ *
+ * When a listener calls proxied JDBC objects, those calls are counted as listener time of the outer call.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ProxyConfig.Builder#proxyOverheadMetrics(ProxyOverheadMetrics)
+ * @since 1.6
+ */
+public class ProxyOverheadMetrics {
+
+    private static final ThreadLocal<Sample> CURRENT = new ThreadLocal<Sample>();
+
+    /**
+     * Measurement of a single proxied method call.
+     */
+    public static class Sample {
+        private final ProxyOverheadMetrics metrics;
+        private final long startNanos;
+        private long mark;
+        private long listenerNanos;
+        private long driverNanos;
+        private boolean driverMeasured;
+        private boolean inListener;
+
+        protected Sample(ProxyOverheadMetrics metrics, long startNanos) {
+            this.metrics = metrics;
+            this.startNanos = startNanos;
+        }
+
+        public void enterListener() {
+            this.inListener = true;
+            this.mark = System.nanoTime();
+        }
+
+        public void exitListener() {
+            this.listenerNanos += System.nanoTime() - this.mark;
+            this.inListener = false;
+        }
+
+        public void enterDriver() {
+            this.mark = System.nanoTime();
+        }
+
+        public void exitDriver() {
+            this.driverNanos += System.nanoTime() - this.mark;
+            this.driverMeasured = true;
+        }
+
+        /**
+         * Record the time spent in the proxy callback as driver time, unless the callback measured it in detail.
+         *
+         * @param nanos time spent in the callback
+         */
+        public void addCallbackNanos(long nanos) {
+            if (!this.driverMeasured) {
+                this.driverNanos += nanos;
+                this.driverMeasured = true;
+            }
+        }
+    }
+
+    protected final LatencyHistogram proxyOverhead = new LatencyHistogram();
+    protected final LatencyHistogram listenerTime = new LatencyHistogram();
+    protected final LatencyHistogram driverTime = new LatencyHistogram();
+    protected final AtomicLong callCount = new AtomicLong();
+    protected int sampleInterval = 1;
+
+    /**
+     * Start measuring a proxied method call.
+     *
+     * @return a sample. {@code null} when this call is not sampled or is nested in another measured call
+     */
+    public Sample start() {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+        if (this.sampleInterval > 1 && this.callCount.getAndIncrement() % this.sampleInterval != 0) {
+            return null;
+        }
+        Sample sample = new Sample(this, System.nanoTime());
+        CURRENT.set(sample);
+        return sample;
+    }
+
+    public void stop(Sample sample) {
+        long total = System.nanoTime() - sample.startNanos;
+        CURRENT.remove();
+        this.listenerTime.record(sample.listenerNanos);
+        this.driverTime.record(sample.driverNanos);
+        this.proxyOverhead.record(total - sample.listenerNanos - sample.driverNanos);
+    }
+
+    /**
+     * @return the sample being measured by this instance on current thread. {@code null} when not measuring or when
+     * called from a listener
+     */
+    public Sample current() {
+        Sample sample = CURRENT.get();
+        if (sample == null || sample.metrics != this || sample.inListener) {
+            return null;
+        }
+        return sample;
+    }
+
+    public LatencyHistogram getProxyOverhead() {
+        return this.proxyOverhead;
+    }
+
+    public LatencyHistogram getListenerTime() {
+        return this.listenerTime;
+    }
+
+    public LatencyHistogram getDriverTime() {
+        return this.driverTime;
+    }
+
+    public void reset() {
+        this.proxyOverhead.reset();
+        this.listenerTime.reset();
+        this.driverTime.reset();
+    }
+
+    /**
+     * @param sampleInterval measure one in every given number of calls. (default is 1, measure all calls)
+     */
+    public void setSampleInterval(int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("sampleInterval must be positive but was " + sampleInterval);
+        }
+        this.sampleInterval = sampleInterval;
+    }
+
+    public int getSampleInterval() {
+        return this.sampleInterval;
+    }
+
+}
@@ -0,0 +1,226 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesce concurrent executions of the same query with the same parameters.
+ *
+ * For {@code executeQuery} of queries registered by {@link #coalesceQuery(String)}, the first execution runs on the
+ * database while identical executions arriving meanwhile wait for it. Executions are identical when the query,
+ * parameters, and the result affecting settings of the statement and connection are the same(see
+ * {@link QueryResultCache}). The result is read into a {@link ColumnarResultSetSnapshot}, and every execution,
+ * including the first one, gets its own read-only scrollable result set over it.
+ *
+ * At most {@link #setMaxRows(int)} rows are copied. When the result has more rows, the first execution reads the
+ * copied rows followed by the rest of its result set, and the waiting executions run the query by themselves.
+ *
+ * A waiting execution also runs the query by itself when the first one fails or does not finish within
+ * {@link #setMaxWait(long, TimeUnit)}. Executions are coalesced only on connections in auto-commit or read-only
+ * mode, since results from other transactions may not be visible in the transaction. Register only queries that are
+ * fine to share across connections.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ProxyConfig#getQueryCoalescer()
+ * @since 1.6
+ */
+public class QueryCoalescer {
+
+    /**
+     * Execution of the query on the actual statement.
+     */
+    public interface Execution {
+        ResultSet execute() throws Exception;
+    }
+
+    private static class Flight {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile ColumnarResultSetSnapshot snapshot;
+    }
+
+    protected long maxWaitInNanos = TimeUnit.SECONDS.toNanos(5);
+    protected int maxRows = 10000;
+
+    private final Set<String> fingerprints = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final ConcurrentMap<QueryResultCache.CacheKey, Flight> flights = new ConcurrentHashMap<QueryResultCache.CacheKey, Flight>();
+
+    private final AtomicLong executionCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong fallbackCount = new AtomicLong();
+    private final AtomicLong oversizeCount = new AtomicLong();
+
+    /**
+     * @param query      query to execute
+     * @param parameters parameters of prepared or callable statement. {@code null} for statement
+     * @param statement  actual statement to execute the query
+     * @return key to coalesce executions. {@code null} when the execution cannot be coalesced
+     * @throws SQLException when failed to check the statement settings or the connection mode
+     */
+    public Object getKey(String query, Map<ParameterKey, ParameterSetOperation> parameters, Statement statement) throws SQLException {
+        if (this.fingerprints.isEmpty()) {
+            return null;
+        }
+        String fingerprint = QueryUtils.getFingerprint(query);
+        if (!this.fingerprints.contains(fingerprint)) {
+            return null;
+        }
+        List<Object> parameterValues = QueryResultCache.toParameterValues(parameters);
+        if (parameterValues == null) {
+            return null;
+        }
+        Connection connection = statement.getConnection();
+        if (!(connection.getAutoCommit() || connection.isReadOnly())) {
+            return null;
+        }
+        List<Object> settings = QueryResultCache.getStatementSettings(statement);
+        if (settings == null) {
+            return null;
+        }
+        return new QueryResultCache.CacheKey(query, fingerprint, parameterValues, settings);
+    }
+
+    /**
+     * Run the execution, or wait for an identical one in flight.
+     *
+     * @param key       key from {@link #getKey(String, Map, Statement)}
+     * @param execution execution of the query
+     * @param statement statement to return from {@link ResultSet#getStatement()}
+     * @return result set of the execution. It can be unwrapped to {@link ColumnarResultSetSnapshot} when the whole
+     * result has been copied
+     * @throws Exception exception from the execution
+     */
+    public ResultSet execute(Object key, Execution execution, Statement statement) throws Exception {
+        QueryResultCache.CacheKey cacheKey = (QueryResultCache.CacheKey) key;
+        Flight flight = new Flight();
+        Flight existing = this.flights.putIfAbsent(cacheKey, flight);
+        if (existing == null) {
+            return toResultSet(lead(cacheKey, flight, execution, statement), statement);
+        }
+
+        boolean done;
+        try {
+            done = existing.latch.await(this.maxWaitInNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            done = false;
+        }
+        if (!done) {
+            this.timeoutCount.incrementAndGet();
+        } else if (existing.snapshot != null) {
+            this.coalescedCount.incrementAndGet();
+            return existing.snapshot.createResultSet(statement);
+        } else {
+            this.fallbackCount.incrementAndGet();  // failed or too large
+        }
+        return toResultSet(read(execution, statement), statement);
+    }
+
+    private Object lead(QueryResultCache.CacheKey key, Flight flight, Execution execution, Statement statement) throws Exception {
+        try {
+            Object result = read(execution, statement);
+            if (result instanceof ColumnarResultSetSnapshot) {
+                flight.snapshot = (ColumnarResultSetSnapshot) result;
+            }
+            return result;
+        } finally {
+            this.flights.remove(key, flight);
+            flight.latch.countDown();
+        }
+    }
+
+    private Object read(Execution execution, Statement statement) throws Exception {
+        this.executionCount.incrementAndGet();
+        Object result = QueryResultCache.readSnapshot(execution.execute(), this.maxRows, statement);
+        if (!(result instanceof ColumnarResultSetSnapshot)) {
+            this.oversizeCount.incrementAndGet();
+        }
+        return result;
+    }
+
+    private static ResultSet toResultSet(Object result, Statement statement) {
+        if (result instanceof ColumnarResultSetSnapshot) {
+            return ((ColumnarResultSetSnapshot) result).createResultSet(statement);
+        }
+        return (ResultSet) result;
+    }
+
+    /**
+     * Register a query to coalesce its executions.
+     *
+     * @param query query or its fingerprint
+     * @return this
+     */
+    public QueryCoalescer coalesceQuery(String query) {
+        this.fingerprints.add(QueryUtils.getFingerprint(query));
+        return this;
+    }
+
+    /**
+     * @param maxWait  maximum time to wait for an identical execution. (default is 5 seconds)
+     * @param timeUnit time unit
+     * @return this
+     */
+    public QueryCoalescer setMaxWait(long maxWait, TimeUnit timeUnit) {
+        this.maxWaitInNanos = timeUnit.toNanos(maxWait);
+        return this;
+    }
+
+    /**
+     * @param maxRows results with more rows are not shared, and only this many rows are copied. (default is 10000)
+     * @return this
+     */
+    public QueryCoalescer setMaxRows(int maxRows) {
+        this.maxRows = maxRows;
+        return this;
+    }
+
+    /**
+     * @return number of executions that ran on the database
+     */
+    public long getExecutionCount() {
+        return this.executionCount.get();
+    }
+
+    /**
+     * @return number of executions served by an identical execution
+     */
+    public long getCoalescedCount() {
+        return this.coalescedCount.get();
+    }
+
+    /**
+     * @return number of executions that stopped waiting after max wait
+     */
+    public long getTimeoutCount() {
+        return this.timeoutCount.get();
+    }
+
+    /**
+     * @return number of executions that ran by themselves because the identical execution failed or was too large
+     */
+    public long getFallbackCount() {
+        return this.fallbackCount.get();
+    }
+
+    /**
+     * @return number of executions whose result had more rows than max rows
+     */
+    public long getOversizeCount() {
+        return this.oversizeCount.get();
+    }
+
+}
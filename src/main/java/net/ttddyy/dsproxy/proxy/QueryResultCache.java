@@ -0,0 +1,634 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Read-through cache of query results.
+ *
+ * Only {@code executeQuery} of queries registered by {@link #cacheQuery(String)} is cached. The cache key is the
+ * query, its parameters, and the settings that change the result: max rows and holdability of the statement, and
+ * catalog and schema of the connection. Executions with parameter values that are not simple values(e.g. streams or
+ * LOBs), and statements with scroll sensitive or updatable result sets are not cached. Results are kept as
+ * {@link ColumnarResultSetSnapshot} and each hit returns a new read-only scrollable result set over the shared
+ * snapshot.
+ *
+ * On miss, at most {@link #setMaxRowsPerEntry(int)} rows are copied. When the result has more rows, it is not cached
+ * and the execution reads the copied rows followed by the rest of the actual result set.
+ *
+ * The number of entries is bounded by {@link #setMaximumSize(int)} with W-TinyLFU eviction, and entries expire after
+ * {@link #setTimeToLive(long, TimeUnit)}.
+ *
+ * {@code INSERT}, {@code UPDATE} and {@code DELETE} executed through the proxy invalidate cached results of queries
+ * that mention the written table. Other statements except {@code SELECT}(e.g. {@code MERGE}, DDL or procedure
+ * calls) invalidate all entries. Writes in a transaction are invalidated again when the transaction ends, and until
+ * then the connection reads those tables bypassing the cache. Writes not going through the proxy are only reflected
+ * by expiration.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ProxyConfig#getQueryResultCache()
+ * @since 1.6
+ */
+public class QueryResultCache {
+
+    private static final Pattern WRITE_TABLE = Pattern.compile(
+            "^(?:insert\\s+into|insert|update|delete\\s+from|delete)\\s+([\\w.$\"`\\[\\]]+)");
+    private static final Pattern NON_IDENTIFIER = Pattern.compile("[^\\w$]+");
+
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 4;
+
+    private static final Set<Class<?>> VALUE_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            String.class, Integer.class, Long.class, Short.class, Byte.class, Boolean.class, Double.class, Float.class,
+            Character.class, BigDecimal.class, java.sql.Date.class, java.sql.Time.class, java.sql.Timestamp.class,
+            java.util.Date.class
+    ));
+
+    protected static class CacheKey {
+        private final String query;
+        private final String fingerprint;
+        private final List<Object> parameters;
+        private final List<Object> settings;
+        private final int hash;
+
+        protected CacheKey(String query, String fingerprint, List<Object> parameters, List<Object> settings) {
+            this.query = query;
+            this.fingerprint = fingerprint;
+            this.parameters = parameters;
+            this.settings = settings;
+            this.hash = 31 * (31 * query.hashCode() + parameters.hashCode()) + settings.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return this.hash == other.hash && this.query.equals(other.query) && this.parameters.equals(other.parameters)
+                    && this.settings.equals(other.settings);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    private static class Entry {
+        private final ColumnarResultSetSnapshot snapshot;
+        private final FingerprintGroup group;
+        private final long expiresAt;
+
+        private Entry(ColumnarResultSetSnapshot snapshot, FingerprintGroup group, long expiresAt) {
+            this.snapshot = snapshot;
+            this.group = group;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // cached entries of a fingerprint. keys are guarded by the cache lock
+    private static class FingerprintGroup {
+        private final Set<String> identifiers;
+        private final Set<CacheKey> keys = new HashSet<CacheKey>();
+        private volatile long version;  // written under the cache lock
+
+        private FingerprintGroup(Set<String> identifiers) {
+            this.identifiers = identifiers;
+        }
+    }
+
+    /**
+     * Result of a lookup, used to populate the cache on miss.
+     */
+    public static class Lookup {
+        private final CacheKey key;
+        private final FingerprintGroup group;
+        private final long version;
+        private final ColumnarResultSetSnapshot snapshot;
+
+        private Lookup(CacheKey key, FingerprintGroup group, long version, ColumnarResultSetSnapshot snapshot) {
+            this.key = key;
+            this.group = group;
+            this.version = version;
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * @return cached result. {@code null} on miss
+         */
+        public ColumnarResultSetSnapshot getSnapshot() {
+            return snapshot;
+        }
+    }
+
+    protected int maximumSize = 1000;
+    protected long timeToLiveInNanos;  // 0 means no expiration
+    protected int maxRowsPerEntry = 10000;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, FingerprintGroup> groups = new ConcurrentHashMap<String, FingerprintGroup>();
+
+    // lookups read "entries" without the lock. "policy" decides eviction, and is updated under the lock by replaying
+    // reads recorded in the buffer. reads are dropped when the buffer is full.
+    private final ConcurrentMap<CacheKey, Entry> entries = new ConcurrentHashMap<CacheKey, Entry>();
+    private WTinyLfuMap<CacheKey, Entry> policy;
+    private final AtomicReferenceArray<CacheKey> readBuffer = new AtomicReferenceArray<CacheKey>(READ_BUFFER_SIZE);
+    private final AtomicLong readBufferTail = new AtomicLong();
+    private volatile long readBufferHead;  // written under the lock
+
+    // key: connection id, value: tables written in the current transaction
+    private final ConcurrentMap<String, Set<String>> pendingTables = new ConcurrentHashMap<String, Set<String>>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    /**
+     * Look up cached result.
+     *
+     * @param connectionId connection id
+     * @param query        query to execute
+     * @param parameters   parameters of prepared or callable statement. {@code null} for statement
+     * @param statement    actual statement to execute the query
+     * @return lookup. {@code null} when the execution is not cacheable
+     * @throws SQLException when failed to read the statement settings
+     */
+    public Lookup lookup(String connectionId, String query, Map<ParameterKey, ParameterSetOperation> parameters,
+                         Statement statement) throws SQLException {
+        if (this.groups.isEmpty()) {
+            return null;
+        }
+        String fingerprint = QueryUtils.getFingerprint(query);
+        FingerprintGroup group = this.groups.get(fingerprint);
+        if (group == null) {
+            return null;
+        }
+        Set<String> pending = connectionId != null ? this.pendingTables.get(connectionId) : null;
+        if (pending != null && !Collections.disjoint(pending, group.identifiers)) {
+            return null;  // read own writes
+        }
+        List<Object> parameterValues = toParameterValues(parameters);
+        if (parameterValues == null) {
+            return null;
+        }
+        List<Object> settings = getStatementSettings(statement);
+        if (settings == null) {
+            return null;
+        }
+
+        CacheKey key = new CacheKey(query, fingerprint, parameterValues, settings);
+        long version = group.version;
+        Entry entry = this.entries.get(key);
+        if (entry != null && this.timeToLiveInNanos > 0 && System.nanoTime() - entry.expiresAt > 0) {
+            this.lock.lock();
+            try {
+                if (this.entries.get(key) == entry) {
+                    removeEntry(key, entry);
+                }
+            } finally {
+                this.lock.unlock();
+            }
+            entry = null;
+        }
+        recordRead(key);
+        if (entry == null) {
+            this.missCount.incrementAndGet();
+            return new Lookup(key, group, version, null);
+        }
+        this.hitCount.incrementAndGet();
+        return new Lookup(key, group, version, entry.snapshot);
+    }
+
+    /**
+     * @param statement actual statement
+     * @return settings that change the result of the statement. {@code null} when the result cannot be shared
+     * @throws SQLException when failed to read the settings
+     */
+    static List<Object> getStatementSettings(Statement statement) throws SQLException {
+        if (statement.getResultSetType() == ResultSet.TYPE_SCROLL_SENSITIVE
+                || statement.getResultSetConcurrency() != ResultSet.CONCUR_READ_ONLY) {
+            return null;
+        }
+        Connection connection = statement.getConnection();
+        return Arrays.<Object>asList(statement.getMaxRows(), statement.getResultSetHoldability(),
+                connection.getCatalog(), getSchema(connection));
+    }
+
+    private static String getSchema(Connection connection) throws SQLException {
+        try {
+            return connection.getSchema();
+        } catch (AbstractMethodError e) {
+            return null;  // JDBC 4.0 driver
+        } catch (SQLFeatureNotSupportedException e) {
+            return null;
+        }
+    }
+
+    // record the read for eviction without taking the lock
+    private void recordRead(CacheKey key) {
+        long tail = this.readBufferTail.get();
+        long size = tail - this.readBufferHead;
+        if (size < READ_BUFFER_SIZE && this.readBufferTail.compareAndSet(tail, tail + 1)) {
+            this.readBuffer.lazySet((int) (tail & READ_BUFFER_MASK), key);
+        }
+        if (size >= READ_BUFFER_DRAIN_THRESHOLD && this.lock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    // must hold the lock
+    private void drainReadBuffer() {
+        long head = this.readBufferHead;
+        long tail = this.readBufferTail.get();
+        WTinyLfuMap<CacheKey, Entry> policy = getPolicy();
+        for (; head < tail; head++) {
+            int index = (int) (head & READ_BUFFER_MASK);
+            CacheKey key = this.readBuffer.get(index);
+            if (key == null) {
+                break;  // not published yet
+            }
+            this.readBuffer.lazySet(index, null);
+            policy.get(key);
+        }
+        this.readBufferHead = head;
+    }
+
+    static List<Object> toParameterValues(Map<ParameterKey, ParameterSetOperation> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> values = new ArrayList<Object>();
+        for (Map.Entry<ParameterKey, ParameterSetOperation> entry : new TreeMap<ParameterKey, ParameterSetOperation>(parameters).entrySet()) {
+            ParameterSetOperation operation = entry.getValue();
+            values.add(entry.getKey().getKeyAsString());
+            values.add(operation.getMethod().getName());
+            Object[] args = operation.getArgs();
+            for (int i = 1; i < args.length; i++) {
+                Object arg = args[i];
+                if (arg instanceof byte[]) {
+                    arg = ByteBuffer.wrap(((byte[]) arg).clone());
+                } else if (arg != null && !VALUE_TYPES.contains(arg.getClass())) {
+                    return null;
+                }
+                values.add(arg);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Read the result set into a snapshot and cache it unless the tables were written meanwhile.
+     *
+     * At most {@link #setMaxRowsPerEntry(int)} rows are copied. When the result has more rows, it is not cached and
+     * the returned result set reads the copied rows followed by the rest of the given result set. A scrollable result
+     * set is returned as is, rewound to before the first row.
+     *
+     * @param lookup    lookup that missed
+     * @param resultSet result of the query. It is closed when the returned result set is closed
+     * @param statement statement to return from {@link ResultSet#getStatement()}
+     * @return result set to return to the application
+     * @throws SQLException when failed to read the result set
+     */
+    public ResultSet put(Lookup lookup, ResultSet resultSet, Statement statement) throws SQLException {
+        Object result = readSnapshot(resultSet, this.maxRowsPerEntry, statement);
+        if (!(result instanceof ColumnarResultSetSnapshot)) {
+            return (ResultSet) result;
+        }
+        ColumnarResultSetSnapshot snapshot = (ColumnarResultSetSnapshot) result;
+        put(lookup, snapshot);
+        return snapshot.createResultSet(statement);
+    }
+
+    /**
+     * Copy at most {@code maxRows} rows of the result set.
+     *
+     * @param resultSet result set to copy. It is closed unless it has more rows
+     * @param maxRows   maximum number of rows to copy
+     * @param statement statement to return from {@link ResultSet#getStatement()}
+     * @return {@link ColumnarResultSetSnapshot} of the whole result, or {@link ResultSet} that reads the copied rows
+     * followed by the rest of the result set when it has more rows. A scrollable result set is returned as is,
+     * rewound to before the first row
+     * @throws SQLException when failed to read the result set
+     */
+    static Object readSnapshot(ResultSet resultSet, int maxRows, Statement statement) throws SQLException {
+        boolean close = true;
+        try {
+            ColumnarResultSetSnapshot snapshot = new ColumnarResultSetSnapshot(resultSet, maxRows);
+            if (snapshot.getRowCount() == maxRows && resultSet.next()) {
+                close = false;
+                if (resultSet.getType() != ResultSet.TYPE_FORWARD_ONLY) {
+                    resultSet.beforeFirst();
+                    return resultSet;
+                }
+                return snapshot.createResultSet(statement, resultSet);
+            }
+            return snapshot;
+        } finally {
+            if (close) {
+                resultSet.close();
+            }
+        }
+    }
+
+    /**
+     * Cache the snapshot unless the tables were written meanwhile.
+     *
+     * @param lookup   lookup that missed
+     * @param snapshot snapshot of the result
+     */
+    public void put(Lookup lookup, ColumnarResultSetSnapshot snapshot) {
+        if (snapshot.getRowCount() > this.maxRowsPerEntry) {
+            return;
+        }
+        long expiresAt = System.nanoTime() + this.timeToLiveInNanos;
+        this.lock.lock();
+        try {
+            if (lookup.group.version != lookup.version || this.groups.get(lookup.key.fingerprint) != lookup.group) {
+                return;  // invalidated or unregistered while executing
+            }
+            drainReadBuffer();
+            Entry entry = new Entry(snapshot, lookup.group, expiresAt);
+            List<CacheKey> evicted = getPolicy().put(lookup.key, entry);
+            this.entries.put(lookup.key, entry);
+            lookup.group.keys.add(lookup.key);
+            for (CacheKey evictedKey : evicted) {
+                this.evictionCount.incrementAndGet();
+                this.entries.remove(evictedKey);
+                removeFromGroups(evictedKey);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Invalidate cached results of tables written by the queries.
+     *
+     * @param connectionId connection id
+     * @param queries      executed queries
+     * @param statement    actual statement, used to check auto-commit
+     * @throws SQLException when failed to check auto-commit
+     */
+    public void invalidate(String connectionId, Collection<QueryInfo> queries, Statement statement) throws SQLException {
+        if (this.groups.isEmpty()) {
+            return;
+        }
+        Set<String> tables = new HashSet<String>();
+        boolean all = false;
+        for (QueryInfo queryInfo : queries) {
+            String query = queryInfo.getQuery();
+            QueryType type = QueryUtils.getQueryType(query);
+            if (type == QueryType.SELECT) {
+                continue;
+            }
+            String table = type == QueryType.OTHER ? null : getWrittenTable(query);
+            if (table == null) {
+                all = true;
+            } else {
+                tables.add(table);
+            }
+        }
+        if (!all && tables.isEmpty()) {
+            return;
+        }
+
+        if (all) {
+            invalidateAll();
+        } else {
+            invalidateTables(tables);
+        }
+
+        if (connectionId != null && !statement.getConnection().getAutoCommit()) {
+            Set<String> pending = this.pendingTables.get(connectionId);
+            if (pending == null) {
+                pending = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                Set<String> existing = this.pendingTables.putIfAbsent(connectionId, pending);
+                if (existing != null) {
+                    pending = existing;
+                }
+            }
+            if (all) {
+                pending.addAll(allIdentifiers());
+            } else {
+                pending.addAll(tables);
+            }
+        }
+    }
+
+    /**
+     * Called when the transaction of the connection has ended by commit, rollback or close.
+     *
+     * @param connectionId connection id
+     */
+    public void endTransaction(String connectionId) {
+        if (connectionId == null) {
+            return;
+        }
+        Set<String> pending = this.pendingTables.remove(connectionId);
+        if (pending != null) {
+            // entries cached by other connections before the end of transaction may have old data
+            invalidateTables(pending);
+        }
+    }
+
+    private Set<String> allIdentifiers() {
+        Set<String> identifiers = new HashSet<String>();
+        for (FingerprintGroup group : this.groups.values()) {
+            identifiers.addAll(group.identifiers);
+        }
+        return identifiers;
+    }
+
+    static String getWrittenTable(String query) {
+        Matcher matcher = WRITE_TABLE.matcher(QueryUtils.getFingerprint(query));
+        if (!matcher.find()) {
+            return null;
+        }
+        String name = matcher.group(1).replaceAll("[\"`\\[\\]]", "").toLowerCase(Locale.ENGLISH);
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(dot + 1);
+    }
+
+    static Set<String> getIdentifiers(String query) {
+        String fingerprint = QueryUtils.getFingerprint(query).replaceAll("[\"`\\[\\]]", "").toLowerCase(Locale.ENGLISH);
+        Set<String> identifiers = new HashSet<String>();
+        for (String token : NON_IDENTIFIER.split(fingerprint)) {
+            if (token.length() > 0) {
+                identifiers.add(token);
+            }
+        }
+        return identifiers;
+    }
+
+    private void invalidateTables(Set<String> tables) {
+        this.lock.lock();
+        try {
+            for (FingerprintGroup group : this.groups.values()) {
+                if (!Collections.disjoint(tables, group.identifiers)) {
+                    invalidateGroup(group);
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove all cached results.
+     */
+    public void invalidateAll() {
+        this.lock.lock();
+        try {
+            for (FingerprintGroup group : this.groups.values()) {
+                invalidateGroup(group);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void invalidateGroup(FingerprintGroup group) {
+        group.version++;
+        for (CacheKey key : group.keys) {
+            getPolicy().remove(key);
+            if (this.entries.remove(key) != null) {
+                this.invalidationCount.incrementAndGet();
+            }
+        }
+        group.keys.clear();
+    }
+
+    private void removeEntry(CacheKey key, Entry entry) {
+        getPolicy().remove(key);
+        this.entries.remove(key);
+        entry.group.keys.remove(key);
+    }
+
+    private void removeFromGroups(CacheKey key) {
+        FingerprintGroup group = this.groups.get(key.fingerprint);
+        if (group != null) {
+            group.keys.remove(key);
+        }
+    }
+
+    private WTinyLfuMap<CacheKey, Entry> getPolicy() {
+        if (this.policy == null) {
+            this.policy = new WTinyLfuMap<CacheKey, Entry>(this.maximumSize);
+        }
+        return this.policy;
+    }
+
+    /**
+     * Register a query to cache its results.
+     *
+     * @param query query or its fingerprint
+     * @return this
+     */
+    public QueryResultCache cacheQuery(String query) {
+        String fingerprint = QueryUtils.getFingerprint(query);
+        this.groups.put(fingerprint, new FingerprintGroup(getIdentifiers(fingerprint)));
+        return this;
+    }
+
+    /**
+     * @param maximumSize maximum number of cached results. (default is 1000)
+     * @return this
+     */
+    public QueryResultCache setMaximumSize(int maximumSize) {
+        this.lock.lock();
+        try {
+            this.maximumSize = maximumSize;
+            this.policy = null;
+            this.entries.clear();
+            for (FingerprintGroup group : this.groups.values()) {
+                group.keys.clear();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * @param timeToLive time to keep a result. {@code 0} for no expiration. (default is 0)
+     * @param timeUnit   time unit
+     * @return this
+     */
+    public QueryResultCache setTimeToLive(long timeToLive, TimeUnit timeUnit) {
+        this.timeToLiveInNanos = timeUnit.toNanos(timeToLive);
+        return this;
+    }
+
+    /**
+     * @param maxRowsPerEntry results with more rows are not cached, and only this many rows are copied. (default is 10000)
+     * @return this
+     */
+    public QueryResultCache setMaxRowsPerEntry(int maxRowsPerEntry) {
+        this.maxRowsPerEntry = maxRowsPerEntry;
+        return this;
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    /**
+     * @return number of entries removed to keep the maximum size
+     */
+    public long getEvictionCount() {
+        return this.evictionCount.get();
+    }
+
+    /**
+     * @return number of entries removed by writes
+     */
+    public long getInvalidationCount() {
+        return this.invalidationCount.get();
+    }
+
+}
@@ -0,0 +1,86 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set query timeout on statements created through the proxy connection.
+ *
+ * For prepared and callable statements, the timeout for the fingerprint of the query(see
+ * {@link QueryUtils#getFingerprint(String)}) is used, then the default timeout. Statements created by
+ * {@code createStatement} only get the default timeout since the query is not known yet.
+ * The timeout is applied when the statement has no timeout or a larger one, so applications can still set a smaller
+ * timeout afterwards. Drivers that do not support query timeout are left as is.
+ *
+ * Unlike {@link net.ttddyy.dsproxy.listener.QueryWatchdogListener}, the timeout is enforced by the driver.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see ProxyConfig#getQueryTimeoutPolicy()
+ * @since 1.6
+ */
+public class QueryTimeoutPolicy {
+
+    protected int defaultTimeout;  // 0 means no timeout
+    protected Map<String, Integer> queryTimeouts = new ConcurrentHashMap<String, Integer>();
+
+    /**
+     * Apply query timeout to the statement.
+     *
+     * @param statement actual statement
+     * @param query     query of prepared or callable statement. {@code null} for statement
+     * @throws SQLException when failed to access the statement
+     */
+    public void apply(Statement statement, String query) throws SQLException {
+        int timeout = getTimeout(query);
+        if (timeout <= 0) {
+            return;
+        }
+        try {
+            int current = statement.getQueryTimeout();
+            if (current == 0 || current > timeout) {
+                statement.setQueryTimeout(timeout);
+            }
+        } catch (SQLFeatureNotSupportedException ex) {
+            // not supported by the driver
+        }
+    }
+
+    /**
+     * @param query query. {@code null} for statement
+     * @return timeout in seconds. {@code 0} for no timeout
+     */
+    public int getTimeout(String query) {
+        if (query != null && !this.queryTimeouts.isEmpty()) {
+            Integer timeout = this.queryTimeouts.get(QueryUtils.getFingerprint(query));
+            if (timeout != null) {
+                return timeout;
+            }
+        }
+        return this.defaultTimeout;
+    }
+
+    /**
+     * @param seconds timeout for all statements. {@code 0} for no timeout
+     * @return this
+     */
+    public QueryTimeoutPolicy setDefaultTimeout(int seconds) {
+        this.defaultTimeout = seconds;
+        return this;
+    }
+
+    /**
+     * @param query   query or its fingerprint
+     * @param seconds timeout for prepared or callable statements of the query
+     * @return this
+     */
+    public QueryTimeoutPolicy addQueryTimeout(String query, int seconds) {
+        this.queryTimeouts.put(QueryUtils.getFingerprint(query), seconds);
+        return this;
+    }
+
+}
@@ -3,9 +3,10 @@ package net.ttddyy.dsproxy.proxy;
 import net.ttddyy.dsproxy.ConnectionInfo;
 import net.ttddyy.dsproxy.listener.MethodExecutionListenerUtils;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Type;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
@@ -16,6 +17,11 @@ import static java.lang.String.format;
 /**
  * Allows {@link java.sql.ResultSet} to be consumed more than once.
  *
+ * Consumed rows are cached in memory. With a memory budget({@link Builder#maxBytesInMemory(long)}), rows beyond the
+ * budget are written to a temporary file and read back on replay; the file is deleted when the result set is closed. When spilling is disabled, or the file exceeds
+ * {@link Builder#maxSpillBytes(long)}, caching stops and the result set falls back to forward-only; calling
+ * {@code beforeFirst()} then throws {@link SQLException}. Memory usage of a row is an estimate.
+ *
  * @author Liam Williams
  * @see net.ttddyy.dsproxy.proxy.jdk.ResultSetInvocationHandler
  * @since 1.4
@@ -43,6 +49,10 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
         private ProxyConfig proxyConfig;
         private Map<String, Integer> columnNameToIndex;
         private int columnCount;
+        private long maxBytesInMemory = Long.MAX_VALUE;
+        private boolean spillToDisk = true;
+        private File spillDirectory;
+        private long maxSpillBytes = Long.MAX_VALUE;
 
         public static Builder create() {
             return new Builder();
@@ -55,6 +65,10 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
             logic.proxyConfig = this.proxyConfig;
             logic.columnNameToIndex = this.columnNameToIndex;
             logic.columnCount = this.columnCount;
+            logic.maxBytesInMemory = this.maxBytesInMemory;
+            logic.spillToDisk = this.spillToDisk;
+            logic.spillDirectory = this.spillDirectory;
+            logic.maxSpillBytes = this.maxSpillBytes;
             return logic;
         }
 
@@ -82,6 +96,47 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
             this.columnCount = columnCount;
             return this;
         }
+
+        /**
+         * @param maxBytesInMemory estimated bytes of rows to keep in memory. (default is unbounded)
+         * @return builder
+         * @since 1.6
+         */
+        public Builder maxBytesInMemory(long maxBytesInMemory) {
+            this.maxBytesInMemory = maxBytesInMemory;
+            return this;
+        }
+
+        /**
+         * @param spillToDisk {@code true} to write rows beyond the memory budget to a temporary file, {@code false} to
+         *                    stop caching. (default is true)
+         * @return builder
+         * @since 1.6
+         */
+        public Builder spillToDisk(boolean spillToDisk) {
+            this.spillToDisk = spillToDisk;
+            return this;
+        }
+
+        /**
+         * @param spillDirectory directory for temporary files. {@code null} to use the default temporary directory
+         * @return builder
+         * @since 1.6
+         */
+        public Builder spillDirectory(File spillDirectory) {
+            this.spillDirectory = spillDirectory;
+            return this;
+        }
+
+        /**
+         * @param maxSpillBytes max size of the temporary file. caching stops when exceeded. (default is unbounded)
+         * @return builder
+         * @since 1.6
+         */
+        public Builder maxSpillBytes(long maxSpillBytes) {
+            this.maxSpillBytes = maxSpillBytes;
+            return this;
+        }
     }
 
     private Map<String, Integer> columnNameToIndex;
@@ -89,12 +144,20 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
     private ConnectionInfo connectionInfo;
     private int columnCount;
     private ProxyConfig proxyConfig;
+    private long maxBytesInMemory;
+    private boolean spillToDisk;
+    private File spillDirectory;
+    private long maxSpillBytes;
 
     private int resultPointer;
     private boolean resultSetConsumed;
     private boolean closed;
     private Object[] currentResult;
     private final List<Object[]> cachedResults = new ArrayList<Object[]>();
+    private int rowCount;
+    private long bytesInMemory;
+    private RowSpillFile spillFile;
+    private String notRepeatableReason;  // set when caching has stopped
 
 
     @Override
@@ -134,6 +197,7 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
             return method.invoke(this.resultSet, args);
         } else if (methodName.equals("close")) {
             this.closed = true;
+            discardCache();
             return method.invoke(this.resultSet, args);
         } else if (methodName.equals("isClosed")) {
             return method.invoke(this.resultSet, args);
@@ -149,6 +213,17 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
             if (isNextMethod(method)) {
                 return handleNextMethodUsingCache();
             }
+            if (isBeforeFirstMethod(method)) {
+                rewind();
+                return null;
+            }
+        } else if (this.notRepeatableReason != null) {
+            if (isBeforeFirstMethod(method)) {
+                throw new SQLException(format("Result set is not repeatable: %s", this.notRepeatableReason));
+            }
+            if (isGetMethod(method) || isNextMethod(method)) {
+                return method.invoke(this.resultSet, args);  // forward only
+            }
         } else {
             if (isGetMethod(method)) {
                 return handleGetMethodByDelegating(method, args);
@@ -163,8 +238,11 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
                 return handleNextMethodByDelegating(method, args);
             }
             if (isBeforeFirstMethod(method)) {
-                resultPointer = -1;
+                if (this.notRepeatableReason != null) {
+                    throw new SQLException(format("Result set is not repeatable: %s", this.notRepeatableReason));
+                }
                 resultSetConsumed = true;
+                rewind();
                 return null;
             }
         }
@@ -182,6 +260,93 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
             }
             currentResult[i] = resultSet.getObject(i);
         }
+        cacheRow(currentResult);
+        currentResult = null;
+    }
+
+    private void cacheRow(Object[] row) {
+        if (this.notRepeatableReason != null) {
+            return;
+        }
+        if (this.spillFile == null) {
+            long size = estimateSize(row);
+            if (this.bytesInMemory + size <= this.maxBytesInMemory) {
+                this.bytesInMemory += size;
+                this.cachedResults.add(row);
+                this.rowCount++;
+                return;
+            }
+            if (!this.spillToDisk) {
+                stopCaching(format("exceeded memory budget of %d bytes at row %d", this.maxBytesInMemory, this.rowCount + 1));
+                return;
+            }
+        }
+        for (int i = 1; i < row.length; i++) {
+            if (!RowSpillFile.isWritable(row[i])) {
+                stopCaching(format("value of column %d at row %d(%s) cannot be written to disk", i, this.rowCount + 1, row[i].getClass().getName()));
+                return;
+            }
+        }
+        try {
+            if (this.spillFile == null) {
+                this.spillFile = new RowSpillFile(this.spillDirectory);
+            }
+            this.spillFile.write(row);
+        } catch (IOException e) {
+            stopCaching(format("failed to write rows to disk at row %d: %s", this.rowCount + 1, e));
+            return;
+        }
+        if (this.spillFile.getSize() > this.maxSpillBytes) {
+            stopCaching(format("exceeded disk budget of %d bytes at row %d", this.maxSpillBytes, this.rowCount + 1));
+            return;
+        }
+        this.rowCount++;
+    }
+
+    private void stopCaching(String reason) {
+        this.notRepeatableReason = reason;
+        discardCache();
+    }
+
+    private void discardCache() {
+        this.cachedResults.clear();
+        this.bytesInMemory = 0;
+        if (this.spillFile != null) {
+            this.spillFile.delete();
+            this.spillFile = null;
+        }
+    }
+
+    private void rewind() throws SQLException {
+        this.resultPointer = -1;
+        this.currentResult = null;
+        if (this.spillFile != null) {
+            try {
+                this.spillFile.rewind();
+            } catch (IOException e) {
+                throw new SQLException("Failed to read rows from disk", e);
+            }
+        }
+    }
+
+    private long estimateSize(Object[] row) {
+        long size = 16 + 8L * row.length;
+        for (int i = 1; i < row.length; i++) {
+            Object value = row[i];
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof String) {
+                size += 40 + 2L * ((String) value).length();
+            } else if (value instanceof byte[]) {
+                size += 16 + ((byte[]) value).length;
+            } else if (value instanceof Number || value instanceof Boolean) {
+                size += 24;
+            } else {
+                size += 64;
+            }
+        }
+        return size;
     }
 
     private Object handleNextMethodByDelegating(Method method, Object[] args) throws IllegalAccessException, InvocationTargetException {
@@ -189,7 +354,6 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
         if (TRUE.equals(result)) {
             currentResult = new Object[columnCount + 1];
             Arrays.fill(this.currentResult, UNCONSUMED_RESULT_COLUMN);
-            cachedResults.add(currentResult);
         }
         return result;
     }
@@ -197,14 +361,24 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
     private Object handleGetMethodByDelegating(Method method, Object[] args) throws SQLException, IllegalAccessException, InvocationTargetException {
         int columnIndex = determineColumnIndex(args);
         Object result = method.invoke(resultSet, args);
-        currentResult[columnIndex] = result;
+        if (currentResult != null) {
+            currentResult[columnIndex] = result;
+        }
         return result;
     }
 
-    private Object handleNextMethodUsingCache() {
-        if (resultPointer < cachedResults.size() - 1) {
+    private Object handleNextMethodUsingCache() throws SQLException {
+        if (resultPointer < rowCount - 1) {
             resultPointer++;
-            currentResult = cachedResults.get(resultPointer);
+            if (resultPointer < cachedResults.size()) {
+                currentResult = cachedResults.get(resultPointer);
+            } else {
+                try {
+                    currentResult = spillFile.read(columnCount);
+                } catch (IOException e) {
+                    throw new SQLException("Failed to read rows from disk", e);
+                }
+            }
             return true;
         } else {
             resultPointer++;
@@ -216,11 +390,11 @@ public class RepeatableReadResultSetProxyLogic implements ResultSetProxyLogic {
     private Object handleGetMethodUsingCache(Object[] args) throws SQLException {
         if (resultPointer == -1) {
             throw new SQLException("Result set not advanced. Call next before any get method!");
-        } else if (resultPointer < cachedResults.size()) {
+        } else if (resultPointer < rowCount) {
             int columnIndex = determineColumnIndex(args);
             return currentResult[columnIndex];
         } else {
-            throw new SQLException(format("Result set exhausted. There were %d result(s) only", cachedResults.size()));
+            throw new SQLException(format("Result set exhausted. There were %d result(s) only", rowCount));
         }
     }
 
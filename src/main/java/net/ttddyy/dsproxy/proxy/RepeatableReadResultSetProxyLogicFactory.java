@@ -3,6 +3,7 @@ package net.ttddyy.dsproxy.proxy;
 import net.ttddyy.dsproxy.ConnectionInfo;
 import net.ttddyy.dsproxy.DataSourceProxyException;
 
+import java.io.File;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -18,6 +19,11 @@ import java.util.Map;
  */
 public class RepeatableReadResultSetProxyLogicFactory implements ResultSetProxyLogicFactory {
 
+    protected long maxBytesInMemory = Long.MAX_VALUE;
+    protected boolean spillToDisk = true;
+    protected File spillDirectory;
+    protected long maxSpillBytes = Long.MAX_VALUE;
+
     @Override
     public ResultSetProxyLogic create(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
         Map<String, Integer> columnNameToIndex = columnNameToIndex(resultSet);
@@ -27,6 +33,10 @@ public class RepeatableReadResultSetProxyLogicFactory implements ResultSetProxyL
                 .proxyConfig(proxyConfig)
                 .columnNameToIndex(columnNameToIndex)
                 .columnCount(columnNameToIndex.size())
+                .maxBytesInMemory(this.maxBytesInMemory)
+                .spillToDisk(this.spillToDisk)
+                .spillDirectory(this.spillDirectory)
+                .maxSpillBytes(this.maxSpillBytes)
                 .build();
     }
 
@@ -44,4 +54,38 @@ public class RepeatableReadResultSetProxyLogicFactory implements ResultSetProxyL
         }
     }
 
+    /**
+     * @param maxBytesInMemory estimated bytes of rows to keep in memory per result set. (default is unbounded)
+     * @since 1.6
+     */
+    public void setMaxBytesInMemory(long maxBytesInMemory) {
+        this.maxBytesInMemory = maxBytesInMemory;
+    }
+
+    /**
+     * @param spillToDisk {@code true} to write rows beyond the memory budget to a temporary file, {@code false} to
+     *                    fall back to forward-only result set. (default is true)
+     * @since 1.6
+     */
+    public void setSpillToDisk(boolean spillToDisk) {
+        this.spillToDisk = spillToDisk;
+    }
+
+    /**
+     * @param spillDirectory directory for temporary files. {@code null} to use the default temporary directory
+     * @since 1.6
+     */
+    public void setSpillDirectory(File spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * @param maxSpillBytes max size of the temporary file per result set. When exceeded, the result set falls back
+     *                      to forward-only. (default is unbounded)
+     * @since 1.6
+     */
+    public void setMaxSpillBytes(long maxSpillBytes) {
+        this.maxSpillBytes = maxSpillBytes;
+    }
+
 }
@@ -0,0 +1,273 @@
+package net.ttddyy.dsproxy.proxy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * Temporary file to keep result set rows that do not fit in memory.
+ *
+ * Rows are appended while the result set is consumed, then read sequentially from the beginning on each replay.
+ * Common JDBC value types are written in a compact binary form; other {@link Serializable} values use java
+ * serialization.
+ *
+ * The file is deleted when the result set is closed, and is also registered to {@link File#deleteOnExit()} so that
+ * files of result sets that are never closed do not outlive the JVM.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see RepeatableReadResultSetProxyLogic
+ * @since 1.6
+ */
+class RowSpillFile {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_FLOAT = 5;
+    private static final byte TYPE_SHORT = 6;
+    private static final byte TYPE_BYTE = 7;
+    private static final byte TYPE_BOOLEAN = 8;
+    private static final byte TYPE_BIG_DECIMAL = 9;
+    private static final byte TYPE_BYTES = 10;
+    private static final byte TYPE_DATE = 11;
+    private static final byte TYPE_TIME = 12;
+    private static final byte TYPE_TIMESTAMP = 13;
+    private static final byte TYPE_SERIALIZED = 14;
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            this.count += len;
+        }
+    }
+
+    private final File file;
+    private final CountingOutputStream counter;
+    private final DataOutputStream out;
+    private DataInputStream in;
+
+    RowSpillFile(File directory) throws IOException {
+        this.file = File.createTempFile("dsproxy-rs-", ".spill", directory);
+        this.file.deleteOnExit();  // when the result set is never closed
+        this.counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(this.file), 8192));
+        this.out = new DataOutputStream(this.counter);
+    }
+
+    /**
+     * @param value column value
+     * @return {@code true} if the value can be written to the file
+     */
+    static boolean isWritable(Object value) {
+        return value == null || value instanceof Serializable;
+    }
+
+    /**
+     * Append a row. Index 0 of the row is not written.
+     *
+     * @param row row to write
+     * @throws IOException when failed to write
+     */
+    void write(Object[] row) throws IOException {
+        for (int i = 1; i < row.length; i++) {
+            writeValue(row[i]);
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        DataOutputStream out = this.out;
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            writeBytes(((String) value).getBytes(UTF_8));
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(TYPE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(TYPE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value.getClass() == BigDecimal.class) {
+            out.writeByte(TYPE_BIG_DECIMAL);
+            writeBytes(value.toString().getBytes(UTF_8));
+        } else if (value instanceof byte[]) {
+            out.writeByte(TYPE_BYTES);
+            writeBytes((byte[]) value);
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(TYPE_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value.getClass() == Time.class) {
+            out.writeByte(TYPE_TIME);
+            out.writeLong(((Time) value).getTime());
+        } else if (value.getClass() == Timestamp.class) {
+            out.writeByte(TYPE_TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(bytes);
+            oos.writeObject(value);
+            oos.close();
+            out.writeByte(TYPE_SERIALIZED);
+            writeBytes(bytes.toByteArray());
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        this.out.writeInt(bytes.length);
+        this.out.write(bytes);
+    }
+
+    /**
+     * Finish writing and start reading from the first row.
+     *
+     * @throws IOException when failed to flush or open the file
+     */
+    void rewind() throws IOException {
+        this.out.close();  // no-op when already closed
+        if (this.in != null) {
+            this.in.close();
+        }
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file), 8192));
+    }
+
+    /**
+     * Read next row.
+     *
+     * @param columnCount number of columns
+     * @return row with values from index 1
+     * @throws IOException when failed to read
+     */
+    Object[] read(int columnCount) throws IOException {
+        Object[] row = new Object[columnCount + 1];
+        for (int i = 1; i <= columnCount; i++) {
+            row[i] = readValue();
+        }
+        return row;
+    }
+
+    private Object readValue() throws IOException {
+        DataInputStream in = this.in;
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return new String(readBytes(), UTF_8);
+            case TYPE_INT:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_SHORT:
+                return in.readShort();
+            case TYPE_BYTE:
+                return in.readByte();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_BIG_DECIMAL:
+                return new BigDecimal(new String(readBytes(), UTF_8));
+            case TYPE_BYTES:
+                return readBytes();
+            case TYPE_DATE:
+                return new Date(in.readLong());
+            case TYPE_TIME:
+                return new Time(in.readLong());
+            case TYPE_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            case TYPE_SERIALIZED:
+                ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes()));
+                try {
+                    return ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Failed to deserialize spilled value: " + e.getMessage());
+                } finally {
+                    ois.close();
+                }
+            default:
+                throw new IOException("Unknown value type " + type + " in " + this.file);
+        }
+    }
+
+    private byte[] readBytes() throws IOException {
+        byte[] bytes = new byte[this.in.readInt()];
+        this.in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * @return number of bytes written
+     */
+    long getSize() {
+        return this.counter.count;
+    }
+
+    /**
+     * Close and delete the file.
+     */
+    void delete() {
+        try {
+            this.out.close();
+            if (this.in != null) {
+                this.in.close();
+            }
+        } catch (IOException e) {
+            // ignore
+        }
+        this.file.delete();
+    }
+
+}
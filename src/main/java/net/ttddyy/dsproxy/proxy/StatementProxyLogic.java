@@ -243,6 +243,7 @@ public class StatementProxyLogic {
         // query execution methods
 
         final List<QueryInfo> queries = new ArrayList<QueryInfo>();
+        FetchPolicy.PreviousSettings previousFetchSettings = null;
         boolean isBatchExecution = StatementMethodNames.BATCH_EXEC_METHODS.contains(methodName);
         int batchSize = 0;
 
@@ -285,6 +286,12 @@ public class StatementProxyLogic {
                 queryInfo.getParametersList().add(new ArrayList<ParameterSetOperation>(parameters.values()));
             }
             queries.add(queryInfo);
+
+            // apply fetch size and max rows before "executeQuery" and "execute". restored after the execution.
+            FetchPolicy fetchPolicy = this.proxyConfig.getFetchPolicy();
+            if (fetchPolicy != null && !methodName.startsWith("executeUpdate") && !methodName.startsWith("executeLarge")) {
+                previousFetchSettings = fetchPolicy.apply(this.statement, queryInfo.getQuery());
+            }
         }
 
         final boolean isGetGeneratedKeysMethod = GET_GENERATED_KEYS_METHOD.equals(methodName);
@@ -299,13 +306,41 @@ public class StatementProxyLogic {
             }
         }
 
+        // serve registered queries from cache
+        QueryResultCache queryResultCache = this.proxyConfig.getQueryResultCache();
+        QueryResultCache.Lookup cacheLookup = null;
+        if (queryResultCache != null && "executeQuery".equals(methodName)) {
+            cacheLookup = queryResultCache.lookup(this.connectionInfo.getConnectionId(), queries.get(0).getQuery(),
+                    StatementType.STATEMENT == this.statementType ? null : this.parameters, this.statement);
+        }
+
+        // coalesce identical executions in flight
+        QueryCoalescer queryCoalescer = this.proxyConfig.getQueryCoalescer();
+        Object coalesceKey = null;
+        if (queryCoalescer != null && "executeQuery".equals(methodName) && (cacheLookup == null || cacheLookup.getSnapshot() == null)) {
+            coalesceKey = queryCoalescer.getKey(queries.get(0).getQuery(),
+                    StatementType.STATEMENT == this.statementType ? null : this.parameters, this.statement);
+        }
+
         final ExecutionInfo execInfo = new ExecutionInfo(this.connectionInfo, this.statement, isBatchExecution, batchSize, method, args);
 
         boolean isGetResultSetMethod = GET_RESULTSET_METHOD.equals(methodName);
         boolean performQueryListener = !isGetGeneratedKeysMethod && !isGetResultSetMethod;
 
+        ProxyOverheadMetrics metrics = this.proxyConfig.getProxyOverheadMetrics();
+        final ProxyOverheadMetrics.Sample sample = metrics != null ? metrics.current() : null;
+
         if (performQueryListener) {
-            queryListener.beforeQuery(execInfo, queries);
+            if (sample != null) {
+                sample.enterListener();
+            }
+            try {
+                queryListener.beforeQuery(execInfo, queries);
+            } finally {
+                if (sample != null) {
+                    sample.exitListener();
+                }
+            }
         }
 
         final Stopwatch stopwatch = this.proxyConfig.getStopwatchFactory().create().start();
@@ -313,7 +348,42 @@ public class StatementProxyLogic {
         // Invoke method on original Statement.
         try {
 
-            Object retVal = method.invoke(this.statement, args);
+            if (sample != null) {
+                sample.enterDriver();
+            }
+            Object retVal;
+            try {
+                if (cacheLookup != null && cacheLookup.getSnapshot() != null) {
+                    retVal = cacheLookup.getSnapshot().createResultSet(this.statement);
+                } else if (coalesceKey != null) {
+                    final Method executeMethod = method;
+                    final Object[] executeArgs = args;
+                    ResultSet coalesced = queryCoalescer.execute(coalesceKey, new QueryCoalescer.Execution() {
+                        @Override
+                        public ResultSet execute() throws Exception {
+                            return (ResultSet) executeMethod.invoke(StatementProxyLogic.this.statement, executeArgs);
+                        }
+                    }, this.statement);
+                    if (cacheLookup != null && coalesced.isWrapperFor(ColumnarResultSetSnapshot.class)) {
+                        queryResultCache.put(cacheLookup, coalesced.unwrap(ColumnarResultSetSnapshot.class));
+                    }
+                    retVal = coalesced;
+                } else {
+                    retVal = method.invoke(this.statement, args);
+                    if (cacheLookup != null) {
+                        retVal = queryResultCache.put(cacheLookup, (ResultSet) retVal, this.statement);
+                    } else if (queryResultCache != null && !queries.isEmpty() && !"executeQuery".equals(methodName)) {
+                        queryResultCache.invalidate(this.connectionInfo.getConnectionId(), queries, this.statement);
+                    }
+                }
+            } finally {
+                if (previousFetchSettings != null) {
+                    previousFetchSettings.restore(this.statement);
+                }
+                if (sample != null) {
+                    sample.exitDriver();
+                }
+            }
 
             final long elapsedTime = stopwatch.getElapsedTime();
 
@@ -366,7 +436,17 @@ public class StatementProxyLogic {
                         }
 
                         if (retrieveGeneratedKey) {
-                            ResultSet generatedKeysResultSet = this.statement.getGeneratedKeys();  // auto retrieve generated-keys
+                            if (sample != null) {
+                                sample.enterDriver();
+                            }
+                            ResultSet generatedKeysResultSet;
+                            try {
+                                generatedKeysResultSet = this.statement.getGeneratedKeys();  // auto retrieve generated-keys
+                            } finally {
+                                if (sample != null) {
+                                    sample.exitDriver();
+                                }
+                            }
                             if (this.proxyConfig.isGeneratedKeysProxyEnabled()) {
                                 generatedKeysResultSet = proxyFactory.createGeneratedKeys(generatedKeysResultSet, this.connectionInfo, this.proxyConfig);
                             }
@@ -392,7 +472,16 @@ public class StatementProxyLogic {
         } finally {
 
             if (performQueryListener) {
-                queryListener.afterQuery(execInfo, queries);
+                if (sample != null) {
+                    sample.enterListener();
+                }
+                try {
+                    queryListener.afterQuery(execInfo, queries);
+                } finally {
+                    if (sample != null) {
+                        sample.exitListener();
+                    }
+                }
             }
 
             // auto-close the auto-retrieved generated keys. result of "getGeneratedKeys()" should not be affected.
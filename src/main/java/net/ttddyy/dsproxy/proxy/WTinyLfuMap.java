@@ -0,0 +1,205 @@
+package net.ttddyy.dsproxy.proxy;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size bounded map with W-TinyLFU eviction.
+ *
+ * New entries go to a small LRU window(1% of the size). Entries leaving the window compete with the least recently
+ * used entry of the main segmented LRU, and the one accessed more often, estimated by a count-min sketch, is kept.
+ * The main region is split into probation(20%) and protected(80%); an entry is promoted to protected when it is
+ * accessed again in probation. The sketch halves all counters periodically so that old popularity fades.
+ *
+ * Not thread safe.
+ *
+ * @author Tadaya Tsuyukubo
+ * @see QueryResultCache
+ * @since 1.6
+ */
+class WTinyLfuMap<K, V> {
+
+    /**
+     * Count-min sketch with 4 bit counters, 4 rows.
+     */
+    static class FrequencySketch {
+        private static final int[] SEEDS = {0x97cb3127, 0xb492b66f, 0x9ae16a3b, 0x66f8dc5d};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int width = 16;
+            while (width < maximumSize) {
+                width <<= 1;
+            }
+            this.table = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * Math.max(maximumSize, 1);
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+            return (h ^ (h >>> 16)) & this.mask;
+        }
+
+        void increment(Object key) {
+            int hash = key.hashCode();
+            boolean added = false;
+            for (int row = 0; row < this.table.length; row++) {
+                int i = index(hash, row);
+                if (this.table[row][i] < MAX_COUNT) {
+                    this.table[row][i]++;
+                    added = true;
+                }
+            }
+            if (added && ++this.additions >= this.sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = key.hashCode();
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < this.table.length; row++) {
+                frequency = Math.min(frequency, this.table[row][index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private void reset() {
+            for (byte[] row : this.table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >> 1);
+                }
+            }
+            this.additions /= 2;
+        }
+    }
+
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<K, V>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<K, V>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<K, V>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+
+    WTinyLfuMap(int maximumSize) {
+        this.sketch = new FrequencySketch(maximumSize);
+        this.windowCapacity = Math.max(1, maximumSize / 100);
+        this.mainCapacity = Math.max(0, maximumSize - this.windowCapacity);
+        this.protectedCapacity = this.mainCapacity * 4 / 5;
+    }
+
+    /**
+     * @param key key
+     * @return value. {@code null} when not found
+     */
+    V get(K key) {
+        this.sketch.increment(key);
+        V value = this.window.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = this.protectedSegment.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = this.probation.remove(key);
+        if (value != null) {
+            // promote, and demote the least recently used protected entry when full
+            this.protectedSegment.put(key, value);
+            if (this.protectedSegment.size() > this.protectedCapacity) {
+                Map.Entry<K, V> eldest = removeEldest(this.protectedSegment);
+                this.probation.put(eldest.getKey(), eldest.getValue());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @param key   key
+     * @param value value
+     * @return keys evicted to make room
+     */
+    List<K> put(K key, V value) {
+        List<K> evicted = new ArrayList<K>(1);
+        if (this.window.containsKey(key)) {
+            this.window.put(key, value);
+            return evicted;
+        }
+        if (this.protectedSegment.containsKey(key)) {
+            this.protectedSegment.put(key, value);
+            return evicted;
+        }
+        if (this.probation.containsKey(key)) {
+            this.probation.put(key, value);
+            return evicted;
+        }
+
+        this.sketch.increment(key);
+        this.window.put(key, value);
+        if (this.window.size() <= this.windowCapacity) {
+            return evicted;
+        }
+
+        Map.Entry<K, V> candidate = removeEldest(this.window);
+        if (this.probation.size() + this.protectedSegment.size() < this.mainCapacity) {
+            this.probation.put(candidate.getKey(), candidate.getValue());
+            return evicted;
+        }
+
+        LinkedHashMap<K, V> victimSegment = this.probation.isEmpty() ? this.protectedSegment : this.probation;
+        if (victimSegment.isEmpty()) {
+            evicted.add(candidate.getKey());
+            return evicted;
+        }
+        K victim = victimSegment.keySet().iterator().next();
+        if (this.sketch.frequency(candidate.getKey()) > this.sketch.frequency(victim)) {
+            victimSegment.remove(victim);
+            this.probation.put(candidate.getKey(), candidate.getValue());
+            evicted.add(victim);
+        } else {
+            evicted.add(candidate.getKey());
+        }
+        return evicted;
+    }
+
+    V remove(K key) {
+        V value = this.window.remove(key);
+        if (value == null) {
+            value = this.probation.remove(key);
+        }
+        if (value == null) {
+            value = this.protectedSegment.remove(key);
+        }
+        return value;
+    }
+
+    int size() {
+        return this.window.size() + this.probation.size() + this.protectedSegment.size();
+    }
+
+    void clear() {
+        this.window.clear();
+        this.probation.clear();
+        this.protectedSegment.clear();
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> map) {
+        Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+        Map.Entry<K, V> eldest = iterator.next();
+        Map.Entry<K, V> copy = new AbstractMap.SimpleImmutableEntry<K, V>(eldest);
+        iterator.remove();
+        return copy;
+    }
+
+}
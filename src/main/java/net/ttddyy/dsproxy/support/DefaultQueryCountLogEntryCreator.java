@@ -1,6 +1,7 @@
 package net.ttddyy.dsproxy.support;
 
 import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.listener.logging.JsonUtils;
 
 /**
  * Default implementation of {@link QueryCountLogEntryCreator}.
@@ -69,62 +70,31 @@ public class DefaultQueryCountLogEntryCreator implements QueryCountLogEntryCreat
     public String getLogMessageAsJson(String datasourceName, QueryCount queryCount) {
         final StringBuilder sb = new StringBuilder();
         sb.append("{");
-        sb.append("\"name\":");
-        if (datasourceName == null) {
-            sb.append("null");
-        } else {
-            sb.append("\"");
-            sb.append(datasourceName);
-            sb.append("\"");
-        }
+        JsonUtils.appendField(sb, "name", datasourceName);
         sb.append(", ");
-
-        sb.append("\"time\":");
-        sb.append(queryCount.getTime());
+        JsonUtils.appendField(sb, "time", queryCount.getTime());
         sb.append(", ");
-
-        sb.append("\"total\":");
-        sb.append(queryCount.getTotal());
+        JsonUtils.appendField(sb, "total", queryCount.getTotal());
         sb.append(", ");
-
-        sb.append("\"success\":");
-        sb.append(queryCount.getSuccess());
+        JsonUtils.appendField(sb, "success", queryCount.getSuccess());
         sb.append(", ");
-
-        sb.append("\"failure\":");
-        sb.append(queryCount.getFailure());
+        JsonUtils.appendField(sb, "failure", queryCount.getFailure());
         sb.append(", ");
-
-        sb.append("\"select\":");
-        sb.append(queryCount.getSelect());
+        JsonUtils.appendField(sb, "select", queryCount.getSelect());
         sb.append(", ");
-
-        sb.append("\"insert\":");
-        sb.append(queryCount.getInsert());
+        JsonUtils.appendField(sb, "insert", queryCount.getInsert());
         sb.append(", ");
-
-        sb.append("\"update\":");
-        sb.append(queryCount.getUpdate());
+        JsonUtils.appendField(sb, "update", queryCount.getUpdate());
         sb.append(", ");
-
-        sb.append("\"delete\":");
-        sb.append(queryCount.getDelete());
+        JsonUtils.appendField(sb, "delete", queryCount.getDelete());
         sb.append(", ");
-
-        sb.append("\"other\":");
-        sb.append(queryCount.getOther());
+        JsonUtils.appendField(sb, "other", queryCount.getOther());
         sb.append(", ");
-
-        sb.append("\"statement\":");
-        sb.append(queryCount.getStatement());
+        JsonUtils.appendField(sb, "statement", queryCount.getStatement());
         sb.append(", ");
-
-        sb.append("\"prepared\":");
-        sb.append(queryCount.getPrepared());
+        JsonUtils.appendField(sb, "prepared", queryCount.getPrepared());
         sb.append(", ");
-
-        sb.append("\"callable\":");
-        sb.append(queryCount.getCallable());
+        JsonUtils.appendField(sb, "callable", queryCount.getCallable());
         sb.append("}");
         return sb.toString();
     }
@@ -4,15 +4,18 @@ import net.ttddyy.dsproxy.ConnectionIdManager;
 import net.ttddyy.dsproxy.ExecutionInfo;
 import net.ttddyy.dsproxy.QueryInfo;
 import net.ttddyy.dsproxy.listener.DataSourceQueryCountListener;
+import net.ttddyy.dsproxy.listener.ListenerIsolation;
 import net.ttddyy.dsproxy.listener.MethodExecutionContext;
 import net.ttddyy.dsproxy.listener.MethodExecutionListener;
 import net.ttddyy.dsproxy.listener.NoOpMethodExecutionListener;
 import net.ttddyy.dsproxy.listener.NoOpQueryExecutionListener;
 import net.ttddyy.dsproxy.listener.QueryCountStrategy;
 import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.ResultSetConsumptionListener;
 import net.ttddyy.dsproxy.listener.TracingMethodListener;
 import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventExecutionListener;
 import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListener;
+import net.ttddyy.dsproxy.listener.logging.AbstractQueryLogEntryCreator;
 import net.ttddyy.dsproxy.listener.logging.CommonsLogLevel;
 import net.ttddyy.dsproxy.listener.logging.CommonsQueryLoggingListener;
 import net.ttddyy.dsproxy.listener.logging.CommonsSlowQueryListener;
@@ -20,14 +23,22 @@ import net.ttddyy.dsproxy.listener.logging.DefaultJsonQueryLogEntryCreator;
 import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
 import net.ttddyy.dsproxy.listener.logging.JULQueryLoggingListener;
 import net.ttddyy.dsproxy.listener.logging.JULSlowQueryListener;
+import net.ttddyy.dsproxy.listener.logging.ParameterValueConverter;
+import net.ttddyy.dsproxy.listener.logging.QueryLogEntryCreator;
 import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
 import net.ttddyy.dsproxy.listener.logging.SLF4JQueryLoggingListener;
 import net.ttddyy.dsproxy.listener.logging.SLF4JSlowQueryListener;
+import net.ttddyy.dsproxy.listener.logging.SizeLimitingParameterValueConverter;
 import net.ttddyy.dsproxy.listener.logging.SystemOutQueryLoggingListener;
 import net.ttddyy.dsproxy.listener.logging.SystemOutSlowQueryListener;
 import net.ttddyy.dsproxy.proxy.DefaultConnectionIdManager;
+import net.ttddyy.dsproxy.proxy.FetchPolicy;
 import net.ttddyy.dsproxy.proxy.JdbcProxyFactory;
 import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ProxyOverheadMetrics;
+import net.ttddyy.dsproxy.proxy.QueryCoalescer;
+import net.ttddyy.dsproxy.proxy.QueryTimeoutPolicy;
+import net.ttddyy.dsproxy.proxy.QueryResultCache;
 import net.ttddyy.dsproxy.proxy.RepeatableReadResultSetProxyLogicFactory;
 import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
 import net.ttddyy.dsproxy.transform.ParameterTransformer;
@@ -129,6 +140,7 @@ public class ProxyDataSourceBuilder {
 
     private boolean jsonFormat;
     private boolean multiline;
+    private ParameterValueConverter parameterValueConverter;
     private List<QueryExecutionListener> queryExecutionListeners = new ArrayList<QueryExecutionListener>();
 
     private ParameterTransformer parameterTransformer;
@@ -147,6 +159,13 @@ public class ProxyDataSourceBuilder {
 
     private List<MethodExecutionListener> methodExecutionListeners = new ArrayList<MethodExecutionListener>();
 
+    private ListenerIsolation listenerIsolation;
+    private ProxyOverheadMetrics proxyOverheadMetrics;
+    private FetchPolicy fetchPolicy;
+    private QueryResultCache queryResultCache;
+    private QueryCoalescer queryCoalescer;
+    private QueryTimeoutPolicy queryTimeoutPolicy;
+
     public static ProxyDataSourceBuilder create() {
         return new ProxyDataSourceBuilder();
     }
@@ -557,6 +576,24 @@ public class ProxyDataSourceBuilder {
         return this;
     }
 
+    /**
+     * Register given {@link ResultSetConsumptionListener} as query and method listener.
+     *
+     * Result set proxy is enabled with default {@link ResultSetProxyLogicFactory} unless it is already enabled.
+     *
+     * @param listener a listener to register
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder trackResultSetConsumption(ResultSetConsumptionListener listener) {
+        this.queryExecutionListeners.add(listener);
+        this.methodExecutionListeners.add(listener);
+        if (this.resultSetProxyLogicFactory == null) {
+            this.resultSetProxyLogicFactory = ResultSetProxyLogicFactory.DEFAULT;
+        }
+        return this;
+    }
+
     /**
      * Add {@link QueryExecutionListener} that performs given lambda on {@link QueryExecutionListener#beforeQuery(ExecutionInfo, List)}.
      *
@@ -647,6 +684,33 @@ public class ProxyDataSourceBuilder {
         return this;
     }
 
+    /**
+     * Cap the size of parameter values in query logs with {@link SizeLimitingParameterValueConverter}.
+     *
+     * Long strings are truncated, {@code byte[]} is shown as length and hex preview, and streams and LOBs are shown
+     * with their length only. Without this, parameter values are logged with their {@code toString()}.
+     *
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder limitParameterValueSize() {
+        return limitParameterValueSize(SizeLimitingParameterValueConverter.DEFAULT_MAX_STRING_LENGTH);
+    }
+
+    /**
+     * Cap the size of parameter values in query logs with {@link SizeLimitingParameterValueConverter}.
+     *
+     * @param maxStringLength max length of string values to log
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder limitParameterValueSize(int maxStringLength) {
+        SizeLimitingParameterValueConverter converter = new SizeLimitingParameterValueConverter();
+        converter.setMaxStringLength(maxStringLength);
+        this.parameterValueConverter = converter;
+        return this;
+    }
+
     /**
      * Register {@link JdbcProxyFactory}.
      *
@@ -873,6 +937,121 @@ public class ProxyDataSourceBuilder {
         return this;
     }
 
+    /**
+     * Isolate query and method listeners with default {@link ListenerIsolation}.
+     *
+     * Each listener call is timed, exceptions thrown by listeners are contained, and listeners exceeding the overhead
+     * budget are disabled for a while.
+     *
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder isolateListeners() {
+        return isolateListeners(new ListenerIsolation());
+    }
+
+    /**
+     * Isolate query and method listeners with given {@link ListenerIsolation}.
+     *
+     * @param listenerIsolation listener isolation
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder isolateListeners(ListenerIsolation listenerIsolation) {
+        this.listenerIsolation = listenerIsolation;
+        return this;
+    }
+
+    /**
+     * Measure latency added by the proxy with default {@link ProxyOverheadMetrics}.
+     *
+     * Time spent in proxy logic, listeners and the actual JDBC driver is recorded separately. The metrics are
+     * available from {@link ProxyConfig#getProxyOverheadMetrics()}.
+     *
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder measureProxyOverhead() {
+        return measureProxyOverhead(new ProxyOverheadMetrics());
+    }
+
+    /**
+     * Measure latency added by the proxy with given {@link ProxyOverheadMetrics}.
+     *
+     * @param proxyOverheadMetrics metrics
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder measureProxyOverhead(ProxyOverheadMetrics proxyOverheadMetrics) {
+        this.proxyOverheadMetrics = proxyOverheadMetrics;
+        return this;
+    }
+
+    /**
+     * Apply fetch size and max rows to statements by given {@link FetchPolicy}.
+     *
+     * When the policy is adaptive, its row count listener is registered to learn row counts. Configure adaptive mode
+     * before calling this method.
+     *
+     * @param fetchPolicy policy
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder fetchPolicy(FetchPolicy fetchPolicy) {
+        this.fetchPolicy = fetchPolicy;
+        if (fetchPolicy.isAdaptive()) {
+            trackResultSetConsumption(fetchPolicy.getRowCountListener());
+        }
+        return this;
+    }
+
+    /**
+     * Serve results of registered queries from given {@link QueryResultCache}.
+     *
+     * @param queryResultCache cache
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder cacheQueryResults(QueryResultCache queryResultCache) {
+        this.queryResultCache = queryResultCache;
+        return this;
+    }
+
+    /**
+     * Coalesce concurrent identical executions of registered queries by given {@link QueryCoalescer}.
+     *
+     * @param queryCoalescer coalescer
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder coalesceQueries(QueryCoalescer queryCoalescer) {
+        this.queryCoalescer = queryCoalescer;
+        return this;
+    }
+
+    /**
+     * Set query timeout on created statements by given {@link QueryTimeoutPolicy}.
+     *
+     * @param queryTimeoutPolicy query timeout policy
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder queryTimeout(QueryTimeoutPolicy queryTimeoutPolicy) {
+        this.queryTimeoutPolicy = queryTimeoutPolicy;
+        return this;
+    }
+
+    /**
+     * Set query timeout in seconds on all created statements.
+     *
+     * @param seconds query timeout in seconds
+     * @return builder
+     * @since 1.6
+     */
+    public ProxyDataSourceBuilder queryTimeout(int seconds) {
+        return queryTimeout(new QueryTimeoutPolicy().setDefaultTimeout(seconds));
+    }
+
     /**
      * Enable {@link TracingMethodListener}.
      *
@@ -998,6 +1177,25 @@ public class ProxyDataSourceBuilder {
             proxyConfigBuilder.methodListener(methodListener);
         }
 
+        if (this.proxyOverheadMetrics != null) {
+            proxyConfigBuilder.proxyOverheadMetrics(this.proxyOverheadMetrics);
+        }
+        if (this.fetchPolicy != null) {
+            proxyConfigBuilder.fetchPolicy(this.fetchPolicy);
+        }
+        if (this.queryResultCache != null) {
+            proxyConfigBuilder.queryResultCache(this.queryResultCache);
+        }
+        if (this.queryCoalescer != null) {
+            proxyConfigBuilder.queryCoalescer(this.queryCoalescer);
+        }
+        if (this.queryTimeoutPolicy != null) {
+            proxyConfigBuilder.queryTimeoutPolicy(this.queryTimeoutPolicy);
+        }
+        if (this.listenerIsolation != null) {
+            proxyConfigBuilder.listenerIsolation(this.listenerIsolation);
+        }
+
         if (this.queryTransformer != null) {
             proxyConfigBuilder.queryTransformer(this.queryTransformer);
         }
@@ -1066,6 +1264,7 @@ public class ProxyDataSourceBuilder {
         if (this.multiline) {
             listener.setQueryLogEntryCreator(buildMultilineQueryLogEntryCreator());
         }
+        applyParameterValueConverter(listener.getQueryLogEntryCreator());
         return listener;
     }
 
@@ -1080,6 +1279,7 @@ public class ProxyDataSourceBuilder {
         if (this.multiline) {
             listener.setQueryLogEntryCreator(buildMultilineQueryLogEntryCreator());
         }
+        applyParameterValueConverter(listener.getQueryLogEntryCreator());
         return listener;
     }
 
@@ -1097,6 +1297,7 @@ public class ProxyDataSourceBuilder {
         if (this.multiline) {
             listener.setQueryLogEntryCreator(buildMultilineQueryLogEntryCreator());
         }
+        applyParameterValueConverter(listener.getQueryLogEntryCreator());
         return listener;
     }
 
@@ -1111,6 +1312,7 @@ public class ProxyDataSourceBuilder {
         if (this.multiline) {
             listener.setQueryLogEntryCreator(buildMultilineQueryLogEntryCreator());
         }
+        applyParameterValueConverter(listener.getQueryLogEntryCreator());
         return listener;
     }
 
@@ -1128,6 +1330,7 @@ public class ProxyDataSourceBuilder {
         if (this.multiline) {
             listener.setQueryLogEntryCreator(buildMultilineQueryLogEntryCreator());
         }
+        applyParameterValueConverter(listener.getQueryLogEntryCreator());
         return listener;
     }
 
@@ -1142,6 +1345,7 @@ public class ProxyDataSourceBuilder {
         if (this.multiline) {
             listener.setQueryLogEntryCreator(buildMultilineQueryLogEntryCreator());
         }
+        applyParameterValueConverter(listener.getQueryLogEntryCreator());
         return listener;
     }
 
@@ -1153,6 +1357,7 @@ public class ProxyDataSourceBuilder {
         if (this.multiline) {
             listener.setQueryLogEntryCreator(buildMultilineQueryLogEntryCreator());
         }
+        applyParameterValueConverter(listener.getQueryLogEntryCreator());
         return listener;
     }
 
@@ -1161,9 +1366,16 @@ public class ProxyDataSourceBuilder {
         if (this.multiline) {
             listener.setQueryLogEntryCreator(buildMultilineQueryLogEntryCreator());
         }
+        applyParameterValueConverter(listener.getQueryLogEntryCreator());
         return listener;
     }
 
+    private void applyParameterValueConverter(QueryLogEntryCreator entryCreator) {
+        if (this.parameterValueConverter != null && entryCreator instanceof AbstractQueryLogEntryCreator) {
+            ((AbstractQueryLogEntryCreator) entryCreator).setParameterValueConverter(this.parameterValueConverter);
+        }
+    }
+
     private DefaultQueryLogEntryCreator buildMultilineQueryLogEntryCreator() {
         DefaultQueryLogEntryCreator entryCreator = new DefaultQueryLogEntryCreator();
         entryCreator.setMultiline(true);
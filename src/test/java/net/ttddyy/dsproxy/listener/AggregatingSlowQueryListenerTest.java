@@ -0,0 +1,104 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class AggregatingSlowQueryListenerTest {
+
+    @Test
+    public void topSlowQueries() {
+        // every query is considered slow
+        AggregatingSlowQueryListener listener = new AggregatingSlowQueryListener(0, TimeUnit.MILLISECONDS);
+
+        execute(listener, "SELECT * FROM emp WHERE id = 1", 100);
+        execute(listener, "SELECT * FROM emp WHERE id = 2", 300);
+        execute(listener, "select * from dept", 50);
+        execute(listener, "UPDATE emp SET name = 'foo'", 200);
+
+        List<AggregatingSlowQueryListener.SlowQueryStats> top = listener.getTopSlowQueries(2);
+        assertThat(top).hasSize(2);
+
+        AggregatingSlowQueryListener.SlowQueryStats first = top.get(0);
+        assertThat(first.getFingerprint()).isEqualTo("select * from emp where id = ?");
+        assertThat(first.getCount()).isEqualTo(2);
+        assertThat(first.getTotalTime()).isEqualTo(400);
+        assertThat(first.getMaxTime()).isEqualTo(300);
+        assertThat(first.getSampleQueryInfoList().get(0).getQuery()).isEqualTo("SELECT * FROM emp WHERE id = 2");
+
+        assertThat(top.get(1).getFingerprint()).isEqualTo("update emp set name = ?");
+
+        assertThat(listener.getTotalTime()).isEqualTo(650);
+    }
+
+    @Test
+    public void maxFingerprints() {
+        AggregatingSlowQueryListener listener = new AggregatingSlowQueryListener(0, TimeUnit.MILLISECONDS);
+        listener.setMaxFingerprints(2);
+
+        execute(listener, "select 1 from t1", 100);
+        execute(listener, "select 1 from t2", 10);
+        execute(listener, "select 1 from t3", 50);
+
+        List<AggregatingSlowQueryListener.SlowQueryStats> top = listener.getTopSlowQueries(10);
+        assertThat(top).hasSize(2);
+        assertThat(top.get(0).getFingerprint()).isEqualTo("select ? from t1");
+        assertThat(top.get(1).getFingerprint()).isEqualTo("select ? from t3");
+    }
+
+    @Test
+    public void fastQueryIsNotRecorded() {
+        AggregatingSlowQueryListener listener = new AggregatingSlowQueryListener(1, TimeUnit.MINUTES);
+        execute(listener, "select 1", 100);
+        assertThat(listener.getTopSlowQueries(10)).isEmpty();
+    }
+
+    @Test
+    public void report() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<List<AggregatingSlowQueryListener.SlowQueryStats>> reported = new AtomicReference<List<AggregatingSlowQueryListener.SlowQueryStats>>();
+        final AtomicLong reportedTotalTime = new AtomicLong();
+
+        AggregatingSlowQueryListener listener = new AggregatingSlowQueryListener(0, TimeUnit.MILLISECONDS) {
+            @Override
+            protected void onReport(List<SlowQueryStats> topSlowQueries, long totalTime) {
+                reported.set(topSlowQueries);
+                reportedTotalTime.set(totalTime);
+                latch.countDown();
+            }
+        };
+        listener.setTopN(1);
+        listener.setReportInterval(50, TimeUnit.MILLISECONDS);
+
+        execute(listener, "select 1 from t1", 100);
+        execute(listener, "select 1 from t2", 10);
+
+        assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(reported.get()).hasSize(1);
+        assertThat(reported.get().get(0).getFingerprint()).isEqualTo("select ? from t1");
+        assertThat(reportedTotalTime.get()).isEqualTo(110);
+        assertThat(listener.getTopSlowQueries(10)).as("reset on report").isEmpty();
+    }
+
+    private void execute(AggregatingSlowQueryListener listener, String query, long elapsedTime) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        List<QueryInfo> queryInfoList = new ArrayList<QueryInfo>(Collections.singletonList(new QueryInfo(query)));
+        listener.beforeQuery(executionInfo, queryInfoList);
+        executionInfo.setElapsedTime(elapsedTime);
+        listener.afterQuery(executionInfo, queryInfoList);
+    }
+
+}
@@ -0,0 +1,241 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class AsyncQueryExecutionListenerTest {
+
+    private static class RecordingListener extends NoOpQueryExecutionListener {
+        private List<String> queries = new CopyOnWriteArrayList<String>();
+        private List<Long> elapsedTimes = new CopyOnWriteArrayList<Long>();
+        private List<Thread> threads = new CopyOnWriteArrayList<Thread>();
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            this.queries.add(queryInfoList.get(0).getQuery());
+            this.elapsedTimes.add(execInfo.getElapsedTime());
+            this.threads.add(Thread.currentThread());
+        }
+    }
+
+    @Test
+    public void dispatchOnConsumerThread() throws Exception {
+        RecordingListener delegate = new RecordingListener();
+        AsyncQueryExecutionListener listener = new AsyncQueryExecutionListener(delegate, 16);
+        listener.setFullBufferPolicy(AsyncQueryExecutionListener.FullBufferPolicy.BLOCK);
+
+        for (int i = 0; i < 100; i++) {
+            ExecutionInfo executionInfo = new ExecutionInfo();
+            executionInfo.setElapsedTime(i);
+            List<QueryInfo> queryInfoList = Collections.singletonList(new QueryInfo("select " + i));
+            listener.beforeQuery(executionInfo, queryInfoList);
+            listener.afterQuery(executionInfo, queryInfoList);
+            executionInfo.setElapsedTime(-1);  // modifying the original should not affect dispatched snapshot
+        }
+        listener.shutdown(1, TimeUnit.SECONDS);
+
+        assertThat(delegate.queries).hasSize(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(delegate.queries.get(i)).isEqualTo("select " + i);
+            assertThat(delegate.elapsedTimes.get(i)).isEqualTo(i);
+        }
+        assertThat(delegate.threads).doesNotContain(Thread.currentThread());
+        assertThat(listener.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void dropWhenFull() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        QueryExecutionListener blockingListener = new NoOpQueryExecutionListener() {
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        AsyncQueryExecutionListener listener = new AsyncQueryExecutionListener(blockingListener, 4);
+        listener.setFullBufferPolicy(AsyncQueryExecutionListener.FullBufferPolicy.DROP);
+
+        List<QueryInfo> queryInfoList = new ArrayList<QueryInfo>();
+        for (int i = 0; i < 20; i++) {
+            listener.afterQuery(new ExecutionInfo(), queryInfoList);
+        }
+
+        // one event may be taken by the consumer thread and blocking
+        assertThat(listener.getQueueDepth()).isBetween(3L, 4L);
+        assertThat(listener.getDroppedCount()).isBetween(15L, 16L);
+
+        latch.countDown();
+        listener.shutdown(1, TimeUnit.SECONDS);
+        assertThat(listener.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void sample() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        QueryExecutionListener blockingListener = new NoOpQueryExecutionListener() {
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        AsyncQueryExecutionListener listener = new AsyncQueryExecutionListener(blockingListener, 8);
+        listener.setFullBufferPolicy(AsyncQueryExecutionListener.FullBufferPolicy.SAMPLE);
+        listener.setSampleRate(2);
+
+        List<QueryInfo> queryInfoList = new ArrayList<QueryInfo>();
+        for (int i = 0; i < 100; i++) {
+            listener.afterQuery(new ExecutionInfo(), queryInfoList);
+        }
+
+        assertThat(listener.getSampledOutCount()).as("sampled out after half full").isGreaterThan(0);
+        assertThat(listener.getDroppedCount()).as("dropped when full").isGreaterThan(0);
+        assertThat(listener.getQueueDepth()).isLessThanOrEqualTo(8);
+
+        latch.countDown();
+        listener.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void block() throws Exception {
+        RecordingListener delegate = new RecordingListener();
+        AsyncQueryExecutionListener listener = new AsyncQueryExecutionListener(delegate, 2);
+        listener.setFullBufferPolicy(AsyncQueryExecutionListener.FullBufferPolicy.BLOCK);
+
+        for (int i = 0; i < 100; i++) {
+            listener.afterQuery(new ExecutionInfo(), Collections.singletonList(new QueryInfo("select " + i)));
+        }
+        listener.shutdown(1, TimeUnit.SECONDS);
+
+        assertThat(delegate.queries).hasSize(100);
+        assertThat(delegate.queries.get(99)).isEqualTo("select 99");
+        assertThat(listener.getDroppedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void exceptionInDelegate() throws Exception {
+        QueryExecutionListener failingListener = new NoOpQueryExecutionListener() {
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                throw new RuntimeException("failure");
+            }
+        };
+        AsyncQueryExecutionListener listener = new AsyncQueryExecutionListener(failingListener, 8);
+        listener.setFullBufferPolicy(AsyncQueryExecutionListener.FullBufferPolicy.BLOCK);
+
+        for (int i = 0; i < 10; i++) {
+            listener.afterQuery(new ExecutionInfo(), new ArrayList<QueryInfo>());
+        }
+        listener.shutdown(1, TimeUnit.SECONDS);
+
+        assertThat(listener.getErrorCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void customValuesDoNotLeak() throws Exception {
+        final List<Object> values = new CopyOnWriteArrayList<Object>();
+        QueryExecutionListener delegate = new NoOpQueryExecutionListener() {
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                values.add(String.valueOf(execInfo.getCustomValue("key", String.class)));
+                execInfo.addCustomValue("key", "value");
+            }
+        };
+        // single slot, reused for every event
+        AsyncQueryExecutionListener listener = new AsyncQueryExecutionListener(delegate, 1);
+        listener.setFullBufferPolicy(AsyncQueryExecutionListener.FullBufferPolicy.BLOCK);
+
+        for (int i = 0; i < 3; i++) {
+            listener.afterQuery(new ExecutionInfo(), new ArrayList<QueryInfo>());
+        }
+        listener.shutdown(1, TimeUnit.SECONDS);
+
+        assertThat(values).containsExactly("null", "null", "null");
+    }
+
+    @Test
+    public void jdbcObjectsAreNotPassed() throws Exception {
+        final List<Object> values = new CopyOnWriteArrayList<Object>();
+        QueryExecutionListener delegate = new NoOpQueryExecutionListener() {
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                values.add(execInfo.getStatement());
+                values.add(execInfo.getGeneratedKeys());
+                values.add(execInfo.getResult());
+            }
+        };
+        AsyncQueryExecutionListener listener = new AsyncQueryExecutionListener(delegate, 4);
+        listener.setFullBufferPolicy(AsyncQueryExecutionListener.FullBufferPolicy.BLOCK);
+
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setStatement(mock(Statement.class));
+        executionInfo.setGeneratedKeys(mock(ResultSet.class));
+        executionInfo.setResult(mock(ResultSet.class));
+        listener.afterQuery(executionInfo, new ArrayList<QueryInfo>());
+
+        executionInfo = new ExecutionInfo();
+        executionInfo.setResult(3);  // update count is kept
+        listener.afterQuery(executionInfo, new ArrayList<QueryInfo>());
+        listener.shutdown(1, TimeUnit.SECONDS);
+
+        assertThat(values).containsExactly(null, null, null, null, null, 3);
+    }
+
+    @Test
+    public void cancelledIsCopied() throws Exception {
+        final List<Boolean> values = new CopyOnWriteArrayList<Boolean>();
+        QueryExecutionListener delegate = new NoOpQueryExecutionListener() {
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                values.add(execInfo.isCancelled());
+            }
+        };
+        // single slot, reused for every event
+        AsyncQueryExecutionListener listener = new AsyncQueryExecutionListener(delegate, 1);
+        listener.setFullBufferPolicy(AsyncQueryExecutionListener.FullBufferPolicy.BLOCK);
+
+        ExecutionInfo cancelled = new ExecutionInfo();
+        cancelled.setCancelled(true);
+        listener.afterQuery(cancelled, new ArrayList<QueryInfo>());
+        listener.afterQuery(new ExecutionInfo(), new ArrayList<QueryInfo>());
+        listener.shutdown(1, TimeUnit.SECONDS);
+
+        assertThat(values).containsExactly(true, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void slowQueryListenerIsRejected() {
+        new AsyncQueryExecutionListener(new QueryWatchdogListener());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSampleRate() {
+        new AsyncQueryExecutionListener(new NoOpQueryExecutionListener()).setSampleRate(0);
+    }
+
+}
@@ -0,0 +1,206 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class ListenerIsolationTest {
+
+    private static class RecordingListener implements QueryExecutionListener {
+        private List<String> calls = new ArrayList<String>();
+        private long sleepInMillis;
+        private boolean fail;
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            this.calls.add("before");
+            perform();
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            this.calls.add("after");
+            perform();
+        }
+
+        private void perform() {
+            if (this.sleepInMillis > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(this.sleepInMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (this.fail) {
+                throw new IllegalStateException("failure");
+            }
+        }
+    }
+
+    @Test
+    public void exceptionIsContained() {
+        final List<Long> reported = new ArrayList<Long>();
+        ListenerIsolation isolation = new ListenerIsolation();
+        isolation.setErrorReporter(new ListenerIsolation.ErrorReporter() {
+            @Override
+            public void report(Object listener, RuntimeException thrown, long suppressedCount) {
+                reported.add(suppressedCount);
+            }
+        });
+
+        RecordingListener failing = new RecordingListener();
+        failing.fail = true;
+        RecordingListener next = new RecordingListener();
+
+        ChainListener chain = new ChainListener();
+        chain.addListener(failing);
+        chain.addListener(next);
+        chain.setListenerIsolation(isolation);
+
+        for (int i = 0; i < 3; i++) {
+            ExecutionInfo executionInfo = new ExecutionInfo();
+            chain.beforeQuery(executionInfo, new ArrayList<QueryInfo>());
+            chain.afterQuery(executionInfo, new ArrayList<QueryInfo>());
+        }
+
+        assertThat(next.calls).hasSize(6);
+        assertThat(isolation.getStats(failing).getErrorCount()).isEqualTo(6);
+        assertThat(reported).as("reported once within the interval").containsExactly(0L);
+        assertThat(isolation.getStats(next).getErrorCount()).isEqualTo(0);
+        assertThat(isolation.getStats(next).getHistogram().getCount()).isEqualTo(6);
+
+        // without isolation
+        chain.setListenerIsolation(null);
+        try {
+            chain.beforeQuery(new ExecutionInfo(), new ArrayList<QueryInfo>());
+            throw new AssertionError("should throw");
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("failure");
+        }
+    }
+
+    @Test
+    public void disableSlowListener() {
+        ListenerIsolation isolation = new ListenerIsolation();
+        isolation.setBudgetInNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        isolation.setWindowSize(2);
+        isolation.setCooldownInMillis(TimeUnit.HOURS.toMillis(1));
+
+        RecordingListener slow = new RecordingListener();
+        slow.sleepInMillis = 5;
+        RecordingListener fast = new RecordingListener();
+
+        ChainListener chain = new ChainListener();
+        chain.addListener(slow);
+        chain.addListener(fast);
+        chain.setListenerIsolation(isolation);
+
+        // before and after make the window of 2 calls
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        chain.beforeQuery(executionInfo, new ArrayList<QueryInfo>());
+        slow.sleepInMillis = 0;
+        chain.afterQuery(executionInfo, new ArrayList<QueryInfo>());
+        ListenerStats stats = isolation.getStats(slow);
+        assertThat(stats.isDisabled()).isTrue();
+        assertThat(stats.getDisabledCount()).isEqualTo(1);
+
+        executionInfo = new ExecutionInfo();
+        chain.beforeQuery(executionInfo, new ArrayList<QueryInfo>());
+        chain.afterQuery(executionInfo, new ArrayList<QueryInfo>());
+        assertThat(slow.calls).containsExactly("before", "after");
+        assertThat(fast.calls).containsExactly("before", "after", "before", "after");
+        assertThat(stats.getSkippedCount()).isEqualTo(1);
+        assertThat(stats.getHistogram().getMaxNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(isolation.getAllStats()).hasSize(2);
+    }
+
+    @Test
+    public void afterIsCalledWhenBeforeWasCalled() {
+        ListenerIsolation isolation = new ListenerIsolation();
+        isolation.setWindowSize(1);
+        isolation.setBudgetInNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        isolation.setCooldownInMillis(TimeUnit.HOURS.toMillis(1));
+
+        RecordingListener slow = new RecordingListener();
+        slow.sleepInMillis = 5;
+        ChainListener chain = new ChainListener();
+        chain.addListener(slow);
+        chain.setListenerIsolation(isolation);
+
+        // disabled after beforeQuery, but afterQuery is still called
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        chain.beforeQuery(executionInfo, new ArrayList<QueryInfo>());
+        assertThat(isolation.getStats(slow).isDisabled()).isTrue();
+        chain.afterQuery(executionInfo, new ArrayList<QueryInfo>());
+        assertThat(slow.calls).containsExactly("before", "after");
+    }
+
+    @Test
+    public void methodListener() {
+        ListenerIsolation isolation = new ListenerIsolation();
+        isolation.setErrorReporter(new ListenerIsolation.ErrorReporter() {
+            @Override
+            public void report(Object listener, RuntimeException thrown, long suppressedCount) {
+            }
+        });
+        final List<String> calls = new ArrayList<String>();
+        CompositeMethodListener composite = new CompositeMethodListener();
+        composite.addListener(new NoOpMethodExecutionListener() {
+            @Override
+            public void beforeMethod(MethodExecutionContext executionContext) {
+                throw new IllegalStateException("failure");
+            }
+        });
+        composite.addListener(new NoOpMethodExecutionListener() {
+            @Override
+            public void afterMethod(MethodExecutionContext executionContext) {
+                calls.add("after");
+            }
+        });
+        composite.setListenerIsolation(isolation);
+
+        MethodExecutionContext executionContext = new MethodExecutionContext();
+        composite.beforeMethod(executionContext);
+        composite.afterMethod(executionContext);
+        assertThat(calls).containsExactly("after");
+    }
+
+    @Test
+    public void builder() {
+        ListenerIsolation isolation = new ListenerIsolation();
+        ProxyDataSource ds = ProxyDataSourceBuilder.create(mock(DataSource.class)).isolateListeners(isolation).build();
+        assertThat(ds.getProxyConfig().getQueryListener().getListenerIsolation()).isSameAs(isolation);
+        assertThat(ds.getProxyConfig().getMethodListener().getListenerIsolation()).isSameAs(isolation);
+    }
+
+    @Test
+    public void histogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getMaxNanos()).isEqualTo(100000);
+        assertThat(histogram.getAverageNanos()).isEqualTo(50500);
+        assertThat(histogram.getPercentileNanos(50)).isBetween(50000L, 100000L);
+        assertThat(histogram.getPercentileNanos(100)).isEqualTo(100000);
+
+        histogram.reset();
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getPercentileNanos(99)).isEqualTo(0);
+    }
+
+}
@@ -8,9 +8,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import javax.sql.DataSource;
+import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -60,4 +63,34 @@ public class MethodExecutionListenerTest {
         assertThat(rs.getString("name")).isEqualTo("bar");
 
     }
+
+    @Test
+    public void selectiveListener() throws Throwable {
+        final List<String> methodNames = new ArrayList<String>();
+        MethodExecutionListener methodListener = new SelectiveMethodExecutionListener() {
+            @Override
+            public boolean isInterested(Method method, Object proxyTarget) {
+                return "next".equals(method.getName());
+            }
+
+            @Override
+            public void beforeMethod(MethodExecutionContext executionContext) {
+                methodNames.add(executionContext.getMethod().getName());
+            }
+
+            @Override
+            public void afterMethod(MethodExecutionContext executionContext) {
+            }
+        };
+
+        ProxyDataSource ds = ProxyDataSourceBuilder.create(this.jdbcDataSource).methodListener(methodListener)
+                .proxyResultSet().build();
+        Connection conn = ds.getConnection();
+        Statement statement = conn.createStatement();
+        ResultSet rs = statement.executeQuery("select * from emp where id=1");
+        rs.next();
+        assertThat(rs.getString("name")).isEqualTo("foo");
+        assertThat(methodNames).containsExactly("next");
+        conn.close();
+    }
 }
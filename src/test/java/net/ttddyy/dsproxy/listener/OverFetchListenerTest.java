@@ -0,0 +1,116 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class OverFetchListenerTest {
+
+    private DataSource jdbcDataSource;
+    private DataSource proxyDataSource;
+    private OverFetchListener listener;
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+        this.listener = new OverFetchListener();
+        this.proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource)
+                .trackResultSetConsumption(this.listener)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    @Test
+    public void unusedColumns() throws Exception {
+        Connection connection = this.proxyDataSource.getConnection();
+        for (int i = 0; i < 2; i++) {
+            ResultSet rs = connection.createStatement().executeQuery("select * from emp");
+            while (rs.next()) {
+                rs.getString("NAME");
+            }
+            rs.close();
+        }
+        connection.close();
+
+        String fingerprint = QueryUtils.getFingerprint("select * from emp");
+        OverFetchListener.FetchUsage usage = this.listener.getFetchUsage(fingerprint);
+        assertThat(usage).isNotNull();
+        assertThat(usage.isSelectAll()).isTrue();
+        assertThat(usage.getResultSetCount()).isEqualTo(2);
+        assertThat(usage.getRowCount()).isEqualTo(4);
+        assertThat(usage.getAbandonedCount()).isEqualTo(0);
+        assertThat(usage.getColumnLabels()).containsExactly("ID", "NAME");
+        assertThat(usage.getUnusedColumns()).containsExactly("ID");
+        assertThat(usage.getOverFetchCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void abandoned() throws Exception {
+        Connection connection = this.proxyDataSource.getConnection();
+        ResultSet rs = connection.createStatement().executeQuery("select id from emp order by id");
+        assertThat(rs.next()).isTrue();
+        rs.getInt(1);
+        rs.close();
+
+        rs = connection.createStatement().executeQuery("select name from emp");
+        while (rs.next()) {
+            rs.getString(1);
+        }
+        rs.close();
+        connection.close();
+
+        assertThat(this.listener.getFetchUsages()).hasSize(2);
+        OverFetchListener.FetchUsage usage = this.listener.getFetchUsages().get(0);
+        assertThat(usage.getFingerprint()).isEqualTo(QueryUtils.getFingerprint("select id from emp order by id"));
+        assertThat(usage.isSelectAll()).isFalse();
+        assertThat(usage.getAbandonedCount()).isEqualTo(1);
+        assertThat(usage.getUnreadRowCount()).isEqualTo(0);
+        assertThat(usage.getUnusedColumns()).isEmpty();
+
+        usage = this.listener.getFetchUsages().get(1);
+        assertThat(usage.getOverFetchCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void countUnreadRows() throws Exception {
+        this.listener.setCountUnreadRows(true);
+
+        Connection connection = this.proxyDataSource.getConnection();
+        ResultSet rs = connection.createStatement().executeQuery("select id from emp");
+        assertThat(rs.next()).isTrue();
+        rs.close();
+
+        // all rows are read without seeing the end
+        rs = connection.createStatement().executeQuery("select name from emp");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.next()).isTrue();
+        rs.close();
+        connection.close();
+
+        OverFetchListener.FetchUsage usage = this.listener.getFetchUsage(QueryUtils.getFingerprint("select id from emp"));
+        assertThat(usage.getRowCount()).isEqualTo(1);
+        assertThat(usage.getUnreadRowCount()).isEqualTo(1);
+        assertThat(usage.getAbandonedCount()).isEqualTo(1);
+
+        usage = this.listener.getFetchUsage(QueryUtils.getFingerprint("select name from emp"));
+        assertThat(usage.getRowCount()).isEqualTo(2);
+        assertThat(usage.getUnreadRowCount()).isEqualTo(0);
+        assertThat(usage.getAbandonedCount()).isEqualTo(0);
+    }
+
+}
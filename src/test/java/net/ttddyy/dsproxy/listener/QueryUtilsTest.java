@@ -1,8 +1,13 @@
 package net.ttddyy.dsproxy.listener;
 
+import net.ttddyy.dsproxy.QueryInfo;
 import net.ttddyy.dsproxy.QueryType;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -37,4 +42,28 @@ public class QueryUtilsTest {
         assertThat(QueryUtils.getQueryType("DELETE")).isEqualTo(QueryType.DELETE);
         assertThat(QueryUtils.getQueryType("delete")).isEqualTo(QueryType.DELETE);
     }
+
+    @Test
+    public void getFingerprint() {
+        assertThat(QueryUtils.getFingerprint(null)).isNull();
+        assertThat(QueryUtils.getFingerprint("")).isEqualTo("");
+        assertThat(QueryUtils.getFingerprint("SELECT * FROM emp WHERE id = 10 AND name = 'foo'"))
+                .isEqualTo("select * from emp where id = ? and name = ?");
+        assertThat(QueryUtils.getFingerprint("select *\n  from emp -- comment\n where id=?"))
+                .isEqualTo("select * from emp where id=?");
+        assertThat(QueryUtils.getFingerprint("/* hint */ select 'it''s', 1.5e-3, -2 from t1"))
+                .isEqualTo("select ?, ?, -? from t1");
+        assertThat(QueryUtils.getFingerprint("select \"MyCol\" from `Tbl`"))
+                .isEqualTo("select \"MyCol\" from `Tbl`");
+        assertThat(QueryUtils.getFingerprint("select col1 from table2")).isEqualTo("select col1 from table2");
+    }
+
+    @Test
+    public void getFingerprintForExecution() {
+        List<QueryInfo> single = Collections.singletonList(new QueryInfo("SELECT 1"));
+        assertThat(QueryUtils.getFingerprintForExecution(single)).isEqualTo("select ?");
+
+        List<QueryInfo> batch = Arrays.asList(new QueryInfo("INSERT INTO t VALUES (1)"), new QueryInfo("DELETE FROM t"));
+        assertThat(QueryUtils.getFingerprintForExecution(batch)).isEqualTo("insert into t values (?);delete from t");
+    }
 }
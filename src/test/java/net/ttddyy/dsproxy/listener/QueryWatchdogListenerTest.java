@@ -0,0 +1,146 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.proxy.QueryTimeoutPolicy;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class QueryWatchdogListenerTest {
+
+    private QueryWatchdogListener listener;
+    private CountDownLatch cancelled = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        this.listener = new QueryWatchdogListener() {
+            @Override
+            protected void onCancel(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, long startTimeInMills) {
+                cancelled.countDown();
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        this.listener.getExecutor().shutdownNow();
+    }
+
+    private ExecutionInfo execute(String dataSourceName, String query) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setDataSourceName(dataSourceName);
+        executionInfo.setStatement(mock(Statement.class));
+        this.listener.beforeQuery(executionInfo, Collections.singletonList(new QueryInfo(query)));
+        return executionInfo;
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        this.listener.setDefaultLimit(10, TimeUnit.MILLISECONDS);
+        ExecutionInfo executionInfo = execute("ds", "select * from emp");
+
+        assertThat(this.cancelled.await(1, TimeUnit.SECONDS)).isTrue();
+        verify(executionInfo.getStatement()).cancel();
+        assertThat(executionInfo.isCancelled()).isTrue();
+        assertThat(executionInfo.getElapsedTime()).isGreaterThanOrEqualTo(10);
+        assertThat(this.listener.getCancelCount()).isEqualTo(1);
+
+        this.listener.afterQuery(executionInfo, null);
+        assertThat(this.listener.runningQueries).isEmpty();
+    }
+
+    @Test
+    public void limits() throws Exception {
+        this.listener.setDefaultLimit(10, TimeUnit.MILLISECONDS);
+        this.listener.setDataSourceLimit("reporting", 1, TimeUnit.HOURS);
+        this.listener.setQueryLimit("select * from emp where id = ?", 1, TimeUnit.HOURS);
+
+        ExecutionInfo byDataSource = execute("reporting", "select * from emp");
+        ExecutionInfo byQuery = execute("ds", "select * from emp where id = 1");
+        ExecutionInfo byDefault = execute("ds", "select * from emp");
+
+        assertThat(this.cancelled.await(1, TimeUnit.SECONDS)).isTrue();
+        verify(byDefault.getStatement()).cancel();
+        verify(byDataSource.getStatement(), never()).cancel();
+        verify(byQuery.getStatement(), never()).cancel();
+        assertThat(byQuery.isCancelled()).isFalse();
+    }
+
+    @Test
+    public void afterQueryWaitsForCancel() throws Exception {
+        this.listener.setDefaultLimit(10, TimeUnit.MILLISECONDS);
+        final CountDownLatch inCancel = new CountDownLatch(1);
+        final AtomicBoolean finishedDuringCancel = new AtomicBoolean();
+        final AtomicBoolean afterQueryReturned = new AtomicBoolean();
+        Statement statement = mock(Statement.class);
+        doAnswer(invocation -> {
+            inCancel.countDown();
+            Thread.sleep(50);
+            finishedDuringCancel.set(afterQueryReturned.get());
+            return null;
+        }).when(statement).cancel();
+
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setStatement(statement);
+        this.listener.beforeQuery(executionInfo, Collections.singletonList(new QueryInfo("select * from emp")));
+
+        assertThat(inCancel.await(1, TimeUnit.SECONDS)).isTrue();
+        this.listener.afterQuery(executionInfo, null);
+        afterQueryReturned.set(true);
+
+        assertThat(this.cancelled.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(finishedDuringCancel.get()).isFalse();
+        assertThat(this.listener.runningQueries).isEmpty();
+    }
+
+    @Test
+    public void finishedInTime() throws Exception {
+        this.listener.setDefaultLimit(50, TimeUnit.MILLISECONDS);
+        ExecutionInfo executionInfo = execute("ds", "select * from emp");
+        this.listener.afterQuery(executionInfo, null);
+
+        Thread.sleep(100);
+        verify(executionInfo.getStatement(), never()).cancel();
+        assertThat(executionInfo.isCancelled()).isFalse();
+        assertThat(this.listener.getCancelCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void queryTimeoutPolicy() throws Exception {
+        DataSource jdbcDataSource = TestUtils.getDataSourceWithData();
+        QueryTimeoutPolicy policy = new QueryTimeoutPolicy()
+                .setDefaultTimeout(30)
+                .addQueryTimeout("select * from emp where id = ?", 5);
+        DataSource ds = ProxyDataSourceBuilder.create(jdbcDataSource).queryTimeout(policy).build();
+
+        Connection connection = ds.getConnection();
+        assertThat(connection.createStatement().getQueryTimeout()).isEqualTo(30);
+        assertThat(connection.prepareStatement("select * from emp").getQueryTimeout()).isEqualTo(30);
+        assertThat(connection.prepareStatement("SELECT * FROM emp WHERE id = ?").getQueryTimeout()).isEqualTo(5);
+        connection.close();
+
+        TestUtils.shutdown(jdbcDataSource);
+    }
+
+}
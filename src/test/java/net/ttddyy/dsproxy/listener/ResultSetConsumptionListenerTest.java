@@ -0,0 +1,141 @@
+package net.ttddyy.dsproxy.listener;
+
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class ResultSetConsumptionListenerTest {
+
+    private DataSource jdbcDataSource;
+    private DataSource proxyDataSource;
+    private List<ResultSetConsumption> consumptions = new ArrayList<ResultSetConsumption>();
+    private ResultSetConsumptionListener listener;
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+        this.listener = new ResultSetConsumptionListener() {
+            @Override
+            protected void onResultSetClosed(ResultSetConsumption consumption) {
+                consumptions.add(consumption);
+            }
+        };
+        this.proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource)
+                .trackResultSetConsumption(this.listener)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    @Test
+    public void consume() throws Exception {
+        Connection connection = this.proxyDataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery("select * from emp order by id");
+        while (rs.next()) {
+            rs.getInt("id");
+            rs.getString(2);
+        }
+        rs.close();
+
+        assertThat(this.consumptions).hasSize(1);
+        ResultSetConsumption consumption = this.consumptions.get(0);
+        assertThat(consumption.getRowCount()).isEqualTo(2);
+        assertThat(consumption.getGetterCount()).isEqualTo(4);
+        assertThat(consumption.getNextTimeNanos()).isGreaterThan(0);
+        assertThat(consumption.getGetterTimeNanos()).isGreaterThan(0);
+        assertThat(consumption.getTimeToFirstRowNanos()).isGreaterThan(0);
+        assertThat(consumption.getOpenTimeNanos()).isGreaterThanOrEqualTo(consumption.getTimeToFirstRowNanos());
+        assertThat(consumption.isClosedExplicitly()).isTrue();
+        assertThat(consumption.getExecutionInfo().getMethod().getName()).isEqualTo("executeQuery");
+        assertThat(consumption.getFingerprint()).isEqualTo(QueryUtils.getFingerprint("select * from emp order by id"));
+        assertThat(this.listener.getOpenResultSetCount()).isEqualTo(0);
+
+        connection.close();
+    }
+
+    @Test
+    public void executeAndGetResultSet() throws Exception {
+        Connection connection = this.proxyDataSource.getConnection();
+        Statement statement = connection.createStatement();
+        assertThat(statement.execute("select * from emp where id = 1")).isTrue();
+        ResultSet rs = statement.getResultSet();
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.next()).isFalse();
+
+        // closed by statement
+        statement.close();
+
+        assertThat(this.consumptions).hasSize(1);
+        ResultSetConsumption consumption = this.consumptions.get(0);
+        assertThat(consumption.getRowCount()).isEqualTo(1);
+        assertThat(consumption.isClosedExplicitly()).isFalse();
+        assertThat(consumption.getExecutionInfo().getMethod().getName()).isEqualTo("execute");
+
+        connection.close();
+    }
+
+    @Test
+    public void closedByConnection() throws Exception {
+        Connection connection = this.proxyDataSource.getConnection();
+        connection.createStatement().executeQuery("select * from emp");
+        assertThat(this.listener.getOpenResultSetCount()).isEqualTo(1);
+
+        connection.close();
+
+        assertThat(this.consumptions).hasSize(1);
+        assertThat(this.consumptions.get(0).getRowCount()).isEqualTo(0);
+        assertThat(this.consumptions.get(0).getTimeToFirstRowNanos()).isEqualTo(-1);
+        assertThat(this.listener.getOpenResultSetCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void closeOnlyOwnResultSets() throws Exception {
+        Connection connection1 = this.proxyDataSource.getConnection();
+        Connection connection2 = this.proxyDataSource.getConnection();
+        Statement statement1 = connection1.createStatement();
+        Statement statement2 = connection1.createStatement();
+        Statement statement3 = connection2.createStatement();
+        statement1.executeQuery("select * from emp where id = 1");
+        statement2.executeQuery("select * from emp where id = 2");
+        statement3.executeQuery("select * from emp");
+        assertThat(this.listener.getOpenResultSetCount()).isEqualTo(3);
+
+        statement1.close();
+        assertThat(this.consumptions).hasSize(1);
+        assertThat(this.consumptions.get(0).getExecutionInfo().getStatement()).isSameAs(unwrap(statement1));
+        assertThat(this.listener.getOpenResultSetCount()).isEqualTo(2);
+
+        connection1.close();
+        assertThat(this.consumptions).hasSize(2);
+        assertThat(this.consumptions.get(1).getExecutionInfo().getStatement()).isSameAs(unwrap(statement2));
+        assertThat(this.listener.getOpenResultSetCount()).isEqualTo(1);
+
+        connection2.close();
+        assertThat(this.consumptions).hasSize(3);
+        assertThat(this.listener.getOpenResultSetCount()).isEqualTo(0);
+    }
+
+    private Object unwrap(Statement statement) {
+        return ((ProxyJdbcObject) statement).getTarget();
+    }
+
+}
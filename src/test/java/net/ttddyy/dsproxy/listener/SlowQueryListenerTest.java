@@ -17,6 +17,7 @@ import java.sql.Connection;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -87,6 +88,102 @@ public class SlowQueryListenerTest {
     }
 
 
+    @Test
+    public void noTaskScheduledPerQuery() throws Exception {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+
+        SlowQueryListener listener = new SlowQueryListener();
+        listener.executor = executor;
+        listener.setThreshold(1);
+        listener.setThresholdTimeUnit(TimeUnit.MINUTES);
+
+        for (int i = 0; i < 1000; i++) {
+            ExecutionInfo executionInfo = new ExecutionInfo();
+            List<QueryInfo> queryInfo = new ArrayList<QueryInfo>();
+            listener.beforeQuery(executionInfo, queryInfo);
+            listener.afterQuery(executionInfo, queryInfo);
+        }
+
+        assertThat(executor.getQueue()).as("only the sweeper task should be scheduled").hasSize(1);
+        assertThat(listener.runningQueries).isEmpty();
+
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void onSlowQueryWithMultipleRunningQueries() throws Exception {
+
+        final AtomicInteger counter = new AtomicInteger();
+        SlowQueryListener listener = new SlowQueryListener() {
+            @Override
+            protected void onSlowQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, long startTimeInMills) {
+                counter.incrementAndGet();
+                throw new RuntimeException("should not stop detection");
+            }
+        };
+        listener.setThreshold(50);
+        listener.setThresholdTimeUnit(TimeUnit.MILLISECONDS);
+        listener.setCheckInterval(10, TimeUnit.MILLISECONDS);
+
+        List<ExecutionInfo> executionInfos = new ArrayList<ExecutionInfo>();
+        List<QueryInfo> queryInfo = new ArrayList<QueryInfo>();
+        for (int i = 0; i < 5; i++) {
+            ExecutionInfo executionInfo = new ExecutionInfo();
+            executionInfos.add(executionInfo);
+            listener.beforeQuery(executionInfo, queryInfo);
+        }
+
+        // fast query
+        ExecutionInfo fastExecutionInfo = new ExecutionInfo();
+        listener.beforeQuery(fastExecutionInfo, queryInfo);
+        listener.afterQuery(fastExecutionInfo, queryInfo);
+
+        TimeUnit.MILLISECONDS.sleep(200);  // ample time
+
+        for (ExecutionInfo executionInfo : executionInfos) {
+            listener.afterQuery(executionInfo, queryInfo);
+        }
+
+        assertThat(counter.get()).as("callback should be called once per slow query").isEqualTo(5);
+    }
+
+    @Test
+    public void onSlowQueryWithSameHashCode() throws Exception {
+
+        final List<ExecutionInfo> reported = new ArrayList<ExecutionInfo>();
+        SlowQueryListener listener = new SlowQueryListener() {
+            @Override
+            protected void onSlowQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, long startTimeInMills) {
+                reported.add(execInfo);
+            }
+        };
+        listener.setThreshold(50);
+        listener.setThresholdTimeUnit(TimeUnit.MILLISECONDS);
+
+        // simulate hash collision
+        ExecutionInfo slowExecutionInfo = new ExecutionInfo() {
+            @Override
+            public int hashCode() {
+                return 1;
+            }
+        };
+        ExecutionInfo fastExecutionInfo = new ExecutionInfo() {
+            @Override
+            public int hashCode() {
+                return 1;
+            }
+        };
+        List<QueryInfo> queryInfo = new ArrayList<QueryInfo>();
+
+        listener.beforeQuery(slowExecutionInfo, queryInfo);
+        listener.beforeQuery(fastExecutionInfo, queryInfo);
+        listener.afterQuery(fastExecutionInfo, queryInfo);
+        TimeUnit.MILLISECONDS.sleep(200);  // ample time
+        listener.afterQuery(slowExecutionInfo, queryInfo);
+
+        assertThat(reported).as("finishing fast query should not suppress slow query").containsExactly(slowExecutionInfo);
+    }
+
     @Test
     public void executionTime() throws Exception {
 
@@ -0,0 +1,232 @@
+package net.ttddyy.dsproxy.listener.binary;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.StatementType;
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class BinaryQueryLogListenerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private DataSource jdbcDataSource;
+    private File directory;
+    private BinaryQueryLogListener listener;
+    private DataSource proxyDataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+        this.directory = this.temporaryFolder.newFolder();
+        this.listener = new BinaryQueryLogListener(this.directory, "query");
+        this.proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource).name("myDS").listener(this.listener).build();
+    }
+
+    @After
+    public void teardown() throws Exception {
+        this.listener.close();
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    @Test
+    public void writeAndRead() throws Exception {
+        Timestamp timestamp = new Timestamp(1000L);
+        timestamp.setNanos(123456789);
+
+        Connection conn = this.proxyDataSource.getConnection();
+        Statement statement = conn.createStatement();
+        statement.executeQuery("select * from emp");
+
+        PreparedStatement ps = conn.prepareStatement("update emp set name = ? where id = ?");
+        ps.setString(1, "foo");
+        ps.setInt(2, 1);
+        ps.addBatch();
+        ps.setNull(1, Types.VARCHAR);
+        ps.setLong(2, 2L);
+        ps.addBatch();
+        ps.executeBatch();
+
+        PreparedStatement ps2 = conn.prepareStatement("select cast(? as varbinary(10)), cast(? as timestamp), cast(? as boolean) from emp where id = ?");
+        ps2.setBytes(1, new byte[]{1, 2});
+        ps2.setTimestamp(2, timestamp);
+        ps2.setBoolean(3, true);
+        ps2.setInt(4, 1);
+        ps2.executeQuery();
+
+        statement.executeQuery("SELECT * FROM emp");  // same fingerprint as the first query
+        conn.close();
+        this.listener.close();
+
+        List<BinaryQueryLogRecord> records = BinaryQueryLogReader.readAll(this.listener.getFile(1));
+        assertThat(records).hasSize(4);
+
+        BinaryQueryLogRecord first = records.get(0);
+        assertThat(first.getDataSourceName()).isEqualTo("myDS");
+        assertThat(first.getConnectionId()).isNotNull();
+        assertThat(first.getThreadName()).isEqualTo(Thread.currentThread().getName());
+        assertThat(first.getThreadId()).isEqualTo(Thread.currentThread().getId());
+        assertThat(first.getStatementType()).isEqualTo(StatementType.STATEMENT);
+        assertThat(first.isSuccess()).isTrue();
+        assertThat(first.getElapsedTimeInNanos()).isGreaterThan(0);
+        assertThat(first.getQueries()).hasSize(1);
+        assertThat(first.getQueries().get(0).getQuery()).isEqualTo("select * from emp");
+        assertThat(first.getQueries().get(0).getFingerprint()).isEqualTo("select * from emp");
+
+        BinaryQueryLogRecord batch = records.get(1);
+        assertThat(batch.isBatch()).isTrue();
+        assertThat(batch.getStatementType()).isEqualTo(StatementType.PREPARED);
+        List<List<BinaryQueryLogRecord.Parameter>> parametersList = batch.getQueries().get(0).getParametersList();
+        assertThat(parametersList).hasSize(2);
+        assertThat(parametersList.get(0).get(0).getKey()).isEqualTo(1);
+        assertThat(parametersList.get(0).get(0).getValue()).isEqualTo("foo");
+        assertThat(parametersList.get(0).get(1).getValue()).isEqualTo(1);
+        assertThat(parametersList.get(1).get(0).getType()).isEqualTo(BinaryQueryLogFormat.TYPE_SET_NULL);
+        assertThat(parametersList.get(1).get(0).getValue()).isEqualTo(Types.VARCHAR);
+        assertThat(parametersList.get(1).get(1).getValue()).isEqualTo(2L);
+
+        List<BinaryQueryLogRecord.Parameter> typed = records.get(2).getQueries().get(0).getParametersList().get(0);
+        assertThat((byte[]) typed.get(0).getValue()).containsExactly(1, 2);
+        assertThat(typed.get(1).getValue()).isEqualTo(timestamp);
+        assertThat(typed.get(2).getValue()).isEqualTo(true);
+
+        BinaryQueryLogRecord last = records.get(3);
+        assertThat(last.getQueries().get(0).getQuery()).isEqualTo("SELECT * FROM emp");
+        assertThat(last.getQueries().get(0).getFingerprint()).isEqualTo("select * from emp");
+    }
+
+    @Test
+    public void rotate() throws Exception {
+        this.listener.setMaxFileSize(512);
+        this.listener.setMaxFiles(2);
+
+        Connection conn = this.proxyDataSource.getConnection();
+        Statement statement = conn.createStatement();
+        for (int i = 0; i < 20; i++) {
+            statement.executeQuery("select * from emp where id = " + i);
+        }
+        conn.close();
+        this.listener.close();
+
+        File[] files = this.directory.listFiles();
+        assertThat(files).hasSize(2);
+
+        // each file is decodable by itself
+        int total = 0;
+        for (File file : files) {
+            List<BinaryQueryLogRecord> records = BinaryQueryLogReader.readAll(file);
+            assertThat(records).isNotEmpty();
+            for (BinaryQueryLogRecord record : records) {
+                assertThat(record.getQueries().get(0).getFingerprint()).isEqualTo("select * from emp where id = ?");
+            }
+            total += records.size();
+        }
+        assertThat(total).as("old files are deleted").isLessThan(20);
+        assertThat(this.listener.getRecordCount()).isEqualTo(20);
+    }
+
+    @Test
+    public void oversizedRecord() throws Exception {
+        this.listener.setMaxFileSize(512);
+
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            name.append('x');
+        }
+        Connection conn = this.proxyDataSource.getConnection();
+        Statement statement = conn.createStatement();
+        statement.executeQuery("select * from emp where name = '" + name + "'");
+        statement.executeQuery("select * from emp");
+        conn.close();
+        this.listener.close();
+
+        assertThat(this.listener.getDroppedCount()).isEqualTo(1);
+        assertThat(this.listener.getRecordCount()).isEqualTo(1);
+
+        // dictionary entries of the dropped record are not used by the following record
+        int total = 0;
+        for (File file : this.directory.listFiles()) {
+            for (BinaryQueryLogRecord record : BinaryQueryLogReader.readAll(file)) {
+                assertThat(record.getDataSourceName()).isEqualTo("myDS");
+                assertThat(record.getThreadName()).isEqualTo(Thread.currentThread().getName());
+                assertThat(record.getQueries().get(0).getQuery()).isEqualTo("select * from emp");
+                total++;
+            }
+        }
+        assertThat(total).isEqualTo(1);
+    }
+
+    @Test
+    public void failedRecord() throws Exception {
+        ExecutionInfo failing = new ExecutionInfo() {
+            @Override
+            public boolean isSuccess() {
+                throw new IllegalStateException("failure");
+            }
+        };
+        failing.setDataSourceName("failingDS");
+        failing.setConnectionId("1");
+        this.listener.afterQuery(failing, Collections.singletonList(new QueryInfo("select * from emp")));
+        assertThat(this.listener.getErrorCount()).isEqualTo(1);
+
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setDataSourceName("failingDS");
+        executionInfo.setConnectionId("1");
+        this.listener.afterQuery(executionInfo, Collections.singletonList(new QueryInfo("select * from emp")));
+        this.listener.close();
+
+        List<BinaryQueryLogRecord> records = BinaryQueryLogReader.readAll(this.listener.getFile(1));
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getDataSourceName()).isEqualTo("failingDS");
+        assertThat(records.get(0).getConnectionId()).isEqualTo("1");
+        assertThat(records.get(0).getQueries().get(0).getQuery()).isEqualTo("select * from emp");
+    }
+
+    @Test
+    public void decode() throws Exception {
+        Connection conn = this.proxyDataSource.getConnection();
+        PreparedStatement ps = conn.prepareStatement("select * from emp where name = ?");
+        ps.setString(1, "a\"b");
+        ps.executeQuery();
+        conn.close();
+        this.listener.close();
+
+        File file = this.listener.getFile(1);
+
+        StringWriter json = new StringWriter();
+        new BinaryQueryLogDecoder().decode(file, json);
+        assertThat(json.toString())
+                .startsWith("{\"startTime\":")
+                .contains("\"dataSource\":\"myDS\"", "\"type\":\"PREPARED\"", "\"success\":true",
+                        "\"queries\":[{\"query\":\"select * from emp where name = ?\", \"fingerprint\":\"select * from emp where name = ?\", \"params\":[{\"1\":\"a\\\"b\"}]}]")
+                .endsWith("}\n");
+
+        StringWriter csv = new StringWriter();
+        new BinaryQueryLogDecoder(BinaryQueryLogDecoder.Format.CSV).decode(file, csv);
+        assertThat(csv.toString())
+                .contains(",\"myDS\",", ",PREPARED,true,false,", ",\"select * from emp where name = ?\",\"(1=a\"\"b)\"\n");
+    }
+
+}
@@ -0,0 +1,155 @@
+package net.ttddyy.dsproxy.listener.binary;
+
+import net.ttddyy.dsproxy.StatementType;
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class WorkloadReplayerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private DataSource jdbcDataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+    }
+
+    @After
+    public void teardown() throws Exception {
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    @Test
+    public void captureAndReplay() throws Exception {
+        BinaryQueryLogListener listener = new BinaryQueryLogListener(this.temporaryFolder.newFolder(), "capture");
+        DataSource proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource).listener(listener).build();
+
+        // capture
+        Connection conn1 = proxyDataSource.getConnection();
+        Connection conn2 = proxyDataSource.getConnection();
+        PreparedStatement insert = conn1.prepareStatement("insert into emp_with_auto_id (name) values (?)");
+        insert.setString(1, "foo");
+        insert.executeUpdate();
+        TimeUnit.MILLISECONDS.sleep(100);
+        insert.setString(1, "bar");
+        insert.addBatch();
+        insert.setString(1, "baz");
+        insert.addBatch();
+        insert.executeBatch();
+
+        Statement statement = conn2.createStatement();
+        statement.executeQuery("select * from emp_with_auto_id where id = 1");
+        statement.executeQuery("select * from emp_with_auto_id where id = 2");
+        try {
+            statement.executeQuery("select * from no_such_table");
+        } catch (SQLException e) {
+        }
+        conn1.close();
+        conn2.close();
+        listener.close();
+
+        int countAfterCapture = countRows();
+
+        // replay 10x faster
+        WorkloadReplayer replayer = new WorkloadReplayer(this.jdbcDataSource);
+        replayer.setSpeedup(10);
+        WorkloadReplayReport report = replayer.replay(listener.getFile(1));
+
+        assertThat(countRows()).isEqualTo(countAfterCapture + 3);
+        assertThat(report.getCount()).isEqualTo(5);
+        assertThat(report.getErrorCount()).as("failed query fails again").isEqualTo(1);
+        assertThat(report.getElapsedNanos()).as("recorded 100ms interval is shortened to 10ms")
+                .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+
+        WorkloadReplayReport.FingerprintStats select = report.getFingerprintStats("select * from emp_with_auto_id where id = ?");
+        assertThat(select.getCount()).isEqualTo(2);
+        assertThat(select.getRecordedTotalNanos()).isGreaterThan(0);
+        assertThat(select.getReplayedTotalNanos()).isGreaterThan(0);
+
+        WorkloadReplayReport.FingerprintStats insertStats = report.getFingerprintStats("insert into emp_with_auto_id (name) values (?)");
+        assertThat(insertStats.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void connectionsTakenWhenDue() throws Exception {
+        // 30 recorded connections, each with one short execution, 1ms apart
+        List<BinaryQueryLogRecord> records = new ArrayList<BinaryQueryLogRecord>();
+        for (int i = 0; i < 30; i++) {
+            BinaryQueryLogRecord record = new BinaryQueryLogRecord();
+            record.startTimeInMillis = 1000 + i;
+            record.startTimeInNanos = 5000000000L + TimeUnit.MILLISECONDS.toNanos(i);
+            record.elapsedTimeInNanos = TimeUnit.MICROSECONDS.toNanos(100);
+            record.dataSourceName = "ds";
+            record.connectionId = String.valueOf(i);
+            record.statementType = StatementType.STATEMENT;
+            record.queries.add(BinaryQueryLogRecord.newQuery("select * from emp", "select * from emp"));
+            records.add(record);
+        }
+
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger maxOpen = new AtomicInteger();
+        final Set<String> threadNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        DataSource countingDataSource = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    Object result = method.invoke(this.jdbcDataSource, args);
+                    if (!"getConnection".equals(method.getName())) {
+                        return result;
+                    }
+                    threadNames.add(Thread.currentThread().getName());
+                    maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+                    Connection connection = (Connection) result;
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                            (connProxy, connMethod, connArgs) -> {
+                                if ("close".equals(connMethod.getName())) {
+                                    open.decrementAndGet();
+                                }
+                                return connMethod.invoke(connection, connArgs);
+                            });
+                });
+
+        WorkloadReplayReport report = new WorkloadReplayer(countingDataSource).replay(records);
+
+        assertThat(report.getCount()).isEqualTo(30);
+        assertThat(report.getErrorCount()).isEqualTo(0);
+        assertThat(threadNames).as("recorded executions did not overlap").hasSize(1);
+        assertThat(maxOpen.get()).isEqualTo(1);
+        assertThat(open.get()).isEqualTo(0);
+    }
+
+    private int countRows() throws Exception {
+        Connection conn = this.jdbcDataSource.getConnection();
+        ResultSet rs = conn.createStatement().executeQuery("select count(*) from emp_with_auto_id");
+        rs.next();
+        int count = rs.getInt(1);
+        conn.close();
+        return count;
+    }
+
+}
@@ -0,0 +1,92 @@
+package net.ttddyy.dsproxy.listener.explain;
+
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.listener.AggregatingSlowQueryListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class ExplainPlanCollectorTest {
+
+    private DataSource jdbcDataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+    }
+
+    @After
+    public void teardown() throws Exception {
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    @Test
+    public void explain() throws Exception {
+        ExplainPlanCollector collector = new ExplainPlanCollector(this.jdbcDataSource, SimpleExplainPlanDialect.HSQLDB);
+
+        String plan = collector.explain("select * from emp where id = ?", Collections.<ParameterSetOperation>emptyList());
+        assertThat(plan).contains("table=EMP");
+
+        assertThat(collector.explain("delete from emp", Collections.<ParameterSetOperation>emptyList()))
+                .as("only select is explained").isNull();
+    }
+
+    @Test
+    public void requestOncePerWindow() throws Exception {
+        ExplainPlanCollector collector = new ExplainPlanCollector(this.jdbcDataSource, SimpleExplainPlanDialect.HSQLDB);
+        collector.setWindow(1, TimeUnit.MINUTES);
+
+        List<ParameterSetOperation> params = Collections.emptyList();
+        assertThat(collector.request("select * from emp", "select * from emp", params)).isTrue();
+        assertThat(collector.request("select * from emp", "SELECT * FROM emp", params)).isFalse();
+
+        waitForPlan(collector, "select * from emp");
+        assertThat(collector.getExplainPlan("select * from emp")).contains("table=EMP");
+        assertThat(collector.getExplainPlan("select * from dept")).isNull();
+    }
+
+    @Test
+    public void withAggregatingSlowQueryListener() throws Exception {
+        ExplainPlanCollector collector = new ExplainPlanCollector(this.jdbcDataSource, SimpleExplainPlanDialect.HSQLDB);
+
+        // every query is considered slow
+        AggregatingSlowQueryListener listener = new AggregatingSlowQueryListener(0, TimeUnit.MILLISECONDS);
+        listener.setExplainPlanCollector(collector);
+
+        DataSource proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource).listener(listener).build();
+        Connection conn = proxyDataSource.getConnection();
+        PreparedStatement ps = conn.prepareStatement("select * from emp where id = ?");
+        ps.setInt(1, 1);
+        ResultSet rs = ps.executeQuery();
+        rs.close();
+        conn.close();
+
+        waitForPlan(collector, "select * from emp where id = ?");
+
+        List<AggregatingSlowQueryListener.SlowQueryStats> top = listener.getTopSlowQueries(1);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).getExplainPlan()).contains("table=EMP");
+    }
+
+    private void waitForPlan(ExplainPlanCollector collector, String fingerprint) throws Exception {
+        for (int i = 0; i < 100 && collector.getExplainPlan(fingerprint) == null; i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+}
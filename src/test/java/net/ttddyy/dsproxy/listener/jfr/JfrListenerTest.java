@@ -0,0 +1,118 @@
+package net.ttddyy.dsproxy.listener.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class JfrListenerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private DataSource jdbcDataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+    }
+
+    @After
+    public void teardown() throws Exception {
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    @Test
+    public void events() throws Exception {
+        assertThat(JfrUtils.isAvailable()).isTrue();
+
+        DataSource dataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource).name("myDS").listener(new JfrListener()).build();
+
+        // not recording
+        Connection connection = dataSource.getConnection();
+        connection.createStatement().executeQuery("select * from emp");
+        connection.close();
+
+        Recording recording = new Recording();
+        recording.enable(QueryEvent.class);
+        recording.enable(SlowQueryEvent.class).withThreshold(Duration.ZERO);
+        recording.enable(ConnectionAcquiredEvent.class);
+        recording.enable(ConnectionClosedEvent.class);
+        recording.start();
+
+        connection = dataSource.getConnection();
+        Statement statement = connection.createStatement();
+        statement.executeQuery("select * from emp where id = 1");
+        PreparedStatement ps = connection.prepareStatement("update emp set name = ? where id = ?");
+        ps.setString(1, "foo");
+        ps.setInt(2, 1);
+        ps.addBatch();
+        ps.setString(1, "bar");
+        ps.setInt(2, 2);
+        ps.addBatch();
+        ps.executeBatch();
+        connection.close();
+
+        recording.stop();
+        File file = this.temporaryFolder.newFile("recording.jfr");
+        recording.dump(file.toPath());
+        recording.close();
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+        List<RecordedEvent> queryEvents = filter(events, "net.ttddyy.dsproxy.Query");
+        assertThat(queryEvents).hasSize(2);
+
+        RecordedEvent select = queryEvents.get(0);
+        assertThat(select.getString("dataSource")).isEqualTo("myDS");
+        assertThat(select.getString("fingerprint")).isEqualTo("select * from emp where id = ?");
+        assertThat(select.getString("statementType")).isEqualTo("STATEMENT");
+        assertThat(select.getBoolean("success")).isTrue();
+        assertThat(select.getLong("rows")).isEqualTo(-1);
+
+        RecordedEvent update = queryEvents.get(1);
+        assertThat(update.getString("statementType")).isEqualTo("PREPARED");
+        assertThat(update.getInt("batchSize")).isEqualTo(2);
+        assertThat(update.getLong("rows")).isEqualTo(2);
+        assertThat(update.getString("connectionId")).isEqualTo(select.getString("connectionId"));
+
+        List<RecordedEvent> slowQueryEvents = filter(events, "net.ttddyy.dsproxy.SlowQuery");
+        assertThat(slowQueryEvents).hasSize(2);
+        assertThat(slowQueryEvents.get(0).getString("query")).isEqualTo("select * from emp where id = 1");
+
+        List<RecordedEvent> acquired = filter(events, "net.ttddyy.dsproxy.ConnectionAcquired");
+        assertThat(acquired).hasSize(1);
+        assertThat(acquired.get(0).getString("connectionId")).isEqualTo(select.getString("connectionId"));
+
+        List<RecordedEvent> closed = filter(events, "net.ttddyy.dsproxy.ConnectionClosed");
+        assertThat(closed).hasSize(1);
+        assertThat(closed.get(0).getString("dataSource")).isEqualTo("myDS");
+    }
+
+    private List<RecordedEvent> filter(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((left, right) -> left.getStartTime().compareTo(right.getStartTime()))
+                .collect(Collectors.toList());
+    }
+
+}
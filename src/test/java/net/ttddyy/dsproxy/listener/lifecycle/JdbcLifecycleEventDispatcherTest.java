@@ -0,0 +1,64 @@
+package net.ttddyy.dsproxy.listener.lifecycle;
+
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class JdbcLifecycleEventDispatcherTest {
+
+    @Test
+    public void allCallbacksHaveId() {
+        Set<String> callbackNames = new HashSet<String>();
+        for (Method method : JdbcLifecycleEventListener.class.getMethods()) {
+            if (method.getDeclaringClass() == JdbcLifecycleEventListener.class) {
+                continue;  // beforeMethod, afterMethod, beforeQuery, afterQuery
+            }
+            callbackNames.add(method.getName());
+            assertThat(JdbcLifecycleEventDispatcher.getCallbackId(method.getName())).as(method.getName()).isNotNegative();
+        }
+
+        int count = 0;
+        for (String[] names : JdbcLifecycleEventDispatcher.CALLBACK_NAMES) {
+            count += names.length;
+        }
+        assertThat(count).isEqualTo(callbackNames.size());
+        assertThat(JdbcLifecycleEventDispatcher.getCallbackId("foo")).isEqualTo(-1);
+    }
+
+    @Test
+    public void dispatch() {
+        final List<String> invokedMethodNames = new ArrayList<String>();
+        JdbcLifecycleEventListener listener = (JdbcLifecycleEventListener) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{JdbcLifecycleEventListener.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        invokedMethodNames.add(method.getName());
+                        return null;
+                    }
+                });
+        MethodExecutionContext executionContext = new MethodExecutionContext();
+
+        for (String[] names : JdbcLifecycleEventDispatcher.CALLBACK_NAMES) {
+            for (String name : names) {
+                invokedMethodNames.clear();
+                int callbackId = JdbcLifecycleEventDispatcher.getCallbackId(name);
+                JdbcLifecycleEventDispatcher.dispatch(listener, callbackId, executionContext);
+                assertThat(invokedMethodNames).as(name).containsExactly(name);
+            }
+        }
+    }
+
+}
@@ -104,6 +104,66 @@ public class JdbcLifecycleEventExecutionListenerTest {
 
     }
 
+    @Test
+    public void isInterested() throws Exception {
+        Method getConnection = DataSource.class.getMethod("getConnection");
+        Method next = ResultSet.class.getMethod("next");
+        Method getString = ResultSet.class.getMethod("getString", int.class);
+        Method unwrap = Wrapper.class.getMethod("unwrap", Class.class);
+        Method toString = Object.class.getMethod("toString");
+        ResultSet resultSet = mock(ResultSet.class);
+        DataSource dataSource = mock(DataSource.class);
+
+        JdbcLifecycleEventExecutionListener listener = new JdbcLifecycleEventExecutionListener(new JdbcLifecycleEventListenerAdapter() {
+            @Override
+            public void afterGetConnectionOnDataSource(MethodExecutionContext executionContext) {
+            }
+
+            @Override
+            public void beforeNextOnResultSet(MethodExecutionContext executionContext) {
+            }
+
+            @Override
+            public void afterUnwrapOnResultSet(MethodExecutionContext executionContext) {
+            }
+        });
+        assertThat(listener.isInterested(getConnection, dataSource)).isTrue();
+        assertThat(listener.isInterested(next, resultSet)).isTrue();
+        assertThat(listener.isInterested(getString, resultSet)).isFalse();
+        assertThat(listener.isInterested(unwrap, resultSet)).isTrue();
+        assertThat(listener.isInterested(unwrap, dataSource)).isFalse();
+        assertThat(listener.isInterested(toString, resultSet)).isFalse();
+
+        // overriding generic callback
+        listener = new JdbcLifecycleEventExecutionListener(new JdbcLifecycleEventListenerAdapter() {
+            @Override
+            public void afterMethod(MethodExecutionContext executionContext) {
+            }
+        });
+        assertThat(listener.isInterested(getString, resultSet)).isTrue();
+        assertThat(listener.isInterested(toString, resultSet)).isTrue();
+
+        // not an adapter
+        listener = new JdbcLifecycleEventExecutionListener(mock(JdbcLifecycleEventListener.class));
+        assertThat(listener.isInterested(getString, resultSet)).isTrue();
+    }
+
+    @Test
+    public void methodWithoutCallback() throws Exception {
+        List<String> invokedMethodNames = new ArrayList<String>();
+        List<List<Object>> invokedMethodArgs = new ArrayList<List<Object>>();
+        JdbcLifecycleEventListener proxyListener = createProxyListener(invokedMethodNames, invokedMethodArgs);
+        JdbcLifecycleEventExecutionListener listener = new JdbcLifecycleEventExecutionListener(proxyListener);
+
+        MethodExecutionContext methodExecContext = new MethodExecutionContext();
+        methodExecContext.setMethod(Object.class.getMethod("toString"));
+        methodExecContext.setTarget(mock(Connection.class));
+
+        listener.beforeMethod(methodExecContext);
+        listener.afterMethod(methodExecContext);
+        assertThat(invokedMethodNames).containsExactly("beforeMethod", "afterMethod");
+    }
+
     private JdbcLifecycleEventListener createProxyListener(final List<String> invokedMethodNames, final List<List<Object>> invokedMethodArgs) {
         // create a proxy that captures all invoked method names
         return (JdbcLifecycleEventListener) Proxy.newProxyInstance(getClass().getClassLoader(),
@@ -392,4 +392,21 @@ public class DefaultJsonQueryLogEntryCreatorTest {
         assertThat(jsonResult).containsOnlyOnce("\"batchSize\":100");
     }
 
+    @Test
+    public void queryDictionary() {
+        QueryDictionary dictionary = new QueryDictionary();
+        DefaultJsonQueryLogEntryCreator creator = new DefaultJsonQueryLogEntryCreator();
+        creator.setQueryDictionary(dictionary);
+
+        ExecutionInfo executionInfo = ExecutionInfoBuilder.create().build();
+        QueryInfo queryInfo = QueryInfoBuilder.create().query("select \"1\"").build();
+        String id = dictionary.getId("select \"1\"");
+
+        String jsonEntry = creator.getLogEntry(executionInfo, Lists.newArrayList(queryInfo), false, false);
+        assertThat(jsonEntry).contains("\"query\":[\"select \\\"1\\\"\"], \"queryId\":[\"" + id + "\"], ");
+
+        jsonEntry = creator.getLogEntry(executionInfo, Lists.newArrayList(queryInfo), false, false);
+        assertThat(jsonEntry).doesNotContain("\"query\"").contains("\"queryId\":[\"" + id + "\"], ");
+    }
+
 }
@@ -5,12 +5,15 @@ import net.ttddyy.dsproxy.ExecutionInfoBuilder;
 import net.ttddyy.dsproxy.QueryInfo;
 import net.ttddyy.dsproxy.QueryInfoBuilder;
 import net.ttddyy.dsproxy.StatementType;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
 import org.assertj.core.util.Lists;
 import org.junit.Test;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -345,6 +348,41 @@ public class DefaultQueryLogEntryCreatorTest {
 
     }
 
+    @Test
+    public void getLogEntryParameterSetTwice() throws Exception {
+        ExecutionInfo executionInfo = ExecutionInfoBuilder.create().statementType(StatementType.PREPARED).build();
+
+        QueryInfo queryInfo = QueryInfoBuilder.create()
+                .query("select 1")
+                .param(2, "foo")
+                .param(1, "bar")
+                .build();
+
+        // set index 2 again
+        ParameterSetOperation param = new ParameterSetOperation();
+        param.setMethod(queryInfo.getParametersList().get(0).get(0).getMethod());
+        param.setArgs(new Object[]{"2", "baz"});
+        queryInfo.getParametersList().get(0).add(param);
+
+        DefaultQueryLogEntryCreator creator = new DefaultQueryLogEntryCreator();
+
+        String entry = creator.getLogEntry(executionInfo, Lists.newArrayList(queryInfo), true, true);
+        assertThat(entry).containsOnlyOnce("Params:[(bar,baz)]");
+    }
+
+    @Test
+    public void appendLogEntry() throws Exception {
+        ExecutionInfo executionInfo = ExecutionInfoBuilder.create().statementType(StatementType.PREPARED).build();
+        QueryInfo queryInfo = QueryInfoBuilder.create().query("select 1").param(1, "foo").build();
+
+        DefaultQueryLogEntryCreator creator = new DefaultQueryLogEntryCreator();
+        String entry = creator.getLogEntry(executionInfo, Lists.newArrayList(queryInfo), true, true);
+
+        StringBuilder sb = new StringBuilder("prefix:");
+        creator.appendLogEntry(sb, executionInfo, Lists.newArrayList(queryInfo), true, true);
+        assertThat(sb.toString()).isEqualTo("prefix:" + entry);
+    }
+
     @Test
     public void statementType() throws Exception {
         ExecutionInfo executionInfo;
@@ -494,4 +532,60 @@ public class DefaultQueryLogEntryCreatorTest {
         assertThat(lines[4]).contains("Params");
     }
 
+    @Test
+    public void queryDictionary() {
+        QueryDictionary dictionary = new QueryDictionary();
+        DefaultQueryLogEntryCreator creator = new DefaultQueryLogEntryCreator();
+        creator.setQueryDictionary(dictionary);
+
+        ExecutionInfo executionInfo = ExecutionInfoBuilder.create().build();
+        QueryInfo select1 = QueryInfoBuilder.create().query("select 1").build();
+        QueryInfo select2 = QueryInfoBuilder.create().query("select 2").build();
+        String id1 = dictionary.getId("select 1");
+        String id2 = dictionary.getId("select 2");
+
+        String result = creator.getLogEntry(executionInfo, Lists.newArrayList(select1), false, false);
+        assertThat(result).contains("Query:[\"select 1\"], QueryId:[\"" + id1 + "\"], ");
+
+        result = creator.getLogEntry(executionInfo, Lists.newArrayList(select1), false, false);
+        assertThat(result).doesNotContain("Query:").contains("QueryId:[\"" + id1 + "\"], ");
+
+        // a new query in batch writes all queries
+        result = creator.getLogEntry(executionInfo, Lists.newArrayList(select1, select2), false, false);
+        assertThat(result).contains("Query:[\"select 1\",\"select 2\"], QueryId:[\"" + id1 + "\",\"" + id2 + "\"], ");
+
+        result = creator.getLogEntry(executionInfo, Lists.newArrayList(select2, select1), false, false);
+        assertThat(result).doesNotContain("Query:").contains("QueryId:[\"" + id2 + "\",\"" + id1 + "\"], ");
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void overriddenMapBasedParameterHooks() throws Exception {
+        ExecutionInfo executionInfo = ExecutionInfoBuilder.create().statementType(StatementType.PREPARED).build();
+        QueryInfo queryInfo = QueryInfoBuilder.create().query("select 1").param(1, "foo").param(2, "bar").build();
+
+        DefaultQueryLogEntryCreator creator = new DefaultQueryLogEntryCreator() {
+            @Override
+            protected void writeParamsForSinglePreparedEntry(StringBuilder sb, SortedMap<String, String> paramMap, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                sb.append(paramMap.keySet()).append(",");
+            }
+        };
+        String entry = creator.getLogEntry(executionInfo, Lists.newArrayList(queryInfo), true, true);
+        assertThat(entry).contains("Params:[[1, 2]]");
+
+        executionInfo = ExecutionInfoBuilder.create().statementType(StatementType.CALLABLE).build();
+        creator = new DefaultQueryLogEntryCreator() {
+            @Override
+            public String getParameterKeyToDisplay(ParameterSetOperation param) {
+                return "p" + super.getParameterKeyToDisplay(param);
+            }
+        };
+        entry = creator.getLogEntry(executionInfo, Lists.newArrayList(queryInfo), true, true);
+        assertThat(entry).contains("Params:[(p1=foo,p2=bar)]");
+
+        // not overridden
+        entry = new DefaultQueryLogEntryCreator().getLogEntry(executionInfo, Lists.newArrayList(queryInfo), true, true);
+        assertThat(entry).contains("Params:[(1=foo,2=bar)]");
+    }
+
 }
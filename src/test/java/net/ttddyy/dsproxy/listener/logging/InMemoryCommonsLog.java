@@ -110,10 +110,10 @@ public class InMemoryCommonsLog implements Log {
     }
 
     private void addMessage(CommonsLogLevel level, Object message) {
-        if (!(message instanceof String)) {
+        if (!(message instanceof CharSequence)) {
             throw new UnsupportedOperationException("Currently only support String message");
         }
-        this.messages.get(level).add((String) message);
+        this.messages.get(level).add(message.toString());
     }
 
     public List<String> getDebugMessages() {
@@ -1,6 +1,7 @@
 package net.ttddyy.dsproxy.listener.logging;
 
 import org.slf4j.helpers.MarkerIgnoringBase;
+import org.slf4j.helpers.MessageFormatter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -33,17 +34,17 @@ public class InMemorySLF4JLogger extends MarkerIgnoringBase {
 
     @Override
     public void trace(String format, Object arg) {
-        this.traceMessages.add(String.format(format, arg));
+        this.traceMessages.add(format(format, arg));
     }
 
     @Override
     public void trace(String format, Object arg1, Object arg2) {
-        this.traceMessages.add(String.format(format, arg1, arg2));
+        this.traceMessages.add(format(format, arg1, arg2));
     }
 
     @Override
     public void trace(String format, Object... arguments) {
-        this.traceMessages.add(String.format(format, arguments));
+        this.traceMessages.add(format(format, arguments));
     }
 
     @Override
@@ -63,22 +64,22 @@ public class InMemorySLF4JLogger extends MarkerIgnoringBase {
 
     @Override
     public void debug(String format, Object arg) {
-        this.debugMessages.add(String.format(format, arg));
+        this.debugMessages.add(format(format, arg));
     }
 
     @Override
     public void debug(String format, Object arg1, Object arg2) {
-        this.debugMessages.add(String.format(format, arg1, arg2));
+        this.debugMessages.add(format(format, arg1, arg2));
     }
 
     @Override
     public void debug(String format, Object... arguments) {
-        this.debugMessages.add(String.format(format, arguments));
+        this.debugMessages.add(format(format, arguments));
     }
 
     @Override
     public void debug(String msg, Throwable t) {
-        this.debugMessages.add(String.format(msg));
+        this.debugMessages.add(msg);
     }
 
     @Override
@@ -93,17 +94,17 @@ public class InMemorySLF4JLogger extends MarkerIgnoringBase {
 
     @Override
     public void info(String format, Object arg) {
-        this.infoMessages.add(String.format(format, arg));
+        this.infoMessages.add(format(format, arg));
     }
 
     @Override
     public void info(String format, Object arg1, Object arg2) {
-        this.infoMessages.add(String.format(format, arg1, arg2));
+        this.infoMessages.add(format(format, arg1, arg2));
     }
 
     @Override
     public void info(String format, Object... arguments) {
-        this.infoMessages.add(String.format(format, arguments));
+        this.infoMessages.add(format(format, arguments));
     }
 
     @Override
@@ -123,17 +124,17 @@ public class InMemorySLF4JLogger extends MarkerIgnoringBase {
 
     @Override
     public void warn(String format, Object arg) {
-        this.warnMessages.add(String.format(format, arg));
+        this.warnMessages.add(format(format, arg));
     }
 
     @Override
     public void warn(String format, Object... arguments) {
-        this.warnMessages.add(String.format(format, arguments));
+        this.warnMessages.add(format(format, arguments));
     }
 
     @Override
     public void warn(String format, Object arg1, Object arg2) {
-        this.warnMessages.add(String.format(format, arg1, arg2));
+        this.warnMessages.add(format(format, arg1, arg2));
     }
 
     @Override
@@ -153,18 +154,18 @@ public class InMemorySLF4JLogger extends MarkerIgnoringBase {
 
     @Override
     public void error(String format, Object arg) {
-        this.errorMessages.add(String.format(format, arg));
+        this.errorMessages.add(format(format, arg));
     }
 
     @Override
     public void error(String format, Object arg1, Object arg2) {
-        this.errorMessages.add(String.format(format, arg1, arg2));
+        this.errorMessages.add(format(format, arg1, arg2));
 
     }
 
     @Override
     public void error(String format, Object... arguments) {
-        this.errorMessages.add(String.format(format, arguments));
+        this.errorMessages.add(format(format, arguments));
     }
 
     @Override
@@ -224,5 +225,8 @@ public class InMemorySLF4JLogger extends MarkerIgnoringBase {
         this.errorMessages.clear();
     }
 
+    private static String format(String format, Object... arguments) {
+        return MessageFormatter.arrayFormat(format, arguments).getMessage();
+    }
 
 }
@@ -0,0 +1,40 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class JsonUtilsTest {
+
+    @Test
+    public void appendEscaped() {
+        assertThat(escape("select 1")).isEqualTo("select 1");
+        assertThat(escape("")).isEqualTo("");
+        assertThat(escape("\"a\\b/c\"")).isEqualTo("\\\"a\\\\b\\/c\\\"");
+        assertThat(escape("a\nb\rc\td\be\ff")).isEqualTo("a\\nb\\rc\\td\\be\\ff");
+        assertThat(escape("\u0000\u001f")).isEqualTo("\\u0000\\u001f");
+        assertThat(escape("あ\"")).as("non ascii is written as is").isEqualTo("あ\\\"");
+        assertThat(escape(null)).isEqualTo("null");
+    }
+
+    @Test
+    public void appendField() {
+        StringBuilder sb = new StringBuilder();
+        JsonUtils.appendField(sb, "name", "f\"oo");
+        sb.append(",");
+        JsonUtils.appendField(sb, "count", 10L);
+        sb.append(",");
+        JsonUtils.appendField(sb, "value", (String) null);
+        assertThat(sb.toString()).isEqualTo("\"name\":\"f\\\"oo\",\"count\":10,\"value\":null");
+    }
+
+    private String escape(String input) {
+        StringBuilder sb = new StringBuilder();
+        JsonUtils.appendEscaped(sb, input);
+        return sb.toString();
+    }
+
+}
@@ -8,6 +8,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
@@ -120,6 +122,61 @@ public class LoggingListenerTest {
         verifyMessage(CommonsLogLevel.DEBUG, this.inMemoryLog, "[(FOO,1),(BAR,2)]");
     }
 
+    @Test
+    public void testThreadLocalBuffer() throws Exception {
+        this.loggingListener.setUseThreadLocalBuffer(true);
+
+        Connection connection = this.proxyDataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement("select * from emp where id = ?");
+        statement.setInt(1, 1);
+        statement.executeQuery();
+        statement.setInt(1, 2);
+        statement.executeQuery();
+
+        verifyMessage(CommonsLogLevel.DEBUG, this.inMemoryLog, "Params:[(1)]", "Params:[(2)]");
+        assertThat(this.inMemoryLog.getDebugMessages().get(1)).startsWith("Name:");
+    }
+
+    @Test
+    public void testSampler() throws Exception {
+        this.loggingListener.setQueryLogSampler(new PercentageQueryLogSampler(0.5));
+
+        Connection connection = this.proxyDataSource.getConnection();
+        Statement statement = connection.createStatement();
+        statement.executeQuery("select * from emp where id = 1");
+        statement.executeQuery("select * from emp where id = 2");
+        statement.executeQuery("select * from emp where id = 3");
+        statement.executeQuery("select * from emp where id = 4");
+
+        verifyMessage(CommonsLogLevel.DEBUG, this.inMemoryLog, "select * from emp where id = 2", "select * from emp where id = 4");
+        assertThat(this.inMemoryLog.getDebugMessages().get(1)).contains("Suppressed:1");
+    }
+
+    @Test
+    public void testSystemOutWithThreadLocalBuffer() throws Exception {
+        SystemOutQueryLoggingListener listener = new SystemOutQueryLoggingListener();
+        listener.setUseThreadLocalBuffer(true);
+        ProxyConfig proxyConfig = ProxyConfig.Builder.create().queryListener(listener).build();
+        this.proxyDataSource.setProxyConfig(proxyConfig);
+
+        PrintStream original = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+        try {
+            Connection connection = this.proxyDataSource.getConnection();
+            Statement statement = connection.createStatement();
+            statement.executeQuery("select * from emp");
+            statement.executeQuery("select id from emp");
+        } finally {
+            System.setOut(original);
+        }
+
+        String[] lines = out.toString().split(System.getProperty("line.separator"));
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("Name:").contains("select * from emp");
+        assertThat(lines[1]).startsWith("Name:").contains("select id from emp");
+    }
+
     private void verifyMessage(CommonsLogLevel logLevel, InMemoryCommonsLog log, String... queries) {
         Map<CommonsLogLevel, List<String>> messages = new HashMap<CommonsLogLevel, List<String>>();
         messages.put(CommonsLogLevel.DEBUG, log.getDebugMessages());
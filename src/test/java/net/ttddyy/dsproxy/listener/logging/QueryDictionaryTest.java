@@ -0,0 +1,70 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class QueryDictionaryTest {
+
+    private static class TestQueryDictionary extends QueryDictionary {
+        private long now;
+
+        @Override
+        protected long currentTimeMillis() {
+            return this.now;
+        }
+    }
+
+    @Test
+    public void getId() {
+        QueryDictionary dictionary = new QueryDictionary();
+        String id = dictionary.getId("select 1");
+
+        assertThat(id).matches("[0-9a-z]{1,13}");
+        assertThat(new QueryDictionary().getId("select 1")).as("stable across instances").isEqualTo(id);
+        assertThat(dictionary.getId("select 2")).isNotEqualTo(id);
+
+        dictionary.register("select 1");
+        assertThat(dictionary.getId("select 1")).isEqualTo(id);
+    }
+
+    @Test
+    public void register() {
+        QueryDictionary dictionary = new QueryDictionary();
+        assertThat(dictionary.register("select 1")).isTrue();
+        assertThat(dictionary.register("select 1")).isFalse();
+        assertThat(dictionary.register("select 2")).isTrue();
+        assertThat(dictionary.size()).isEqualTo(2);
+
+        dictionary.clear();
+        assertThat(dictionary.register("select 1")).isTrue();
+    }
+
+    @Test
+    public void refreshInterval() {
+        TestQueryDictionary dictionary = new TestQueryDictionary();
+        dictionary.setRefreshIntervalMillis(1000);
+
+        assertThat(dictionary.register("select 1")).isTrue();
+        dictionary.now = 999;
+        assertThat(dictionary.register("select 1")).isFalse();
+        dictionary.now = 1000;
+        assertThat(dictionary.register("select 1")).isTrue();
+        assertThat(dictionary.register("select 1")).isFalse();
+    }
+
+    @Test
+    public void maxSize() {
+        QueryDictionary dictionary = new QueryDictionary();
+        dictionary.setMaxSize(1);
+
+        assertThat(dictionary.register("select 1")).isTrue();
+        assertThat(dictionary.register("select 2")).isTrue();
+        assertThat(dictionary.register("select 2")).as("not remembered").isTrue();
+        assertThat(dictionary.register("select 1")).isFalse();
+    }
+
+}
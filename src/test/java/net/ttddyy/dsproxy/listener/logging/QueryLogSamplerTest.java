@@ -0,0 +1,95 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.ExecutionInfoBuilder;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class QueryLogSamplerTest {
+
+    @Test
+    public void percentage() {
+        PercentageQueryLogSampler sampler = new PercentageQueryLogSampler(0.25);
+        ExecutionInfo executionInfo = ExecutionInfoBuilder.create().success(true).build();
+        List<QueryInfo> queries = queries("select 1");
+
+        int logged = 0;
+        for (int i = 0; i < 100; i++) {
+            long result = sampler.sample(executionInfo, queries);
+            if (result != QueryLogSampler.SUPPRESS) {
+                assertThat(result).isEqualTo(3);
+                logged++;
+            }
+        }
+        assertThat(logged).isEqualTo(25);
+
+        assertThat(new PercentageQueryLogSampler(0).sample(executionInfo, queries)).isEqualTo(QueryLogSampler.SUPPRESS);
+        assertThat(new PercentageQueryLogSampler(1).sample(executionInfo, queries)).isEqualTo(0);
+    }
+
+    @Test
+    public void alwaysLogFailureAndSlowQuery() {
+        PercentageQueryLogSampler sampler = new PercentageQueryLogSampler(0);
+        sampler.setAlwaysLogThreshold(100);
+        List<QueryInfo> queries = queries("select 1");
+
+        ExecutionInfo success = ExecutionInfoBuilder.create().success(true).elapsedTime(10).build();
+        ExecutionInfo failure = ExecutionInfoBuilder.create().success(false).elapsedTime(10).build();
+        ExecutionInfo slow = ExecutionInfoBuilder.create().success(true).elapsedTime(100).build();
+
+        assertThat(sampler.sample(success, queries)).isEqualTo(QueryLogSampler.SUPPRESS);
+        assertThat(sampler.sample(success, queries)).isEqualTo(QueryLogSampler.SUPPRESS);
+        assertThat(sampler.sample(failure, queries)).as("failure with suppressed count").isEqualTo(2);
+        assertThat(sampler.sample(slow, queries)).isEqualTo(0);
+
+        sampler.setAlwaysLogFailure(false);
+        assertThat(sampler.sample(failure, queries)).isEqualTo(QueryLogSampler.SUPPRESS);
+    }
+
+    @Test
+    public void rateLimitingPerFingerprint() {
+        RateLimitingQueryLogSampler sampler = new RateLimitingQueryLogSampler(2);
+        ExecutionInfo executionInfo = ExecutionInfoBuilder.create().success(true).build();
+
+        assertThat(sampler.sample(executionInfo, queries("select * from emp where id = 1"))).isEqualTo(0);
+        assertThat(sampler.sample(executionInfo, queries("select * from emp where id = 2"))).isEqualTo(0);
+        assertThat(sampler.sample(executionInfo, queries("select * from emp where id = 3"))).isEqualTo(QueryLogSampler.SUPPRESS);
+        assertThat(sampler.sample(executionInfo, queries("select * from emp where id = 4"))).isEqualTo(QueryLogSampler.SUPPRESS);
+
+        // different shape has its own bucket
+        assertThat(sampler.sample(executionInfo, queries("select * from dept"))).isEqualTo(0);
+
+        // failure is logged with suppressed count of its shape
+        ExecutionInfo failure = ExecutionInfoBuilder.create().success(false).build();
+        assertThat(sampler.sample(failure, queries("select * from emp where id = 5"))).isEqualTo(2);
+        assertThat(sampler.sample(failure, queries("select * from dept"))).isEqualTo(0);
+    }
+
+    @Test
+    public void adaptive() {
+        AdaptiveQueryLogSampler sampler = new AdaptiveQueryLogSampler(100);
+        assertThat(sampler.getRate()).isEqualTo(1.0);
+
+        sampler.adjustRate(50);
+        assertThat(sampler.getRate()).isEqualTo(1.0);
+
+        sampler.adjustRate(1000);
+        assertThat(sampler.getRate()).isEqualTo(0.1);
+
+        sampler.adjustRate(10000);
+        assertThat(sampler.getRate()).isEqualTo(0.01);
+    }
+
+    private List<QueryInfo> queries(String query) {
+        return Collections.singletonList(new QueryInfo(query));
+    }
+
+}
@@ -5,11 +5,17 @@ import net.ttddyy.dsproxy.ExecutionInfoBuilder;
 import net.ttddyy.dsproxy.QueryInfo;
 import net.ttddyy.dsproxy.QueryInfoBuilder;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * @author Tadaya Tsuyukubo
@@ -81,4 +87,37 @@ public class SLF4JQueryLoggingListenerTest {
         assertThat(logger.getErrorMessages()).isEmpty();
     }
 
+    @Test
+    public void threadLocalBuffer() {
+        SLF4JQueryLoggingListener listener = new SLF4JQueryLoggingListener();
+        listener.setUseThreadLocalBuffer(true);
+        InMemorySLF4JLogger logger = new InMemorySLF4JLogger();
+        listener.setLogger(logger);
+
+        ExecutionInfo execInfo = ExecutionInfoBuilder.create().build();
+        listener.afterQuery(execInfo, Collections.singletonList(QueryInfoBuilder.create().query("select 1").build()));
+        listener.afterQuery(execInfo, Collections.singletonList(QueryInfoBuilder.create().query("select 2").build()));
+
+        assertThat(logger.getDebugMessages()).hasSize(2);
+        assertThat(logger.getDebugMessages().get(0)).contains("Query:[\"select 1\"]");
+        assertThat(logger.getDebugMessages().get(1)).contains("Query:[\"select 2\"]");
+    }
+
+    @Test
+    public void threadLocalBufferIsNotPassedToBackend() {
+        SLF4JQueryLoggingListener listener = new SLF4JQueryLoggingListener();
+        listener.setUseThreadLocalBuffer(true);
+        Logger logger = mock(Logger.class);
+        when(logger.isDebugEnabled()).thenReturn(true);
+        listener.setLogger(logger);
+
+        ExecutionInfo execInfo = ExecutionInfoBuilder.create().build();
+        listener.afterQuery(execInfo, Collections.singletonList(QueryInfoBuilder.create().query("select 1").build()));
+
+        // backends may render the message after the buffer is reused
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(logger).debug(captor.capture());
+        assertThat(captor.getValue()).contains("Query:[\"select 1\"]");
+    }
+
 }
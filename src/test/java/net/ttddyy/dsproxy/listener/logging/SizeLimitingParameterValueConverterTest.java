@@ -0,0 +1,66 @@
+package net.ttddyy.dsproxy.listener.logging;
+
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class SizeLimitingParameterValueConverterTest {
+
+    private SizeLimitingParameterValueConverter converter = new SizeLimitingParameterValueConverter();
+
+    @Test
+    public void string() {
+        this.converter.setMaxStringLength(5);
+        assertThat(convert("abc")).isEqualTo("abc");
+        assertThat(convert("abcde")).isEqualTo("abcde");
+        assertThat(convert("abcdefg")).isEqualTo("abcde...(length=7)");
+        assertThat(convert(12345678)).as("toString is also capped").isEqualTo("12345...(length=8)");
+        assertThat(convert(null)).isNull();
+    }
+
+    @Test
+    public void bytes() {
+        this.converter.setMaxBytesPreview(2);
+        assertThat(convert(new byte[0])).isEqualTo("byte[0]");
+        assertThat(convert(new byte[]{0x0a, (byte) 0xff})).isEqualTo("byte[2]:0x0aff");
+        assertThat(convert(new byte[]{0x0a, (byte) 0xff, 0x01})).isEqualTo("byte[3]:0x0aff...");
+    }
+
+    @Test
+    public void streamAndLob() throws Exception {
+        assertThat(convert(new ByteArrayInputStream(new byte[10]))).isEqualTo("InputStream");
+        assertThat(this.converter.getValue(param(new ByteArrayInputStream(new byte[10]), 10))).isEqualTo("InputStream(length=10)");
+        assertThat(this.converter.getValue(param(new StringReader("abc"), 3L))).isEqualTo("Reader(length=3)");
+
+        Blob blob = mock(Blob.class);
+        when(blob.length()).thenReturn(100L);
+        assertThat(convert(blob)).isEqualTo("Blob(length=100)");
+
+        Blob failingBlob = mock(Blob.class);
+        when(failingBlob.length()).thenThrow(new SQLException());
+        assertThat(convert(failingBlob)).isEqualTo("Blob");
+    }
+
+    private String convert(Object value) {
+        return this.converter.getValue(param(value));
+    }
+
+    private ParameterSetOperation param(Object... valueAndArgs) {
+        Object[] args = new Object[valueAndArgs.length + 1];
+        args[0] = 1;
+        System.arraycopy(valueAndArgs, 0, args, 1, valueAndArgs.length);
+        return new ParameterSetOperation(null, args);
+    }
+
+}
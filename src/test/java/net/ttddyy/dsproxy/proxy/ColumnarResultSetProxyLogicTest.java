@@ -0,0 +1,197 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class ColumnarResultSetProxyLogicTest {
+
+    private static final String QUERY = "select * from columnar order by id";
+
+    private DataSource jdbcDataSource;
+    private DataSource proxyDataSource;
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+        Connection conn = this.jdbcDataSource.getConnection();
+        Statement statement = conn.createStatement();
+        statement.execute("create table columnar (id bigint primary key, num integer, small smallint, ratio double, " +
+                "flag boolean, name varchar(10), price decimal(10,2), created timestamp, data varbinary(10))");
+        statement.execute("insert into columnar values (1, 10, 1, 1.5, true, 'foo', 12.34, '2020-01-02 03:04:05.123456', X'0102')");
+        statement.execute("insert into columnar values (2, null, 2, null, false, 'bar', null, null, null)");
+        statement.execute("insert into columnar values (3, 30, null, 3.25, null, 'foo', 56.78, '2021-12-31 23:59:59', X'ff')");
+        conn.close();
+
+        this.proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource)
+                .proxyResultSet(new ColumnarResultSetProxyLogicFactory())
+                .build();
+        this.connection = this.proxyDataSource.getConnection();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.connection.close();
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    @Test
+    public void sameValuesAsOriginal() throws Exception {
+        Connection conn = this.jdbcDataSource.getConnection();
+        ResultSet original = conn.createStatement().executeQuery(QUERY);
+        ResultSet proxy = this.connection.createStatement().executeQuery(QUERY);
+
+        int columnCount = original.getMetaData().getColumnCount();
+        assertThat(proxy.getMetaData().getColumnCount()).isEqualTo(columnCount);
+        while (original.next()) {
+            assertThat(proxy.next()).isTrue();
+            for (int i = 1; i <= columnCount; i++) {
+                Object expected = original.getObject(i);
+                Object actual = proxy.getObject(i);
+                if (expected instanceof byte[]) {
+                    assertThat((byte[]) actual).isEqualTo((byte[]) expected);
+                } else {
+                    assertThat(actual).isEqualTo(expected);
+                }
+                assertThat(proxy.wasNull()).isEqualTo(original.wasNull());
+                if (expected instanceof String) {
+                    assertThat(proxy.getString(i)).isEqualTo(original.getString(i));
+                }
+            }
+        }
+        assertThat(proxy.next()).isFalse();
+        conn.close();
+    }
+
+    @Test
+    public void getters() throws Exception {
+        ResultSet rs = this.connection.createStatement().executeQuery(QUERY);
+
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getLong("ID")).isEqualTo(1L);
+        assertThat(rs.getInt("num")).isEqualTo(10);
+        assertThat(rs.getLong("Num")).isEqualTo(10L);
+        assertThat(rs.getShort("small")).isEqualTo((short) 1);
+        assertThat(rs.getDouble("ratio")).isEqualTo(1.5);
+        assertThat(rs.getInt("ratio")).isEqualTo(1);
+        assertThat(rs.getBoolean("flag")).isTrue();
+        assertThat(rs.getString("name")).isEqualTo("foo");
+        assertThat(rs.getBigDecimal("price")).isEqualTo(new BigDecimal("12.34"));
+        assertThat(rs.getDouble("price")).isEqualTo(12.34);
+        assertThat(rs.getTimestamp("created")).isEqualTo(Timestamp.valueOf("2020-01-02 03:04:05.123456"));
+        assertThat(rs.getBytes("data")).containsExactly(1, 2);
+        assertThat(rs.getObject("num", Long.class)).isEqualTo(10L);
+        assertThat(rs.findColumn("NAME")).isEqualTo(6);
+
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getInt("num")).isEqualTo(0);
+        assertThat(rs.wasNull()).isTrue();
+        assertThat(rs.getBoolean("flag")).isFalse();
+        assertThat(rs.wasNull()).isFalse();
+        assertThat(rs.getBigDecimal("price")).isNull();
+        assertThat(rs.wasNull()).isTrue();
+    }
+
+    @Test
+    public void scroll() throws Exception {
+        ResultSet rs = this.connection.createStatement().executeQuery(QUERY);
+        assertThat(rs.getType()).isEqualTo(ResultSet.TYPE_SCROLL_INSENSITIVE);
+        assertThat(rs.isBeforeFirst()).isTrue();
+
+        assertThat(rs.last()).isTrue();
+        assertThat(rs.getRow()).isEqualTo(3);
+        assertThat(rs.isLast()).isTrue();
+        assertThat(rs.previous()).isTrue();
+        assertThat(rs.getLong(1)).isEqualTo(2L);
+        assertThat(rs.absolute(-3)).isTrue();
+        assertThat(rs.isFirst()).isTrue();
+        assertThat(rs.relative(5)).isFalse();
+        assertThat(rs.isAfterLast()).isTrue();
+
+        // read again
+        rs.beforeFirst();
+        int count = 0;
+        while (rs.next()) {
+            count++;
+        }
+        assertThat(count).isEqualTo(3);
+    }
+
+    @Test
+    public void metadataAndClose() throws Exception {
+        final ResultSet rs = this.connection.createStatement().executeQuery(QUERY);
+        assertThat(rs.getMetaData().getColumnLabel(6)).isEqualTo("NAME");
+        assertThat(rs.getMetaData().getColumnType(1)).isEqualTo(Types.BIGINT);
+
+        rs.close();
+        assertThat(rs.isClosed()).isTrue();
+        assertThat(((ProxyJdbcObject) rs).getTarget()).isInstanceOf(ResultSet.class);
+        assertThat(((ResultSet) ((ProxyJdbcObject) rs).getTarget()).isClosed()).isTrue();
+        assertThatThrownBy(new ThrowableAssert.ThrowingCallable() {
+            @Override
+            public void call() throws Throwable {
+                rs.next();
+            }
+        }).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    public void unsupportedMethods() throws Exception {
+        final ResultSet rs = this.connection.createStatement().executeQuery(QUERY);
+        rs.next();
+        assertThatThrownBy(new ThrowableAssert.ThrowingCallable() {
+            @Override
+            public void call() throws Throwable {
+                rs.updateString(1, "foo");
+            }
+        }).isInstanceOf(SQLFeatureNotSupportedException.class);
+        assertThatThrownBy(new ThrowableAssert.ThrowingCallable() {
+            @Override
+            public void call() throws Throwable {
+                rs.getTimestamp(8, Calendar.getInstance());
+            }
+        }).isInstanceOf(SQLFeatureNotSupportedException.class);
+        assertThatThrownBy(new ThrowableAssert.ThrowingCallable() {
+            @Override
+            public void call() throws Throwable {
+                rs.getString("unknown");
+            }
+        }).isInstanceOf(SQLException.class).hasMessage("Unknown column name 'unknown'");
+    }
+
+    @Test
+    public void mixedTypesInColumn() {
+        ColumnarResultSetSnapshot.Column column = new ColumnarResultSetSnapshot.Column();
+        column.add(null);
+        column.add(1);
+        column.add("foo");
+        column.add(2L);
+        assertThat(column.getKind()).isEqualTo(ColumnarResultSetSnapshot.KIND_OBJECT);
+        assertThat(column.get(0)).isNull();
+        assertThat(column.get(1)).isEqualTo(1);
+        assertThat(column.get(2)).isEqualTo("foo");
+        assertThat(column.get(3)).isEqualTo(2L);
+    }
+
+}
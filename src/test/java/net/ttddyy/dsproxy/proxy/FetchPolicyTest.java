@@ -0,0 +1,128 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class FetchPolicyTest {
+
+    private DataSource jdbcDataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    @Test
+    public void rules() throws Exception {
+        final List<String> overrides = new ArrayList<String>();
+        FetchPolicy policy = new FetchPolicy() {
+            @Override
+            protected void onOverride(String fingerprint, String setting, int oldValue, int newValue) {
+                overrides.add(setting + ":" + oldValue + "->" + newValue);
+            }
+        };
+        policy.addQueryRule("select * from emp where id = 1", 5, null);
+        policy.addTableRule("emp", 50, 1);
+        policy.setDefaultRule(100, null);
+
+        DataSource ds = ProxyDataSourceBuilder.create(this.jdbcDataSource).fetchPolicy(policy).build();
+        Connection connection = ds.getConnection();
+        Statement statement = connection.createStatement();
+
+        // query rule. settings are restored after the execution
+        statement.executeQuery("select * from emp where id = 2");
+        assertThat(statement.getFetchSize()).isEqualTo(0);
+        assertThat(statement.getMaxRows()).isEqualTo(0);
+
+        // table rule, max rows is a cap
+        ResultSet rs = statement.executeQuery("SELECT e.name FROM emp e");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.next()).isFalse();
+        assertThat(statement.getFetchSize()).isEqualTo(0);
+        assertThat(statement.getMaxRows()).isEqualTo(0);
+
+        // default rule, max rows of the table rule does not remain
+        statement.executeUpdate("insert into emp_with_auto_id (name) values ('a')");
+        statement.executeUpdate("insert into emp_with_auto_id (name) values ('b')");
+        rs = statement.executeQuery("select * from emp_with_auto_id");
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.next()).isTrue();
+        assertThat(statement.getMaxRows()).isEqualTo(0);
+
+        // settings by the application are kept
+        statement.setFetchSize(7);
+        statement.setMaxRows(10);
+        statement.executeQuery("SELECT e.name FROM emp e");
+        assertThat(statement.getFetchSize()).isEqualTo(7);
+        assertThat(statement.getMaxRows()).isEqualTo(10);
+
+        // updates are not affected
+        statement.setFetchSize(0);
+        statement.executeUpdate("update emp set name = 'x' where id = 1");
+        assertThat(statement.getFetchSize()).isEqualTo(0);
+
+        connection.close();
+
+        assertThat(overrides).containsExactly("fetchSize:0->5", "fetchSize:0->50", "maxRows:0->1", "fetchSize:0->100",
+                "fetchSize:7->50", "maxRows:10->1");
+        assertThat(policy.getOverrideCounts())
+                .containsEntry(QueryUtils.getFingerprint("select e.name from emp e"), 4L)
+                .hasSize(3);
+    }
+
+    @Test
+    public void adaptive() throws Exception {
+        FetchPolicy policy = new FetchPolicy().setAdaptive(true).setMinSamples(2).setFetchSizeRange(1, 100);
+        DataSource ds = ProxyDataSourceBuilder.create(this.jdbcDataSource).fetchPolicy(policy).build();
+        String query = "select * from emp";
+
+        Connection connection = ds.getConnection();
+        for (int i = 0; i < 2; i++) {
+            PreparedStatement ps = connection.prepareStatement(query);
+            ResultSet rs = ps.executeQuery();
+            assertThat(ps.getFetchSize()).isEqualTo(0);
+            while (rs.next()) {
+            }
+            rs.close();
+            ps.close();
+        }
+
+        assertThat(policy.getLearnedFetchSize(QueryUtils.getFingerprint(query))).isEqualTo(3);
+
+        PreparedStatement ps = connection.prepareStatement(query);
+        ps.executeQuery();
+        assertThat(policy.getOverrideCounts()).containsEntry(QueryUtils.getFingerprint(query), 1L);
+        assertThat(ps.getFetchSize()).isEqualTo(0);  // restored
+
+        // explicitly set fetch size is kept
+        ps = connection.prepareStatement(query);
+        ps.setFetchSize(7);
+        ps.executeQuery();
+        assertThat(ps.getFetchSize()).isEqualTo(7);
+
+        connection.close();
+    }
+
+}
@@ -0,0 +1,131 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.listener.NoOpQueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class ProxyOverheadMetricsTest {
+
+    private DataSource jdbcDataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+    }
+
+    @After
+    public void teardown() throws Exception {
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    @Test
+    public void measure() throws Exception {
+        ProxyDataSource proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource)
+                .listener(new NoOpQueryExecutionListener() {
+                    @Override
+                    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                        try {
+                            TimeUnit.MILLISECONDS.sleep(20);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                })
+                .measureProxyOverhead()
+                .build();
+
+        ProxyOverheadMetrics metrics = proxyDataSource.getProxyConfig().getProxyOverheadMetrics();
+        assertThat(metrics).isNotNull();
+
+        Connection connection = proxyDataSource.getConnection();
+        Statement statement = connection.createStatement();
+        statement.executeQuery("select * from emp");
+        statement.close();
+        connection.close();
+
+        // getConnection, createStatement, executeQuery, close x2
+        assertThat(metrics.getDriverTime().getCount()).isEqualTo(5);
+        assertThat(metrics.getListenerTime().getCount()).isEqualTo(5);
+        assertThat(metrics.getProxyOverhead().getCount()).isEqualTo(5);
+        assertThat(metrics.getListenerTime().getMaxNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(metrics.getProxyOverhead().getMaxNanos()).isLessThan(TimeUnit.MILLISECONDS.toNanos(20));
+
+        metrics.reset();
+        assertThat(metrics.getDriverTime().getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void listenerFailure() throws Exception {
+        ProxyDataSource proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource)
+                .listener(new NoOpQueryExecutionListener() {
+                    @Override
+                    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                        try {
+                            TimeUnit.MILLISECONDS.sleep(20);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        throw new IllegalStateException("failure");
+                    }
+                })
+                .measureProxyOverhead()
+                .build();
+        ProxyOverheadMetrics metrics = proxyDataSource.getProxyConfig().getProxyOverheadMetrics();
+
+        Connection connection = proxyDataSource.getConnection();
+        Statement statement = connection.createStatement();
+        metrics.reset();
+        try {
+            statement.executeQuery("select * from emp");
+            fail("listener failure is propagated");
+        } catch (IllegalStateException e) {
+        }
+        connection.close();
+
+        // time spent in the failed listener is still recorded as listener time
+        assertThat(metrics.getListenerTime().getMaxNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(metrics.getProxyOverhead().getMaxNanos()).isLessThan(TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void sampleInterval() throws Exception {
+        ProxyOverheadMetrics metrics = new ProxyOverheadMetrics();
+        metrics.setSampleInterval(2);
+        ProxyDataSource proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource)
+                .measureProxyOverhead(metrics)
+                .build();
+
+        Connection connection = proxyDataSource.getConnection();
+        for (int i = 0; i < 9; i++) {
+            connection.getAutoCommit();
+        }
+        connection.close();
+
+        assertThat(metrics.getDriverTime().getCount()).isEqualTo(6);
+    }
+
+    @Test
+    public void notMeasuredByDefault() {
+        ProxyDataSource proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource).build();
+        assertThat(proxyDataSource.getProxyConfig().getProxyOverheadMetrics()).isNull();
+    }
+
+}
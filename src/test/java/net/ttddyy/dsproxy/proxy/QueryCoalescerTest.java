@@ -0,0 +1,172 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class QueryCoalescerTest {
+
+    private static final String QUERY = "select name from emp where id = 1";
+
+    private DataSource jdbcDataSource;
+    private Connection connection;
+    private Statement statement;
+    private QueryCoalescer coalescer;
+    private ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+        this.connection = this.jdbcDataSource.getConnection();
+        this.statement = this.connection.createStatement();
+        this.coalescer = new QueryCoalescer().coalesceQuery(QUERY);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.executor.shutdownNow();
+        this.connection.close();
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    private QueryCoalescer.Execution execution(final CountDownLatch proceed) {
+        return new QueryCoalescer.Execution() {
+            @Override
+            public ResultSet execute() throws Exception {
+                if (proceed != null) {
+                    proceed.await();
+                }
+                return connection.createStatement().executeQuery(QUERY);
+            }
+        };
+    }
+
+    private Future<ColumnarResultSetSnapshot> lead(final Object key, final CountDownLatch proceed) throws Exception {
+        Future<ColumnarResultSetSnapshot> leader = this.executor.submit(() -> snapshot(coalescer.execute(key, execution(proceed), statement)));
+        // wait for the leader to be in flight
+        while (this.coalescer.getExecutionCount() == 0) {
+            Thread.sleep(1);
+        }
+        return leader;
+    }
+
+    private ColumnarResultSetSnapshot snapshot(ResultSet resultSet) throws Exception {
+        return resultSet.unwrap(ColumnarResultSetSnapshot.class);
+    }
+
+    @Test
+    public void coalesce() throws Exception {
+        Object key = this.coalescer.getKey(QUERY, null, this.statement);
+        assertThat(key).isNotNull();
+
+        final CountDownLatch proceed = new CountDownLatch(1);
+        Future<ColumnarResultSetSnapshot> leader = lead(key, proceed);
+
+        final Thread current = Thread.currentThread();
+        new Thread(() -> {
+            while (current.getState() != Thread.State.TIMED_WAITING) {
+                Thread.yield();
+            }
+            proceed.countDown();
+        }).start();
+
+        ColumnarResultSetSnapshot snapshot = snapshot(this.coalescer.execute(key, execution(null), this.statement));
+
+        assertThat(snapshot).isSameAs(leader.get());
+        assertThat(snapshot.getRowCount()).isEqualTo(1);
+        assertThat(this.coalescer.getExecutionCount()).isEqualTo(1);
+        assertThat(this.coalescer.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void maxWait() throws Exception {
+        this.coalescer.setMaxWait(10, TimeUnit.MILLISECONDS);
+        Object key = this.coalescer.getKey(QUERY, null, this.statement);
+
+        CountDownLatch proceed = new CountDownLatch(1);
+        Future<ColumnarResultSetSnapshot> leader = lead(key, proceed);
+
+        ColumnarResultSetSnapshot snapshot = snapshot(this.coalescer.execute(key, execution(null), this.statement));
+        proceed.countDown();
+
+        assertThat(snapshot).isNotSameAs(leader.get());
+        assertThat(this.coalescer.getTimeoutCount()).isEqualTo(1);
+        assertThat(this.coalescer.getExecutionCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void notCoalesced() throws Exception {
+        assertThat(this.coalescer.getKey("select * from emp", null, this.statement)).isNull();
+
+        this.connection.setAutoCommit(false);
+        assertThat(this.coalescer.getKey(QUERY, null, this.statement)).isNull();
+        this.connection.setReadOnly(true);
+        assertThat(this.coalescer.getKey(QUERY, null, this.statement)).isNotNull();
+        this.connection.setReadOnly(false);
+        this.connection.setAutoCommit(true);
+    }
+
+    @Test
+    public void keyIncludesMaxRows() throws Exception {
+        Object key = this.coalescer.getKey(QUERY, null, this.statement);
+        this.statement.setMaxRows(1);
+        assertThat(this.coalescer.getKey(QUERY, null, this.statement)).isNotEqualTo(key);
+    }
+
+    @Test
+    public void maxRows() throws Exception {
+        this.coalescer.coalesceQuery("select id from emp order by id").setMaxRows(1);
+        Object key = this.coalescer.getKey("select id from emp order by id", null, this.statement);
+        ResultSet rs = this.coalescer.execute(key, new QueryCoalescer.Execution() {
+            @Override
+            public ResultSet execute() throws Exception {
+                return connection.createStatement().executeQuery("select id from emp order by id");
+            }
+        }, this.statement);
+
+        assertThat(rs.isWrapperFor(ColumnarResultSetSnapshot.class)).isFalse();
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getInt(1)).isEqualTo(1);
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getInt(1)).isEqualTo(2);
+        assertThat(rs.next()).isFalse();
+        rs.close();
+        assertThat(this.coalescer.getOversizeCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void proxy() throws Exception {
+        QueryCoalescer coalescer = new QueryCoalescer().coalesceQuery("select name from emp where id = ?");
+        DataSource ds = ProxyDataSourceBuilder.create(this.jdbcDataSource).coalesceQueries(coalescer).build();
+        Connection conn = ds.getConnection();
+        PreparedStatement ps = conn.prepareStatement("select name from emp where id = ?");
+        ps.setInt(1, 1);
+        ResultSet rs = ps.executeQuery();
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getString(1)).isNotNull();
+        assertThat(rs.next()).isFalse();
+        assertThat(rs.first()).isTrue();
+        conn.close();
+
+        assertThat(coalescer.getExecutionCount()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,247 @@
+package net.ttddyy.dsproxy.proxy;
+
+import net.ttddyy.dsproxy.TestUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Tadaya Tsuyukubo
+ */
+public class QueryResultCacheTest {
+
+    private DataSource jdbcDataSource;
+    private DataSource proxyDataSource;
+    private QueryResultCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        this.jdbcDataSource = TestUtils.getDataSourceWithData();
+        this.cache = new QueryResultCache().cacheQuery("select name from emp where id = ?");
+        this.proxyDataSource = ProxyDataSourceBuilder.create(this.jdbcDataSource)
+                .cacheQueryResults(this.cache)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestUtils.shutdown(this.jdbcDataSource);
+    }
+
+    private String selectName(Connection connection, int id) throws Exception {
+        PreparedStatement ps = connection.prepareStatement("select name from emp where id = ?");
+        ps.setInt(1, id);
+        ResultSet rs = ps.executeQuery();
+        String name = rs.next() ? rs.getString("name") : null;
+        rs.close();
+        ps.close();
+        return name;
+    }
+
+    @Test
+    public void hitAndMiss() throws Exception {
+        Connection connection = this.proxyDataSource.getConnection();
+        String name = selectName(connection, 1);
+        assertThat(selectName(connection, 1)).isEqualTo(name);
+        assertThat(selectName(connection, 2)).isNotEqualTo(name);
+
+        assertThat(this.cache.getMissCount()).isEqualTo(2);
+        assertThat(this.cache.getHitCount()).isEqualTo(1);
+        assertThat(this.cache.size()).isEqualTo(2);
+
+        // not registered
+        Statement statement = connection.createStatement();
+        statement.executeQuery("select * from emp").close();
+        assertThat(this.cache.getMissCount()).isEqualTo(2);
+
+        // cached result set is scrollable and read-only
+        PreparedStatement ps = connection.prepareStatement("select name from emp where id = ?");
+        ps.setInt(1, 1);
+        ResultSet rs = ps.executeQuery();
+        assertThat(rs.getType()).isEqualTo(ResultSet.TYPE_SCROLL_INSENSITIVE);
+        assertThat(rs.last()).isTrue();
+        assertThat(rs.getRow()).isEqualTo(1);
+        assertThat(rs.getStatement()).isSameAs(((ProxyJdbcObject) ps).getTarget());
+        connection.close();
+    }
+
+    @Test
+    public void invalidateByWrite() throws Exception {
+        Connection connection = this.proxyDataSource.getConnection();
+        selectName(connection, 1);
+        assertThat(this.cache.size()).isEqualTo(1);
+
+        // other table
+        connection.createStatement().executeUpdate("insert into emp_with_auto_id (name) values ('x')");
+        assertThat(this.cache.size()).isEqualTo(1);
+
+        connection.createStatement().executeUpdate("update emp set name = 'updated' where id = 1");
+        assertThat(this.cache.size()).isEqualTo(0);
+        assertThat(this.cache.getInvalidationCount()).isEqualTo(1);
+        assertThat(selectName(connection, 1)).isEqualTo("updated");
+        connection.close();
+    }
+
+    @Test
+    public void transaction() throws Exception {
+        Connection writer = this.proxyDataSource.getConnection();
+        Connection reader = this.proxyDataSource.getConnection();
+        String original = selectName(reader, 1);
+
+        writer.setAutoCommit(false);
+        writer.createStatement().executeUpdate("update emp set name = 'updated' where id = 1");
+
+        // writer reads its own write, bypassing the cache
+        assertThat(selectName(writer, 1)).isEqualTo("updated");
+        long missCount = this.cache.getMissCount();
+        assertThat(selectName(writer, 1)).isEqualTo("updated");
+        assertThat(this.cache.getMissCount()).isEqualTo(missCount);
+
+        writer.commit();
+        assertThat(this.cache.size()).isEqualTo(0);
+        assertThat(selectName(reader, 1)).isNotEqualTo(original).isEqualTo("updated");
+
+        writer.close();
+        reader.close();
+    }
+
+    @Test
+    public void statementSettings() throws Exception {
+        this.cache.cacheQuery("select id from emp order by id");
+        Connection connection = this.proxyDataSource.getConnection();
+        Statement statement = connection.createStatement();
+        assertThat(countRows(statement.executeQuery("select id from emp order by id"))).isEqualTo(2);
+
+        // max rows is part of the key
+        statement.setMaxRows(1);
+        assertThat(countRows(statement.executeQuery("select id from emp order by id"))).isEqualTo(1);
+        assertThat(countRows(statement.executeQuery("select id from emp order by id"))).isEqualTo(1);
+        assertThat(this.cache.getMissCount()).isEqualTo(2);
+        assertThat(this.cache.getHitCount()).isEqualTo(1);
+        assertThat(this.cache.size()).isEqualTo(2);
+
+        // updatable result sets are not cached
+        Statement updatable = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
+        assertThat(countRows(updatable.executeQuery("select id from emp order by id"))).isEqualTo(2);
+        assertThat(this.cache.getMissCount()).isEqualTo(2);
+        assertThat(this.cache.getHitCount()).isEqualTo(1);
+        connection.close();
+    }
+
+    @Test
+    public void maxRowsPerEntry() throws Exception {
+        this.cache.cacheQuery("select id from emp order by id").setMaxRowsPerEntry(1);
+        Connection connection = this.proxyDataSource.getConnection();
+        ResultSet rs = connection.createStatement().executeQuery("select id from emp order by id");
+        assertThat(rs.getType()).isEqualTo(ResultSet.TYPE_FORWARD_ONLY);
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getInt("id")).isEqualTo(1);
+        assertThat(rs.getRow()).isEqualTo(1);
+        assertThat(rs.isLast()).isFalse();
+        assertThat(rs.next()).isTrue();
+        assertThat(rs.getInt("id")).isEqualTo(2);
+        assertThat(rs.getRow()).isEqualTo(2);
+        assertThat(rs.next()).isFalse();
+        rs.close();
+        assertThat(rs.isClosed()).isTrue();
+        assertThat(this.cache.size()).isEqualTo(0);
+
+        // scrollable result set is returned rewound
+        Statement scrollable = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        assertThat(countRows(scrollable.executeQuery("select id from emp order by id"))).isEqualTo(2);
+        assertThat(this.cache.size()).isEqualTo(0);
+        connection.close();
+    }
+
+    @Test
+    public void concurrentReads() throws Exception {
+        final Connection connection = this.proxyDataSource.getConnection();
+        selectName(connection, 1);
+        final String name = selectName(connection, 1);
+        final int readsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Connection threadConnection = QueryResultCacheTest.this.proxyDataSource.getConnection();
+                    for (int j = 0; j < readsPerThread; j++) {
+                        assertThat(selectName(threadConnection, 1)).isEqualTo(name);
+                    }
+                    threadConnection.close();
+                    return null;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(this.cache.getHitCount()).isEqualTo(1 + 4 * readsPerThread);
+        assertThat(this.cache.size()).isEqualTo(1);
+        connection.close();
+    }
+
+    private int countRows(ResultSet rs) throws Exception {
+        int count = 0;
+        while (rs.next()) {
+            count++;
+        }
+        rs.close();
+        return count;
+    }
+
+    @Test
+    public void timeToLive() throws Exception {
+        this.cache.setTimeToLive(1, TimeUnit.MILLISECONDS);
+        Connection connection = this.proxyDataSource.getConnection();
+        selectName(connection, 1);
+        Thread.sleep(5);
+        selectName(connection, 1);
+        assertThat(this.cache.getHitCount()).isEqualTo(0);
+        assertThat(this.cache.getMissCount()).isEqualTo(2);
+        connection.close();
+    }
+
+    @Test
+    public void eviction() {
+        WTinyLfuMap<String, String> map = new WTinyLfuMap<String, String>(10);
+        // make "hot" popular
+        map.put("hot", "hot");
+        for (int i = 0; i < 5; i++) {
+            map.get("hot");
+        }
+        for (int i = 0; i < 100; i++) {
+            map.put("key" + i, "value");
+        }
+        assertThat(map.size()).isEqualTo(10);
+        assertThat(map.get("hot")).isEqualTo("hot");
+    }
+
+    @Test
+    public void writtenTable() {
+        assertThat(QueryResultCache.getWrittenTable("INSERT INTO app.EMP (id) VALUES (1)")).isEqualTo("emp");
+        assertThat(QueryResultCache.getWrittenTable("update \"Emp\" set name = 'a'")).isEqualTo("emp");
+        assertThat(QueryResultCache.getWrittenTable("delete from emp where id = 1")).isEqualTo("emp");
+        assertThat(QueryResultCache.getWrittenTable("merge into emp using ...")).isNull();
+    }
+
+}
@@ -4,8 +4,11 @@ import net.ttddyy.dsproxy.ConnectionInfo;
 import net.ttddyy.dsproxy.listener.CallCheckMethodExecutionListener;
 import net.ttddyy.dsproxy.listener.MethodExecutionContext;
 import org.assertj.core.api.ThrowableAssert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.lang.reflect.Method;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -30,6 +33,9 @@ public class RepeatableReadResultSetProxyLogicTest {
     private static final Integer COLUMN_2_VALUE = 999;
     private static final Timestamp COLUMN_3_VALUE = new Timestamp(2312413L);
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void unsupportedMethodsThrowUnsupportedOperationException() throws Throwable {
         ResultSet resultSet = exampleResultSet();
@@ -239,6 +245,75 @@ public class RepeatableReadResultSetProxyLogicTest {
         }).isInstanceOf(SQLException.class).hasMessage("Unknown column name 'bad'");
     }
 
+    @Test
+    public void spillRowsBeyondMemoryBudget() throws Throwable {
+        File spillDirectory = this.temporaryFolder.newFolder();
+        RepeatableReadResultSetProxyLogicFactory factory = new RepeatableReadResultSetProxyLogicFactory();
+        factory.setMaxBytesInMemory(200);  // only the first row fits
+        factory.setSpillDirectory(spillDirectory);
+
+        ResultSet resultSet = exampleResultSet();
+        RepeatableReadResultSetProxyLogic resultSetProxyLogic = (RepeatableReadResultSetProxyLogic) factory.create(resultSet, new ConnectionInfo(), ProxyConfig.Builder.create().build());
+
+        consumeResultSetAndCallBeforeFirst(resultSet, resultSetProxyLogic);
+        assertThat(spillDirectory.listFiles()).hasSize(1);
+
+        // replay twice
+        for (int i = 0; i < 2; i++) {
+            assertThat(invokeNext(resultSetProxyLogic)).isTrue();
+            assertThat(invokeGetString(resultSetProxyLogic, 1)).isEqualTo(COLUMN_1_VALUE);
+            assertThat(invokeNext(resultSetProxyLogic)).isTrue();
+            assertThat(invokeGetString(resultSetProxyLogic, COLUMN_1_LABEL)).isEqualTo(COLUMN_1_VALUE);
+            assertThat(invokeGetInt(resultSetProxyLogic, 2)).isEqualTo(COLUMN_2_VALUE);
+            assertThat(invokeGetTimestamp(resultSetProxyLogic, 3)).isEqualTo(COLUMN_3_VALUE);
+            assertThat(invokeNext(resultSetProxyLogic)).isFalse();
+            invokeBeforeFirst(resultSetProxyLogic);
+        }
+
+        invokeClose(resultSetProxyLogic);
+        assertThat(spillDirectory.listFiles()).isEmpty();
+    }
+
+    @Test
+    public void fallbackToForwardOnlyWhenExceedingMemoryBudget() throws Throwable {
+        RepeatableReadResultSetProxyLogicFactory factory = new RepeatableReadResultSetProxyLogicFactory();
+        factory.setMaxBytesInMemory(200);
+        factory.setSpillToDisk(false);
+
+        ResultSet resultSet = exampleResultSet();
+        final RepeatableReadResultSetProxyLogic resultSetProxyLogic = (RepeatableReadResultSetProxyLogic) factory.create(resultSet, new ConnectionInfo(), ProxyConfig.Builder.create().build());
+
+        // can still be consumed once
+        consumeResultSet(resultSet, resultSetProxyLogic);
+
+        assertThatThrownBy(new ThrowableAssert.ThrowingCallable() {
+            @Override
+            public void call() throws Throwable {
+                invokeBeforeFirst(resultSetProxyLogic);
+            }
+        }).isInstanceOf(SQLException.class).hasMessage("Result set is not repeatable: exceeded memory budget of 200 bytes at row 2");
+    }
+
+    @Test
+    public void fallbackToForwardOnlyWhenExceedingDiskBudget() throws Throwable {
+        RepeatableReadResultSetProxyLogicFactory factory = new RepeatableReadResultSetProxyLogicFactory();
+        factory.setMaxBytesInMemory(0);
+        factory.setSpillDirectory(this.temporaryFolder.newFolder());
+        factory.setMaxSpillBytes(40);
+
+        ResultSet resultSet = exampleResultSet();
+        final RepeatableReadResultSetProxyLogic resultSetProxyLogic = (RepeatableReadResultSetProxyLogic) factory.create(resultSet, new ConnectionInfo(), ProxyConfig.Builder.create().build());
+
+        consumeResultSet(resultSet, resultSetProxyLogic);
+
+        assertThatThrownBy(new ThrowableAssert.ThrowingCallable() {
+            @Override
+            public void call() throws Throwable {
+                invokeBeforeFirst(resultSetProxyLogic);
+            }
+        }).isInstanceOf(SQLException.class).hasMessage("Result set is not repeatable: exceeded disk budget of 40 bytes at row 2");
+    }
+
     private RepeatableReadResultSetProxyLogic createProxyLogic(ResultSet resultSet) {
         RepeatableReadResultSetProxyLogicFactory factory = new RepeatableReadResultSetProxyLogicFactory();
         return (RepeatableReadResultSetProxyLogic) factory.create(resultSet, new ConnectionInfo(), ProxyConfig.Builder.create().build());
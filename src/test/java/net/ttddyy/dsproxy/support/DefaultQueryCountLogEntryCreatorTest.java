@@ -44,4 +44,10 @@ public class DefaultQueryCountLogEntryCreatorTest {
         String jsonLog = new DefaultQueryCountLogEntryCreator().getLogMessageAsJson(null, queryCount);
         assertThat(jsonLog).isEqualTo("{\"name\":null, \"time\":0, \"total\":0, \"success\":0, \"failure\":0, \"select\":0, \"insert\":0, \"update\":0, \"delete\":0, \"other\":0, \"statement\":0, \"prepared\":0, \"callable\":0}");
     }
+
+    @Test
+    public void jsonNameIsEscaped() {
+        String jsonLog = new DefaultQueryCountLogEntryCreator().getLogMessageAsJson("my\"DS", new QueryCount());
+        assertThat(jsonLog).startsWith("{\"name\":\"my\\\"DS\", \"time\":0");
+    }
 }
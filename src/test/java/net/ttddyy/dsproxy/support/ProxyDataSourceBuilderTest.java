@@ -14,6 +14,7 @@ import net.ttddyy.dsproxy.listener.ThreadQueryCountHolder;
 import net.ttddyy.dsproxy.listener.TracingMethodListener;
 import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventExecutionListener;
 import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListener;
+import net.ttddyy.dsproxy.listener.logging.AbstractQueryLogEntryCreator;
 import net.ttddyy.dsproxy.listener.logging.AbstractQueryLoggingListener;
 import net.ttddyy.dsproxy.listener.logging.AbstractSlowQueryLoggingListener;
 import net.ttddyy.dsproxy.listener.logging.CommonsLogLevel;
@@ -26,6 +27,7 @@ import net.ttddyy.dsproxy.listener.logging.QueryLogEntryCreator;
 import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
 import net.ttddyy.dsproxy.listener.logging.SLF4JQueryLoggingListener;
 import net.ttddyy.dsproxy.listener.logging.SLF4JSlowQueryListener;
+import net.ttddyy.dsproxy.listener.logging.SizeLimitingParameterValueConverter;
 import net.ttddyy.dsproxy.listener.logging.SystemOutQueryLoggingListener;
 import net.ttddyy.dsproxy.listener.logging.SystemOutSlowQueryListener;
 import net.ttddyy.dsproxy.proxy.JdbcProxyFactory;
@@ -275,6 +277,20 @@ public class ProxyDataSourceBuilderTest {
         verifyMultiline(ds, SystemOutSlowQueryListener.class);
     }
 
+    @Test
+    public void limitParameterValueSize() {
+        ProxyDataSource ds = ProxyDataSourceBuilder.create().logQueryBySlf4j().build();
+        SLF4JQueryLoggingListener listener = getAndVerifyListener(ds, SLF4JQueryLoggingListener.class);
+        AbstractQueryLogEntryCreator entryCreator = (AbstractQueryLogEntryCreator) listener.getQueryLogEntryCreator();
+        assertThat(entryCreator.getParameterValueConverter()).as("not limited by default").isNull();
+
+        ds = ProxyDataSourceBuilder.create().limitParameterValueSize(100).multiline().logSlowQueryByJUL(10, TimeUnit.SECONDS).build();
+        JULSlowQueryListener slowQueryListener = getAndVerifyListener(ds, JULSlowQueryListener.class);
+        entryCreator = (AbstractQueryLogEntryCreator) slowQueryListener.getQueryLogEntryCreator();
+        assertThat(entryCreator.getParameterValueConverter()).isInstanceOf(SizeLimitingParameterValueConverter.class);
+        assertThat(((SizeLimitingParameterValueConverter) entryCreator.getParameterValueConverter()).getMaxStringLength()).isEqualTo(100);
+    }
+
     private void verifyMultiline(ProxyDataSource ds, Class<? extends QueryExecutionListener> listenerClass) {
         QueryExecutionListener listener = getAndVerifyListener(ds, listenerClass);
 